@@ -43,6 +43,7 @@ import org.sosy_lab.cpachecker.core.algorithm.RestartWithConditionsAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.RestrictedProgramDomainAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.SelectionAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.TestCaseGeneratorAlgorithm;
+import org.sosy_lab.cpachecker.core.algorithm.ThreadModularAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.UndefinedFunctionCollectorAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.WitnessToInvariantWitnessAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.WitnessToACSLAlgorithm;
@@ -315,6 +316,15 @@ public class CoreComponentsFactory {
       description = "run the parallel BAM algortihm.")
   private boolean useParallelBAM = false;
 
+  @Option(
+      secure = true,
+      name = "algorithm.threadModular",
+      description =
+          "analyze the threads of a concurrent program separately and combine them with"
+              + " interference summaries of their global variables (only the value analysis is"
+              + " supported, property violations are reported as unknown).")
+  private boolean useThreadModularAnalysis = false;
+
   @Option(
       secure = true,
       name = "unknownIfUnrestrictedProgram",
@@ -530,6 +540,11 @@ public class CoreComponentsFactory {
         algorithm = new ParallelBAMAlgorithm(cpa, config, logger, shutdownNotifier);
       }
 
+      if (useThreadModularAnalysis) {
+        algorithm =
+            new ThreadModularAlgorithm(algorithm, cpa, cfa, config, logger, shutdownNotifier);
+      }
+
       if (useAnalysisWithEnablerCPAAlgorithm) {
         algorithm = new AnalysisWithRefinableEnablerCPAAlgorithm(algorithm, cpa, cfa, logger, config, shutdownNotifier);
       }
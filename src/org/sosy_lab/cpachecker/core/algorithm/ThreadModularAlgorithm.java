@@ -0,0 +1,518 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.SetMultimap;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGCPA;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.callstack.CallstackState;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeCPA;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeState;
+import org.sosy_lab.cpachecker.cpa.lock.AbstractLockState;
+import org.sosy_lab.cpachecker.cpa.threading.EdgeAccesses;
+import org.sosy_lab.cpachecker.cpa.threading.ThreadingCPA;
+import org.sosy_lab.cpachecker.cpa.threading.ThreadingTransferRelation;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisCPA;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState.ValueAndType;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.CPAs;
+import org.sosy_lab.cpachecker.util.LoopStructure;
+import org.sosy_lab.cpachecker.util.LoopStructure.Loop;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+
+/**
+ * Thread-modular analysis of concurrent programs. Instead of exploring the interleavings of all
+ * threads, every thread is analyzed on its own, starting at the states where it is created. The
+ * influence of the other threads is over-approximated by interference summaries: the values that
+ * the other threads may store in the global variables they write. Whenever a thread reads a global
+ * variable, it may also observe one of these values. The thread-local analyses and the summaries
+ * are iterated until a fixpoint is reached, so the cost grows with the number of threads instead of
+ * the number of their interleavings.
+ *
+ * <p>The states of all threads are kept in the same reached set, a state belongs to the thread
+ * that is the bottom of its callstack. The summaries are computed from the states of the value
+ * analysis. If the lock analysis is part of the configuration, a value stored while a lock is held
+ * is not visible to other threads holding the same lock.
+ *
+ * <p>As the summaries are flow-insensitive, a found property violation may be spurious. Thus the
+ * analysis can only prove programs correct, otherwise its result is unknown.
+ */
+@Options(prefix = "analysis.threadModular")
+public class ThreadModularAlgorithm implements Algorithm, StatisticsProvider, Statistics {
+
+  @Option(
+      secure = true,
+      description =
+          "the maximal number of values of a global variable from other threads that are"
+              + " explored when a thread reads the variable. If there are more values, the"
+              + " variable is considered unknown.")
+  private int maxInterferenceValues = 5;
+
+  /** A value of a global variable in some state of a thread, and the locks held there. */
+  private static final class Interference {
+
+    /** The written memory location or null for all global variables. */
+    private final @Nullable MemoryLocation location;
+
+    /** The stored value or null if the value is unknown. */
+    private final @Nullable ValueAndType value;
+
+    private final @Nullable AbstractLockState locks;
+
+    private Interference(
+        @Nullable MemoryLocation pLocation,
+        @Nullable ValueAndType pValue,
+        @Nullable AbstractLockState pLocks) {
+      location = pLocation;
+      value = pValue;
+      locks = pLocks;
+    }
+
+    private boolean isVisibleFor(@Nullable AbstractLockState pReaderLocks) {
+      return locks == null || pReaderLocks == null || locks.isCompatibleWith(pReaderLocks);
+    }
+
+    @Override
+    public boolean equals(Object pOther) {
+      if (this == pOther) {
+        return true;
+      }
+      if (!(pOther instanceof Interference)) {
+        return false;
+      }
+      Interference other = (Interference) pOther;
+      return Objects.equals(location, other.location)
+          && Objects.equals(value, other.value)
+          && Objects.equals(locks, other.locks);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(location, value, locks);
+    }
+  }
+
+  /** Identifier for all global variables in the summaries. */
+  private static final String ANY_GLOBAL = "";
+
+  private final Algorithm algorithm;
+  private final ConfigurableProgramAnalysis cpa;
+  private final CFA cfa;
+  private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
+
+  private final Map<CFAEdge, EdgeAccesses> edgeAccesses = new IdentityHashMap<>();
+  private final Set<String> selfInterferingThreads;
+
+  private final StatTimer interferenceTime = new StatTimer("Time for interference computation");
+  private final StatCounter iterations = new StatCounter("Number of thread-modular iterations");
+  private final StatCounter threadStartStates = new StatCounter("Number of thread start states");
+  private final StatCounter interferenceStates = new StatCounter("Number of interference states");
+
+  public ThreadModularAlgorithm(
+      Algorithm pAlgorithm,
+      ConfigurableProgramAnalysis pCpa,
+      CFA pCfa,
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    algorithm = pAlgorithm;
+    cpa = pCpa;
+    cfa = pCfa;
+    logger = pLogger;
+    shutdownNotifier = pShutdownNotifier;
+
+    CPAs.retrieveCPAOrFail(pCpa, ValueAnalysisCPA.class, ThreadModularAlgorithm.class);
+    if (CPAs.retrieveCPA(pCpa, ThreadingCPA.class) != null) {
+      throw new InvalidConfigurationException(
+          "Thread-modular analysis analyzes threads separately and cannot be combined with "
+              + ThreadingCPA.class.getSimpleName());
+    }
+    ConfigurableProgramAnalysis composite =
+        pCpa instanceof ARGCPA ? Iterables.getOnlyElement(((ARGCPA) pCpa).getWrappedCPAs()) : pCpa;
+    if (!(composite instanceof CompositeCPA)
+        || !((CompositeCPA) composite).getWrappedCPAs().stream()
+            .anyMatch(ValueAnalysisCPA.class::isInstance)) {
+      throw new InvalidConfigurationException(
+          "Thread-modular analysis needs the ValueAnalysisCPA as direct component of the"
+              + " CompositeCPA");
+    }
+    selfInterferingThreads = getSelfInterferingThreads();
+  }
+
+  /**
+   * Threads that are created several times or in a loop may interfere with themselves. Thread
+   * functions are identified by name, so this is a syntactic over-approximation.
+   */
+  private Set<String> getSelfInterferingThreads() throws InvalidConfigurationException {
+    Set<CFANode> loopNodes = new HashSet<>();
+    boolean hasLoopStructure = cfa.getLoopStructure().isPresent();
+    if (hasLoopStructure) {
+      LoopStructure loopStructure = cfa.getLoopStructure().orElseThrow();
+      for (Loop loop : loopStructure.getAllLoops()) {
+        loopNodes.addAll(loop.getLoopNodes());
+      }
+    }
+    Set<String> created = new HashSet<>();
+    Set<String> result = new HashSet<>();
+    for (CFANode node : cfa.getAllNodes()) {
+      for (CFAEdge edge : CFAUtils.leavingEdges(node)) {
+        Optional<String> function = getCreatedThreadFunction(edge);
+        if (function.isPresent()
+            && (!created.add(function.orElseThrow())
+                || !hasLoopStructure
+                || loopNodes.contains(node))) {
+          result.add(function.orElseThrow());
+        }
+      }
+    }
+    return result;
+  }
+
+  private static Optional<String> getCreatedThreadFunction(CFAEdge pEdge)
+      throws InvalidConfigurationException {
+    try {
+      return ThreadingTransferRelation.getCreatedThreadFunction(pEdge);
+    } catch (CPAException e) {
+      throw new InvalidConfigurationException(
+          "Unsupported thread creation for thread-modular analysis: " + e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public AlgorithmStatus run(ReachedSet pReached) throws CPAException, InterruptedException {
+    AlgorithmStatus status = AlgorithmStatus.SOUND_AND_PRECISE;
+    boolean changed = true;
+    while (changed) {
+      iterations.inc();
+      status = status.update(algorithm.run(pReached));
+      if (pReached.hasWaitingState()) {
+        // the analysis stopped early, e.g., because a target state was found
+        break;
+      }
+      shutdownNotifier.shutdownIfNecessary();
+
+      interferenceTime.start();
+      try {
+        changed = addThreadStartStates(pReached);
+        changed |= addInterferenceStates(pReached);
+      } finally {
+        interferenceTime.stop();
+      }
+    }
+    logger.log(Level.FINE, "Thread-modular analysis finished after", iterations, "iterations");
+    // interference summaries over-approximate, a found violation may be spurious
+    return status.withPrecise(false);
+  }
+
+  /** Add the initial states of all threads that are created in one of the reached states. */
+  private boolean addThreadStartStates(ReachedSet pReached)
+      throws CPAException, InterruptedException {
+    StateSpacePartition partition = StateSpacePartition.getDefaultPartition();
+    List<AbstractState> newStates = new ArrayList<>();
+    List<Precision> newPrecisions = new ArrayList<>();
+    for (AbstractState state : pReached) {
+      for (CFAEdge edge : AbstractStates.getOutgoingEdges(state)) {
+        Optional<String> function = ThreadingTransferRelation.getCreatedThreadFunction(edge);
+        if (!function.isPresent()) {
+          continue;
+        }
+        FunctionEntryNode entry = cfa.getFunctionHead(function.orElseThrow());
+        if (entry == null) {
+          throw new CPAException("Missing definition of thread function " + function.orElseThrow());
+        }
+
+        // the new thread starts with the global variables of its creator
+        ValueAnalysisState values =
+            ValueAnalysisState.copyOf(
+                AbstractStates.extractStateByType(state, ValueAnalysisState.class));
+        for (MemoryLocation location :
+            ImmutableList.copyOf(values.getTrackedMemoryLocations())) {
+          if (location.isOnFunctionStack()) {
+            values.forget(location);
+          }
+        }
+        newStates.add(withValues(cpa.getInitialState(entry, partition), values));
+        newPrecisions.add(cpa.getInitialPrecision(entry, partition));
+      }
+    }
+    return addAll(pReached, newStates, newPrecisions, threadStartStates);
+  }
+
+  /**
+   * Add states that observe values of other threads in the global variables that are read by the
+   * next edge.
+   */
+  private boolean addInterferenceStates(ReachedSet pReached)
+      throws CPAException, InterruptedException {
+    Map<String, SetMultimap<String, Interference>> summaries = computeSummaries(pReached);
+
+    List<AbstractState> newStates = new ArrayList<>();
+    List<Precision> newPrecisions = new ArrayList<>();
+    for (AbstractState state : pReached) {
+      String thread = getThread(state);
+      Set<String> readGlobals = new LinkedHashSet<>();
+      boolean readsAnyGlobal = false;
+      for (CFAEdge edge : AbstractStates.getOutgoingEdges(state)) {
+        EdgeAccesses accesses = getAccesses(edge);
+        readsAnyGlobal |= accesses.mayAccessAnyMemory();
+        for (String variable : accesses.getReads()) {
+          if (isGlobal(variable)) {
+            readGlobals.add(variable);
+          }
+        }
+      }
+
+      // collect the values that the other threads may have stored in the read variables
+      AbstractLockState locks = AbstractStates.extractStateByType(state, AbstractLockState.class);
+      Multimap<String, Interference> visible = LinkedHashMultimap.create();
+      for (Entry<String, SetMultimap<String, Interference>> summary : summaries.entrySet()) {
+        if (summary.getKey().equals(thread) && !selfInterferingThreads.contains(thread)) {
+          continue;
+        }
+        for (Entry<String, Interference> entry : summary.getValue().entries()) {
+          if ((readsAnyGlobal || readGlobals.contains(entry.getKey()))
+              && entry.getValue().isVisibleFor(locks)) {
+            visible.put(entry.getKey(), entry.getValue());
+          }
+        }
+      }
+      if (visible.isEmpty()) {
+        continue;
+      }
+
+      ValueAnalysisState values = AbstractStates.extractStateByType(state, ValueAnalysisState.class);
+      Precision precision = pReached.getPrecision(state);
+      boolean anyUnknown =
+          visible.get(ANY_GLOBAL).stream().anyMatch(interference -> interference.value == null);
+      Set<String> variables = readsAnyGlobal ? visible.keySet() : readGlobals;
+      for (String variable : variables) {
+        if (variable.equals(ANY_GLOBAL)) {
+          continue;
+        }
+        Collection<Interference> interferences = visible.get(variable);
+        Set<Interference> newValues = new LinkedHashSet<>();
+        boolean unknown = anyUnknown;
+        for (Interference interference : interferences) {
+          if (interference.value == null) {
+            unknown = true;
+          } else if (!interference.value.equals(
+              getValueAndType(values, interference.location))) {
+            newValues.add(new Interference(interference.location, interference.value, null));
+          }
+        }
+        if (unknown || newValues.size() > maxInterferenceValues) {
+          ValueAnalysisState newValue = ValueAnalysisState.copyOf(values);
+          boolean forgotten = false;
+          for (MemoryLocation location : ImmutableList.copyOf(values.getTrackedMemoryLocations())) {
+            if (!location.isOnFunctionStack() && location.getIdentifier().equals(variable)) {
+              newValue.forget(location);
+              forgotten = true;
+            }
+          }
+          if (forgotten) {
+            newStates.add(withValues(state, newValue));
+            newPrecisions.add(precision);
+          }
+        } else {
+          for (Interference interference : newValues) {
+            ValueAnalysisState newValue = ValueAnalysisState.copyOf(values);
+            newValue.assignConstant(
+                interference.location,
+                interference.value.getValue(),
+                interference.value.getType());
+            newStates.add(withValues(state, newValue));
+            newPrecisions.add(precision);
+          }
+        }
+      }
+    }
+    return addAll(pReached, newStates, newPrecisions, interferenceStates);
+  }
+
+  /**
+   * Compute for every thread the values of the global variables it writes, in all of its states.
+   * Taking all states and not only the ones directly after a write also covers the values that are
+   * made visible when a lock is released.
+   */
+  private Map<String, SetMultimap<String, Interference>> computeSummaries(ReachedSet pReached) {
+    Map<String, Set<String>> writtenGlobals = new HashMap<>();
+    for (AbstractState state : pReached) {
+      Set<String> written = writtenGlobals.computeIfAbsent(getThread(state), k -> new HashSet<>());
+      for (CFAEdge edge : CFAUtils.enteringEdges(AbstractStates.extractLocation(state))) {
+        EdgeAccesses accesses = getAccesses(edge);
+        if (accesses.mayAccessAnyMemory()) {
+          written.add(ANY_GLOBAL);
+        }
+        for (String variable : accesses.getWrites()) {
+          if (isGlobal(variable)) {
+            written.add(variable);
+          }
+        }
+      }
+    }
+
+    Map<String, SetMultimap<String, Interference>> summaries = new HashMap<>();
+    for (AbstractState state : pReached) {
+      String thread = getThread(state);
+      Set<String> written = writtenGlobals.get(thread);
+      if (written.isEmpty()) {
+        continue;
+      }
+      SetMultimap<String, Interference> summary =
+          summaries.computeIfAbsent(thread, k -> LinkedHashMultimap.create());
+      AbstractLockState locks = AbstractStates.extractStateByType(state, AbstractLockState.class);
+      ValueAnalysisState values = AbstractStates.extractStateByType(state, ValueAnalysisState.class);
+      boolean writesAnyGlobal = written.contains(ANY_GLOBAL);
+
+      Set<String> tracked = new HashSet<>();
+      for (Entry<MemoryLocation, ValueAndType> entry : values.getConstants()) {
+        MemoryLocation location = entry.getKey();
+        if (!location.isOnFunctionStack()
+            && (writesAnyGlobal || written.contains(location.getIdentifier()))) {
+          summary.put(
+              location.getIdentifier(), new Interference(location, entry.getValue(), locks));
+          tracked.add(location.getIdentifier());
+        }
+      }
+      for (String variable : written) {
+        if (!tracked.contains(variable)) {
+          summary.put(variable, new Interference(null, null, locks));
+        }
+      }
+    }
+    return summaries;
+  }
+
+  /** Add the states that are not covered by the reached set, returns whether any was added. */
+  private boolean addAll(
+      ReachedSet pReached,
+      List<AbstractState> pStates,
+      List<Precision> pPrecisions,
+      StatCounter pCounter)
+      throws CPAException, InterruptedException {
+    boolean added = false;
+    for (int i = 0; i < pStates.size(); i++) {
+      AbstractState state = pStates.get(i);
+      Precision precision = pPrecisions.get(i);
+      if (!cpa.getStopOperator().stop(state, pReached.getReached(state), precision)) {
+        pReached.add(state, precision);
+        pCounter.inc();
+        added = true;
+      }
+    }
+    return added;
+  }
+
+  private EdgeAccesses getAccesses(CFAEdge pEdge) {
+    return edgeAccesses.computeIfAbsent(pEdge, EdgeAccesses::of);
+  }
+
+  private static boolean isGlobal(String pQualifiedName) {
+    return !pQualifiedName.contains("::");
+  }
+
+  private static @Nullable ValueAndType getValueAndType(
+      ValueAnalysisState pValues, MemoryLocation pLocation) {
+    return pValues.contains(pLocation) ? pValues.getValueAndTypeFor(pLocation) : null;
+  }
+
+  /** The thread of a state is the function at the bottom of its callstack. */
+  private static String getThread(AbstractState pState) {
+    CallstackState callstack = AbstractStates.extractStateByType(pState, CallstackState.class);
+    while (callstack.getPreviousState() != null) {
+      callstack = callstack.getPreviousState();
+    }
+    return callstack.getCurrentFunction();
+  }
+
+  /** Replace the values in the given state, the result is a new root of the ARG. */
+  private static AbstractState withValues(AbstractState pState, ValueAnalysisState pValues) {
+    if (pState instanceof ARGState) {
+      return new ARGState(withValues(((ARGState) pState).getWrappedState(), pValues), null);
+    } else if (pState instanceof CompositeState) {
+      ImmutableList.Builder<AbstractState> wrappedStates = ImmutableList.builder();
+      for (AbstractState wrapped : ((CompositeState) pState).getWrappedStates()) {
+        wrappedStates.add(wrapped instanceof ValueAnalysisState ? pValues : wrapped);
+      }
+      return new CompositeState(wrappedStates.build());
+    } else {
+      throw new AssertionError("unexpected state " + pState);
+    }
+  }
+
+  @Override
+  public void collectStatistics(Collection<Statistics> pStatsCollection) {
+    pStatsCollection.add(this);
+    if (algorithm instanceof StatisticsProvider) {
+      ((StatisticsProvider) algorithm).collectStatistics(pStatsCollection);
+    }
+  }
+
+  @Override
+  public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+    StatisticsWriter.writingStatisticsTo(pOut)
+        .put(iterations)
+        .put(threadStartStates)
+        .put(interferenceStates)
+        .put(interferenceTime)
+        .put("Number of self-interfering threads", selfInterferingThreads.size());
+  }
+
+  @Override
+  public @Nullable String getName() {
+    return "Thread-Modular Analysis";
+  }
+}
@@ -0,0 +1,131 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.io.TempFile;
+import org.sosy_lab.common.io.TempFile.DeleteOnCloseFile;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.util.test.CPATestRunner;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+import org.sosy_lab.cpachecker.util.test.TestResults;
+
+public class ThreadModularAlgorithmTest {
+
+  private static final String CONFIG_FILE =
+      "config/valueAnalysis-concurrency-threadModular.properties";
+
+  private static final ImmutableList<String> DECLARATIONS =
+      ImmutableList.of(
+          "typedef unsigned long int pthread_t;",
+          "typedef int pthread_mutex_t;",
+          "extern int pthread_create(pthread_t *t, void *attr, void *(*f)(void *), void *arg);",
+          "extern int pthread_mutex_lock(pthread_mutex_t *m);",
+          "extern int pthread_mutex_unlock(pthread_mutex_t *m);",
+          "",
+          "pthread_mutex_t m;",
+          "int g = 0;",
+          "");
+
+  /** The lock analysis with pthread_mutex_lock and pthread_mutex_unlock as lock functions. */
+  private static final ImmutableMap<String, String> LOCK_OPTIONS =
+      ImmutableMap.of(
+          "CompositeCPA.cpas",
+          "cpa.location.LocationCPA, cpa.callstack.CallstackCPA, cpa.value.ValueAnalysisCPA,"
+              + " cpa.lock.LockCPA",
+          "cpa.lock.lockinfo",
+          "mutex",
+          "mutex.lock",
+          "pthread_mutex_lock",
+          "mutex.unlock",
+          "pthread_mutex_unlock");
+
+  private static TestResults run(List<String> pProgram, Map<String, String> pOptions)
+      throws Exception {
+    try (DeleteOnCloseFile programFile =
+        TempFile.builder().prefix("test").suffix(".c").createDeleteOnClose()) {
+      Files.write(
+          programFile.toPath(),
+          ImmutableList.<String>builder().addAll(DECLARATIONS).addAll(pProgram).build());
+
+      Configuration config =
+          TestDataTools.configurationForTest()
+              .loadFromFile(CONFIG_FILE)
+              .setOptions(pOptions)
+              .build();
+      return CPATestRunner.run(config, programFile.toPath().toString());
+    }
+  }
+
+  /**
+   * The main thread alone never reaches the error label, it is only reachable with the value that
+   * the other thread writes.
+   */
+  @Test
+  public void testViolationThroughInterference() throws Exception {
+    List<String> program =
+        ImmutableList.of(
+            "void *thread(void *arg) {",
+            "  g = 1;",
+            "  return 0;",
+            "}",
+            "",
+            "int main() {",
+            "  pthread_t t;",
+            "  pthread_create(&t, 0, thread, 0);",
+            "  if (g == 1) {",
+            "    ERROR: return 1;",
+            "  }",
+            "  return 0;",
+            "}");
+
+    TestResults result = run(program, ImmutableMap.of());
+    // the interference summaries over-approximate, so a violation is not reported as such
+    result.assertIs(Result.UNKNOWN);
+    assertThat(result.getCheckerResult().getReached().wasTargetReached()).isTrue();
+  }
+
+  /**
+   * The other thread writes 1 only while it holds the lock, so the main thread cannot read it
+   * while holding the same lock.
+   */
+  @Test
+  public void testLockProtectedWrites() throws Exception {
+    List<String> program =
+        ImmutableList.of(
+            "void *thread(void *arg) {",
+            "  pthread_mutex_lock(&m);",
+            "  g = 1;",
+            "  g = 0;",
+            "  pthread_mutex_unlock(&m);",
+            "  return 0;",
+            "}",
+            "",
+            "int main() {",
+            "  pthread_t t;",
+            "  pthread_create(&t, 0, thread, 0);",
+            "  pthread_mutex_lock(&m);",
+            "  if (g == 1) {",
+            "    ERROR: return 1;",
+            "  }",
+            "  pthread_mutex_unlock(&m);",
+            "  return 0;",
+            "}");
+
+    run(program, LOCK_OPTIONS).assertIsSafe();
+  }
+}
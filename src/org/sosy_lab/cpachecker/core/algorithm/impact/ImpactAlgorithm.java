@@ -130,7 +130,11 @@ public class ImpactAlgorithm implements Algorithm, StatisticsProvider {
     solver = Solver.create(config, pLogger, pShutdownNotifier);
     fmgr = solver.getFormulaManager();
     bfmgr = fmgr.getBooleanFormulaManager();
-    pfmgr = new CachingPathFormulaManager(new PathFormulaManagerImpl(fmgr, config, logger, pShutdownNotifier, cfa, AnalysisDirection.FORWARD));
+    pfmgr =
+        new CachingPathFormulaManager(
+            new PathFormulaManagerImpl(
+                fmgr, config, logger, pShutdownNotifier, cfa, AnalysisDirection.FORWARD),
+            config);
     imgr = new InterpolationManager(pfmgr, solver, cfa.getLoopStructure(), cfa.getVarClassification(), config, pShutdownNotifier, logger);
   }
 
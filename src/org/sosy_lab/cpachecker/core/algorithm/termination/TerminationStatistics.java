@@ -325,6 +325,12 @@ public class TerminationStatistics extends LassoAnalysisStatistics {
     pOut.println(
         "  Max number of lassos per iteration:               "
             + format(maxLassosPerIteration.get()));
+    pOut.println(
+        "  Number of reused lasso analysis results:          "
+            + format(reusedLassoAnalysisResults.get()));
+    pOut.println(
+        "  Number of lassos known to terminate:              "
+            + format(reusedKnownTerminations.get()));
     pOut.println();
 
     pOut.println("Total time for lassos analysis:                     " + lassoTime);
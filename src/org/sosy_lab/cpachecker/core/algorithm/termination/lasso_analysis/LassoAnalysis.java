@@ -11,8 +11,11 @@ package org.sosy_lab.cpachecker.core.algorithm.termination.lasso_analysis;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.sosy_lab.java_smt.SolverContextFactory.Solvers.SMTINTERPOL;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.ToolchainCanceledException;
 import de.uni_freiburg.informatik.ultimate.icfgtransformer.transformulatransformers.TermException;
 import de.uni_freiburg.informatik.ultimate.lassoranker.AnalysisType;
@@ -34,9 +37,18 @@ import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
 import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
 import de.uni_freiburg.informatik.ultimate.logic.Term;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.NativeLibraries;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
@@ -50,10 +62,12 @@ import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
 import org.sosy_lab.cpachecker.core.AnalysisDirection;
 import org.sosy_lab.cpachecker.core.algorithm.termination.lasso_analysis.RankingRelationBuilder.RankingRelationException;
 import org.sosy_lab.cpachecker.core.algorithm.termination.lasso_analysis.construction.LassoBuilder;
+import org.sosy_lab.cpachecker.core.algorithm.termination.lasso_analysis.construction.LassoBuilder.StemAndLoop;
 import org.sosy_lab.cpachecker.core.algorithm.termination.lasso_analysis.toolchain.LassoRankerToolchainStorage;
 import org.sosy_lab.cpachecker.core.counterexample.CounterexampleInfo;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 import org.sosy_lab.cpachecker.util.LoopStructure.Loop;
+import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManager;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManagerImpl;
 import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
@@ -162,6 +176,16 @@ public class LassoAnalysis {
   @IntegerOption(min = 1)
   private int maxTemplateFunctions = 3;
 
+  @Option(
+      secure = true,
+      description =
+          "Number of threads used for synthesizing non-termination and termination arguments."
+              + " With more than one thread, the synthesis for all lassos of a loop runs"
+              + " concurrently and every synthesizer uses its own solver instance. The times for"
+              + " (non-)termination analysis are then measured once per loop instead of per lasso.")
+  @IntegerOption(min = 1)
+  private int threads = 1;
+
   private final LogManager logger;
   private final ShutdownNotifier shutdownNotifier;
   private final LassoAnalysisStatistics statistics;
@@ -179,12 +203,17 @@ public class LassoAnalysis {
 
   private final LassoRankerToolchainStorage toolchainStorage;
 
+  private final LassoAnalysisCache cache;
+
   private final ImmutableList<RankingTemplate> rankingTemplates;
 
+  private final @Nullable ExecutorService executor;
+
   @SuppressWarnings({"resource", "unchecked"})
   public static LassoAnalysis create(
       LassoBuilder pLassoBuilder,
       RankingRelationBuilder pRankingRelationBuilder,
+      FormulaManagerView pFormulaManagerView,
       SolverContext pSolverContext,
       LogManager pLogger,
       Configuration pConfig,
@@ -194,6 +223,7 @@ public class LassoAnalysis {
     return new LassoAnalysis(
         pLassoBuilder,
         pRankingRelationBuilder,
+        pFormulaManagerView,
         pSolverContext,
         pLogger,
         pConfig,
@@ -248,6 +278,7 @@ public class LassoAnalysis {
     return new LassoAnalysis(
         lassoBuilder,
         rankingRelationBuilder,
+        formulaManagerView,
         solverContext,
         pLogger,
         pConfig,
@@ -258,6 +289,7 @@ public class LassoAnalysis {
   private LassoAnalysis(
       LassoBuilder pLassoBuilder,
       RankingRelationBuilder pRankingRelationBuilder,
+      FormulaManagerView pFormulaManagerView,
       SolverContext pSolverContext,
       LogManager pLogger,
       Configuration pConfig,
@@ -272,6 +304,7 @@ public class LassoAnalysis {
     lassoBuilder = checkNotNull(pLassoBuilder);
     rankingRelationBuilder = checkNotNull(pRankingRelationBuilder);
     solverContext = checkNotNull(pSolverContext);
+    cache = new LassoAnalysisCache(pConfig, pLogger, pFormulaManagerView);
 
     linearLassoRankerPreferences =
         new LassoRankerPreferences(
@@ -366,6 +399,18 @@ public class LassoAnalysis {
     toolchainStorage = new LassoRankerToolchainStorage(pLogger, pShutdownNotifier);
 
     rankingTemplates = createTemplates(maxTemplateFunctions);
+
+    if (threads > 1) {
+      executor =
+          Executors.newFixedThreadPool(
+              threads,
+              new ThreadFactoryBuilder()
+                  .setNameFormat("lasso-analysis-%d")
+                  .setDaemon(true)
+                  .build());
+    } else {
+      executor = null;
+    }
   }
 
   private static ImmutableList<RankingTemplate> createTemplates(int pMaxTemplateFunctions) {
@@ -382,6 +427,10 @@ public class LassoAnalysis {
 
   /** Frees all created resources and the solver context. */
   public void close() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+    cache.export();
     toolchainStorage.clear();
     solverContext.close();
   }
@@ -411,10 +460,21 @@ public class LassoAnalysis {
   private LassoAnalysisResult checkTermination0(
       Loop pLoop, CounterexampleInfo pCounterexample, Set<CVariableDeclaration> pRelevantVariables)
       throws CPATransferException, InterruptedException {
+    @Nullable String cacheKey;
     Collection<Lasso> lassos;
     statistics.lassoConstructionStarted();
     try {
-      lassos = lassoBuilder.buildLasso(pCounterexample, pRelevantVariables);
+      StemAndLoop stemAndLoop = lassoBuilder.buildStemAndLoop(pCounterexample);
+
+      cacheKey = cache.getKey(stemAndLoop, pRelevantVariables);
+      Optional<LassoAnalysisResult> cachedResult = cache.getResult(cacheKey);
+      if (cachedResult.isPresent()) {
+        logger.logf(Level.FINER, "Reusing result of lasso analysis (%s).", pLoop);
+        statistics.lassoAnalysisResultReused();
+        return cachedResult.orElseThrow();
+      }
+
+      lassos = lassoBuilder.buildLasso(stemAndLoop, pRelevantVariables);
       statistics.lassosConstructed(pLoop, lassos.size());
 
     } catch (TermException | SolverException e) {
@@ -425,7 +485,22 @@ public class LassoAnalysis {
     }
 
     try {
-      return checkTermination(pLoop, lassos, pRelevantVariables);
+      LassoAnalysisResult result;
+      if (cache.isKnownToTerminate(cacheKey)) {
+        // Non-termination arguments cannot exist if termination was proven for an equal lasso.
+        // Fall back to the complete analysis if no termination argument is found this time.
+        result = checkTermination(pLoop, lassos, pRelevantVariables, false);
+        if (result.hasTerminationArgument()) {
+          statistics.knownTerminationReused();
+        } else {
+          result = checkTermination(pLoop, lassos, pRelevantVariables, true);
+        }
+      } else {
+        result = checkTermination(pLoop, lassos, pRelevantVariables, true);
+      }
+
+      cache.putResult(cacheKey, result);
+      return result;
 
     } catch (IOException | SMTLIBException | TermException | SolverException e) {
       logger.logUserException(
@@ -439,20 +514,36 @@ public class LassoAnalysis {
   public LassoAnalysisResult checkTermination(
       Loop pLoop, Collection<Lasso> lassos, Set<CVariableDeclaration> pRelevantVariables)
       throws IOException, SMTLIBException, TermException, InterruptedException, SolverException {
+    return checkTermination(pLoop, lassos, pRelevantVariables, true);
+  }
+
+  private LassoAnalysisResult checkTermination(
+      Loop pLoop,
+      Collection<Lasso> lassos,
+      Set<CVariableDeclaration> pRelevantVariables,
+      boolean pCheckNonTermination)
+      throws IOException, SMTLIBException, TermException, InterruptedException, SolverException {
+
+    if (executor != null) {
+      return checkTerminationConcurrently(
+          pLoop, ImmutableList.copyOf(lassos), pRelevantVariables, pCheckNonTermination);
+    }
 
     LassoAnalysisResult result = LassoAnalysisResult.unknown();
 
     // Try to synthesize non-termination arguments first because it is much cheaper
     // than synthesizing termination arguments.
-    for (Lasso lasso : lassos) {
-      shutdownNotifier.shutdownIfNecessary();
-      logger.logf(Level.FINER, "Synthesizing non-termination argument for lasso:\n%s.", lasso);
-      LassoAnalysisResult resultFromLasso = synthesizeNonTerminationArgument(pLoop, lasso);
-      result = result.update(resultFromLasso);
+    if (pCheckNonTermination) {
+      for (Lasso lasso : lassos) {
+        shutdownNotifier.shutdownIfNecessary();
+        logger.logf(Level.FINER, "Synthesizing non-termination argument for lasso:\n%s.", lasso);
+        LassoAnalysisResult resultFromLasso = synthesizeNonTerminationArgument(pLoop, lasso);
+        result = result.update(resultFromLasso);
 
-      // Stop and return result if non-termination could be proved.
-      if (result.hasNonTerminationArgument()) {
-        return result;
+        // Stop and return result if non-termination could be proved.
+        if (result.hasNonTerminationArgument()) {
+          return result;
+        }
       }
     }
 
@@ -468,18 +559,100 @@ public class LassoAnalysis {
     return result;
   }
 
+  /**
+   * Synthesizes the non-termination and termination arguments of all lassos concurrently. Only
+   * the synthesis itself, which uses a separate solver instance for every synthesizer, is executed
+   * by the worker threads. The results are checked and merged by the calling thread in the order
+   * of the lassos, so the result is the same as for the sequential analysis.
+   */
+  private LassoAnalysisResult checkTerminationConcurrently(
+      Loop pLoop,
+      ImmutableList<Lasso> lassos,
+      Set<CVariableDeclaration> pRelevantVariables,
+      boolean pCheckNonTermination)
+      throws IOException, SMTLIBException, TermException, InterruptedException, SolverException {
+
+    List<Future<NonTerminationArgument>> nonTerminationFutures = new ArrayList<>(lassos.size());
+    List<Future<Pair<Integer, TerminationArgument>>> terminationFutures =
+        new ArrayList<>(lassos.size());
+
+    statistics.terminationAnalysisOfLassoStarted();
+    try {
+      if (pCheckNonTermination) {
+        statistics.nonTerminationAnalysisOfLassoStarted();
+      }
+      try {
+        // Submit the cheaper non-termination analyses first.
+        if (pCheckNonTermination) {
+          for (Lasso lasso : lassos) {
+            nonTerminationFutures.add(
+                executor.submit(() -> synthesizeNonTerminationArgument(lasso)));
+          }
+        }
+        for (Lasso lasso : lassos) {
+          terminationFutures.add(executor.submit(() -> synthesizeTerminationArgument(lasso, 0)));
+        }
+
+        for (Future<NonTerminationArgument> future : nonTerminationFutures) {
+          NonTerminationArgument nonTerminationArgument = future.get();
+          if (nonTerminationArgument != null) {
+            statistics.synthesizedNonTerminationArgument(pLoop, nonTerminationArgument);
+            return LassoAnalysisResult.fromNonTerminationArgument(nonTerminationArgument);
+          }
+        }
+      } finally {
+        if (pCheckNonTermination) {
+          statistics.nonTerminationAnalysisOfLassoFinished();
+        }
+      }
+
+      LassoAnalysisResult result = LassoAnalysisResult.unknown();
+      for (int i = 0; i < lassos.size(); i++) {
+        Pair<Integer, TerminationArgument> terminationArgument = terminationFutures.get(i).get();
+        if (terminationArgument != null) {
+          Optional<LassoAnalysisResult> resultFromLasso =
+              checkTerminationArgument(
+                  pLoop, terminationArgument.getSecondNotNull(), pRelevantVariables);
+          if (resultFromLasso.isPresent()) {
+            result = result.update(resultFromLasso.orElseThrow());
+          } else {
+            // continue with the remaining templates like the sequential analysis
+            result =
+                result.update(
+                    synthesizeTerminationArgument(
+                        pLoop,
+                        lassos.get(i),
+                        pRelevantVariables,
+                        terminationArgument.getFirstNotNull() + 1));
+          }
+        }
+      }
+      return result;
+
+    } catch (ExecutionException e) {
+      Throwable t = e.getCause();
+      Throwables.throwIfInstanceOf(t, IOException.class);
+      Throwables.throwIfInstanceOf(t, TermException.class);
+      Throwables.throwIfInstanceOf(t, InterruptedException.class);
+      Throwables.throwIfInstanceOf(t, SolverException.class);
+      Throwables.throwIfUnchecked(t);
+      throw new UnexpectedCheckedException("synthesis of lasso arguments", t);
+
+    } finally {
+      for (Future<?> future : Iterables.concat(nonTerminationFutures, terminationFutures)) {
+        future.cancel(true);
+      }
+      statistics.terminationAnalysisOfLassoFinished();
+    }
+  }
+
   private LassoAnalysisResult synthesizeNonTerminationArgument(Loop pLoop, Lasso lasso)
       throws IOException, SMTLIBException, TermException {
 
     statistics.nonTerminationAnalysisOfLassoStarted();
-    NonTerminationArgument nonTerminationArgument = null;
-    try (NonTerminationArgumentSynthesizer nonTerminationArgumentSynthesizer =
-        createNonTerminationArgumentSynthesizer(lasso)) {
-
-      LBool result = nonTerminationArgumentSynthesizer.synthesize();
-      if (result.equals(LBool.SAT) && nonTerminationArgumentSynthesizer.synthesisSuccessful()) {
-        nonTerminationArgument = nonTerminationArgumentSynthesizer.getArgument();
-        logger.logf(Level.FINE, "Proved non-termination: %s", nonTerminationArgument);
+    try {
+      NonTerminationArgument nonTerminationArgument = synthesizeNonTerminationArgument(lasso);
+      if (nonTerminationArgument != null) {
         statistics.synthesizedNonTerminationArgument(pLoop, nonTerminationArgument);
         return LassoAnalysisResult.fromNonTerminationArgument(nonTerminationArgument);
 
@@ -492,59 +665,140 @@ public class LassoAnalysis {
     }
   }
 
+  private @Nullable NonTerminationArgument synthesizeNonTerminationArgument(Lasso lasso)
+      throws IOException, SMTLIBException, TermException {
+
+    try (NonTerminationArgumentSynthesizer nonTerminationArgumentSynthesizer =
+        createNonTerminationArgumentSynthesizer(lasso)) {
+
+      LBool result = nonTerminationArgumentSynthesizer.synthesize();
+      if (result.equals(LBool.SAT) && nonTerminationArgumentSynthesizer.synthesisSuccessful()) {
+        NonTerminationArgument nonTerminationArgument =
+            nonTerminationArgumentSynthesizer.getArgument();
+        logger.logf(Level.FINE, "Proved non-termination: %s", nonTerminationArgument);
+        return nonTerminationArgument;
+      }
+    }
+
+    return null;
+  }
+
   private LassoAnalysisResult synthesizeTerminationArgument(
       Loop pLoop, Lasso lasso, Set<CVariableDeclaration> pRelevantVariables)
       throws IOException, SMTLIBException, TermException, InterruptedException, SolverException {
 
     statistics.terminationAnalysisOfLassoStarted();
     try {
-      for (RankingTemplate rankingTemplate : rankingTemplates) {
-        shutdownNotifier.shutdownIfNecessary();
+      return synthesizeTerminationArgument(pLoop, lasso, pRelevantVariables, 0);
 
-        try (TerminationArgumentSynthesizer terminationArgumentSynthesizer =
-            createTerminationArgumentSynthesizer(lasso, rankingTemplate)) {
-          LBool result = null;
-          try {
-            result = terminationArgumentSynthesizer.synthesize();
-          } catch (AssertionError e) {
-            // Workaround for a bug in LassoRanker (terminationArgumentSynthesizer.synthesize()):
-            // An assertion is violated if the time limit is reached.
-            if ("not yet implemented".equals(e.getMessage())) {
-              shutdownNotifier.shutdownIfNecessary();
-            }
-            throw e;
-          }
-          if (result.equals(LBool.SAT) && terminationArgumentSynthesizer.synthesisSuccessful()) {
-            TerminationArgument terminationArgument = terminationArgumentSynthesizer.getArgument();
-            logger.logf(Level.FINE, "Found termination argument: %s", terminationArgument);
-
-            try (ProverEnvironment proverEnv = solverContext.newProverEnvironment()) {
-              RankingRelation rankingRelation =
-                  rankingRelationBuilder.fromTerminationArgument(
-                      terminationArgument, pRelevantVariables);
-
-              proverEnv.push(rankingRelation.asFormula());
-              if (!proverEnv.isUnsat()) {
-                statistics.synthesizedTerminationArgument(pLoop, terminationArgument);
-                return LassoAnalysisResult.fromTerminationArgument(rankingRelation);
-              }
+    } finally {
+      statistics.terminationAnalysisOfLassoFinished();
+    }
+  }
 
-            } catch (RankingRelationException e) {
-              logger.logUserException(
-                  Level.INFO, e, "Could not create ranking relation from " + terminationArgument);
-              return LassoAnalysisResult.unknown();
-            }
-          }
+  /**
+   * Synthesizes a termination argument for the given lasso by trying all ranking templates in
+   * order, starting with the template at index {@code pFirstTemplate}.
+   */
+  private LassoAnalysisResult synthesizeTerminationArgument(
+      Loop pLoop, Lasso lasso, Set<CVariableDeclaration> pRelevantVariables, int pFirstTemplate)
+      throws IOException, SMTLIBException, TermException, InterruptedException, SolverException {
+
+    for (int template = pFirstTemplate; template < rankingTemplates.size(); template++) {
+      TerminationArgument terminationArgument =
+          synthesizeTerminationArgument(lasso, rankingTemplates.get(template));
+      if (terminationArgument != null) {
+        Optional<LassoAnalysisResult> result =
+            checkTerminationArgument(pLoop, terminationArgument, pRelevantVariables);
+        if (result.isPresent()) {
+          return result.orElseThrow();
         }
       }
-
-    } finally {
-      statistics.terminationAnalysisOfLassoFinished();
     }
 
     return LassoAnalysisResult.unknown();
   }
 
+  /**
+   * Synthesizes a termination argument for the given lasso by trying all ranking templates in
+   * order, starting with the template at index {@code pFirstTemplate}. Returns the index of the
+   * successful template together with the termination argument, or {@code null} if no template
+   * was successful. The termination argument is not checked for plausibility, so this method does
+   * not use the shared solver context and can be called from worker threads.
+   */
+  private @Nullable Pair<Integer, TerminationArgument> synthesizeTerminationArgument(
+      Lasso lasso, int pFirstTemplate)
+      throws IOException, SMTLIBException, TermException, InterruptedException {
+
+    for (int template = pFirstTemplate; template < rankingTemplates.size(); template++) {
+      TerminationArgument terminationArgument =
+          synthesizeTerminationArgument(lasso, rankingTemplates.get(template));
+      if (terminationArgument != null) {
+        return Pair.of(template, terminationArgument);
+      }
+    }
+
+    return null;
+  }
+
+  private @Nullable TerminationArgument synthesizeTerminationArgument(
+      Lasso lasso, RankingTemplate rankingTemplate)
+      throws IOException, SMTLIBException, TermException, InterruptedException {
+    shutdownNotifier.shutdownIfNecessary();
+
+    try (TerminationArgumentSynthesizer terminationArgumentSynthesizer =
+        createTerminationArgumentSynthesizer(lasso, rankingTemplate)) {
+      LBool result = null;
+      try {
+        result = terminationArgumentSynthesizer.synthesize();
+      } catch (AssertionError e) {
+        // Workaround for a bug in LassoRanker (terminationArgumentSynthesizer.synthesize()):
+        // An assertion is violated if the time limit is reached.
+        if ("not yet implemented".equals(e.getMessage())) {
+          shutdownNotifier.shutdownIfNecessary();
+        }
+        throw e;
+      }
+      if (result.equals(LBool.SAT) && terminationArgumentSynthesizer.synthesisSuccessful()) {
+        TerminationArgument terminationArgument = terminationArgumentSynthesizer.getArgument();
+        logger.logf(Level.FINE, "Found termination argument: %s", terminationArgument);
+        return terminationArgument;
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Creates the {@link RankingRelation} for a synthesized termination argument and checks it with
+   * the shared solver context. Returns an empty result if the ranking relation is unsatisfiable
+   * and the next ranking template should be tried.
+   */
+  private Optional<LassoAnalysisResult> checkTerminationArgument(
+      Loop pLoop,
+      TerminationArgument terminationArgument,
+      Set<CVariableDeclaration> pRelevantVariables)
+      throws InterruptedException, SolverException {
+
+    try (ProverEnvironment proverEnv = solverContext.newProverEnvironment()) {
+      RankingRelation rankingRelation =
+          rankingRelationBuilder.fromTerminationArgument(terminationArgument, pRelevantVariables);
+
+      proverEnv.push(rankingRelation.asFormula());
+      if (!proverEnv.isUnsat()) {
+        statistics.synthesizedTerminationArgument(pLoop, terminationArgument);
+        return Optional.of(LassoAnalysisResult.fromTerminationArgument(rankingRelation));
+      }
+
+    } catch (RankingRelationException e) {
+      logger.logUserException(
+          Level.INFO, e, "Could not create ranking relation from " + terminationArgument);
+      return Optional.of(LassoAnalysisResult.unknown());
+    }
+
+    return Optional.empty();
+  }
+
   private TerminationArgumentSynthesizer createTerminationArgumentSynthesizer(
       Lasso lasso, RankingTemplate template) throws IOException {
     LassoRankerPreferences lassoRankerPreferences;
@@ -0,0 +1,254 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.algorithm.termination.lasso_analysis;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.MultimapBuilder;
+import com.google.common.collect.SetMultimap;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.FileOption.Type;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.io.IO;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
+import org.sosy_lab.cpachecker.core.algorithm.termination.lasso_analysis.construction.LassoBuilder.StemAndLoop;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+/**
+ * Cache of {@link LassoAnalysisResult}s keyed by the canonical form of the stem and loop of a
+ * lasso. The canonical form renames the SSA indices of every variable to their rank among all
+ * indices of this variable, so stems and loops that only differ in SSA renaming have the same key.
+ *
+ * <p>Complete results are only reused within one analysis, because {@link RankingRelation}s refer
+ * to the solver and to the declarations of the analyzed program. Across analyses, only the hashes
+ * of the keys of lassos that were proven to terminate are exported and imported. For these lassos
+ * the synthesis of non-termination arguments is skipped.
+ */
+@Options(prefix = "termination.lassoAnalysis.cache")
+class LassoAnalysisCache {
+
+  @Option(
+      secure = true,
+      description =
+          "Reuse (non-)termination arguments for lassos whose stem and loop are equal to the stem"
+              + " and loop of an already analyzed lasso up to renaming of SSA indices.")
+  private boolean enabled = true;
+
+  @Option(
+      secure = true,
+      description =
+          "Read the hashes of lassos that were proven to terminate in previous analyses from this"
+              + " file. Non-termination arguments are not synthesized for these lassos.")
+  @FileOption(Type.OPTIONAL_INPUT_FILE)
+  private @Nullable Path inputFile = null;
+
+  @Option(
+      secure = true,
+      description =
+          "Export the hashes of all lassos that were proven to terminate to this file"
+              + " (including the imported ones) for reuse in later analyses.")
+  @FileOption(Type.OUTPUT_FILE)
+  private @Nullable Path outputFile = null;
+
+  private final LogManager logger;
+  private final FormulaManagerView fmgr;
+
+  private final Map<String, LassoAnalysisResult> results = new HashMap<>();
+  private final NavigableSet<String> terminatingLassoHashes = new TreeSet<>();
+
+  LassoAnalysisCache(Configuration pConfig, LogManager pLogger, FormulaManagerView pFmgr)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    logger = pLogger;
+    fmgr = pFmgr;
+
+    if (enabled && inputFile != null && Files.isReadable(inputFile)) {
+      try {
+        for (String line : Files.readAllLines(inputFile, UTF_8)) {
+          if (!line.isBlank()) {
+            terminatingLassoHashes.add(line.strip());
+          }
+        }
+      } catch (IOException e) {
+        logger.logUserException(
+            Level.WARNING, e, "Could not read terminating lassos from " + inputFile);
+      }
+    }
+  }
+
+  /** Returns the canonical key of the given stem and loop, or null if caching is disabled. */
+  @Nullable String getKey(StemAndLoop pStemAndLoop, Set<CVariableDeclaration> pRelevantVariables) {
+    if (!enabled) {
+      return null;
+    }
+
+    BooleanFormula stem = pStemAndLoop.getStem();
+    BooleanFormula loop = pStemAndLoop.getLoop();
+
+    // collect all SSA indices per variable (including the indices of the in and out variables)
+    SetMultimap<String, Integer> indices = MultimapBuilder.treeKeys().treeSetValues().build();
+    for (String name :
+        Iterables.concat(fmgr.extractFunctionNames(stem), fmgr.extractFunctionNames(loop))) {
+      Optional<Pair<String, OptionalInt>> parsedName = parseName(name);
+      if (parsedName.isPresent() && parsedName.orElseThrow().getSecond().isPresent()) {
+        indices.put(
+            parsedName.orElseThrow().getFirst(), parsedName.orElseThrow().getSecond().getAsInt());
+      }
+    }
+    Set<String> variables = indices.keySet();
+    for (SSAMap ssaMap :
+        new SSAMap[] {
+          pStemAndLoop.getStemOutVars(),
+          pStemAndLoop.getLoopInVars(),
+          pStemAndLoop.getLoopOutVars()
+        }) {
+      for (String variable : ssaMap.allVariables()) {
+        if (variables.contains(variable)) {
+          indices.put(variable, ssaMap.getIndex(variable));
+        }
+      }
+    }
+
+    Map<String, Map<Integer, Integer>> ranks = new HashMap<>();
+    for (String variable : variables) {
+      Map<Integer, Integer> variableRanks = new HashMap<>();
+      for (int index : indices.get(variable)) {
+        variableRanks.put(index, variableRanks.size());
+      }
+      ranks.put(variable, variableRanks);
+    }
+
+    StringBuilder key = new StringBuilder();
+    key.append("relevant variables:");
+    pRelevantVariables.stream()
+        .map(CVariableDeclaration::getQualifiedName)
+        .sorted()
+        .forEachOrdered(name -> key.append(' ').append(name));
+    appendCanonicalFormula(key.append("\nstem:\n"), stem, ranks);
+    appendCanonicalFormula(key.append("\nloop:\n"), loop, ranks);
+    appendCanonicalSsaMap(key.append("\nstem out:"), pStemAndLoop.getStemOutVars(), ranks);
+    appendCanonicalSsaMap(key.append("\nloop in:"), pStemAndLoop.getLoopInVars(), ranks);
+    appendCanonicalSsaMap(key.append("\nloop out:"), pStemAndLoop.getLoopOutVars(), ranks);
+    return key.toString();
+  }
+
+  private void appendCanonicalFormula(
+      StringBuilder pKey, BooleanFormula pFormula, Map<String, Map<Integer, Integer>> pRanks) {
+    BooleanFormula canonicalFormula =
+        fmgr.renameFreeVariablesAndUFs(
+            pFormula,
+            name -> {
+              Optional<Pair<String, OptionalInt>> parsedName = parseName(name);
+              if (parsedName.isPresent() && parsedName.orElseThrow().getSecond().isPresent()) {
+                String variable = parsedName.orElseThrow().getFirst();
+                int index = parsedName.orElseThrow().getSecond().getAsInt();
+                return canonicalName(variable, pRanks.get(variable).get(index));
+              }
+              return name;
+            });
+    pKey.append(fmgr.dumpFormula(canonicalFormula));
+  }
+
+  private static void appendCanonicalSsaMap(
+      StringBuilder pKey, SSAMap pSsaMap, Map<String, Map<Integer, Integer>> pRanks) {
+    // SSAMap#allVariables is sorted
+    for (String variable : pSsaMap.allVariables()) {
+      Map<Integer, Integer> variableRanks = pRanks.get(variable);
+      if (variableRanks != null) {
+        pKey.append(' ')
+            .append(canonicalName(variable, variableRanks.get(pSsaMap.getIndex(variable))));
+      }
+    }
+  }
+
+  private static String canonicalName(String pVariable, int pRank) {
+    return pVariable + "@" + pRank;
+  }
+
+  private static Optional<Pair<String, OptionalInt>> parseName(String pName) {
+    try {
+      return Optional.of(FormulaManagerView.parseName(pName));
+    } catch (IllegalArgumentException e) {
+      // not an instantiated variable, the name is kept as it is
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Returns the cached result of the analysis of an equal lasso, if there is one.
+   *
+   * @param pKey the key from {@link #getKey}, null if caching is disabled
+   */
+  Optional<LassoAnalysisResult> getResult(@Nullable String pKey) {
+    return pKey == null ? Optional.empty() : Optional.ofNullable(results.get(pKey));
+  }
+
+  /**
+   * Returns whether an equal lasso was proven to terminate in a previous analysis.
+   *
+   * @param pKey the key from {@link #getKey}, null if caching is disabled
+   */
+  boolean isKnownToTerminate(@Nullable String pKey) {
+    return pKey != null && terminatingLassoHashes.contains(hash(pKey));
+  }
+
+  /**
+   * Caches the given result if it is not unknown.
+   *
+   * @param pKey the key from {@link #getKey}, null if caching is disabled
+   */
+  void putResult(@Nullable String pKey, LassoAnalysisResult pResult) {
+    if (pKey != null && !pResult.isUnknown()) {
+      results.put(pKey, pResult);
+      if (pResult.hasTerminationArgument()) {
+        terminatingLassoHashes.add(hash(pKey));
+      }
+    }
+  }
+
+  private static String hash(String pKey) {
+    return Hashing.sha256().hashString(pKey, UTF_8).toString();
+  }
+
+  /** Exports the hashes of all lassos that are known to terminate, if configured. */
+  void export() {
+    if (enabled && outputFile != null) {
+      try (Writer writer = IO.openOutputFile(outputFile, UTF_8)) {
+        for (String hash : terminatingLassoHashes) {
+          writer.append(hash).append('\n');
+        }
+      } catch (IOException e) {
+        logger.logUserException(
+            Level.WARNING, e, "Could not export terminating lassos to " + outputFile);
+      }
+    }
+  }
+}
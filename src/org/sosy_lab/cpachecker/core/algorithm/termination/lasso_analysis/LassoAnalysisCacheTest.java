@@ -0,0 +1,117 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.algorithm.termination.lasso_analysis;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.core.algorithm.termination.lasso_analysis.construction.LassoBuilder.StemAndLoop;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormula;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.pointeraliasing.PointerTargetSet;
+import org.sosy_lab.cpachecker.util.predicates.smt.IntegerFormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.SolverViewBasedTest0;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+@RunWith(Parameterized.class)
+public class LassoAnalysisCacheTest extends SolverViewBasedTest0 {
+
+  @Parameters(name = "{0}")
+  public static Object[] getAllSolvers() {
+    return Solvers.values();
+  }
+
+  @Parameter(0)
+  public Solvers solverToUse;
+
+  @Override
+  protected Solvers solverToUse() {
+    return solverToUse;
+  }
+
+  private LassoAnalysisCache cache;
+  private IntegerFormulaManagerView ifmgr;
+
+  @Before
+  public void setUp() throws Exception {
+    cache = new LassoAnalysisCache(Configuration.defaultConfiguration(), logger, mgrv);
+    ifmgr = mgrv.getIntegerFormulaManager();
+  }
+
+  @SuppressWarnings("deprecation") // just for test
+  private static PathFormula pathFormula(BooleanFormula pFormula, String pVariable, int pIndex) {
+    return PathFormula.createManually(
+        pFormula,
+        SSAMap.emptySSAMap().builder().setIndex(pVariable, CNumericTypes.INT, pIndex).build(),
+        PointerTargetSet.emptyPointerTargetSet(),
+        0);
+  }
+
+  /**
+   * The lasso "var = 0; while (...) { var = var + 1; }" with the given SSA indices of the variable
+   * at the end of the stem and at the end of the loop.
+   */
+  private StemAndLoop lasso(String pVariable, int pStemIndex, int pLoopIndex) {
+    BooleanFormula stem =
+        ifmgr.equal(ifmgr.makeVariable(pVariable, pStemIndex), ifmgr.makeNumber(0));
+    BooleanFormula loop =
+        ifmgr.equal(
+            ifmgr.makeVariable(pVariable, pLoopIndex),
+            ifmgr.add(ifmgr.makeVariable(pVariable, pStemIndex), ifmgr.makeNumber(1)));
+    return new StemAndLoop(
+        pathFormula(stem, pVariable, pStemIndex),
+        pathFormula(loop, pVariable, pLoopIndex),
+        SSAMap.emptySSAMap().builder().setIndex(pVariable, CNumericTypes.INT, pStemIndex).build());
+  }
+
+  @Test
+  public void testKeyIgnoresSsaIndices() {
+    String key = cache.getKey(lasso("x", 1, 2), ImmutableSet.of());
+    assertThat(key).isNotNull();
+    assertThat(cache.getKey(lasso("x", 5, 7), ImmutableSet.of())).isEqualTo(key);
+  }
+
+  @Test
+  public void testKeyDependsOnVariables() {
+    String key = cache.getKey(lasso("x", 1, 2), ImmutableSet.of());
+    assertThat(cache.getKey(lasso("y", 1, 2), ImmutableSet.of())).isNotEqualTo(key);
+  }
+
+  @Test
+  public void testKeyDependsOnOrderOfIndices() {
+    // the loop reads the newer value of the variable instead of the value at the end of the stem
+    String key = cache.getKey(lasso("x", 1, 2), ImmutableSet.of());
+    assertThat(cache.getKey(lasso("x", 2, 1), ImmutableSet.of())).isNotEqualTo(key);
+  }
+
+  @Test
+  public void testDisabledCache() throws Exception {
+    LassoAnalysisCache disabledCache =
+        new LassoAnalysisCache(
+            Configuration.builder()
+                .setOption("termination.lassoAnalysis.cache.enabled", "false")
+                .build(),
+            logger,
+            mgrv);
+    String key = disabledCache.getKey(lasso("x", 1, 2), ImmutableSet.of());
+    assertThat(key).isNull();
+    assertThat(disabledCache.getResult(key)).isEqualTo(Optional.empty());
+    assertThat(disabledCache.isKnownToTerminate(key)).isFalse();
+  }
+}
@@ -41,6 +41,10 @@ public abstract class LassoAnalysisStatistics implements Statistics {
 
   protected final AtomicInteger lassosCurrentIteration = new AtomicInteger();
 
+  protected final AtomicInteger reusedLassoAnalysisResults = new AtomicInteger();
+
+  protected final AtomicInteger reusedKnownTerminations = new AtomicInteger();
+
   protected final Multimap<Loop, TerminationArgument> terminationArguments =
       MultimapBuilder.linkedHashKeys().arrayListValues().build();
 
@@ -74,6 +78,14 @@ public abstract class LassoAnalysisStatistics implements Statistics {
     lassosCurrentIteration.addAndGet(numberOfLassos);
   }
 
+  public void lassoAnalysisResultReused() {
+    reusedLassoAnalysisResults.incrementAndGet();
+  }
+
+  public void knownTerminationReused() {
+    reusedKnownTerminations.incrementAndGet();
+  }
+
   public void nonTerminationAnalysisOfLassoStarted() {
     lassoNonTerminationTime.start();
   }
@@ -157,17 +157,27 @@ public class LassoBuilder {
   public Collection<Lasso> buildLasso(
       CounterexampleInfo pCounterexampleInfo, Set<CVariableDeclaration> pRelevantVariables)
       throws CPATransferException, InterruptedException, TermException, SolverException {
+    return buildLasso(buildStemAndLoop(pCounterexampleInfo), pRelevantVariables);
+  }
 
+  public StemAndLoop buildStemAndLoop(CounterexampleInfo pCounterexampleInfo)
+      throws CPATransferException, InterruptedException {
     stats.stemAndLoopConstructionStarted();
     StemAndLoop stemAndLoop = createStemAndLoop(pCounterexampleInfo);
     shutdownNotifier.shutdownIfNecessary();
     stats.stemAndLoopConstructionFinished();
+    return stemAndLoop;
+  }
+
+  public Collection<Lasso> buildLasso(
+      StemAndLoop pStemAndLoop, Set<CVariableDeclaration> pRelevantVariables)
+      throws InterruptedException, TermException, SolverException {
 
     ImmutableMap<String, CVariableDeclaration> relevantVariables =
         Maps.uniqueIndex(pRelevantVariables, AVariableDeclaration::getQualifiedName);
     try {
       stats.lassosCreationStarted();
-    return createLassos(stemAndLoop, relevantVariables);
+      return createLassos(pStemAndLoop, relevantVariables);
     } finally {
       stats.lassosCreationFinished();
     }
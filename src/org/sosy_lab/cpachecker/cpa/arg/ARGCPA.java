@@ -99,6 +99,7 @@ public class ARGCPA extends AbstractSingleWrapperCPA
   private final LogManager logger;
 
   private final ARGStatistics stats;
+  private final ARGRemovalStatistics removalStats = new ARGRemovalStatistics();
 
   private ARGCPA(
       ConfigurableProgramAnalysis cpa,
@@ -189,6 +190,7 @@ public class ARGCPA extends AbstractSingleWrapperCPA
       // and afterwards call super.collectStatistics().
       pStatsCollection.add(stats);
     }
+    pStatsCollection.add(removalStats);
     super.collectStatistics(pStatsCollection);
   }
 
@@ -196,6 +198,10 @@ public class ARGCPA extends AbstractSingleWrapperCPA
     return stats;
   }
 
+  ARGRemovalStatistics getRemovalStatistics() {
+    return removalStats;
+  }
+
   @Override
   public boolean areAbstractSuccessors(AbstractState pElement, CFAEdge pCfaEdge,
       Collection<? extends AbstractState> pSuccessors) throws CPATransferException, InterruptedException {
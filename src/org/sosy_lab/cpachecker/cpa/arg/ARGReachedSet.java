@@ -24,7 +24,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
-import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.NavigableSet;
@@ -32,6 +31,8 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.function.Function;
 import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.UniqueIdGenerator;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
@@ -56,6 +57,10 @@ public class ARGReachedSet {
   private final ReachedSet mReached;
   private final UnmodifiableReachedSet mUnmodifiableReached;
 
+  // generations for marking visited states in ARGState instead of using sets of visited states,
+  // such that removing a subtree does not need to hash all of its states
+  private static final UniqueIdGenerator generations = new UniqueIdGenerator();
+
   /**
    * Constructor for ARGReachedSet as a simple wrapper around ReachedSet.
    * If possible, do not use this constructor but the other one that takes
@@ -113,6 +118,66 @@ public class ARGReachedSet {
     removeUnReachableFrom(Collections.singleton(rootState), ARGState::getChildren, x -> true);
   }
 
+  /**
+   * Like {@link #recalculateReachedSet(ARGState)}, but only checks the states that may have become
+   * unreachable because they lost some of their parents. This requires that all states in the
+   * reached set were reachable from the root state before, and that the given states include all
+   * states that lost a parent since then. Instead of the whole reached set, only the part of the
+   * ARG below the given states is visited.
+   *
+   * @param rootState the root state of the ARG
+   * @param statesWithRemovedParents the states that lost at least one parent
+   */
+  public void recalculateReachedSet(
+      ARGState rootState, Collection<ARGState> statesWithRemovedParents) {
+    startRemovalTimer();
+    try {
+      // states outside of this region are still reachable in the same way as before
+      int regionGeneration = generations.getFreshId();
+      List<ARGState> region = new ArrayList<>();
+      for (ARGState state : statesWithRemovedParents) {
+        if (!state.isDestroyed()) {
+          markSubgraph(state, regionGeneration, region);
+        }
+      }
+
+      // states of the region with a reachable parent are reachable, and so are their children
+      int reachableGeneration = generations.getFreshId();
+      Deque<ARGState> toVisit = new ArrayDeque<>();
+      for (ARGState state : region) {
+        if (state.wasVisited(regionGeneration)
+            && (state.equals(rootState)
+                || from(state.getParents()).anyMatch(p -> !p.wasVisited(regionGeneration)))) {
+          state.markVisited(reachableGeneration);
+          toVisit.add(state);
+          while (!toVisit.isEmpty()) {
+            for (ARGState child : toVisit.removeFirst().getChildren()) {
+              if (child.wasVisited(regionGeneration)) {
+                child.markVisited(reachableGeneration);
+                toVisit.add(child);
+              }
+            }
+          }
+        }
+      }
+
+      List<ARGState> toRemove = new ArrayList<>(2);
+      for (ARGState state : region) {
+        if (state.wasVisited(regionGeneration)) {
+          toRemove.add(state);
+        }
+      }
+      for (ARGState state : toRemove) {
+        removeCoverageOf(state);
+        state.removeFromARG();
+      }
+      mReached.removeAll(toRemove);
+      recordRemoval(toRemove.size(), 0);
+    } finally {
+      stopRemovalTimer();
+    }
+  }
+
   /**
    * If at least one error state is present,remove the parts of the ARG from which no error state is reachable.
    * Warning: This might remove states that could cover other states.
@@ -129,30 +194,43 @@ public class ARGReachedSet {
   private void removeUnReachableFrom(Collection<AbstractState> startStates,
       Function<? super ARGState, ? extends Iterable<ARGState>> successorFunction,
       Predicate<ARGState> allowedToRemove) {
-    Deque<AbstractState> toVisit = new ArrayDeque<>(startStates);
-    Set<ARGState> reached = new HashSet<>();
-    while (!toVisit.isEmpty()) {
-      ARGState currentElement = (ARGState) toVisit.removeFirst();
-      if (reached.add(currentElement)) {
-        List<ARGState> notYetReached = from(successorFunction.apply(currentElement))
-            .filter(x -> !reached.contains(x))
-            .toList();
-        toVisit.addAll(notYetReached);
+    // The ARG may be an arbitrary graph here, so reachability can only be decided by visiting
+    // the whole reachable part. At least the visited states are only marked and not hashed.
+    startRemovalTimer();
+    try {
+      int generation = generations.getFreshId();
+      Deque<ARGState> toVisit = new ArrayDeque<>();
+      for (AbstractState startState : startStates) {
+        if (((ARGState) startState).markVisited(generation)) {
+          toVisit.add((ARGState) startState);
+        }
       }
-    }
-    List<ARGState> toRemove = new ArrayList<>(2);
-    for (AbstractState inOldReached : mReached) {
-      if (!reached.contains(inOldReached) && allowedToRemove.apply((ARGState) inOldReached)) {
-        toRemove.add((ARGState) inOldReached);
+      while (!toVisit.isEmpty()) {
+        ARGState currentElement = toVisit.removeFirst();
+        for (ARGState successor : successorFunction.apply(currentElement)) {
+          if (successor.markVisited(generation)) {
+            toVisit.add(successor);
+          }
+        }
       }
-    }
-    for (ARGState state : toRemove) {
-      if (!state.isDestroyed()) {
-        removeCoverageOf(state);
-        state.removeFromARG();
+      List<ARGState> toRemove = new ArrayList<>(2);
+      for (AbstractState inOldReached : mReached) {
+        ARGState state = (ARGState) inOldReached;
+        if (!state.wasVisited(generation) && allowedToRemove.apply(state)) {
+          toRemove.add(state);
+        }
+      }
+      for (ARGState state : toRemove) {
+        if (!state.isDestroyed()) {
+          removeCoverageOf(state);
+          state.removeFromARG();
+        }
       }
+      mReached.removeAll(toRemove);
+      recordRemoval(toRemove.size(), 0);
+    } finally {
+      stopRemovalTimer();
     }
-    mReached.removeAll(toRemove);
   }
 
   /**
@@ -224,16 +302,24 @@ public class ARGReachedSet {
   public void removeInfeasiblePartofARG(ARGState rootOfInfeasiblePart) {
     dumpSubgraph(rootOfInfeasiblePart);
 
-    Set<ARGState> infeasibleSubtree = rootOfInfeasiblePart.getSubgraph().toSet();
+    startRemovalTimer();
+    try {
+      int generation = generations.getFreshId();
+      List<ARGState> infeasibleSubtree = new ArrayList<>();
+      markSubgraph(rootOfInfeasiblePart, generation, infeasibleSubtree);
 
-    for (ARGState removedNode : infeasibleSubtree) {
-      removeCoverageOf(removedNode);
-    }
+      for (ARGState removedNode : infeasibleSubtree) {
+        removeCoverageOf(removedNode);
+      }
 
-    Set<ARGState> parentsOfRoot = ImmutableSet.copyOf(rootOfInfeasiblePart.getParents());
-    Set<ARGState> parentsOfRemovedStates = removeSet(infeasibleSubtree);
+      Set<ARGState> parentsOfRoot = ImmutableSet.copyOf(rootOfInfeasiblePart.getParents());
+      Set<ARGState> parentsOfRemovedStates = removeSet(infeasibleSubtree, generation);
 
-    assert parentsOfRoot.equals(parentsOfRemovedStates);
+      assert parentsOfRoot.equals(parentsOfRemovedStates);
+      recordRemoval(infeasibleSubtree.size(), 0);
+    } finally {
+      stopRemovalTimer();
+    }
   }
 
   /**
@@ -316,19 +402,79 @@ public class ARGReachedSet {
 
     dumpSubgraph(e);
 
-    // collect all elements covered by the subtree
-    ImmutableList<ARGState> subtree = e.getSubgraph().toList();
-    ImmutableSet<ARGState> toUnreach =
-        from(subtree).transformAndConcat(ARGState::getCoveredByThis).append(subtree).toSet();
+    startRemovalTimer();
+    try {
+      int generation = generations.getFreshId();
+      List<ARGState> toUnreach = new ArrayList<>();
+      markSubgraph(e, generation, toUnreach);
+      int subtreeSize = toUnreach.size();
+
+      // collect all elements covered by the subtree
+      for (int i = 0; i < subtreeSize; i++) {
+        for (ARGState covered : toUnreach.get(i).getCoveredByThis()) {
+          if (covered.markVisited(generation)) {
+            toUnreach.add(covered);
+          }
+        }
+      }
 
-    // we remove the covered states completely,
-    // maybe we re-explore them later and find coverage again.
-    // caution: siblings of the covered state might be re-explored, too,
-    // they should be covered by the existing/previous siblings
-    // (if sibling not removed and precision is not weaker)
-    Set<ARGState> toWaitlist = removeSet(toUnreach);
+      // we remove the covered states completely,
+      // maybe we re-explore them later and find coverage again.
+      // caution: siblings of the covered state might be re-explored, too,
+      // they should be covered by the existing/previous siblings
+      // (if sibling not removed and precision is not weaker)
+      Set<ARGState> toWaitlist = removeSet(toUnreach, generation);
+
+      recordRemoval(subtreeSize, toUnreach.size() - subtreeSize);
+      return toWaitlist;
+    } finally {
+      stopRemovalTimer();
+    }
+  }
 
-    return toWaitlist;
+  /**
+   * Marks all states of the subgraph below the given state (including it) as visited in the given
+   * generation and adds them to the given list in breadth-first order.
+   */
+  private static void markSubgraph(ARGState pRoot, int pGeneration, List<ARGState> pSubgraph) {
+    assert !pRoot.isDestroyed() : "Don't use destroyed ARGState " + pRoot;
+    int start = pSubgraph.size();
+    if (pRoot.markVisited(pGeneration)) {
+      pSubgraph.add(pRoot);
+    }
+    for (int i = start; i < pSubgraph.size(); i++) {
+      for (ARGState child : pSubgraph.get(i).getChildren()) {
+        if (child.markVisited(pGeneration)) {
+          pSubgraph.add(child);
+        }
+      }
+    }
+  }
+
+  private @Nullable ARGRemovalStatistics getRemovalStatistics() {
+    return cpa instanceof ARGCPA ? ((ARGCPA) cpa).getRemovalStatistics() : null;
+  }
+
+  private void startRemovalTimer() {
+    ARGRemovalStatistics stats = getRemovalStatistics();
+    if (stats != null) {
+      stats.removalTime.start();
+    }
+  }
+
+  private void recordRemoval(int pRemovedStates, int pRemovedCoveredStates) {
+    ARGRemovalStatistics stats = getRemovalStatistics();
+    if (stats != null) {
+      stats.removedStates.setNextValue(pRemovedStates + pRemovedCoveredStates);
+      stats.removedCoveredStates.setNextValue(pRemovedCoveredStates);
+    }
+  }
+
+  private void stopRemovalTimer() {
+    ARGRemovalStatistics stats = getRemovalStatistics();
+    if (stats != null) {
+      stats.removalTime.stop();
+    }
   }
 
   private void dumpSubgraph(ARGState e) {
@@ -382,16 +528,17 @@ public class ARGReachedSet {
    * themselves. The set is sorted based on the relation defined by {@link
    * ARGState#compareTo(ARGState)}), i.e., oldest-first.
    *
-   * @param elements the elements to remove
+   * @param elements the elements to remove, all of them marked as visited in the given generation
+   * @param generation the generation in which exactly the given elements were marked
    * @return the elements to re-add to the waitlist
    */
-  private NavigableSet<ARGState> removeSet(Set<ARGState> elements) {
+  private NavigableSet<ARGState> removeSet(List<ARGState> elements, int generation) {
     mReached.removeAll(elements);
 
     NavigableSet<ARGState> toWaitlist = new TreeSet<>();
     for (ARGState ae : elements) {
       for (ARGState parent : ae.getParents()) {
-        if (!elements.contains(parent)) {
+        if (!parent.wasVisited(generation)) {
           toWaitlist.add(parent);
         }
       }
@@ -0,0 +1,310 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.arg;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.defaults.AbstractCPA;
+import org.sosy_lab.cpachecker.core.defaults.IdentityTransferRelation;
+import org.sosy_lab.cpachecker.core.defaults.SingletonAbstractState;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+
+public class ARGReachedSetTest {
+
+  /** A CPA with a single abstract state, only needed to create a reached set. */
+  private static class SingletonCPA extends AbstractCPA {
+
+    private SingletonCPA() {
+      super("sep", "sep", IdentityTransferRelation.INSTANCE);
+    }
+
+    @Override
+    public AbstractState getInitialState(CFANode pNode, StateSpacePartition pPartition) {
+      return SingletonAbstractState.INSTANCE;
+    }
+  }
+
+  private ReachedSet reached;
+  private ARGReachedSet argReached;
+  private ARGState root;
+
+  @Before
+  public void setUp() throws InvalidConfigurationException {
+    reached = createReachedSet();
+    argReached = new ARGReachedSet(reached);
+    root = addState(reached, null);
+  }
+
+  private static ReachedSet createReachedSet() throws InvalidConfigurationException {
+    Configuration config =
+        Configuration.builder().setOption("analysis.reachedSet", "NORMAL").build();
+    return new ReachedSetFactory(config, LogManager.createTestLogManager())
+        .create(new SingletonCPA());
+  }
+
+  private static ARGState addState(ReachedSet pReached, ARGState pParent) {
+    if (pParent != null) {
+      pParent.markExpanded();
+    }
+    ARGState state = new ARGState(SingletonAbstractState.INSTANCE, pParent);
+    pReached.add(state, SingletonPrecision.getInstance());
+    return state;
+  }
+
+  private ARGState addState(ARGState pParent) {
+    return addState(reached, pParent);
+  }
+
+  private void clearWaitlist() {
+    while (reached.hasWaitingState()) {
+      reached.popFromWaitlist();
+    }
+  }
+
+  private void assertRemoved(ARGState... pStates) {
+    for (ARGState state : pStates) {
+      assertThat(state.isDestroyed()).isTrue();
+      assertThat(reached.contains(state)).isFalse();
+    }
+  }
+
+  private void assertKept(ARGState... pStates) {
+    for (ARGState state : pStates) {
+      assertThat(state.isDestroyed()).isFalse();
+      assertThat(reached.contains(state)).isTrue();
+    }
+  }
+
+  @Test
+  public void testRemoveSubtreeRemovesStatesCoveredBySubtree() throws InterruptedException {
+    ARGState a = addState(root);
+    ARGState a1 = addState(a);
+    ARGState a2 = addState(a);
+    ARGState b = addState(root);
+    ARGState b1 = addState(b);
+    // coverage inside of the subtree and from the subtree to the outside
+    a2.setCovered(a1);
+    b1.setCovered(a1);
+    clearWaitlist();
+
+    argReached.removeSubtree(a);
+
+    assertRemoved(a, a1, a2, b1);
+    assertKept(root, b);
+    assertThat(b.getChildren()).isEmpty();
+    assertThat(reached.getWaitlist()).containsExactly(root, b);
+    assertThat(reached.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void testRemoveSubtreeUncoversStatesOutsideOfSubtree() throws InterruptedException {
+    ARGState a = addState(root);
+    ARGState a1 = addState(a);
+    ARGState b = addState(root);
+    ARGState b1 = addState(b);
+    // coverage from the outside into the subtree
+    a1.setCovered(b);
+    clearWaitlist();
+
+    argReached.removeSubtree(a);
+
+    assertRemoved(a, a1);
+    assertKept(root, b, b1);
+    assertThat(b.getCoveredByThis()).isEmpty();
+    assertThat(reached.getWaitlist()).containsExactly(root);
+  }
+
+  @Test
+  public void testRemoveSubtreeOfDag() throws InterruptedException {
+    ARGState a = addState(root);
+    ARGState b = addState(root);
+    ARGState c = addState(a);
+    c.addParent(b);
+    ARGState d = addState(c);
+    clearWaitlist();
+
+    // c and d are below a, even though c has another parent
+    argReached.removeSubtree(a);
+
+    assertRemoved(a, c, d);
+    assertKept(root, b);
+    assertThat(reached.getWaitlist()).containsExactly(root, b);
+  }
+
+  @Test
+  public void testRepeatedRemovals() throws InterruptedException, InvalidConfigurationException {
+    ARGState a = addState(root);
+    ARGState a1 = addState(a);
+    ARGState b = addState(root);
+    ARGState b1 = addState(b);
+    ARGState b2 = addState(b);
+    ARGState c = addState(root);
+    ARGState c1 = addState(c);
+    b2.setCovered(a1);
+    c1.setCovered(b1);
+    clearWaitlist();
+
+    argReached.removeSubtree(a);
+    assertRemoved(a, a1, b2);
+    assertKept(root, b, b1, c, c1);
+    assertThat(c1.isCovered()).isTrue();
+
+    // states marked by the first removal must not be mistaken for marked ones now
+    argReached.removeSubtree(b);
+    assertRemoved(b, b1, c1);
+    assertKept(root, c);
+
+    // a removal in another reached set in between must not interfere
+    ReachedSet otherReached = createReachedSet();
+    ARGState otherRoot = addState(otherReached, null);
+    ARGState otherChild = addState(otherReached, otherRoot);
+    new ARGReachedSet(otherReached).removeSubtree(otherChild);
+    assertThat(otherReached.asCollection()).containsExactly(otherRoot);
+
+    argReached.removeSubtree(c);
+    assertRemoved(c);
+    assertThat(reached.asCollection()).containsExactly(root);
+    assertThat(root.getChildren()).isEmpty();
+  }
+
+  @Test
+  public void testRemoveInfeasiblePartUncoversStates() {
+    ARGState a = addState(root);
+    ARGState a1 = addState(a);
+    ARGState a2 = addState(a);
+    ARGState b = addState(root);
+    ARGState b1 = addState(b);
+    ARGState c = addState(root);
+    ARGState c1 = addState(c);
+    b1.setCovered(a1);
+    a2.setCovered(c);
+    clearWaitlist();
+
+    argReached.removeInfeasiblePartofARG(a);
+
+    assertRemoved(a, a1, a2);
+    assertKept(root, b, b1, c, c1);
+    // the states covered by the removed part are not removed, but need to be explored again
+    assertThat(b1.isCovered()).isFalse();
+    assertThat(c.getCoveredByThis()).isEmpty();
+    assertThat(reached.getWaitlist()).containsExactly(b1);
+    assertThat(root.getChildren()).containsExactly(b, c);
+  }
+
+  /**
+   * Builds an ARG with the given edges between states with the given indices, where the state with
+   * index 0 is the root, removes the given edges again, and recalculates the reached set either
+   * completely or only below the states that lost a parent.
+   *
+   * @return the indices of the removed states
+   */
+  private static Set<Integer> recalculate(
+      int pSize, int[][] pEdges, int[][] pRemovedEdges, boolean pIncremental)
+      throws InvalidConfigurationException {
+    ReachedSet reachedSet = createReachedSet();
+    List<ARGState> states = new ArrayList<>(pSize);
+    for (int i = 0; i < pSize; i++) {
+      states.add(addState(reachedSet, null));
+    }
+    for (int[] edge : pEdges) {
+      states.get(edge[1]).addParent(states.get(edge[0]));
+    }
+    List<ARGState> statesWithRemovedParents = new ArrayList<>();
+    for (int[] edge : pRemovedEdges) {
+      states.get(edge[1]).removeParent(states.get(edge[0]));
+      statesWithRemovedParents.add(states.get(edge[1]));
+    }
+
+    ARGReachedSet argReachedSet = new ARGReachedSet(reachedSet);
+    if (pIncremental) {
+      argReachedSet.recalculateReachedSet(states.get(0), statesWithRemovedParents);
+    } else {
+      argReachedSet.recalculateReachedSet(states.get(0));
+    }
+
+    ImmutableSet.Builder<Integer> removed = ImmutableSet.builder();
+    for (int i = 0; i < pSize; i++) {
+      assertThat(reachedSet.contains(states.get(i))).isNotEqualTo(states.get(i).isDestroyed());
+      if (states.get(i).isDestroyed()) {
+        removed.add(i);
+      }
+    }
+    return removed.build();
+  }
+
+  private static void assertRecalculationRemoves(
+      int pSize, int[][] pEdges, int[][] pRemovedEdges, Integer... pExpected)
+      throws InvalidConfigurationException {
+    assertThat(recalculate(pSize, pEdges, pRemovedEdges, false))
+        .containsExactlyElementsIn(ImmutableList.copyOf(pExpected));
+    assertThat(recalculate(pSize, pEdges, pRemovedEdges, true))
+        .containsExactlyElementsIn(ImmutableList.copyOf(pExpected));
+  }
+
+  private static final int[][] DIAMOND = {{0, 1}, {0, 2}, {1, 3}, {2, 3}, {3, 4}};
+
+  @Test
+  public void testRecalculateDiamond() throws InvalidConfigurationException {
+    assertRecalculationRemoves(5, DIAMOND, new int[][] {});
+    assertRecalculationRemoves(5, DIAMOND, new int[][] {{1, 3}});
+    assertRecalculationRemoves(5, DIAMOND, new int[][] {{1, 3}, {2, 3}}, 3, 4);
+    assertRecalculationRemoves(5, DIAMOND, new int[][] {{0, 1}, {2, 3}}, 1, 3, 4);
+    assertRecalculationRemoves(5, DIAMOND, new int[][] {{0, 1}, {1, 3}}, 1);
+    assertRecalculationRemoves(5, DIAMOND, new int[][] {{0, 1}, {0, 2}}, 1, 2, 3, 4);
+  }
+
+  @Test
+  public void testRecalculateUnreachableCycle() throws InvalidConfigurationException {
+    int[][] edges = {{0, 1}, {1, 2}, {2, 3}, {3, 2}, {3, 4}};
+    // 2 still has a parent in the cycle, but the cycle is unreachable
+    assertRecalculationRemoves(5, edges, new int[][] {{1, 2}}, 2, 3, 4);
+    assertRecalculationRemoves(5, edges, new int[][] {{3, 2}});
+  }
+
+  @Test
+  public void testRecalculateCycleWithSecondEntry() throws InvalidConfigurationException {
+    int[][] edges = {{0, 1}, {1, 2}, {2, 3}, {3, 2}, {0, 4}, {4, 3}};
+    assertRecalculationRemoves(5, edges, new int[][] {{1, 2}});
+    assertRecalculationRemoves(5, edges, new int[][] {{1, 2}, {4, 3}}, 2, 3);
+    assertRecalculationRemoves(5, edges, new int[][] {{4, 3}, {2, 3}}, 3);
+  }
+
+  @Test
+  public void testRecalculateUncoversStates() throws InvalidConfigurationException {
+    ARGState a = addState(root);
+    ARGState a1 = addState(a);
+    ARGState b = addState(root);
+    ARGState b1 = addState(b);
+    b1.setCovered(a1);
+    clearWaitlist();
+
+    a.removeParent(root);
+    argReached.recalculateReachedSet(root, ImmutableList.of(a));
+
+    assertRemoved(a, a1);
+    assertKept(root, b, b1);
+    assertThat(b1.isCovered()).isFalse();
+    assertThat(reached.getWaitlist()).containsExactly(b1);
+  }
+}
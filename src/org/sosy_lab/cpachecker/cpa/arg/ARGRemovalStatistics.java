@@ -0,0 +1,42 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.arg;
+
+import java.io.PrintStream;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatKind;
+import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+import org.sosy_lab.cpachecker.util.statistics.StatTimerWithMoreOutput;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+
+/** Statistics about the removal of parts of the ARG by {@link ARGReachedSet} in refinements. */
+class ARGRemovalStatistics implements Statistics {
+
+  final StatTimer removalTime =
+      new StatTimerWithMoreOutput("Time for removing parts of the ARG");
+  final StatInt removedStates = new StatInt(StatKind.SUM, "Number of removed ARG states");
+  final StatInt removedCoveredStates =
+      new StatInt(StatKind.SUM, "Number of removed states covered by removed subtrees");
+
+  @Override
+  public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+    StatisticsWriter.writingStatisticsTo(pOut)
+        .putIfUpdatedAtLeastOnce(removalTime)
+        .putIfUpdatedAtLeastOnce(removedStates)
+        .putIfUpdatedAtLeastOnce(removedCoveredStates);
+  }
+
+  @Override
+  public String getName() {
+    return "ARG removal";
+  }
+}
@@ -60,6 +60,10 @@ public class ARGState extends AbstractSerializableSingleWrapperState
   private boolean destroyed = false;
   private boolean hasCoveredParent = false;
 
+  // generation of the last traversal of ARGReachedSet that visited this state,
+  // this replaces a set of visited states when pruning the ARG
+  private int visitedInGeneration = -1;
+
   private ARGState mergedWith = null;
 
   private final int stateId;
@@ -339,6 +343,23 @@ public class ARGState extends AbstractSerializableSingleWrapperState
     return destroyed;
   }
 
+  /**
+   * Marks this state as visited in the given generation.
+   *
+   * @return whether this state was not yet visited in this generation
+   */
+  boolean markVisited(int pGeneration) {
+    if (visitedInGeneration == pGeneration) {
+      return false;
+    }
+    visitedInGeneration = pGeneration;
+    return true;
+  }
+
+  boolean wasVisited(int pGeneration) {
+    return visitedInGeneration == pGeneration;
+  }
+
   /**
    * The ordering of this class is the chronological creation order.
    */
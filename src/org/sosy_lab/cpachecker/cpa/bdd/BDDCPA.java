@@ -40,7 +40,8 @@ import org.sosy_lab.cpachecker.util.predicates.regions.NamedRegionManager;
 import org.sosy_lab.cpachecker.util.predicates.regions.RegionManager;
 
 @Options(prefix="cpa.bdd")
-public class BDDCPA implements ConfigurableProgramAnalysisWithBAM, StatisticsProvider {
+public class BDDCPA
+    implements ConfigurableProgramAnalysisWithBAM, StatisticsProvider, AutoCloseable {
 
   public static CPAFactory factory() {
     return AutomaticCPAFactory.forType(BDDCPA.class);
@@ -185,5 +186,10 @@ public class BDDCPA implements ConfigurableProgramAnalysisWithBAM, StatisticsPro
     return shutdownNotifier;
   }
 
+  @Override
+  public void close() {
+    manager.close();
+  }
+
 
 }
@@ -230,6 +230,7 @@ public class DCARefiner implements Refiner, StatisticsProvider, AutoCloseable {
         LassoAnalysis.create(
             lassoBuilder,
             rankingRelationBuilder,
+            formulaManagerView,
             solverContext,
             pLogger,
             pConfig,
@@ -14,6 +14,7 @@ import static com.google.common.math.LongMath.saturatedMultiply;
 
 import com.google.common.primitives.Longs;
 import java.io.Serializable;
+import java.util.NavigableSet;
 import java.util.Objects;
 
 public final class Interval implements Serializable {
@@ -121,6 +122,41 @@ public final class Interval implements Serializable {
     }
   }
 
+  /**
+   * This method creates a new interval instance representing the widening of this interval with
+   * another interval.
+   *
+   * Each bound of the other interval that is not included in this interval is moved to the next
+   * threshold in the respective direction, or to infinity if there is no such threshold.
+   *
+   * @param other the other interval
+   * @param thresholds the thresholds for the bounds
+   * @return the new interval with the respective bounds
+   */
+  public Interval widen(Interval other, NavigableSet<Long> thresholds) {
+    if (isEmpty()) {
+      return other;
+    } else if (other.isEmpty() || contains(other)) {
+      return this;
+    }
+
+    Long newLow = low;
+    if (other.low < low) {
+      newLow = thresholds.floor(other.low);
+      if (newLow == null) {
+        newLow = Long.MIN_VALUE;
+      }
+    }
+    Long newHigh = high;
+    if (other.high > high) {
+      newHigh = thresholds.ceiling(other.high);
+      if (newHigh == null) {
+        newHigh = Long.MAX_VALUE;
+      }
+    }
+    return new Interval(newLow, newHigh);
+  }
+
   /**
    * This method creates a new interval instance representing the intersection of this interval with another interval.
    *
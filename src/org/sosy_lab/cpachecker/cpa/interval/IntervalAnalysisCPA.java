@@ -8,6 +8,9 @@
 
 package org.sosy_lab.cpachecker.cpa.interval;
 
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import java.math.BigInteger;
 import java.util.Collection;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
@@ -16,6 +19,9 @@ import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.ast.AAstNode;
+import org.sosy_lab.cpachecker.cfa.ast.AIntegerLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.defaults.AbstractCPA;
 import org.sosy_lab.cpachecker.core.defaults.AutomaticCPAFactory;
@@ -30,6 +36,7 @@ import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker.ProofCheckerCPA;
+import org.sosy_lab.cpachecker.util.CFAUtils;
 import org.sosy_lab.cpachecker.util.StateToFormulaWriter;
 
 @Options(prefix = "cpa.interval")
@@ -45,8 +52,10 @@ public class IntervalAnalysisCPA extends AbstractCPA
     return AutomaticCPAFactory.forType(IntervalAnalysisCPA.class);
   }
 
-  @Option(secure=true, name="merge", toUppercase=true, values={"SEP", "JOIN"},
-          description="which type of merge operator to use for IntervalAnalysisCPA")
+  @Option(secure=true, name="merge", toUppercase=true, values={"SEP", "JOIN", "WIDENING"},
+          description="which type of merge operator to use for IntervalAnalysisCPA"
+              + " (WIDENING joins states and widens them at loop heads,"
+              + " without a subsequent narrowing)")
   /**
    * the merge type of the interval analysis
    */
@@ -68,9 +77,23 @@ public class IntervalAnalysisCPA extends AbstractCPA
   )
   private int threshold = -1;
 
+  @Option(
+    secure = true,
+    description =
+        "use the integer constants of the program and their neighbours as thresholds "
+            + "when widening at loop heads (only used with merge type WIDENING)"
+  )
+  private boolean wideningThresholds = true;
+
   private final StateToFormulaWriter writer;
   private final LogManager logger;
 
+  /** the loop heads of the program, only computed for merge type WIDENING */
+  private final ImmutableSet<CFANode> loopHeads;
+
+  /** the bounds that are tried before a widened bound jumps to infinity */
+  private final ImmutableSortedSet<Long> thresholds;
+
   /**
    * This method acts as the constructor of the interval analysis CPA.
    *
@@ -83,10 +106,55 @@ public class IntervalAnalysisCPA extends AbstractCPA
     config.inject(this);
     writer = new StateToFormulaWriter(config, pLogger, shutdownNotifier, cfa);
     logger = pLogger;
+
+    if (mergeType.equals("WIDENING")) {
+      if (!cfa.getLoopStructure().isPresent()) {
+        throw new InvalidConfigurationException(
+            "Merge type WIDENING of IntervalAnalysisCPA needs loop-structure information in CFA.");
+      }
+      loopHeads = cfa.getLoopStructure().orElseThrow().getAllLoopHeads();
+      thresholds = wideningThresholds ? collectThresholds(cfa) : ImmutableSortedSet.of();
+    } else {
+      loopHeads = ImmutableSet.of();
+      thresholds = ImmutableSortedSet.of();
+    }
+  }
+
+  /**
+   * This method collects the integer literals of the program together with their direct
+   * neighbours, such that the bounds of guards like "i < N" and "i <= N" are hit by the widening.
+   */
+  private static ImmutableSortedSet<Long> collectThresholds(CFA pCfa) {
+    ImmutableSortedSet.Builder<Long> builder = ImmutableSortedSet.naturalOrder();
+    for (CFANode node : pCfa.getAllNodes()) {
+      for (CFAEdge edge : CFAUtils.leavingEdges(node)) {
+        for (AAstNode astNode : CFAUtils.getAstNodesFromCfaEdge(edge)) {
+          for (AAstNode child : CFAUtils.traverseRecursively(astNode)) {
+            if (child instanceof AIntegerLiteralExpression) {
+              BigInteger value = ((AIntegerLiteralExpression) child).getValue();
+              if (value.bitLength() < Long.SIZE) {
+                long constant = value.longValueExact();
+                builder.add(constant);
+                if (constant > Long.MIN_VALUE) {
+                  builder.add(constant - 1);
+                }
+                if (constant < Long.MAX_VALUE) {
+                  builder.add(constant + 1);
+                }
+              }
+            }
+          }
+        }
+      }
+    }
+    return builder.build();
   }
 
   @Override
   public MergeOperator getMergeOperator() {
+    if (mergeType.equals("WIDENING")) {
+      return new IntervalAnalysisWideningMergeOperator(thresholds);
+    }
     return buildMergeOperator(mergeType);
   }
 
@@ -102,7 +170,7 @@ public class IntervalAnalysisCPA extends AbstractCPA
 
   @Override
   public TransferRelation getTransferRelation() {
-    return new IntervalAnalysisTransferRelation(splitIntervals, threshold, logger);
+    return new IntervalAnalysisTransferRelation(splitIntervals, threshold, logger, loopHeads);
   }
 
   @Override
@@ -18,6 +18,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NavigableSet;
+import java.util.function.BinaryOperator;
 import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.collect.PersistentMap;
 import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
@@ -55,12 +57,19 @@ public class IntervalAnalysisState
    */
   private final PersistentMap<String, Integer> referenceCounts;
 
+  /**
+   * whether the element belongs to a loop head, where it may be widened (not part of equality,
+   * because it only depends on the location of the element)
+   */
+  private final boolean isLoopHead;
+
   /**
    *  This method acts as the default constructor, which initializes the intervals and reference counts to empty maps and the previous element to null.
    */
   public IntervalAnalysisState() {
     intervals = PathCopyingPersistentTreeMap.of();
     referenceCounts = PathCopyingPersistentTreeMap.of();
+    isLoopHead = false;
   }
 
   /**
@@ -70,8 +79,37 @@ public class IntervalAnalysisState
    * @param referencesMap the reference counts
    */
   public IntervalAnalysisState(PersistentMap<String, Interval> intervals, PersistentMap<String, Integer> referencesMap) {
+    this(intervals, referencesMap, false);
+  }
+
+  private IntervalAnalysisState(
+      PersistentMap<String, Interval> intervals,
+      PersistentMap<String, Integer> referencesMap,
+      boolean pIsLoopHead) {
     this.intervals        = intervals;
     this.referenceCounts  = referencesMap;
+    this.isLoopHead       = pIsLoopHead;
+  }
+
+  /**
+   * This method returns a copy of this element that is marked as belonging to a loop head.
+   *
+   * @return an element with the same intervals that belongs to a loop head
+   */
+  public IntervalAnalysisState asLoopHead() {
+    if (isLoopHead) {
+      return this;
+    }
+    return new IntervalAnalysisState(intervals, referenceCounts, true);
+  }
+
+  /**
+   * This method determines if this element belongs to a loop head.
+   *
+   * @return true, if this element was marked as belonging to a loop head
+   */
+  public boolean isLoopHead() {
+    return isLoopHead;
   }
 
   /**
@@ -166,6 +204,30 @@ public class IntervalAnalysisState
    */
   @Override
   public IntervalAnalysisState join(IntervalAnalysisState reachedState) {
+    return combine(reachedState, Interval::union);
+  }
+
+  /**
+   * This element widens a reached state with this element, i.e., each interval of the reached
+   * state is widened with the respective interval of this element.
+   *
+   * @param reachedState the reached state to widen with this element
+   * @param thresholds the thresholds for the widening of the bounds
+   * @return a new state representing the widening of the reached state with this element
+   */
+  public IntervalAnalysisState widen(
+      IntervalAnalysisState reachedState, NavigableSet<Long> thresholds) {
+    return combine(
+        reachedState,
+        (thisInterval, reachedInterval) -> reachedInterval.widen(thisInterval, thresholds));
+  }
+
+  /**
+   * This element combines the intervals of the variables that are tracked in this element and in
+   * the reached state with the given operation, all other variables are dropped.
+   */
+  private IntervalAnalysisState combine(
+      IntervalAnalysisState reachedState, BinaryOperator<Interval> operation) {
     boolean changed = false;
     PersistentMap<String, Interval> newIntervals = PathCopyingPersistentTreeMap.of();
     PersistentMap<String, Integer> newReferences = referenceCounts;
@@ -175,7 +237,7 @@ public class IntervalAnalysisState
       Interval otherInterval = reachedState.getInterval(variableName);
       if (intervals.containsKey(variableName)) {
         // update the interval
-        Interval mergedInterval = getInterval(variableName).union(otherInterval);
+        Interval mergedInterval = operation.apply(getInterval(variableName), otherInterval);
         if (mergedInterval != otherInterval) {
           changed = true;
         }
@@ -200,7 +262,7 @@ public class IntervalAnalysisState
     }
 
     if (changed) {
-      return new IntervalAnalysisState(newIntervals, newReferences);
+      return new IntervalAnalysisState(newIntervals, newReferences, reachedState.isLoopHead);
     } else {
       return reachedState;
     }
@@ -10,6 +10,7 @@ package org.sosy_lab.cpachecker.cpa.interval;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import com.google.common.collect.ImmutableSortedSet;
 import org.junit.Test;
 
 @SuppressWarnings({"unchecked", "rawtypes"})
@@ -55,6 +56,26 @@ public class IntervalAnalysisStateTest {
     checkLess(csa1b23, csa1b3);
   }
 
+  @Test
+  public void wideningWithThresholds() {
+    ImmutableSortedSet<Long> thresholds = ImmutableSortedSet.of(-1L, 10L);
+    IntervalAnalysisState reached =
+        new IntervalAnalysisState().addInterval("i", new Interval(0L, 0L), 10).asLoopHead();
+    IntervalAnalysisState next = reached.addInterval("i", new Interval(0L, 1L), 10);
+
+    IntervalAnalysisState widened = next.widen(reached, thresholds);
+    assertThat(widened.getInterval("i")).isEqualTo(new Interval(0L, 10L));
+    assertThat(widened.isLoopHead()).isTrue();
+    assertThat(next.widen(widened, thresholds)).isSameInstanceAs(widened);
+
+    IntervalAnalysisState beyond = widened.addInterval("i", new Interval(-5L, 11L), 10);
+    assertThat(beyond.widen(widened, thresholds).getInterval("i"))
+        .isEqualTo(new Interval(Long.MIN_VALUE, Long.MAX_VALUE));
+    IntervalAnalysisState below = widened.addInterval("i", new Interval(-1L, 3L), 10);
+    assertThat(below.widen(widened, thresholds).getInterval("i"))
+        .isEqualTo(new Interval(-1L, 10L));
+  }
+
   private void checkLess(Comparable c1, Comparable c2) {
     assertThat(c1.compareTo(c2) < 0).isTrue();
     assertThat(c2.compareTo(c1) > 0).isTrue();
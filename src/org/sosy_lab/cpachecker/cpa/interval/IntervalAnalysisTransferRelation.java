@@ -15,6 +15,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.logging.Level;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.ast.c.CAssignment;
@@ -34,6 +35,7 @@ import org.sosy_lab.cpachecker.cfa.ast.c.CStatement;
 import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
 import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
 import org.sosy_lab.cpachecker.cfa.model.c.CAssumeEdge;
 import org.sosy_lab.cpachecker.cfa.model.c.CDeclarationEdge;
@@ -53,16 +55,34 @@ public class IntervalAnalysisTransferRelation extends ForwardingTransferRelation
   private final int threshold;
   private final LogManager logger;
 
+  /** the successors at these locations are marked as loop heads */
+  private final ImmutableSet<CFANode> loopHeads;
+
   public IntervalAnalysisTransferRelation(
       boolean pSplitIntervals, int pThreshold, LogManager pLogger) {
+    this(pSplitIntervals, pThreshold, pLogger, ImmutableSet.of());
+  }
+
+  public IntervalAnalysisTransferRelation(
+      boolean pSplitIntervals,
+      int pThreshold,
+      LogManager pLogger,
+      ImmutableSet<CFANode> pLoopHeads) {
     splitIntervals = pSplitIntervals;
     threshold = pThreshold;
     logger = pLogger;
-
+    loopHeads = pLoopHeads;
   }
 
   @Override
   protected Collection<IntervalAnalysisState> postProcessing(Collection<IntervalAnalysisState> successors, CFAEdge edge) {
+    if (loopHeads.contains(edge.getSuccessor())) {
+      Set<IntervalAnalysisState> loopHeadStates = new HashSet<>();
+      for (IntervalAnalysisState successor : successors) {
+        loopHeadStates.add(successor.asLoopHead());
+      }
+      return loopHeadStates;
+    }
     return new HashSet<>(successors);
   }
 
@@ -0,0 +1,37 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.interval;
+
+import com.google.common.collect.ImmutableSortedSet;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+
+/**
+ * Merge operator of the interval analysis that widens the reached state at loop heads, using the
+ * given thresholds for the bounds, and joins the states at all other locations.
+ */
+class IntervalAnalysisWideningMergeOperator implements MergeOperator {
+
+  private final ImmutableSortedSet<Long> thresholds;
+
+  IntervalAnalysisWideningMergeOperator(ImmutableSortedSet<Long> pThresholds) {
+    thresholds = pThresholds;
+  }
+
+  @Override
+  public AbstractState merge(AbstractState pState1, AbstractState pState2, Precision pPrecision) {
+    IntervalAnalysisState state1 = (IntervalAnalysisState) pState1;
+    IntervalAnalysisState reachedState = (IntervalAnalysisState) pState2;
+    if (reachedState.isLoopHead()) {
+      return state1.widen(reachedState, thresholds);
+    }
+    return state1.join(reachedState);
+  }
+}
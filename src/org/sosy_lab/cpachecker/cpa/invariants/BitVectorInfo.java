@@ -30,12 +30,28 @@ public class BitVectorInfo implements TypeInfo {
 
   private final BigInteger maxValue;
 
+  /**
+   * Whether all values of the bit vector fit into a {@code long}, in which case intervals of this
+   * type store their bounds as primitive values.
+   */
+  private final boolean fitsInLong;
+
+  private final long minLongValue;
+
+  private final long maxLongValue;
+
+  private final BitVectorInterval range;
+
   private BitVectorInfo(int pSize, boolean pSigned) {
     Preconditions.checkArgument(pSize >= 0, "bit vector size must not be negative");
     size = pSize;
     signed = pSigned;
     minValue = !signed ? BigInteger.ZERO : BigInteger.valueOf(2).pow(size - 1).negate();
     maxValue = !signed ? BigInteger.valueOf(2).pow(size).subtract(BigInteger.ONE) : BigInteger.valueOf(2).pow(size - 1).subtract(BigInteger.ONE);
+    fitsInLong = minValue.bitLength() < Long.SIZE && maxValue.bitLength() < Long.SIZE;
+    minLongValue = fitsInLong ? minValue.longValueExact() : Long.MIN_VALUE;
+    maxLongValue = fitsInLong ? maxValue.longValueExact() : Long.MAX_VALUE;
+    range = BitVectorInterval.of(this, minValue, maxValue);
   }
 
   public int getSize() {
@@ -58,7 +74,26 @@ public class BitVectorInfo implements TypeInfo {
   }
 
   public BitVectorInterval getRange() {
-    return BitVectorInterval.of(this, minValue, maxValue);
+    return range;
+  }
+
+  /**
+   * Checks whether all values of this bit vector type can be represented by a {@code long}.
+   *
+   * @return {@code true} if both the minimum and the maximum value fit into a {@code long}.
+   */
+  boolean fitsInLong() {
+    return fitsInLong;
+  }
+
+  /** Gets the minimum value, may only be called if {@link #fitsInLong()} returns true. */
+  long getMinLongValue() {
+    return minLongValue;
+  }
+
+  /** Gets the maximum value, may only be called if {@link #fitsInLong()} returns true. */
+  long getMaxLongValue() {
+    return maxLongValue;
   }
 
   @Override
@@ -17,6 +17,7 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * This class represents simple convex ranges of BigIntegers.
@@ -24,19 +25,35 @@ import java.util.Objects;
  * concrete value or infinity. In case of a concrete value, the bound is assumed
  * to be included in the range.
  *
+ * If all values of the bit vector fit into a {@code long}, the bounds are
+ * stored as primitive values and {@link BigInteger} objects are only created
+ * on demand. Otherwise, the bounds are stored as {@link BigInteger} objects.
+ *
  * All instances of this class are immutable.
  */
 public class BitVectorInterval implements BitVectorType {
 
   /**
-   * The lower bound of the interval.
+   * The lower bound of the interval, if it is stored as a primitive value.
+   */
+  private final long lowerBound;
+
+  /**
+   * The upper bound of the interval, if it is stored as a primitive value.
    */
-  private final BigInteger lowerBound;
+  private final long upperBound;
 
   /**
-   * The upper bound of the interval.
+   * The lower bound of the interval, or {@code null} if it is stored as a
+   * primitive value.
    */
-  private final BigInteger upperBound;
+  private final @Nullable BigInteger bigLowerBound;
+
+  /**
+   * The upper bound of the interval, or {@code null} if it is stored as a
+   * primitive value.
+   */
+  private final @Nullable BigInteger bigUpperBound;
 
   /**
    * Size and signedness.
@@ -60,9 +77,50 @@ public class BitVectorInterval implements BitVectorType {
     checkArgument(pLowerBound.compareTo(pInfo.getMinValue()) >= 0, "lower bound must fit the bit vector");
     checkArgument(pUpperBound.compareTo(pInfo.getMaxValue()) <= 0, "upper bound must fit the bit vector");
 
+    info = pInfo;
+    if (pInfo.fitsInLong()) {
+      lowerBound = pLowerBound.longValue();
+      upperBound = pUpperBound.longValue();
+      bigLowerBound = null;
+      bigUpperBound = null;
+    } else {
+      lowerBound = 0;
+      upperBound = 0;
+      bigLowerBound = pLowerBound;
+      bigUpperBound = pUpperBound;
+    }
+  }
+
+  /**
+   * Creates a new interval from the given lower bound to the given upper bound
+   * for a bit vector whose values fit into a {@code long}.
+   *
+   * The lower bound must be a value less than or equal to the upper bound.
+   *
+   * @param pLowerBound the lower bound of the interval.
+   * @param pUpperBound the upper bound of the interval.
+   */
+  private BitVectorInterval(BitVectorInfo pInfo, long pLowerBound, long pUpperBound) {
+    checkArgument(pInfo.fitsInLong());
+    checkArgument(pLowerBound <= pUpperBound, "lower endpoint greater than upper end point");
+    checkArgument(pLowerBound >= pInfo.getMinLongValue(), "lower bound must fit the bit vector");
+    checkArgument(pUpperBound <= pInfo.getMaxLongValue(), "upper bound must fit the bit vector");
+
     info = pInfo;
     lowerBound = pLowerBound;
     upperBound = pUpperBound;
+    bigLowerBound = null;
+    bigUpperBound = null;
+  }
+
+  /**
+   * Checks if the bounds of this interval are stored as primitive values.
+   * This is the case for all intervals whose bit vector values fit into a
+   * {@code long}, so two compatible intervals always use the same
+   * representation.
+   */
+  private boolean isCompact() {
+    return bigLowerBound == null;
   }
 
   /**
@@ -79,14 +137,99 @@ public class BitVectorInterval implements BitVectorType {
    * Return lower bound (may only be called if {@link #hasLowerBound()} returns true.
    */
   public BigInteger getLowerBound() {
-    return lowerBound;
+    return bigLowerBound == null ? BigInteger.valueOf(lowerBound) : bigLowerBound;
   }
 
   /**
    * Return upper bound (may only be called if {@link #hasUpperBound()} returns true.
    */
   public BigInteger getUpperBound() {
-    return upperBound;
+    return bigUpperBound == null ? BigInteger.valueOf(upperBound) : bigUpperBound;
+  }
+
+  /*
+   * The following comparisons of bounds also work for intervals of different
+   * bit vectors, e.g., for checking if the range of one bit vector contains
+   * the range of another one. The bounds are only compared as primitive values
+   * if both intervals store them as such.
+   */
+
+  /** Compares the lower bound of this interval with the lower bound of the given interval. */
+  int compareLowerBoundWith(BitVectorInterval pOther) {
+    if (isCompact() && pOther.isCompact()) {
+      return Long.compare(lowerBound, pOther.lowerBound);
+    }
+    return getLowerBound().compareTo(pOther.getLowerBound());
+  }
+
+  /** Compares the upper bound of this interval with the upper bound of the given interval. */
+  int compareUpperBoundWith(BitVectorInterval pOther) {
+    if (isCompact() && pOther.isCompact()) {
+      return Long.compare(upperBound, pOther.upperBound);
+    }
+    return getUpperBound().compareTo(pOther.getUpperBound());
+  }
+
+  /** Compares the lower bound of this interval with the upper bound of the given interval. */
+  int compareLowerBoundWithUpperBoundOf(BitVectorInterval pOther) {
+    if (isCompact() && pOther.isCompact()) {
+      return Long.compare(lowerBound, pOther.upperBound);
+    }
+    return getLowerBound().compareTo(pOther.getUpperBound());
+  }
+
+  /** Compares the upper bound of this interval with the lower bound of the given interval. */
+  int compareUpperBoundWithLowerBoundOf(BitVectorInterval pOther) {
+    return -pOther.compareLowerBoundWithUpperBoundOf(this);
+  }
+
+  /**
+   * Computes the sum of this interval and the given interval on primitive
+   * values, if this is possible without leaving the range of the bit vector.
+   *
+   * @param pOther the interval to add to this interval.
+   * @return the sum of the intervals, or {@code null} if the bounds are not
+   * stored as primitive values or if the sum does not fit the bit vector.
+   */
+  public @Nullable BitVectorInterval tryAdd(BitVectorInterval pOther) {
+    if (!isCompact() || !pOther.isCompact()) {
+      return null;
+    }
+    return tryAdd(pOther.lowerBound, pOther.upperBound);
+  }
+
+  /**
+   * Computes the sum of this interval and the given value on primitive
+   * values, if this is possible without leaving the range of the bit vector.
+   *
+   * @param pValue the value to add to this interval.
+   * @return the sum of the interval and the value, or {@code null} if the
+   * bounds are not stored as primitive values or if the sum does not fit the
+   * bit vector.
+   */
+  public @Nullable BitVectorInterval tryAdd(BigInteger pValue) {
+    if (!isCompact() || pValue.bitLength() >= Long.SIZE) {
+      return null;
+    }
+    long value = pValue.longValue();
+    return tryAdd(value, value);
+  }
+
+  private @Nullable BitVectorInterval tryAdd(long pLowerSummand, long pUpperSummand) {
+    long newLowerBound = lowerBound + pLowerSummand;
+    long newUpperBound = upperBound + pUpperSummand;
+    // The sum of two longs overflows iff its sign differs from the signs of both summands
+    if (((lowerBound ^ newLowerBound) & (pLowerSummand ^ newLowerBound)) < 0
+        || ((upperBound ^ newUpperBound) & (pUpperSummand ^ newUpperBound)) < 0) {
+      return null;
+    }
+    if (newLowerBound < info.getMinLongValue() || newUpperBound > info.getMaxLongValue()) {
+      return null;
+    }
+    if (newLowerBound == lowerBound && newUpperBound == upperBound) {
+      return this;
+    }
+    return new BitVectorInterval(info, newLowerBound, newUpperBound);
   }
 
   /**
@@ -123,24 +266,27 @@ public class BitVectorInterval implements BitVectorType {
     // The lower bound of this interval is a candidate for the new lower bound
     // The lower bound of the other interval is a candidate as well
     // The new lower bound is the maximum of both lower bounds.
-    BigInteger newLowerBound = this.lowerBound.max(pOther.getLowerBound());
-
     // The upper bound of this interval is a candidate for the new lower bound
     // The upper bound of the other interval is a candidate as well
     // The new upper bound is the minimum of both upper bounds.
-    BigInteger newUpperBound = this.upperBound.min(pOther.getUpperBound());
-
-    return new BitVectorInterval(info, newLowerBound, newUpperBound);
+    if (isCompact()) {
+      return new BitVectorInterval(
+          info,
+          Math.max(lowerBound, pOther.lowerBound),
+          Math.min(upperBound, pOther.upperBound));
+    }
+    return new BitVectorInterval(
+        info, bigLowerBound.max(pOther.bigLowerBound), bigUpperBound.min(pOther.bigUpperBound));
   }
 
   public BitVectorInterval getNegativePart() {
     Preconditions.checkArgument(containsNegative(), "This interval has no negative part.");
-    return BitVectorInterval.of(info, lowerBound, BigInteger.valueOf(-1).min(upperBound));
+    return BitVectorInterval.of(info, getLowerBound(), BigInteger.valueOf(-1).min(getUpperBound()));
   }
 
   public BitVectorInterval getPositivePart() {
     Preconditions.checkArgument(containsPositive(), "This interval has no positive part.");
-    return BitVectorInterval.of(info, BigInteger.ONE.max(lowerBound), upperBound);
+    return BitVectorInterval.of(info, BigInteger.ONE.max(getLowerBound()), getUpperBound());
   }
 
   /**
@@ -165,7 +311,10 @@ public class BitVectorInterval implements BitVectorType {
    * positive value, <code>false</code> otherwise.
    */
   public boolean containsPositive() {
-    return upperBound.signum() == 1;
+    if (isCompact()) {
+      return upperBound > 0;
+    }
+    return bigUpperBound.signum() == 1;
   }
 
   /**
@@ -174,8 +323,11 @@ public class BitVectorInterval implements BitVectorType {
    * <code>false</code> otherwise.
    */
   public boolean containsZero() {
-    return upperBound.signum() >= 0
-        && lowerBound.signum() <= 0;
+    if (isCompact()) {
+      return upperBound >= 0 && lowerBound <= 0;
+    }
+    return bigUpperBound.signum() >= 0
+        && bigLowerBound.signum() <= 0;
   }
 
   /**
@@ -184,8 +336,15 @@ public class BitVectorInterval implements BitVectorType {
    * <code>false</code> otherwise.
    */
   public boolean contains(BigInteger pValue) {
-    return upperBound.compareTo(pValue) >= 0
-        && lowerBound.compareTo(pValue) <= 0;
+    if (isCompact()) {
+      if (pValue.bitLength() >= Long.SIZE) {
+        return false;
+      }
+      long value = pValue.longValue();
+      return upperBound >= value && lowerBound <= value;
+    }
+    return bigUpperBound.compareTo(pValue) >= 0
+        && bigLowerBound.compareTo(pValue) <= 0;
   }
 
   /**
@@ -194,7 +353,10 @@ public class BitVectorInterval implements BitVectorType {
    * negative value, <code>false</code> otherwise.
    */
   public boolean containsNegative() {
-    return lowerBound.signum() == -1;
+    if (isCompact()) {
+      return lowerBound < 0;
+    }
+    return bigLowerBound.signum() == -1;
   }
 
   /**
@@ -204,7 +366,7 @@ public class BitVectorInterval implements BitVectorType {
    * @return The upper bound minus the lower bound plus one.
    */
   public BigInteger size() {
-    return upperBound.subtract(lowerBound).add(BigInteger.ONE);
+    return getUpperBound().subtract(getLowerBound()).add(BigInteger.ONE);
   }
 
   /**
@@ -216,7 +378,10 @@ public class BitVectorInterval implements BitVectorType {
    * single value, <code>false</code> otherwise.
    */
   public boolean isSingleton() {
-    return lowerBound.equals(upperBound);
+    if (isCompact()) {
+      return lowerBound == upperBound;
+    }
+    return bigLowerBound.equals(bigUpperBound);
   }
 
   /**
@@ -230,8 +395,8 @@ public class BitVectorInterval implements BitVectorType {
    * @return the mathematical negation of this interval.
    */
   public BitVectorInterval negate(boolean pAllowSignedWrapAround, OverflowEventHandler pOverflowEventHandler) {
-    BigInteger newLowerBound = upperBound.negate();
-    BigInteger newUpperBound = lowerBound.negate();
+    BigInteger newLowerBound = getUpperBound().negate();
+    BigInteger newUpperBound = getLowerBound().negate();
 
     boolean lbExceedsBelow = newLowerBound.compareTo(info.getMinValue()) < 0;
     boolean lbExceedsAbove = !lbExceedsBelow && newLowerBound.compareTo(info.getMaxValue()) > 0;
@@ -371,10 +536,16 @@ public class BitVectorInterval implements BitVectorType {
    * allowed by the bit vector size.
    */
   public BitVectorInterval extendToMaxValue() {
-    if (upperBound.equals(info.getMaxValue())) {
+    if (isCompact()) {
+      if (upperBound == info.getMaxLongValue()) {
+        return this;
+      }
+      return new BitVectorInterval(info, lowerBound, info.getMaxLongValue());
+    }
+    if (bigUpperBound.equals(info.getMaxValue())) {
       return this;
     }
-    return new BitVectorInterval(info, lowerBound, info.getMaxValue());
+    return new BitVectorInterval(info, bigLowerBound, info.getMaxValue());
   }
 
   /**
@@ -385,10 +556,16 @@ public class BitVectorInterval implements BitVectorType {
    * allowed by the bit vector size.
    */
   public BitVectorInterval extendToMinValue() {
-    if (lowerBound.equals(info.getMinValue())) {
+    if (isCompact()) {
+      if (lowerBound == info.getMinLongValue()) {
+        return this;
+      }
+      return new BitVectorInterval(info, info.getMinLongValue(), upperBound);
+    }
+    if (bigLowerBound.equals(info.getMinValue())) {
       return this;
     }
-    return new BitVectorInterval(info, info.getMinValue(), upperBound);
+    return new BitVectorInterval(info, info.getMinValue(), bigUpperBound);
   }
 
   @Override
@@ -400,18 +577,36 @@ public class BitVectorInterval implements BitVectorType {
     }
 
     BitVectorInterval other = (BitVectorInterval) pObj;
-    return Objects.equals(this.lowerBound, other.lowerBound)
-        && Objects.equals(this.upperBound, other.upperBound);
+    if (isCompact() && other.isCompact()) {
+      return this.lowerBound == other.lowerBound && this.upperBound == other.upperBound;
+    }
+    return Objects.equals(this.getLowerBound(), other.getLowerBound())
+        && Objects.equals(this.getUpperBound(), other.getUpperBound());
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(lowerBound, upperBound);
+    // Intervals of different bit vectors may be equal, so the hash code must
+    // not depend on the representation of the bounds
+    if (isCompact()) {
+      return 31 * Long.hashCode(lowerBound) + Long.hashCode(upperBound);
+    }
+    return 31 * hashCode(bigLowerBound) + hashCode(bigUpperBound);
+  }
+
+  private static int hashCode(BigInteger pBound) {
+    if (pBound.bitLength() < Long.SIZE) {
+      return Long.hashCode(pBound.longValue());
+    }
+    return pBound.hashCode();
   }
 
   @Override
   public String toString() {
-    return "[" + lowerBound + ", " + upperBound + "]";
+    if (isCompact()) {
+      return "[" + lowerBound + ", " + upperBound + "]";
+    }
+    return "[" + bigLowerBound + ", " + bigUpperBound + "]";
   }
 
   /**
@@ -428,8 +623,7 @@ public class BitVectorInterval implements BitVectorType {
       return false;
     }
 
-    return this.lowerBound.compareTo(pOther.lowerBound) <= 0
-        && this.upperBound.compareTo(pOther.upperBound) >= 0;
+    return compareLowerBoundWith(pOther) <= 0 && compareUpperBoundWith(pOther) >= 0;
   }
 
   /**
@@ -445,8 +639,13 @@ public class BitVectorInterval implements BitVectorType {
   public boolean touches(BitVectorInterval pOther) {
     if (pOther == null) { return false; }
     if (intersectsWith(pOther)) { return true; }
-    return pOther.upperBound.add(BigInteger.ONE).equals(this.lowerBound)
-        || this.upperBound.add(BigInteger.ONE).equals(pOther.lowerBound);
+    if (isCompact() && pOther.isCompact()) {
+      // an upper bound that is less than some other bound can be incremented without overflow
+      return (pOther.upperBound < this.lowerBound && pOther.upperBound + 1 == this.lowerBound)
+          || (this.upperBound < pOther.lowerBound && this.upperBound + 1 == pOther.lowerBound);
+    }
+    return pOther.getUpperBound().add(BigInteger.ONE).equals(this.getLowerBound())
+        || this.getUpperBound().add(BigInteger.ONE).equals(pOther.getLowerBound());
   }
 
   /**
@@ -460,8 +659,8 @@ public class BitVectorInterval implements BitVectorType {
 
     // this is [a, b]; other is [c, d]
     // result is true if a <= d and b >= c
-    boolean aLessThanOrEqB = this.lowerBound.compareTo(other.upperBound) <= 0;
-    boolean bGreaterThanOrEqC = this.upperBound.compareTo(other.lowerBound) >= 0;
+    boolean aLessThanOrEqB = compareLowerBoundWithUpperBoundOf(other) <= 0;
+    boolean bGreaterThanOrEqC = compareUpperBoundWithLowerBoundOf(other) >= 0;
     return aLessThanOrEqB && bGreaterThanOrEqC;
   }
 
@@ -537,6 +736,13 @@ public class BitVectorInterval implements BitVectorType {
     return singleton(pInfo, pI).extendToMinValue();
   }
 
+  public static BitVectorInterval singleton(BitVectorInfo pInfo, long pI) {
+    if (pInfo.fitsInLong()) {
+      return new BitVectorInterval(pInfo, pI, pI);
+    }
+    return singleton(pInfo, BigInteger.valueOf(pI));
+  }
+
   public static BitVectorInterval of(BitVectorInfo pInfo, BigInteger pLowerBound, BigInteger pUpperBound) {
     return new BitVectorInterval(pInfo, pLowerBound, pUpperBound);
   }
@@ -546,26 +752,18 @@ public class BitVectorInterval implements BitVectorType {
    */
   public static BitVectorInterval span(BitVectorInterval a, BitVectorInterval b) {
     a.checkBitVectorCompatibilityWith(b);
-    BigInteger lower;
-    if (a.lowerBound == null || b.lowerBound == null) {
-      lower = null;
-    } else {
-      lower = a.lowerBound.min(b.lowerBound);
-    }
-
-    BigInteger upper;
-    if (a.upperBound == null || b.upperBound == null) {
-      upper = null;
-    } else {
-      upper = a.upperBound.max(b.upperBound);
-    }
-
-    if (Objects.equals(lower, a.lowerBound) && Objects.equals(upper, a.upperBound)) {
+    if (a.contains(b)) {
       return a;
-    } else if (Objects.equals(lower, b.lowerBound) && Objects.equals(upper, b.upperBound)) {
+    } else if (b.contains(a)) {
       return b;
+    } else if (a.isCompact()) {
+      return new BitVectorInterval(
+          a.info,
+          Math.min(a.lowerBound, b.lowerBound),
+          Math.max(a.upperBound, b.upperBound));
     } else {
-      return new BitVectorInterval(a.info, lower, upper);
+      return new BitVectorInterval(
+          a.info, a.bigLowerBound.min(b.bigLowerBound), a.bigUpperBound.max(b.bigUpperBound));
     }
   }
 }
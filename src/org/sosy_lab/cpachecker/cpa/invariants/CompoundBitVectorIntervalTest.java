@@ -0,0 +1,186 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.invariants;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.math.BigInteger;
+import java.util.BitSet;
+import java.util.Random;
+import org.junit.Test;
+
+public class CompoundBitVectorIntervalTest {
+
+  private static final BitVectorInfo CHAR = BitVectorInfo.from(8, true);
+
+  private static final BitVectorInfo INT = BitVectorInfo.from(32, true);
+
+  private static final BitVectorInfo UNSIGNED_INT = BitVectorInfo.from(32, false);
+
+  private static final BitVectorInfo LONG = BitVectorInfo.from(64, true);
+
+  private static final BitVectorInfo UNSIGNED_LONG = BitVectorInfo.from(64, false);
+
+  private static final BigInteger TWO_TO_THE_63 = BigInteger.ONE.shiftLeft(63);
+
+  private static CompoundBitVectorInterval randomCompound(Random pRandom, BitSet pValues) {
+    CompoundBitVectorInterval result = CompoundBitVectorInterval.bottom(CHAR);
+    for (int i = pRandom.nextInt(4); i > 0; i--) {
+      int lower = pRandom.nextInt(256) - 128;
+      int upper = Math.min(127, lower + pRandom.nextInt(40));
+      result =
+          result.unionWith(
+              BitVectorInterval.of(CHAR, BigInteger.valueOf(lower), BigInteger.valueOf(upper)));
+      pValues.set(lower + 128, upper + 129);
+    }
+    return result;
+  }
+
+  private static void assertContainsExactly(CompoundBitVectorInterval pInterval, BitSet pValues) {
+    for (int value = -128; value < 128; value++) {
+      assertThat(pInterval.contains(value)).isEqualTo(pValues.get(value + 128));
+      assertThat(pInterval.contains(BigInteger.valueOf(value)))
+          .isEqualTo(pValues.get(value + 128));
+    }
+  }
+
+  @Test
+  public void testRandomOperations() {
+    Random random = new Random(0);
+    for (int round = 0; round < 500; round++) {
+      BitSet values1 = new BitSet();
+      BitSet values2 = new BitSet();
+      CompoundBitVectorInterval interval1 = randomCompound(random, values1);
+      CompoundBitVectorInterval interval2 = randomCompound(random, values2);
+      assertContainsExactly(interval1, values1);
+
+      BitSet union = (BitSet) values1.clone();
+      union.or(values2);
+      assertContainsExactly(interval1.unionWith(interval2), union);
+
+      BitSet intersection = (BitSet) values1.clone();
+      intersection.and(values2);
+      assertContainsExactly(interval1.intersectWith(interval2), intersection);
+      assertThat(interval1.intersectsWith(interval2)).isEqualTo(!intersection.isEmpty());
+
+      int summand = random.nextInt(256) - 128;
+      BitSet sum = new BitSet();
+      boolean wrapped = false;
+      for (int value = values1.nextSetBit(0); value >= 0; value = values1.nextSetBit(value + 1)) {
+        int result = value + summand;
+        wrapped |= result < 0 || result > 255;
+        sum.set((result + 256) % 256);
+      }
+      CompoundBitVectorInterval result = interval1.add(summand, true, OverflowEventHandler.EMPTY);
+      if (wrapped) {
+        // intervals that are only partially wrapped around are over-approximated
+        assertContainsAll(result, sum);
+      } else {
+        assertContainsExactly(result, sum);
+      }
+    }
+  }
+
+  private static void assertContainsAll(CompoundBitVectorInterval pInterval, BitSet pValues) {
+    for (int value = pValues.nextSetBit(0); value >= 0; value = pValues.nextSetBit(value + 1)) {
+      assertThat(pInterval.contains(value - 128)).isTrue();
+    }
+  }
+
+  @Test
+  public void testLongBounds() {
+    BitVectorInterval min = BitVectorInterval.singleton(LONG, Long.MIN_VALUE);
+    BitVectorInterval max = BitVectorInterval.singleton(LONG, Long.MAX_VALUE);
+    assertThat(min.touches(max)).isFalse();
+    assertThat(max.extendToMinValue()).isEqualTo(LONG.getRange());
+    assertThat(min.tryAdd(BigInteger.valueOf(-1))).isNull();
+    assertThat(max.tryAdd(BigInteger.ONE)).isNull();
+    assertThat(min.tryAdd(max)).isEqualTo(BitVectorInterval.singleton(LONG, -1));
+
+    CompoundBitVectorInterval both = CompoundBitVectorInterval.of(min).unionWith(max);
+    assertThat(both.getNumberOfIntervals()).isEqualTo(2);
+    assertThat(both.contains(Long.MAX_VALUE)).isTrue();
+    assertThat(both.contains(0)).isFalse();
+    BigInteger minValue = BigInteger.valueOf(Long.MIN_VALUE);
+    assertThat(both.add(1, true, OverflowEventHandler.EMPTY))
+        .isEqualTo(
+            CompoundBitVectorInterval.of(
+                BitVectorInterval.of(LONG, minValue, minValue.add(BigInteger.ONE))));
+  }
+
+  @Test
+  public void testUnsignedLongBounds() {
+    BitVectorInterval small = BitVectorInterval.singleton(UNSIGNED_LONG, BigInteger.ONE);
+    BitVectorInterval large = BitVectorInterval.singleton(UNSIGNED_LONG, TWO_TO_THE_63);
+    assertThat(small.tryAdd(BigInteger.ONE)).isNull();
+
+    CompoundBitVectorInterval both = CompoundBitVectorInterval.of(small).unionWith(large);
+    assertThat(both.contains(TWO_TO_THE_63)).isTrue();
+    assertThat(both.contains(1)).isTrue();
+    assertThat(both.contains(-1)).isFalse();
+    assertThat(both.add(BigInteger.ONE, true, OverflowEventHandler.EMPTY).contains(2)).isTrue();
+  }
+
+  @Test
+  public void testEqualityAcrossRepresentations() {
+    BitVectorInterval compact = BitVectorInterval.of(CHAR, BigInteger.ONE, BigInteger.TEN);
+    BitVectorInterval big = BitVectorInterval.of(UNSIGNED_LONG, BigInteger.ONE, BigInteger.TEN);
+    assertThat(compact).isEqualTo(big);
+    assertThat(big).isEqualTo(compact);
+    assertThat(compact.hashCode()).isEqualTo(big.hashCode());
+    assertThat(compact.getUpperBound()).isEqualTo(BigInteger.TEN);
+  }
+
+  @Test
+  public void testContainsAcrossRepresentations() {
+    assertThat(UNSIGNED_LONG.getRange().contains(UNSIGNED_INT.getRange())).isTrue();
+    assertThat(UNSIGNED_LONG.getRange().contains(INT.getRange())).isFalse();
+    assertThat(INT.getRange().contains(UNSIGNED_LONG.getRange())).isFalse();
+    assertThat(LONG.getRange().contains(UNSIGNED_LONG.getRange())).isFalse();
+    assertThat(UNSIGNED_LONG.getRange().contains(LONG.getRange())).isFalse();
+    assertThat(UNSIGNED_LONG.getRange().intersectsWith(INT.getRange())).isTrue();
+    assertThat(UNSIGNED_LONG.getRange().touches(INT.getRange())).isTrue();
+
+    BitVectorInterval large = BitVectorInterval.singleton(UNSIGNED_LONG, TWO_TO_THE_63);
+    assertThat(LONG.getRange().intersectsWith(large)).isFalse();
+    assertThat(large.intersectsWith(LONG.getRange())).isFalse();
+    assertThat(large.touches(LONG.getRange())).isTrue();
+
+    CompoundBitVectorInterval unsignedLong = CompoundBitVectorInterval.of(UNSIGNED_LONG.getRange());
+    assertThat(unsignedLong.contains(UNSIGNED_INT.getRange())).isTrue();
+    assertThat(unsignedLong.contains(INT.getRange())).isFalse();
+    assertThat(CompoundBitVectorInterval.of(INT.getRange()).contains(UNSIGNED_LONG.getRange()))
+        .isFalse();
+  }
+
+  @Test
+  public void testCastAcrossRepresentations() {
+    BigInteger maxUnsignedLong = UNSIGNED_LONG.getMaxValue();
+    assertThat(
+            CompoundBitVectorInterval.singleton(INT, -1)
+                .cast(UNSIGNED_LONG, false, OverflowEventHandler.EMPTY))
+        .isEqualTo(CompoundBitVectorInterval.singleton(UNSIGNED_LONG, maxUnsignedLong));
+    assertThat(
+            CompoundBitVectorInterval.singleton(UNSIGNED_INT, 5)
+                .cast(UNSIGNED_LONG, false, OverflowEventHandler.EMPTY))
+        .isEqualTo(CompoundBitVectorInterval.singleton(UNSIGNED_LONG, 5));
+    assertThat(
+            CompoundBitVectorInterval.singleton(UNSIGNED_LONG, maxUnsignedLong)
+                .cast(INT, true, OverflowEventHandler.EMPTY))
+        .isEqualTo(CompoundBitVectorInterval.singleton(INT, -1));
+    assertThat(
+            CompoundBitVectorInterval.singleton(UNSIGNED_LONG, 7)
+                .cast(INT, false, OverflowEventHandler.EMPTY))
+        .isEqualTo(CompoundBitVectorInterval.singleton(INT, 7));
+    assertThat(
+            CompoundBitVectorInterval.singleton(UNSIGNED_LONG, TWO_TO_THE_63)
+                .cast(LONG, true, OverflowEventHandler.EMPTY))
+        .isEqualTo(CompoundBitVectorInterval.singleton(LONG, Long.MIN_VALUE));
+  }
+}
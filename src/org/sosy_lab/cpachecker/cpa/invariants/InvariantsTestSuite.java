@@ -16,6 +16,7 @@ import org.sosy_lab.cpachecker.cpa.invariants.operators.mathematical.ISIOperator
 
 @RunWith(Suite.class)
 @SuiteClasses({
+  CompoundBitVectorIntervalTest.class,
   CompoundMathematicalIntervalTest.class,
   SimpleIntervalTest.class,
   IIIOperatorTest.class,
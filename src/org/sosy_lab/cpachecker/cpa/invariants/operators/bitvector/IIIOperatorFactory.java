@@ -58,6 +58,11 @@ enum IIIOperatorFactory {
               .getAdd(pAllowSignedWrapAround, pOverflowEventHandler)
               .apply(pOperand2, pOperand1.getLowerBound());
         }
+        // Avoid big integer arithmetic if the result fits the bit vector
+        BitVectorInterval sum = pOperand1.tryAdd(pOperand2);
+        if (sum != null) {
+          return sum;
+        }
         /*
          * Add up the lower bounds to the new lower bound, add up the upper
          * bounds for the new upper bound. If any of the summands is not
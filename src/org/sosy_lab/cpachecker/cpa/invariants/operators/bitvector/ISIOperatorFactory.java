@@ -43,6 +43,11 @@ enum ISIOperatorFactory {
         if (pFirstOperand.isTop() || pSecondOperand.equals(BigInteger.ZERO)) {
           return pFirstOperand;
         }
+        // Avoid big integer arithmetic if the result fits the bit vector
+        BitVectorInterval sum = pFirstOperand.tryAdd(pSecondOperand);
+        if (sum != null) {
+          return sum;
+        }
         BigInteger lowerBound = pFirstOperand.getLowerBound().add(pSecondOperand);
         BigInteger upperBound = pFirstOperand.getUpperBound().add(pSecondOperand);
         return BitVectorInterval.cast(
@@ -31,6 +31,7 @@ import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.octagon.OctagonFloatManager;
 import org.sosy_lab.cpachecker.util.octagon.OctagonIntManager;
+import org.sosy_lab.cpachecker.util.octagon.OctagonJavaManager;
 import org.sosy_lab.cpachecker.util.octagon.OctagonManager;
 
 @Options(prefix="cpa.octagon")
@@ -45,6 +46,13 @@ public final class OctagonCPA implements ConfigurableProgramAnalysis {
           + " library will be changed between floats and ints.")
   private String octagonLibrary = "INT";
 
+  @Option(secure=true, name="javaImplementation",
+      description="use the octagon implementation in Java instead of the native octagon library."
+          + " The number representation is still chosen with cpa.octagon.octagonLibrary."
+          + " Only the Java implementation computes closures separately for each group of"
+          + " variables that are related by constraints.")
+  private boolean javaImplementation = false;
+
   @Option(secure=true, name="initialPrecisionType", toUppercase=true, values={"STATIC_FULL", "REFINEABLE_EMPTY"},
       description="this option determines which initial precision should be used")
   private String precisionType = "STATIC_FULL";
@@ -70,7 +78,9 @@ public final class OctagonCPA implements ConfigurableProgramAnalysis {
     logger = log;
     OctagonDomain octagonDomain = new OctagonDomain(logger);
 
-    if (octagonLibrary.equals("FLOAT")) {
+    if (javaImplementation) {
+      octagonManager = new OctagonJavaManager(octagonLibrary.equals("INT"));
+    } else if (octagonLibrary.equals("FLOAT")) {
       octagonManager = new OctagonFloatManager();
     } else {
       octagonManager = new OctagonIntManager();
@@ -0,0 +1,209 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.predicate;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * A pool of solver instances that is used to check the predicates of a cartesian abstraction in
+ * parallel.
+ *
+ * <p>Each worker thread owns a separate {@link Solver} (and thus a separate solver context),
+ * because solver contexts are in general not thread-safe. The abstracted formula and the
+ * predicates are translated into the contexts of the workers by the calling thread, the workers
+ * only do the actual satisfiability checks. The predicates are split into contiguous chunks and the
+ * results are returned in the order of the given predicates, so the result is independent of the
+ * scheduling of the workers. Concurrent calls are serialized, because each worker solver may only
+ * be used by one thread at a time.
+ */
+final class CartesianAbstractionWorkers implements AutoCloseable {
+
+  /** Value of a predicate that is implied by the abstracted formula. */
+  static final byte PREDICATE_TRUE = 1;
+
+  /** Value of a predicate whose negation is implied by the abstracted formula. */
+  static final byte PREDICATE_FALSE = -1;
+
+  /** Value of a predicate that is neither implied nor contradicted by the abstracted formula. */
+  static final byte PREDICATE_DONT_CARE = 0;
+
+  private final ImmutableList<Solver> solvers;
+  private final ExecutorService executor;
+
+  private CartesianAbstractionWorkers(ImmutableList<Solver> pSolvers) {
+    solvers = pSolvers;
+    // important to use daemon threads here, because the executor might never be shut down
+    executor =
+        Executors.newFixedThreadPool(
+            pSolvers.size(),
+            new ThreadFactoryBuilder()
+                .setNameFormat("cartesian-abstraction-%d")
+                .setDaemon(true)
+                .build());
+  }
+
+  /**
+   * Create a pool with the given number of workers, each with a new solver instance configured
+   * like the main solver of the analysis.
+   */
+  static CartesianAbstractionWorkers create(
+      int pThreads, Configuration pConfig, LogManager pLogger, ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException {
+    checkArgument(pThreads > 1, "Parallel cartesian abstraction needs more than one thread");
+    ImmutableList.Builder<Solver> solvers = ImmutableList.builderWithExpectedSize(pThreads);
+    for (int i = 0; i < pThreads; i++) {
+      solvers.add(Solver.create(pConfig, pLogger, pShutdownNotifier));
+    }
+    return new CartesianAbstractionWorkers(solvers.build());
+  }
+
+  /**
+   * Determine the truth value of each predicate with respect to the given formula, i.e., one of
+   * {@link #PREDICATE_TRUE}, {@link #PREDICATE_FALSE}, and {@link #PREDICATE_DONT_CARE}.
+   *
+   * @param fmgr The formula manager of the given formulas.
+   * @param f The (satisfiable) formula to abstract.
+   * @param pPredicates The instantiated predicates.
+   * @param pSolveTime Timer container that collects the solving time of each worker.
+   * @return The values of the predicates in the same order as the given predicates.
+   */
+  synchronized byte[] computePredicateValues(
+      FormulaManagerView fmgr,
+      BooleanFormula f,
+      List<BooleanFormula> pPredicates,
+      ThreadSafeTimerContainer pSolveTime)
+      throws SolverException, InterruptedException {
+    int chunkSize = (pPredicates.size() + solvers.size() - 1) / solvers.size();
+    List<List<BooleanFormula>> chunks = Lists.partition(pPredicates, chunkSize);
+
+    // Translation touches the context of the main solver, so do it in this thread.
+    List<Future<byte[]>> results = new ArrayList<>(chunks.size());
+    try {
+      for (int i = 0; i < chunks.size(); i++) {
+        Solver worker = solvers.get(i);
+        FormulaManagerView workerFmgr = worker.getFormulaManager();
+        BooleanFormula workerFormula = workerFmgr.translateFrom(f, fmgr);
+        ImmutableList<BooleanFormula> workerPredicates =
+            ImmutableList.copyOf(
+                Lists.transform(chunks.get(i), p -> workerFmgr.translateFrom(p, fmgr)));
+        results.add(
+            executor.submit(
+                () -> checkPredicates(worker, workerFormula, workerPredicates, pSolveTime)));
+      }
+
+      byte[] values = new byte[pPredicates.size()];
+      int offset = 0;
+      for (Future<byte[]> result : results) {
+        byte[] chunkValues = result.get();
+        System.arraycopy(chunkValues, 0, values, offset, chunkValues.length);
+        offset += chunkValues.length;
+      }
+      return values;
+
+    } catch (ExecutionException e) {
+      Throwable t = e.getCause();
+      Throwables.propagateIfPossible(t, SolverException.class, InterruptedException.class);
+      throw new UnexpectedCheckedException("parallel cartesian abstraction", t);
+
+    } finally {
+      for (Future<byte[]> result : results) {
+        result.cancel(true);
+      }
+    }
+  }
+
+  private static byte[] checkPredicates(
+      Solver pSolver,
+      BooleanFormula f,
+      List<BooleanFormula> pPredicates,
+      ThreadSafeTimerContainer pSolveTime)
+      throws SolverException, InterruptedException {
+    // timers must not be shared between threads
+    TimerWrapper solveTimer = pSolveTime.getNewTimer();
+    BooleanFormulaManagerView bfmgr = pSolver.getFormulaManager().getBooleanFormulaManager();
+    byte[] values = new byte[pPredicates.size()];
+
+    solveTimer.start();
+    try (ProverEnvironment prover = pSolver.newProverEnvironment()) {
+      prover.push(f);
+
+      for (int i = 0; i < values.length; i++) {
+        values[i] = computePredicateValue(prover, bfmgr, pPredicates.get(i));
+      }
+    } finally {
+      solveTimer.stop();
+    }
+    return values;
+  }
+
+  /**
+   * Check whether a predicate has a truth value in the next state. The abstracted formula is
+   * expected to have been pushed onto the solver stack already.
+   *
+   * @param pProver The solver to use with the input formula on the stack.
+   * @param pBfmgr The boolean formula manager of the solver.
+   * @param pPredTrue The instantiated predicate.
+   * @return {@link #PREDICATE_TRUE} if the predicate is true, {@link #PREDICATE_FALSE} if it is
+   *     false, and {@link #PREDICATE_DONT_CARE} if it is neither true nor false.
+   */
+  static byte computePredicateValue(
+      ProverEnvironment pProver, BooleanFormulaManagerView pBfmgr, BooleanFormula pPredTrue)
+      throws SolverException, InterruptedException {
+    pProver.push(pBfmgr.not(pPredTrue));
+    boolean isTrue = pProver.isUnsat();
+    pProver.pop();
+
+    if (isTrue) {
+      return PREDICATE_TRUE;
+    }
+
+    // check whether it's false...
+    pProver.push(pPredTrue);
+    boolean isFalse = pProver.isUnsat();
+    pProver.pop();
+
+    return isFalse ? PREDICATE_FALSE : PREDICATE_DONT_CARE;
+  }
+
+  int getNumberOfWorkers() {
+    return solvers.size();
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    for (Solver solver : solvers) {
+      solver.close();
+    }
+  }
+}
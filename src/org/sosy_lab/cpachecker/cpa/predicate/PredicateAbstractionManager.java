@@ -10,6 +10,9 @@ package org.sosy_lab.cpachecker.cpa.predicate;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Predicates.equalTo;
+import static org.sosy_lab.cpachecker.cpa.predicate.CartesianAbstractionWorkers.PREDICATE_DONT_CARE;
+import static org.sosy_lab.cpachecker.cpa.predicate.CartesianAbstractionWorkers.PREDICATE_FALSE;
+import static org.sosy_lab.cpachecker.cpa.predicate.CartesianAbstractionWorkers.PREDICATE_TRUE;
 
 import com.google.common.base.Functions;
 import com.google.common.base.Joiner;
@@ -17,6 +20,8 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import java.io.IOException;
 import java.io.Writer;
@@ -87,6 +92,7 @@ public class PredicateAbstractionManager {
   private final Solver solver;
   private final InvariantSupplier invariantSupplier;
   private final @Nullable InductiveWeakeningManager weakeningManager;
+  private final @Nullable CartesianAbstractionWorkers cartesianAbstractionWorkers;
   private final ShutdownNotifier shutdownNotifier;
 
   private static final Set<Integer> noAbstractionReuse = ImmutableSet.of();
@@ -121,6 +127,7 @@ public class PredicateAbstractionManager {
   private final TimerWrapper abstractionReuseImplicationTimer;
   private final TimerWrapper abstractionSolveTimer;
   private final TimerWrapper cartesianAbstractionTimer;
+  private final TimerWrapper parallelCartesianAbstractionTimer;
   private final TimerWrapper booleanAbstractionTimer;
   private final TimerWrapper abstractionModelEnumTimer;
   private final TimerWrapper abstractionBddConstructionTimer;
@@ -136,7 +143,39 @@ public class PredicateAbstractionManager {
       ShutdownNotifier pShutdownNotifier,
       PredicateAbstractionStatistics pAbstractionStats,
       InvariantSupplier pInvariantsSupplier) {
+    this(
+        pAmgr,
+        pPfmgr,
+        pSolver,
+        pOptions,
+        weakeningOptions,
+        pAbstractionStorage,
+        pLogger,
+        pShutdownNotifier,
+        pAbstractionStats,
+        pInvariantsSupplier,
+        null);
+  }
+
+  /**
+   * Create an instance that uses the given workers for checking the predicates of cartesian
+   * abstractions in parallel (if there are enough of them, cf. {@link
+   * PredicateAbstractionManagerOptions#getCartesianAbstractionParallelThreshold()}).
+   */
+  PredicateAbstractionManager(
+      AbstractionManager pAmgr,
+      PathFormulaManager pPfmgr,
+      Solver pSolver,
+      PredicateAbstractionManagerOptions pOptions,
+      WeakeningOptions weakeningOptions,
+      PredicateAbstractionsStorage pAbstractionStorage,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier,
+      PredicateAbstractionStatistics pAbstractionStats,
+      InvariantSupplier pInvariantsSupplier,
+      @Nullable CartesianAbstractionWorkers pCartesianAbstractionWorkers) {
     shutdownNotifier = pShutdownNotifier;
+    cartesianAbstractionWorkers = pCartesianAbstractionWorkers;
 
     options = pOptions;
     logger = pLogger;
@@ -184,6 +223,7 @@ public class PredicateAbstractionManager {
     abstractionReuseImplicationTimer = stats.abstractionReuseImplicationTime.getNewTimer();
     abstractionSolveTimer = stats.abstractionSolveTime.getNewTimer();
     cartesianAbstractionTimer = stats.cartesianAbstractionTime.getNewTimer();
+    parallelCartesianAbstractionTimer = stats.parallelCartesianAbstractionTime.getNewTimer();
     booleanAbstractionTimer = stats.booleanAbstractionTime.getNewTimer();
     abstractionModelEnumTimer = stats.abstractionModelEnumTime.getNewTimer();
     abstractionBddConstructionTimer = stats.abstractionBddConstructionTime.getNewTimer();
@@ -822,6 +862,9 @@ public class PredicateAbstractionManager {
     try {
       Region absbdd = rmgr.makeTrue();
 
+      Map<AbstractionPredicate, Byte> parallelPredicateValues =
+          computeCartesianAbstractionInParallel(f, pPredicates, instantiator);
+
       // check whether each of the predicate is implied in the next state...
 
       final Iterator<AbstractionPredicate> predicateIt = pPredicates.iterator();
@@ -834,35 +877,32 @@ public class PredicateAbstractionManager {
 
           abstractionBddConstructionTimer.start();
           Region v = p.getAbstractVariable();
-          if (predVal == -1) { // pred is false
+          if (predVal == PREDICATE_FALSE) { // pred is false
             stats.numCartesianAbsPredicates.incrementAndGet();
             v = rmgr.makeNot(v);
             absbdd = rmgr.makeAnd(absbdd, v);
-          } else if (predVal == 1) { // pred is true
+          } else if (predVal == PREDICATE_TRUE) { // pred is true
             stats.numCartesianAbsPredicates.incrementAndGet();
             absbdd = rmgr.makeAnd(absbdd, v);
           } else {
-            assert predVal == 0 : "predicate value is neither false, true, nor unknown";
+            assert predVal == PREDICATE_DONT_CARE
+                : "predicate value is neither false, true, nor unknown";
           }
           abstractionBddConstructionTimer.stop();
 
         } else {
-          logger.log(Level.ALL, "DEBUG_1",
-              "CHECKING VALUE OF PREDICATE: ", p.getSymbolicAtom());
-
-          // instantiate the definition of the predicate
-          BooleanFormula predTrue = instantiator.apply(p.getSymbolicAtom());
-          BooleanFormula predFalse = bfmgr.not(predTrue);
-
-          // check whether this predicate has a truth value in the next
-          // state
-          byte predVal = 0; // pred is neither true nor false
-
-          thmProver.push(predFalse);
-          boolean isTrue = thmProver.isUnsat();
-          thmProver.pop();
+          byte predVal;
+          if (parallelPredicateValues.containsKey(p)) {
+            predVal = parallelPredicateValues.get(p);
+          } else {
+            logger.log(Level.ALL, "DEBUG_1",
+                "CHECKING VALUE OF PREDICATE: ", p.getSymbolicAtom());
+            predVal =
+                CartesianAbstractionWorkers.computePredicateValue(
+                    thmProver, bfmgr, instantiator.apply(p.getSymbolicAtom()));
+          }
 
-          if (isTrue) {
+          if (predVal == PREDICATE_TRUE) {
             stats.numCartesianAbsPredicates.incrementAndGet();
             abstractionBddConstructionTimer.start();
             Region v = p.getAbstractVariable();
@@ -870,24 +910,14 @@ public class PredicateAbstractionManager {
             predicateIt.remove(); // mark predicate as handled
             abstractionBddConstructionTimer.stop();
 
-            predVal = 1;
-          } else {
-            // check whether it's false...
-            thmProver.push(predTrue);
-            boolean isFalse = thmProver.isUnsat();
-            thmProver.pop();
-
-            if (isFalse) {
-              stats.numCartesianAbsPredicates.incrementAndGet();
-              abstractionBddConstructionTimer.start();
-              Region v = p.getAbstractVariable();
-              v = rmgr.makeNot(v);
-              absbdd = rmgr.makeAnd(absbdd, v);
-              predicateIt.remove(); // mark predicate as handled
-              abstractionBddConstructionTimer.stop();
-
-              predVal = -1;
-            }
+          } else if (predVal == PREDICATE_FALSE) {
+            stats.numCartesianAbsPredicates.incrementAndGet();
+            abstractionBddConstructionTimer.start();
+            Region v = p.getAbstractVariable();
+            v = rmgr.makeNot(v);
+            absbdd = rmgr.makeAnd(absbdd, v);
+            predicateIt.remove(); // mark predicate as handled
+            abstractionBddConstructionTimer.stop();
           }
 
           if (options.isUseCache()) {
@@ -904,6 +934,55 @@ public class PredicateAbstractionManager {
     }
   }
 
+  /**
+   * Check the predicates that are not cached in parallel using the cartesian-abstraction workers,
+   * if available and if there are enough such predicates.
+   *
+   * @return The value (cf. {@link CartesianAbstractionWorkers#computePredicateValue}) of each
+   *     checked predicate, or an empty map if the predicates should be checked sequentially.
+   */
+  private Map<AbstractionPredicate, Byte> computeCartesianAbstractionInParallel(
+      final BooleanFormula f,
+      final Collection<AbstractionPredicate> pPredicates,
+      final Function<BooleanFormula, BooleanFormula> instantiator)
+      throws SolverException, InterruptedException {
+    if (cartesianAbstractionWorkers == null
+        || pPredicates.size() < options.getCartesianAbstractionParallelThreshold()) {
+      return ImmutableMap.of();
+    }
+
+    List<AbstractionPredicate> predicates = new ArrayList<>(pPredicates.size());
+    for (AbstractionPredicate p : pPredicates) {
+      if (!options.isUseCache() || !cartesianAbstractionCache.containsKey(Pair.of(f, p))) {
+        predicates.add(p);
+      }
+    }
+    if (predicates.size() < options.getCartesianAbstractionParallelThreshold()) {
+      return ImmutableMap.of();
+    }
+
+    stats.numParallelCartesianAbstractions.incrementAndGet();
+    stats.numParallelCartesianAbsPredicates.addAndGet(predicates.size());
+    parallelCartesianAbstractionTimer.start();
+    byte[] values;
+    try {
+      values =
+          cartesianAbstractionWorkers.computePredicateValues(
+              fmgr,
+              f,
+              Lists.transform(predicates, p -> instantiator.apply(p.getSymbolicAtom())),
+              stats.parallelCartesianAbstractionSolveTime);
+    } finally {
+      parallelCartesianAbstractionTimer.stop();
+    }
+
+    Map<AbstractionPredicate, Byte> result = Maps.newHashMapWithExpectedSize(values.length);
+    for (int i = 0; i < values.length; i++) {
+      result.put(predicates.get(i), values[i]);
+    }
+    return result;
+  }
+
   /** Build cartesian abstraction using the inductive weakening approach. */
   private Region buildCartesianAbstractionUsingWeakening(
       final BooleanFormula f, final SSAMap ssa, final Collection<AbstractionPredicate> pPredicates)
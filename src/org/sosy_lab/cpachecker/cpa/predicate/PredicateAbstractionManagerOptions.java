@@ -11,6 +11,7 @@ package org.sosy_lab.cpachecker.cpa.predicate;
 import java.nio.file.Path;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -32,6 +33,24 @@ public class PredicateAbstractionManagerOptions {
       description = "whether to use Boolean or Cartesian abstraction or both")
   private AbstractionType abstractionType = AbstractionType.BOOLEAN;
 
+  @Option(
+      secure = true,
+      name = "abstraction.cartesianThreads",
+      description =
+          "number of threads (each with its own solver instance) that check the predicates of a"
+              + " cartesian abstraction in parallel (1 means sequential checking)")
+  @IntegerOption(min = 1)
+  private int cartesianAbstractionThreads = 1;
+
+  @Option(
+      secure = true,
+      name = "abstraction.cartesianParallelThreshold",
+      description =
+          "minimal number of uncached predicates of a cartesian abstraction for which the"
+              + " predicates are checked in parallel (cf. option abstraction.cartesianThreads)")
+  @IntegerOption(min = 1)
+  private int cartesianAbstractionParallelThreshold = 32;
+
   @Option(
       secure = true,
       name = "abstraction.dumpHardQueries",
@@ -94,6 +113,14 @@ public class PredicateAbstractionManagerOptions {
     abstractionType = pCartesian;
   }
 
+  int getCartesianAbstractionThreads() {
+    return cartesianAbstractionThreads;
+  }
+
+  int getCartesianAbstractionParallelThreshold() {
+    return cartesianAbstractionParallelThreshold;
+  }
+
   boolean isDumpHardAbstractions() {
     return dumpHardAbstractions;
   }
@@ -37,6 +37,8 @@ public class PredicateAbstractionStatistics {
   final AtomicInteger numCartesianAbsPredicates = new AtomicInteger(0);
   final AtomicInteger numCartesianAbsPredicatesCached = new AtomicInteger(0);
   final AtomicInteger numBooleanAbsPredicates = new AtomicInteger(0);
+  final AtomicInteger numParallelCartesianAbstractions = new AtomicInteger(0);
+  final AtomicInteger numParallelCartesianAbsPredicates = new AtomicInteger(0);
 
   final ThreadSafeTimerContainer abstractionReuseTime =
       new ThreadSafeTimerContainer("Abstraction reuse");
@@ -48,6 +50,12 @@ public class PredicateAbstractionStatistics {
       new ThreadSafeTimerContainer("Time for inductive predicate analysis");
   final ThreadSafeTimerContainer cartesianAbstractionTime =
       new ThreadSafeTimerContainer("Time for cartesian abstraction");
+  // wall time of the parallel part of cartesian abstraction
+  final ThreadSafeTimerContainer parallelCartesianAbstractionTime =
+      new ThreadSafeTimerContainer("Time for parallel cartesian abstraction");
+  // sum of the solving times of all workers of parallel cartesian abstraction
+  final ThreadSafeTimerContainer parallelCartesianAbstractionSolveTime =
+      new ThreadSafeTimerContainer("Time for solving in parallel cartesian abstraction");
   final ThreadSafeTimerContainer quantifierEliminationTime =
       new ThreadSafeTimerContainer("Time for eliminating quantifiers");
   final ThreadSafeTimerContainer booleanAbstractionTime =
@@ -13,6 +13,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.configuration.Configuration;
@@ -121,6 +122,7 @@ public class PredicateCPA
   private final PredicateCPAStatistics stats;
   private final PredicatePrecisionBootstrapper precisionBootstraper;
   private final CFA cfa;
+  private final RegionManager regionManager;
   private final AbstractionManager abstractionManager;
   private final PredicateCPAInvariantsManager invariantsManager;
   private final BlockOperator blk;
@@ -133,6 +135,7 @@ public class PredicateCPA
   private final PredicateAbstractionsStorage abstractionStorage;
   private final PredicateAbstractionStatistics abstractionStats =
       new PredicateAbstractionStatistics();
+  private final @Nullable CartesianAbstractionWorkers cartesianAbstractionWorkers;
 
   // path formulas for PCC
   private final Map<PredicateAbstractState, PathFormula> computedPathFormulaePcc = new HashMap<>();
@@ -167,11 +170,10 @@ public class PredicateCPA
 
     PathFormulaManager pfMgr = new PathFormulaManagerImpl(formulaManager, config, logger, shutdownNotifier, cfa, direction);
     if (useCache) {
-      pfMgr = new CachingPathFormulaManager(pfMgr);
+      pfMgr = new CachingPathFormulaManager(pfMgr, config);
     }
     pathFormulaManager = pfMgr;
 
-    RegionManager regionManager;
     if (abstractionType.equals("FORMULA") || blk.alwaysReturnsFalse()) {
       // No need to load BDD library if we never abstract (might use lots of memory)
       regionManager = new SymbolicRegionManager(solver);
@@ -196,6 +198,16 @@ public class PredicateCPA
             solver.getFormulaManager(),
             null);
     weakeningOptions = new WeakeningOptions(config);
+    if (abstractionOptions.getCartesianAbstractionThreads() > 1) {
+      cartesianAbstractionWorkers =
+          CartesianAbstractionWorkers.create(
+              abstractionOptions.getCartesianAbstractionThreads(),
+              config,
+              logger,
+              pShutdownNotifier);
+    } else {
+      cartesianAbstractionWorkers = null;
+    }
 
     statistics = new PredicateStatistics();
     options = new PredicateCpaOptions(config);
@@ -287,7 +299,8 @@ public class PredicateCPA
         abstractionStats,
         invariantsManager.appendToAbstractionFormula()
             ? invariantsManager
-            : TrivialInvariantSupplier.INSTANCE);
+            : TrivialInvariantSupplier.INSTANCE,
+        cartesianAbstractionWorkers);
   }
 
   public PathFormulaManager getPathFormulaManager() {
@@ -345,6 +358,10 @@ public class PredicateCPA
 
   @Override
   public void close() {
+    if (cartesianAbstractionWorkers != null) {
+      cartesianAbstractionWorkers.close();
+    }
+    regionManager.close();
     solver.close();
   }
 
@@ -305,6 +305,10 @@ class PredicateCPAStatistics implements Statistics {
       if (as.cartesianAbstractionTime.getNumberOfIntervals() > 0) {
         out.println("Number of preds cached for cartesian abs: " + valueWithPercentage(as.numCartesianAbsPredicatesCached, as.numTotalPredicates));
         out.println("Number of preds solved by cartesian abs:  " + valueWithPercentage(as.numCartesianAbsPredicates, as.numTotalPredicates));
+        if (as.numParallelCartesianAbstractions.get() > 0) {
+          out.println("  Times checked in parallel:              " + valueWithPercentage(as.numParallelCartesianAbstractions, as.cartesianAbstractionTime.getNumberOfIntervals()));
+          out.println("  Preds checked in parallel:              " + valueWithPercentage(as.numParallelCartesianAbsPredicates, as.numTotalPredicates));
+        }
       }
       if (as.booleanAbstractionTime.getNumberOfIntervals() > 0) {
         out.println("Number of preds handled by boolean abs:   " + valueWithPercentage(as.numBooleanAbsPredicates, as.numTotalPredicates));
@@ -335,6 +339,11 @@ class PredicateCPAStatistics implements Statistics {
       }
       if (as.cartesianAbstractionTime.getNumberOfIntervals() > 0) {
         out.println("    Cartesian abstraction:           " + as.cartesianAbstractionTime);
+        if (as.parallelCartesianAbstractionTime.getNumberOfIntervals() > 0) {
+          TimeSpan parallelTime = as.parallelCartesianAbstractionTime.getSumTime();
+          TimeSpan solveTime = as.parallelCartesianAbstractionSolveTime.getSumTime();
+          out.println("      Parallel checking:             " + parallelTime.formatAs(SECONDS) + " (Solving: " + solveTime.formatAs(SECONDS) + ", Speedup: " + div(solveTime.asMillis(), parallelTime.asMillis()) + ")");
+        }
       }
       if (as.booleanAbstractionTime.getNumberOfIntervals() > 0) {
         out.println("    Boolean abstraction:             " + as.booleanAbstractionTime);
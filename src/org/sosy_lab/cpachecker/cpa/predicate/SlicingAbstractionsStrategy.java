@@ -155,6 +155,10 @@ public class SlicingAbstractionsStrategy extends RefinementStrategy implements S
 
   private Map<ARGState, ARGState> forkedStateMap;
 
+  // The states that lost a parent while slicing during the refinement of a single path.
+  // Only these states can become unreachable, so the reached set is recalculated below them.
+  private List<ARGState> statesWithRemovedParents;
+
   public SlicingAbstractionsStrategy(final PredicateCPA pPredicateCpa, final Configuration config)
       throws InvalidConfigurationException {
     super(pPredicateCpa.getSolver());
@@ -177,6 +181,7 @@ public class SlicingAbstractionsStrategy extends RefinementStrategy implements S
     stats.increaseRefinementCounter();
     lastAbstraction = predAbsMgr.makeTrueAbstractionFormula(null);
     forkedStateMap = new HashMap<>();
+    statesWithRemovedParents = new ArrayList<>();
     mayShortcutSlicing = true;
   }
 
@@ -294,13 +299,19 @@ public class SlicingAbstractionsStrategy extends RefinementStrategy implements S
     stats.calcReached.start();
     // pReached.recalculateReachedSet(rootState);
     // pReached.removeSafeRegions();
-    pReached.recalculateReachedSet(rootState);
+    if (rootStates.size() == 1) {
+      pReached.recalculateReachedSet(rootState, statesWithRemovedParents);
+    } else {
+      // states without parents were already unreachable before slicing
+      pReached.recalculateReachedSet(rootState);
+    }
 
     stats.calcReached.stop();
 
     // This way we can check if startRefinementOfPath is called
     // before performRefinementForState:
     forkedStateMap.clear();
+    statesWithRemovedParents.clear();
     mayShortcutSlicing = null;
 
     if (dynamicBlockEncoding) {
@@ -389,8 +400,12 @@ public class SlicingAbstractionsStrategy extends RefinementStrategy implements S
 
       // Optimization to reduce number of solver calls:
       if (currentState instanceof SLARGState) {
-        SlicingAbstractionsUtils.removeIncomingEdgesWithLocationMismatch((SLARGState) currentState);
-        SlicingAbstractionsUtils.removeOutgoingEdgesWithLocationMismatch((SLARGState) currentState);
+        statesWithRemovedParents.addAll(
+            SlicingAbstractionsUtils.removeIncomingEdgesWithLocationMismatch(
+                (SLARGState) currentState));
+        statesWithRemovedParents.addAll(
+            SlicingAbstractionsUtils.removeOutgoingEdgesWithLocationMismatch(
+                (SLARGState) currentState));
       }
 
       Map<ARGState, PersistentList<ARGState>> segmentMap =
@@ -416,14 +431,15 @@ public class SlicingAbstractionsStrategy extends RefinementStrategy implements S
 
         infeasibleMap.put(key, infeasible);
       }
-      slice0(currentState, segmentMap, infeasibleMap);
+      slice0(currentState, segmentMap, infeasibleMap, statesWithRemovedParents);
     }
   }
 
   private static void slice0(
       ARGState currentState,
       Map<ARGState, PersistentList<ARGState>> segmentMap,
-      Map<ARGState, Boolean> infeasibleMap) {
+      Map<ARGState, Boolean> infeasibleMap,
+      List<ARGState> pStatesWithRemovedParents) {
     Set<ARGState> segmentStateSet = new HashSet<>();
     for (List<ARGState> segment : segmentMap.values()) {
       segmentStateSet.addAll(segment);
@@ -442,6 +458,7 @@ public class SlicingAbstractionsStrategy extends RefinementStrategy implements S
           // |       ^
           // \-------|
           key.removeParent(currentState); // this removes 1->2 in the above example
+          pStatesWithRemovedParents.add(key);
         }
         if (!Collections.disjoint(key.getParents(), segment)) {
           // Consider the following case, where abstraction states have numbers and
@@ -454,12 +471,14 @@ public class SlicingAbstractionsStrategy extends RefinementStrategy implements S
               Sets.intersection(new HashSet<>(key.getParents()), new HashSet<>(segment))) {
             key.removeParent(s); // this is the cut of A->3 in the example of the comment above
           }
+          pStatesWithRemovedParents.add(key);
         }
       }
     }
 
     for (ARGState toRemove : segmentStateSet) {
       detachFromParentsInARG(toRemove);
+      pStatesWithRemovedParents.add(toRemove);
     }
   }
 
@@ -534,6 +553,7 @@ public class SlicingAbstractionsStrategy extends RefinementStrategy implements S
       boolean edgeSetInfeasible = checkEdgeSet((SLARGState) pStartState, (SLARGState) pEndState);
       if (edgeSetInfeasible) {
         pEndState.removeParent(pStartState);
+        statesWithRemovedParents.add(pEndState);
       }
       boolean segmentInfeasible = isInfeasibleEdge(pStartState, pEndState, pSegmentList);
       return edgeSetInfeasible && segmentInfeasible;
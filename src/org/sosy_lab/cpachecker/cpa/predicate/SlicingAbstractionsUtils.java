@@ -683,9 +683,16 @@ public class SlicingAbstractionsUtils {
     return locations.build();
   }
 
-  public static void removeIncomingEdgesWithLocationMismatch(SLARGState state) {
+  /**
+   * Removes the edges into the given state that do not match the locations at which the state is
+   * left.
+   *
+   * @return the states that lost a parent, i.e., the given state or nothing
+   */
+  public static ImmutableList<ARGState> removeIncomingEdgesWithLocationMismatch(
+      SLARGState state) {
     if (state.isTarget() || state.getParents().isEmpty()) {
-      return;
+      return ImmutableList.of();
     }
     Set<CFANode> locations = getOutgoingLocations(state);
     List<ARGState> toRemove = new ArrayList<>();
@@ -706,11 +713,19 @@ public class SlicingAbstractionsUtils {
     for (ARGState parent : toRemove) {
       state.removeParent(parent);
     }
+    return toRemove.isEmpty() ? ImmutableList.of() : ImmutableList.of(state);
   }
 
-  public static void removeOutgoingEdgesWithLocationMismatch(SLARGState state) {
+  /**
+   * Removes the edges out of the given state that do not match the locations at which the state is
+   * entered.
+   *
+   * @return the states that lost a parent, i.e., the children that are no longer connected
+   */
+  public static ImmutableList<ARGState> removeOutgoingEdgesWithLocationMismatch(
+      SLARGState state) {
     if (state.isTarget() || state.getParents().isEmpty()) {
-      return;
+      return ImmutableList.of();
     }
     Set<CFANode> locations = getIncomingLocations(state);
     List<ARGState> toRemove = new ArrayList<>();
@@ -732,6 +747,7 @@ public class SlicingAbstractionsUtils {
     for (ARGState child : toRemove) {
       child.removeParent(state);
     }
+    return ImmutableList.copyOf(toRemove);
   }
 
   private static boolean blk(ARGState pState) {
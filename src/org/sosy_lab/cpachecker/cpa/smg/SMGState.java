@@ -13,6 +13,7 @@ import static java.util.Collections.singletonList;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.CharMatcher;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import java.math.BigInteger;
@@ -43,6 +44,7 @@ import org.sosy_lab.cpachecker.cfa.types.c.CPointerType;
 import org.sosy_lab.cpachecker.cfa.types.c.CType;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractQueryableState;
 import org.sosy_lab.cpachecker.core.interfaces.Graphable;
+import org.sosy_lab.cpachecker.core.interfaces.PseudoPartitionable;
 import org.sosy_lab.cpachecker.cpa.smg.evaluator.SMGAbstractObjectAndState.SMGAddressValueAndState;
 import org.sosy_lab.cpachecker.cpa.smg.evaluator.SMGAbstractObjectAndState.SMGValueAndState;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.CLangSMG;
@@ -82,7 +84,8 @@ import org.sosy_lab.cpachecker.cpa.smg.util.PersistentSet;
 import org.sosy_lab.cpachecker.exceptions.InvalidQueryException;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
 
-public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, Graphable {
+public class SMGState
+    implements UnmodifiableSMGState, AbstractQueryableState, Graphable, PseudoPartitionable {
 
   // Properties:
   private static final String HAS_INVALID_FREES = "has-invalid-frees";
@@ -1492,6 +1495,13 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
     }
 
     if (options.isHeapAbstractionEnabled()) {
+      // The status of the join can only grow while joining the heaps, so a mismatch in the
+      // variables already rules out coverage and the (expensive) join of the heaps can be skipped.
+      SMGJoinStatus variablesStatus = SMGJoin.getVariablesJoinStatus(heap, reachedState.getHeap());
+      if (variablesStatus != SMGJoinStatus.EQUAL && variablesStatus != SMGJoinStatus.RIGHT_ENTAIL) {
+        return false;
+      }
+
       SMGJoin join = new SMGJoin(heap, reachedState.getHeap(), this, reachedState);
 
       if (!join.isDefined()) {
@@ -1517,6 +1527,67 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
     }
   }
 
+  /**
+   * Returns the number of variables that the covering state of a coverage check has to contain, or
+   * may at most contain.
+   *
+   * <p>With heap abstraction, {@link #isLessOrEqual} needs the join status of the variables to be
+   * EQUAL or RIGHT_ENTAIL, i.e., the reached state has to contain at least the global variables and
+   * the local variables of the last stack frame of this state. Thus, the key is the negated number
+   * of these variables. Without heap abstraction, the reached state has to contain at most the
+   * variables of this state, thus the key is the number of all variables.
+   */
+  @Override
+  public Comparable<?> getPseudoPartitionKey() {
+    if (options.isHeapAbstractionEnabled()) {
+      CLangStackFrame lastFrame = Iterables.getLast(heap.getStackFrames(), null);
+      int lastFrameSize = lastFrame == null ? 0 : lastFrame.getVariables().size();
+      return -(heap.getGlobalObjects().size() + lastFrameSize);
+    } else {
+      int size = heap.getGlobalObjects().size();
+      for (CLangStackFrame frame : heap.getStackFrames()) {
+        size += frame.getVariables().size();
+      }
+      return size;
+    }
+  }
+
+  /**
+   * Returns a fingerprint of the variables and the stack of this state. Two states with equal
+   * {@link #getPseudoPartitionKey() keys} can only cover each other if their fingerprints are
+   * equal, so a pseudo-partitioned reached set never attempts a heap join between states with
+   * different fingerprints.
+   *
+   * <p>The fingerprint contains the names of the global variables and the functions on the stack,
+   * which both coverage checks require to match (for stacks of equal depth, which the callstack
+   * analysis guarantees). With heap abstraction, it further contains the names of the local
+   * variables of the last stack frame (cf. {@link SMGJoin#getVariablesJoinStatus}). Without heap
+   * abstraction, it contains the names of the local variables of each stack frame and the number of
+   * heap objects (cf. {@link SMGIsLessOrEqual}).
+   */
+  @Override
+  public Object getPseudoHashCode() {
+    ImmutableList.Builder<Object> fingerprint = ImmutableList.builder();
+    fingerprint.add(ImmutableSet.copyOf(heap.getGlobalObjects().keySet()));
+    if (options.isHeapAbstractionEnabled()) {
+      ImmutableList.Builder<CFunctionDeclaration> functions = ImmutableList.builder();
+      Set<String> lastFrameVariables = ImmutableSet.of();
+      for (CLangStackFrame frame : heap.getStackFrames()) {
+        functions.add(frame.getFunctionDeclaration());
+        lastFrameVariables = ImmutableSet.copyOf(frame.getVariables().keySet());
+      }
+      fingerprint.add(functions.build()).add(lastFrameVariables);
+    } else {
+      for (CLangStackFrame frame : heap.getStackFrames()) {
+        fingerprint
+            .add(frame.getFunctionDeclaration().getOrigName())
+            .add(ImmutableSet.copyOf(frame.getVariables().keySet()));
+      }
+      fingerprint.add(heap.getHeapObjects().size());
+    }
+    return fingerprint.build();
+  }
+
   @Override
   public String getCPAName() {
     return "SMGCPA";
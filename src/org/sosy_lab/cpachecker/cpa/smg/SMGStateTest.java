@@ -567,7 +567,7 @@ public class SMGStateTest {
     assertThat(values_for_obj).contains(hv);
 
     // Write a *different* 16b value into it and assert that the state *did* change
-    SMGKnownSymbolicValue newer_value = SMGKnownSymValue.valueOf(SMGCPA.getNewValue());
+    SMGKnownSymbolicValue newer_value = SMGKnownSymValue.of();
     SMGEdgeHasValue new_hv =
         state.writeValue(pt.getObject(), 0, mockSize16b, newer_value).getNewEdge();
     state.performConsistencyCheck(SMGRuntimeCheck.FORCED);
@@ -681,4 +681,79 @@ public class SMGStateTest {
     state.setMemLeak("", ImmutableList.of());
     assertThat(state.hasMemoryLeaks()).isTrue();
   }
+
+  private static SMGState newStateWithVariables(boolean pHeapAbstraction, String... pLocals)
+      throws InvalidConfigurationException, SMGInconsistentException {
+    Configuration config =
+        Configuration.builder()
+            .setOption("cpa.smg.enableHeapAbstraction", Boolean.toString(pHeapAbstraction))
+            .build();
+    SMGState state = new SMGState(logger, MachineModel.LINUX64, new SMGOptions(config));
+    state.addGlobalVariable(mockSize16b, "global");
+    state.addStackFrame(CLangSMGTest.DUMMY_FUNCTION);
+    for (String local : pLocals) {
+      state.addLocalVariable(mockSize16b, local);
+    }
+    return state;
+  }
+
+  /**
+   * A pseudo-partitioned reached set only checks coverage against states with a smaller key, or
+   * with an equal key and an equal fingerprint. Check that no covering state is excluded.
+   */
+  private static void assertPseudoPartitionAllowsCoverage(SMGState pState, SMGState pReached)
+      throws SMGInconsistentException {
+    int key = (Integer) pState.getPseudoPartitionKey();
+    int reachedKey = (Integer) pReached.getPseudoPartitionKey();
+    boolean candidate =
+        reachedKey < key
+            || (reachedKey == key
+                && pState.getPseudoHashCode().equals(pReached.getPseudoHashCode()));
+    if (pState.isLessOrEqual(pReached)) {
+      assertThat(candidate).isTrue();
+    }
+  }
+
+  @Test
+  public void pseudoPartitionWithHeapAbstractionTest()
+      throws InvalidConfigurationException, SMGInconsistentException {
+    SMGState state = newStateWithVariables(true, "a");
+    SMGState equal = newStateWithVariables(true, "a");
+    SMGState more = newStateWithVariables(true, "a", "b");
+    SMGState other = newStateWithVariables(true, "b");
+
+    assertThat(state.getPseudoPartitionKey()).isEqualTo(equal.getPseudoPartitionKey());
+    assertThat(state.getPseudoHashCode()).isEqualTo(equal.getPseudoHashCode());
+    assertThat(state.isLessOrEqual(equal)).isTrue();
+    assertThat(state.isLessOrEqual(more)).isTrue();
+    assertThat(state.getPseudoPartitionKey()).isEqualTo(other.getPseudoPartitionKey());
+    assertThat(state.getPseudoHashCode()).isNotEqualTo(other.getPseudoHashCode());
+    assertThat(state.isLessOrEqual(other)).isFalse();
+
+    for (SMGState s1 : ImmutableList.of(state, equal, more, other)) {
+      for (SMGState s2 : ImmutableList.of(state, equal, more, other)) {
+        assertPseudoPartitionAllowsCoverage(s1, s2);
+      }
+    }
+  }
+
+  @Test
+  public void pseudoPartitionWithoutHeapAbstractionTest()
+      throws InvalidConfigurationException, SMGInconsistentException {
+    SMGState state = newStateWithVariables(false, "a", "b");
+    SMGState equal = newStateWithVariables(false, "a", "b");
+    SMGState fewer = newStateWithVariables(false, "a");
+    SMGState other = newStateWithVariables(false, "a", "c");
+
+    assertThat(state.getPseudoHashCode()).isEqualTo(equal.getPseudoHashCode());
+    assertThat(state.isLessOrEqual(equal)).isTrue();
+    assertThat(state.getPseudoPartitionKey()).isEqualTo(other.getPseudoPartitionKey());
+    assertThat(state.getPseudoHashCode()).isNotEqualTo(other.getPseudoHashCode());
+
+    for (SMGState s1 : ImmutableList.of(state, equal, fewer, other)) {
+      for (SMGState s2 : ImmutableList.of(state, equal, fewer, other)) {
+        assertPseudoPartitionAllowsCoverage(s1, s2);
+      }
+    }
+  }
 }
@@ -11,11 +11,13 @@ package org.sosy_lab.cpachecker.cpa.smg.graphs;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableSet;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map.Entry;
 import java.util.NavigableSet;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.collect.PersistentSortedMap;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
@@ -23,24 +25,105 @@ import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValueFilter;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGValue;
 
+/**
+ * Has-value edges sorted by object and offset. Additionally, a reverse index from values to edges
+ * (again sorted by object and offset) is maintained, such that filtering for a value without
+ * knowing the object only visits the edges with this value.
+ */
 public class SMGHasValueEdgeSet implements SMGHasValueEdges {
 
   private final PersistentSortedMap<SMGObject, PersistentSortedMap<Long, SMGEdgeHasValue>> map;
   private final PersistentSortedMap<SMGObject, Integer> sizesMap;
   private int size = 0;
 
+  /**
+   * Reverse index from values to the edges having this value. This is only derived data, so it is
+   * not part of equals and hashCode. It is computed lazily for sets created by {@link
+   * #getEdgesForObject(SMGObject)}, because those are mostly used for filtering only.
+   */
+  private @Nullable PersistentSortedMap<
+          SMGValue, PersistentSortedMap<SMGObject, PersistentSortedMap<Long, SMGEdgeHasValue>>>
+      valueIndex;
+
   public SMGHasValueEdgeSet() {
     map = PathCopyingPersistentTreeMap.of();
     sizesMap = PathCopyingPersistentTreeMap.of();
+    valueIndex = PathCopyingPersistentTreeMap.of();
   }
 
   private SMGHasValueEdgeSet(
       PersistentSortedMap<SMGObject, PersistentSortedMap<Long, SMGEdgeHasValue>> pMap,
       PersistentSortedMap<SMGObject, Integer> pSizesMap,
-      int pSize) {
+      int pSize,
+      @Nullable
+          PersistentSortedMap<
+                  SMGValue,
+                  PersistentSortedMap<SMGObject, PersistentSortedMap<Long, SMGEdgeHasValue>>>
+              pValueIndex) {
     map = pMap;
     sizesMap = pSizesMap;
     size = pSize;
+    valueIndex = pValueIndex;
+  }
+
+  private PersistentSortedMap<
+          SMGValue, PersistentSortedMap<SMGObject, PersistentSortedMap<Long, SMGEdgeHasValue>>>
+      getValueIndex() {
+    if (valueIndex == null) {
+      PersistentSortedMap<
+              SMGValue,
+              PersistentSortedMap<SMGObject, PersistentSortedMap<Long, SMGEdgeHasValue>>>
+          index = PathCopyingPersistentTreeMap.of();
+      for (SMGEdgeHasValue edge : this) {
+        index = addToIndex(index, edge);
+      }
+      valueIndex = index;
+    }
+    return valueIndex;
+  }
+
+  private static PersistentSortedMap<
+          SMGValue, PersistentSortedMap<SMGObject, PersistentSortedMap<Long, SMGEdgeHasValue>>>
+      addToIndex(
+          PersistentSortedMap<
+                  SMGValue,
+                  PersistentSortedMap<SMGObject, PersistentSortedMap<Long, SMGEdgeHasValue>>>
+              pIndex,
+          SMGEdgeHasValue pEdge) {
+    PersistentSortedMap<SMGObject, PersistentSortedMap<Long, SMGEdgeHasValue>> byObject =
+        pIndex.getOrDefault(pEdge.getValue(), PathCopyingPersistentTreeMap.of());
+    PersistentSortedMap<Long, SMGEdgeHasValue> byOffset =
+        byObject.getOrDefault(pEdge.getObject(), PathCopyingPersistentTreeMap.of());
+    return pIndex.putAndCopy(
+        pEdge.getValue(),
+        byObject.putAndCopy(pEdge.getObject(), byOffset.putAndCopy(pEdge.getOffset(), pEdge)));
+  }
+
+  private static PersistentSortedMap<
+          SMGValue, PersistentSortedMap<SMGObject, PersistentSortedMap<Long, SMGEdgeHasValue>>>
+      removeFromIndex(
+          PersistentSortedMap<
+                  SMGValue,
+                  PersistentSortedMap<SMGObject, PersistentSortedMap<Long, SMGEdgeHasValue>>>
+              pIndex,
+          SMGEdgeHasValue pEdge) {
+    PersistentSortedMap<SMGObject, PersistentSortedMap<Long, SMGEdgeHasValue>> byObject =
+        pIndex.get(pEdge.getValue());
+    if (byObject == null) {
+      return pIndex;
+    }
+    PersistentSortedMap<Long, SMGEdgeHasValue> byOffset = byObject.get(pEdge.getObject());
+    if (byOffset == null) {
+      return pIndex;
+    }
+    byOffset = byOffset.removeAndCopy(pEdge.getOffset());
+    byObject =
+        byOffset.isEmpty()
+            ? byObject.removeAndCopy(pEdge.getObject())
+            : byObject.putAndCopy(pEdge.getObject(), byOffset);
+    return byObject.isEmpty()
+        ? pIndex.removeAndCopy(pEdge.getValue())
+        : pIndex.putAndCopy(pEdge.getValue(), byObject);
   }
 
   @Override
@@ -51,7 +134,13 @@ public class SMGHasValueEdgeSet implements SMGHasValueEdges {
     }
     PersistentSortedMap<SMGObject, Integer> newSizesMap = sizesMap.removeAndCopy(obj);
     int pSize = size - sizesMap.get(obj);
-    return new SMGHasValueEdgeSet(map.removeAndCopy(obj), newSizesMap, pSize);
+    PersistentSortedMap<
+            SMGValue, PersistentSortedMap<SMGObject, PersistentSortedMap<Long, SMGEdgeHasValue>>>
+        newValueIndex = getValueIndex();
+    for (SMGEdgeHasValue edge : edgesForObject.values()) {
+      newValueIndex = removeFromIndex(newValueIndex, edge);
+    }
+    return new SMGHasValueEdgeSet(map.removeAndCopy(obj), newSizesMap, pSize, newValueIndex);
   }
 
   @Override
@@ -101,11 +190,23 @@ public class SMGHasValueEdgeSet implements SMGHasValueEdges {
           result.map.getOrDefault(pEdge.getObject(), PathCopyingPersistentTreeMap.of());
     }
 
+    PersistentSortedMap<
+            SMGValue, PersistentSortedMap<SMGObject, PersistentSortedMap<Long, SMGEdgeHasValue>>>
+        newValueIndex = result.getValueIndex();
+    SMGEdgeHasValue replacedEdge = sortedByOffsets.get(pEdge.getOffset());
+    if (replacedEdge != null) {
+      newValueIndex = removeFromIndex(newValueIndex, replacedEdge);
+    }
+    newValueIndex = addToIndex(newValueIndex, pEdge);
+
     sortedByOffsets = sortedByOffsets.putAndCopy(pEdge.getOffset(), pEdge);
     PersistentSortedMap<SMGObject, Integer> newSizesMap =
         result.sizesMap.putAndCopy(pEdge.getObject(), sizeForObject + 1);
     return new SMGHasValueEdgeSet(
-        result.map.putAndCopy(pEdge.getObject(), sortedByOffsets), newSizesMap, result.size + 1);
+        result.map.putAndCopy(pEdge.getObject(), sortedByOffsets),
+        newSizesMap,
+        result.size + 1,
+        newValueIndex);
   }
 
   @Override
@@ -114,6 +215,9 @@ public class SMGHasValueEdgeSet implements SMGHasValueEdges {
     int sizeForObject = sizesMap.getOrDefault(pEdge.getObject(), 0);
     PersistentSortedMap<Long, SMGEdgeHasValue> updated;
     int pSize = size;
+    PersistentSortedMap<
+            SMGValue, PersistentSortedMap<SMGObject, PersistentSortedMap<Long, SMGEdgeHasValue>>>
+        newValueIndex = getValueIndex();
 
     if (sizeForObject == 0) {
       throw new AssertionError();
@@ -128,32 +232,33 @@ public class SMGHasValueEdgeSet implements SMGHasValueEdges {
             throw new AssertionError();
           } else {
             updated = sortedByOffsets.removeAndCopy(removingEdge.getOffset());
+            newValueIndex = removeFromIndex(newValueIndex, removingEdge);
             pSize--;
             sizeForObject--;
             if (removingEdge.getOffset() < pEdge.getOffset()) {
-              updated =
-                  updated.putAndCopy(
+              SMGEdgeHasValue lowerPart =
+                  new SMGEdgeHasValue(
+                      Math.toIntExact(pEdge.getOffset() - removingEdge.getOffset()),
                       removingEdge.getOffset(),
-                      new SMGEdgeHasValue(
-                          Math.toIntExact(pEdge.getOffset() - removingEdge.getOffset()),
-                          removingEdge.getOffset(),
-                          pEdge.getObject(),
-                          pEdge.getValue()));
+                      pEdge.getObject(),
+                      pEdge.getValue());
+              updated = updated.putAndCopy(removingEdge.getOffset(), lowerPart);
+              newValueIndex = addToIndex(newValueIndex, lowerPart);
               pSize++;
               sizeForObject++;
             }
             if (removingEdge.getOffset() + removingEdge.getSizeInBits()
                 > pEdge.getOffset() + pEdge.getSizeInBits()) {
-              updated =
-                  updated.putAndCopy(
+              SMGEdgeHasValue upperPart =
+                  new SMGEdgeHasValue(
+                      Math.toIntExact(removingEdge.getOffset() - pEdge.getOffset())
+                          + removingEdge.getSizeInBits()
+                          - pEdge.getSizeInBits(),
                       pEdge.getOffset() + pEdge.getSizeInBits(),
-                      new SMGEdgeHasValue(
-                          Math.toIntExact(removingEdge.getOffset() - pEdge.getOffset())
-                              + removingEdge.getSizeInBits()
-                              - pEdge.getSizeInBits(),
-                          pEdge.getOffset() + pEdge.getSizeInBits(),
-                          pEdge.getObject(),
-                          pEdge.getValue()));
+                      pEdge.getObject(),
+                      pEdge.getValue());
+              updated = updated.putAndCopy(pEdge.getOffset() + pEdge.getSizeInBits(), upperPart);
+              newValueIndex = addToIndex(newValueIndex, upperPart);
               pSize++;
               sizeForObject++;
             }
@@ -162,6 +267,10 @@ public class SMGHasValueEdgeSet implements SMGHasValueEdges {
           throw new AssertionError();
         }
       } else {
+        SMGEdgeHasValue removingEdge = sortedByOffsets.get(pEdge.getOffset());
+        if (removingEdge != null) {
+          newValueIndex = removeFromIndex(newValueIndex, removingEdge);
+        }
         updated = sortedByOffsets.removeAndCopy(pEdge.getOffset());
         pSize--;
         sizeForObject--;
@@ -174,12 +283,14 @@ public class SMGHasValueEdgeSet implements SMGHasValueEdges {
           return new SMGHasValueEdgeSet(
               map.removeAndCopy(pEdge.getObject()),
               sizesMap.removeAndCopy(pEdge.getObject()),
-              pSize);
+              pSize,
+              newValueIndex);
         } else {
           return new SMGHasValueEdgeSet(
               map.putAndCopy(pEdge.getObject(), updated),
               sizesMap.putAndCopy(pEdge.getObject(), sizeForObject),
-              pSize);
+              pSize,
+              newValueIndex);
         }
       }
     }
@@ -192,6 +303,22 @@ public class SMGHasValueEdgeSet implements SMGHasValueEdges {
 
   @Override
   public Iterable<SMGEdgeHasValue> filter(SMGEdgeHasValueFilter pFilter) {
+    if (pFilter.getObject() == null
+        && pFilter.getOverlapsWith() == null
+        && pFilter.getOffset() == null
+        && pFilter.getValue() != null
+        && !pFilter.isValueComplement()) {
+      // only the edges with the given value can match, and the reverse index provides them
+      // in the same order as a full iteration would
+      PersistentSortedMap<SMGObject, PersistentSortedMap<Long, SMGEdgeHasValue>> byObject =
+          getValueIndex().get(pFilter.getValue());
+      if (byObject == null) {
+        return ImmutableSet.of();
+      }
+      return FluentIterable.from(byObject.values())
+          .transformAndConcat(PersistentSortedMap::values)
+          .filter(pFilter::holdsFor);
+    }
     SMGHasValueEdgeSet smgEdgeHasValues = this;
     return () -> new SMGHasValueEdgeSetIteratorWithFilter(smgEdgeHasValues, pFilter);
   }
@@ -208,7 +335,7 @@ public class SMGHasValueEdgeSet implements SMGHasValueEdges {
       newSizesMap = newSizesMap.putAndCopy(pObject, newSize);
       newMap = newMap.putAndCopy(pObject, edges);
     }
-    return new SMGHasValueEdgeSet(newMap, newSizesMap, newSize);
+    return new SMGHasValueEdgeSet(newMap, newSizesMap, newSize, null);
   }
 
   @Override
@@ -244,7 +371,13 @@ public class SMGHasValueEdgeSet implements SMGHasValueEdges {
         map.putAndCopy(entry.getKey(), entry.getValue());
     PersistentSortedMap<SMGObject, Integer> newSizesMap =
         sizesMap.putAndCopy(entry.getKey(), edgesSet.size);
-    return new SMGHasValueEdgeSet(newMap, newSizesMap, size + edgesSet.size);
+    PersistentSortedMap<
+            SMGValue, PersistentSortedMap<SMGObject, PersistentSortedMap<Long, SMGEdgeHasValue>>>
+        newValueIndex = getValueIndex();
+    for (SMGEdgeHasValue edge : entry.getValue().values()) {
+      newValueIndex = addToIndex(newValueIndex, edge);
+    }
+    return new SMGHasValueEdgeSet(newMap, newSizesMap, size + edgesSet.size, newValueIndex);
   }
 
   @Override
@@ -34,5 +34,8 @@ public interface SMGPointsToEdges extends Iterable<SMGEdgePointsTo> {
   @Nullable
   SMGEdgePointsTo getEdgeWithValue(SMGValue pValue);
 
+  /** get all incoming edges of the {@link SMGObject}, sorted by their {@link SMGValue}s. */
+  Iterable<SMGEdgePointsTo> getEdgesToObject(SMGObject pObj);
+
   int size();
 }
@@ -8,29 +8,67 @@
 
 package org.sosy_lab.cpachecker.cpa.smg.graphs;
 
+import com.google.common.collect.ImmutableList;
 import java.util.Iterator;
 import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.collect.PersistentMap;
+import org.sosy_lab.common.collect.PersistentSortedMap;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgePointsTo;
-import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgePointsToFilter;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGValue;
 
+/**
+ * Points-to edges indexed by their source value. Additionally, a reverse index from target objects
+ * to edges is maintained, such that all edges pointing to an object can be found without iterating
+ * over all edges.
+ */
 public class SMGPointsToMap implements SMGPointsToEdges {
 
   private final PersistentMap<SMGValue, SMGEdgePointsTo> map;
 
+  /** Reverse index from objects to the edges pointing to them, sorted by value like the map. */
+  private final PersistentSortedMap<SMGObject, PersistentSortedMap<SMGValue, SMGEdgePointsTo>>
+      objectIndex;
+
   public SMGPointsToMap() {
     map = PathCopyingPersistentTreeMap.of();
+    objectIndex = PathCopyingPersistentTreeMap.of();
   }
 
-  private SMGPointsToMap(PersistentMap<SMGValue, SMGEdgePointsTo> pMap) {
+  private SMGPointsToMap(
+      PersistentMap<SMGValue, SMGEdgePointsTo> pMap,
+      PersistentSortedMap<SMGObject, PersistentSortedMap<SMGValue, SMGEdgePointsTo>>
+          pObjectIndex) {
     map = pMap;
+    objectIndex = pObjectIndex;
   }
 
   @Override
   public SMGPointsToMap addAndCopy(SMGEdgePointsTo pEdge) {
-    return new SMGPointsToMap(map.putAndCopy(pEdge.getValue(), pEdge));
+    PersistentSortedMap<SMGObject, PersistentSortedMap<SMGValue, SMGEdgePointsTo>> newIndex =
+        objectIndex;
+    SMGEdgePointsTo replacedEdge = map.get(pEdge.getValue());
+    if (replacedEdge != null) {
+      newIndex = removeFromIndex(newIndex, replacedEdge);
+    }
+    PersistentSortedMap<SMGValue, SMGEdgePointsTo> byValue =
+        newIndex.getOrDefault(pEdge.getObject(), PathCopyingPersistentTreeMap.of());
+    newIndex = newIndex.putAndCopy(pEdge.getObject(), byValue.putAndCopy(pEdge.getValue(), pEdge));
+    return new SMGPointsToMap(map.putAndCopy(pEdge.getValue(), pEdge), newIndex);
+  }
+
+  private static PersistentSortedMap<SMGObject, PersistentSortedMap<SMGValue, SMGEdgePointsTo>>
+      removeFromIndex(
+          PersistentSortedMap<SMGObject, PersistentSortedMap<SMGValue, SMGEdgePointsTo>> pIndex,
+          SMGEdgePointsTo pEdge) {
+    PersistentSortedMap<SMGValue, SMGEdgePointsTo> byValue = pIndex.get(pEdge.getObject());
+    if (byValue == null) {
+      return pIndex;
+    }
+    byValue = byValue.removeAndCopy(pEdge.getValue());
+    return byValue.isEmpty()
+        ? pIndex.removeAndCopy(pEdge.getObject())
+        : pIndex.putAndCopy(pEdge.getObject(), byValue);
   }
 
   @Override
@@ -40,16 +78,24 @@ public class SMGPointsToMap implements SMGPointsToEdges {
 
   @Override
   public SMGPointsToMap removeAllEdgesOfObjectAndCopy(SMGObject pObj) {
+    PersistentSortedMap<SMGValue, SMGEdgePointsTo> byValue = objectIndex.get(pObj);
+    if (byValue == null) {
+      return this;
+    }
     PersistentMap<SMGValue, SMGEdgePointsTo> tmp = map;
-    for (SMGEdgePointsTo edge : SMGEdgePointsToFilter.targetObjectFilter(pObj).filter(this)) {
-      tmp = tmp.removeAndCopy(edge.getValue());
+    for (SMGValue value : byValue.keySet()) {
+      tmp = tmp.removeAndCopy(value);
     }
-    return new SMGPointsToMap(tmp);
+    return new SMGPointsToMap(tmp, objectIndex.removeAndCopy(pObj));
   }
 
   @Override
   public SMGPointsToMap removeEdgeWithValueAndCopy(SMGValue pValue) {
-    return new SMGPointsToMap(map.removeAndCopy(pValue));
+    SMGEdgePointsTo edge = map.get(pValue);
+    if (edge == null) {
+      return this;
+    }
+    return new SMGPointsToMap(map.removeAndCopy(pValue), removeFromIndex(objectIndex, edge));
   }
 
   @Override
@@ -62,6 +108,12 @@ public class SMGPointsToMap implements SMGPointsToEdges {
     return map.get(pValue);
   }
 
+  @Override
+  public Iterable<SMGEdgePointsTo> getEdgesToObject(SMGObject pObj) {
+    PersistentSortedMap<SMGValue, SMGEdgePointsTo> byValue = objectIndex.get(pObj);
+    return byValue == null ? ImmutableList.of() : byValue.values();
+  }
+
   @Override
   public int size() {
     return map.size();
@@ -17,6 +17,7 @@ import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.types.MachineModel;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgePointsTo;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgePointsToFilter;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGNullObject;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGRegion;
@@ -379,6 +380,30 @@ public class SMGTest {
     assertThat(smg.getPTEdges()).contains(pt1to1);
   }
 
+  @Test
+  public void getPtEdgesToObjectTest() {
+    SMGValue val3 = SMGKnownSymValue.of();
+    SMGEdgePointsTo pt3to1 = new SMGEdgePointsTo(val3, obj1, 32);
+    smg.addValue(val3);
+    smg.addPointsToEdge(pt3to1);
+
+    assertThat(smg.getPtEdges(SMGEdgePointsToFilter.targetObjectFilter(obj1)))
+        .containsExactly(pt1to1, pt3to1);
+    SMGEdgePointsToFilter filter =
+        SMGEdgePointsToFilter.targetObjectFilter(obj1).filterAtTargetOffset(32L);
+    assertThat(smg.getPtEdges(filter)).containsExactly(pt3to1);
+    assertThat(smg.getPtEdges(SMGEdgePointsToFilter.targetObjectFilter(obj2))).isEmpty();
+
+    smg.removePointsToEdge(val1);
+    assertThat(smg.getPtEdges(SMGEdgePointsToFilter.targetObjectFilter(obj1)))
+        .containsExactly(pt3to1);
+
+    SMGValue val4 = SMGKnownSymValue.of();
+    smg.replaceValue(val4, val3);
+    assertThat(smg.getPtEdges(SMGEdgePointsToFilter.targetObjectFilter(obj1)))
+        .containsExactly(new SMGEdgePointsTo(val4, obj1, 32));
+  }
+
   @Test
   public void getObjectPointedByTest() {
     assertThat(smg.getObjectPointedBy(val1)).isEqualTo(obj1);
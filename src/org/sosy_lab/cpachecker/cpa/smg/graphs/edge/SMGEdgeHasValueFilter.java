@@ -76,6 +76,10 @@ public class SMGEdgeHasValueFilter {
     return value;
   }
 
+  public boolean isValueComplement() {
+    return valueComplement;
+  }
+
   public Long getOffset() {
     return offset;
   }
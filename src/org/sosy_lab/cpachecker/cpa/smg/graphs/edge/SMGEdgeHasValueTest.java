@@ -20,6 +20,7 @@ import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGRegion;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownExpValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGZeroValue;
 
 public class SMGEdgeHasValueTest {
 
@@ -259,4 +260,53 @@ public class SMGEdgeHasValueTest {
     assertThat(filteredSet).contains(hv22at4);
     assertThat(filteredSet).contains(hv12at4);
   }
+
+  @Test
+  public void testFilterOnValueAfterRemoval() {
+    SMGObject object1 = new SMGRegion(128, "object1");
+    SMGObject object2 = new SMGRegion(64, "Object2");
+
+    SMGValue value1 = SMGKnownExpValue.valueOf(1);
+    SMGValue value2 = SMGKnownExpValue.valueOf(2);
+
+    SMGEdgeHasValue hv11at0 = new SMGEdgeHasValue(mockTypeSize, 0, object1, value1);
+    SMGEdgeHasValue hv1zeroAt4 =
+        new SMGEdgeHasValue(mockTypeSize, 32, object1, SMGZeroValue.INSTANCE);
+    SMGEdgeHasValue hv1zeroAt8 =
+        new SMGEdgeHasValue(mockTypeSize, 64, object1, SMGZeroValue.INSTANCE);
+    SMGEdgeHasValue hv21at0 = new SMGEdgeHasValue(mockTypeSize, 0, object2, value1);
+    SMGEdgeHasValue hv22at4 = new SMGEdgeHasValue(mockTypeSize, 32, object2, value2);
+    SMGHasValueEdges allEdges = new SMGHasValueEdgeSet();
+    allEdges = allEdges.addEdgeAndCopy(hv11at0);
+    allEdges = allEdges.addEdgeAndCopy(hv1zeroAt4);
+    allEdges = allEdges.addEdgeAndCopy(hv1zeroAt8);
+    allEdges = allEdges.addEdgeAndCopy(hv21at0);
+    allEdges = allEdges.addEdgeAndCopy(hv22at4);
+
+    // the zero edges are merged into one edge
+    SMGEdgeHasValueFilter zeroFilter =
+        SMGEdgeHasValueFilter.valueFilter(SMGZeroValue.INSTANCE).filterWithoutSize();
+    assertThat(zeroFilter.filter(allEdges))
+        .containsExactly(new SMGEdgeHasValue(64, 32, object1, SMGZeroValue.INSTANCE));
+
+    // removing the middle of a zero edge splits it
+    allEdges =
+        allEdges.removeEdgeAndCopy(new SMGEdgeHasValue(16, 48, object1, SMGZeroValue.INSTANCE));
+    assertThat(zeroFilter.filter(allEdges))
+        .containsExactly(
+            new SMGEdgeHasValue(16, 32, object1, SMGZeroValue.INSTANCE),
+            new SMGEdgeHasValue(32, 64, object1, SMGZeroValue.INSTANCE))
+        .inOrder();
+
+    SMGEdgeHasValueFilter filter = SMGEdgeHasValueFilter.valueFilter(value1);
+    assertThat(filter.filter(allEdges)).containsExactly(hv11at0, hv21at0);
+
+    allEdges = allEdges.removeEdgeAndCopy(hv11at0);
+    assertThat(filter.filter(allEdges)).containsExactly(hv21at0);
+
+    allEdges = allEdges.removeAllEdgesOfObjectAndCopy(object2);
+    assertThat(filter.filter(allEdges)).isEmpty();
+    assertThat(SMGEdgeHasValueFilter.valueFilter(value2).filter(allEdges)).isEmpty();
+    assertThat(zeroFilter.filter(allEdges)).hasSize(2);
+  }
 }
\ No newline at end of file
@@ -79,6 +79,6 @@ public class SMGEdgePointsToFilter {
       }
     }
 
-    return Iterables.filter(edges, this::holdsFor);
+    return Iterables.filter(edges.getEdgesToObject(targetObject), this::holdsFor);
   }
 }
\ No newline at end of file
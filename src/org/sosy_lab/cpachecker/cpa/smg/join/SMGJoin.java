@@ -174,6 +174,41 @@ public final class SMGJoin {
     return getFlag(globals1.containsAll(globals2), globals2.containsAll(globals1));
   }
 
+  /**
+   * Returns the status of joining only the global and stack variables of the given SMGs, i.e., the
+   * status the join of the full SMGs starts with before the heap is joined.
+   *
+   * <p>The status of a join never decreases while the heap is joined, thus the status of the full
+   * join is at least as large as the returned status. This allows to cheaply rule out joins with a
+   * certain outcome, e.g. a coverage check, without joining the heaps. The computation mirrors
+   * {@link #joinGlobalVariables} and {@link #joinStackVariables} and has to be kept in sync with
+   * them.
+   */
+  public static SMGJoinStatus getVariablesJoinStatus(
+      UnmodifiableCLangSMG opSMG1, UnmodifiableCLangSMG opSMG2) {
+    Set<String> globals1 = opSMG1.getGlobalObjects().keySet();
+    Set<String> globals2 = opSMG2.getGlobalObjects().keySet();
+    SMGJoinStatus status =
+        getFlag(globals1.containsAll(globals2), globals2.containsAll(globals1));
+
+    Iterator<CLangStackFrame> smg1stackIterator = opSMG1.getStackFrames().iterator();
+    Iterator<CLangStackFrame> smg2stackIterator = opSMG2.getStackFrames().iterator();
+    SMGJoinStatus stackStatus = SMGJoinStatus.EQUAL;
+    while (smg1stackIterator.hasNext() && smg2stackIterator.hasNext()) {
+      CLangStackFrame frameInSMG1 = smg1stackIterator.next();
+      CLangStackFrame frameInSMG2 = smg2stackIterator.next();
+      if (!frameInSMG1.getFunctionDeclaration().equals(frameInSMG2.getFunctionDeclaration())) {
+        return SMGJoinStatus.INCOMPARABLE;
+      }
+      // like in joinStackVariables, only the last common stack frame determines the status
+      Set<String> locals1 = frameInSMG1.getVariables().keySet();
+      Set<String> locals2 = frameInSMG2.getVariables().keySet();
+      stackStatus =
+          status.updateWith(getFlag(locals1.containsAll(locals2), locals2.containsAll(locals1)));
+    }
+    return status.updateWith(stackStatus);
+  }
+
   // crosswise check all combinations
   private static SMGJoinStatus getFlag(boolean oneInTwo, boolean twoInOne) {
     if (oneInTwo) {
@@ -303,6 +303,33 @@ public class SMGJoinTest {
     assertThat(join.getStatus()).isEqualTo(SMGJoinStatus.EQUAL);
   }
 
+  @Test
+  public void variablesJoinStatusTest() throws SMGInconsistentException {
+    smg1.addStackFrame(functionDeclaration3);
+    smg2.addStackFrame(functionDeclaration3);
+    addGlobalWithoutValueToBoth("global", 64);
+    addLocalWithoutValueToBoth("a", 32);
+    assertThat(SMGJoin.getVariablesJoinStatus(smg1, smg2)).isEqualTo(SMGJoinStatus.EQUAL);
+
+    smg1.addStackObject(new SMGRegion(32, "b"));
+    assertThat(SMGJoin.getVariablesJoinStatus(smg1, smg2)).isEqualTo(SMGJoinStatus.LEFT_ENTAIL);
+    assertThat(SMGJoin.getVariablesJoinStatus(smg2, smg1)).isEqualTo(SMGJoinStatus.RIGHT_ENTAIL);
+    assertThat(new SMGJoin(smg1, smg2, dummyState, dummyState).getStatus())
+        .isEqualTo(SMGJoinStatus.LEFT_ENTAIL);
+
+    smg2.addGlobalObject(new SMGRegion(64, "global2"));
+    assertThat(SMGJoin.getVariablesJoinStatus(smg1, smg2)).isEqualTo(SMGJoinStatus.INCOMPARABLE);
+    assertThat(new SMGJoin(smg1, smg2, dummyState, dummyState).getStatus())
+        .isEqualTo(SMGJoinStatus.INCOMPARABLE);
+  }
+
+  @Test
+  public void variablesJoinStatusDifferentFunctionsTest() {
+    smg1.addStackFrame(functionDeclaration);
+    smg2.addStackFrame(functionDeclaration2);
+    assertThat(SMGJoin.getVariablesJoinStatus(smg1, smg2)).isEqualTo(SMGJoinStatus.INCOMPARABLE);
+  }
+
   private void joinUpdateUnit(SMGJoinStatus firstOperand, SMGJoinStatus forLe, SMGJoinStatus forRe) {
     assertThat(firstOperand.updateWith(SMGJoinStatus.EQUAL)).isEqualTo(firstOperand);
     assertThat(firstOperand.updateWith(SMGJoinStatus.LEFT_ENTAIL)).isEqualTo(forLe);
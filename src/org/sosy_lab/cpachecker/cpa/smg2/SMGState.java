@@ -176,6 +176,13 @@ public class SMGState implements LatticeAbstractState<SMGState>, AbstractQueryab
 
   @Override
   public SMGState join(SMGState pOther) throws CPAException, InterruptedException {
+    // SMGJoinSPC requires both configurations to have the same global variables,
+    // so we do not even try to join configurations with different variables
+    if (!heap.getGolbalVariableToSmgObjectMap()
+        .keySet()
+        .equals(pOther.heap.getGolbalVariableToSmgObjectMap().keySet())) {
+      return pOther;
+    }
     SMGJoinSPC joinSPC = new SMGJoinSPC(heap, pOther.heap);
     if (!(joinSPC.getStatus() == SMGJoinStatus.INCOMPARABLE && joinSPC.isDefined())) {
       return pOther;
@@ -240,27 +247,35 @@ public class SMGState implements LatticeAbstractState<SMGState>, AbstractQueryab
   }
 
   private SMGState copyAndPruneGlobalVariable(MemoryLocation pMemoryLocation) {
-    return of(
-        machineModel,
-        heap.copyAndRemoveGlobalVariable(pMemoryLocation.getIdentifier()),
-        logger,
-        options);
+    Collection<SMGObject> unreachableObjects = new HashSet<>();
+    SymbolicProgramConfiguration newHeap =
+        heap.copyAndRemoveGlobalVariable(pMemoryLocation.getIdentifier(), unreachableObjects);
+    return copyWithPrunedHeap(newHeap, unreachableObjects);
   }
 
   private SMGState copyAndPruneFunctionStackVariable(MemoryLocation pMemoryLocation) {
-    return of(
-        machineModel,
-        heap.copyAndRemoveStackVariable(pMemoryLocation.getIdentifier()),
-        logger,
-        options);
+    Collection<SMGObject> unreachableObjects = new HashSet<>();
+    SymbolicProgramConfiguration newHeap =
+        heap.copyAndRemoveStackVariable(pMemoryLocation.getIdentifier(), unreachableObjects);
+    return copyWithPrunedHeap(newHeap, unreachableObjects);
   }
 
   public SMGState dropStackFrame() {
-    return of(
-        machineModel,
-        heap.copyAndDropStackFrame(),
-        logger,
-        options);
+    Collection<SMGObject> unreachableObjects = new HashSet<>();
+    SymbolicProgramConfiguration newHeap = heap.copyAndDropStackFrame(unreachableObjects);
+    return copyWithPrunedHeap(newHeap, unreachableObjects);
+  }
+
+  /**
+   * Heap objects that become unreachable when variables are removed are pruned right away, so
+   * they are reported as memory leak and do not occupy the SMG of all following states.
+   */
+  private SMGState copyWithPrunedHeap(
+      SymbolicProgramConfiguration newHeap, Collection<SMGObject> unreachableObjects) {
+    if (unreachableObjects.isEmpty()) {
+      return copyWithErrorInfo(newHeap, errorInfo);
+    }
+    return copyWithMemLeak(newHeap, unreachableObjects);
   }
 
   public SMGState copyAndPruneUnreachable() {
@@ -9,6 +9,7 @@
 package org.sosy_lab.cpachecker.cpa.smg2;
 
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Streams;
 import java.math.BigInteger;
@@ -140,24 +141,37 @@ public class SymbolicProgramConfiguration {
         valueMapping);
   }
 
-  public SymbolicProgramConfiguration copyAndRemoveGlobalVariable(String pIdentifier) {
+  /**
+   * Copy SPC and remove the global variable with the given name. Heap objects that were reachable
+   * only via this variable are removed, too.
+   *
+   * @param pIdentifier name of the variable.
+   * @param pUnreachableObjects collects the removed heap objects.
+   */
+  public SymbolicProgramConfiguration copyAndRemoveGlobalVariable(
+      String pIdentifier, Collection<SMGObject> pUnreachableObjects) {
     Optional<SMGObject> objToRemove = Optional.ofNullable(globalVariableMapping.get(pIdentifier));
     if (objToRemove.isEmpty()) {
       return this;
     }
     PersistentMap<String, SMGObject> newGlobalsMap =
         globalVariableMapping.removeAndCopy(pIdentifier);
-    SMG newSmg = smg.copyAndInvalidateObject(objToRemove.orElseThrow());
-    return of(
-        newSmg,
+    return copyAndRemoveRoots(
+        ImmutableSet.of(objToRemove.orElseThrow()),
         newGlobalsMap,
         stackVariableMapping,
-        heapObjects,
-        externalObjectAllocation,
-        valueMapping);
+        pUnreachableObjects);
   }
 
-  public SymbolicProgramConfiguration copyAndRemoveStackVariable(String pIdentifier) {
+  /**
+   * Copy SPC and remove the stack variable with the given name. Heap objects that were reachable
+   * only via this variable are removed, too.
+   *
+   * @param pIdentifier name of the variable.
+   * @param pUnreachableObjects collects the removed heap objects.
+   */
+  public SymbolicProgramConfiguration copyAndRemoveStackVariable(
+      String pIdentifier, Collection<SMGObject> pUnreachableObjects) {
     // If a stack variable becomes out of scope, there are not more than one frames which could
     // contain the variable
     Optional<StackFrame> frameOptional =
@@ -172,14 +186,8 @@ public class SymbolicProgramConfiguration {
     StackFrame newFrame = frameOptional.orElseThrow().copyAndRemoveVariable(pIdentifier);
     PersistentStack<StackFrame> newStack =
         stackVariableMapping.replace(frame -> frame == frameOptional.orElseThrow(), newFrame);
-    SMG newSmg = smg.copyAndInvalidateObject(objToRemove);
-    return of(
-        newSmg,
-        globalVariableMapping,
-        newStack,
-        heapObjects,
-        externalObjectAllocation,
-        valueMapping);
+    return copyAndRemoveRoots(
+        ImmutableSet.of(objToRemove), globalVariableMapping, newStack, pUnreachableObjects);
   }
 
   /**
@@ -203,24 +211,47 @@ public class SymbolicProgramConfiguration {
 
   /**
    * Remove a top stack frame from the SMG, along with all objects in it, and any edges leading
-   * from/to it.
+   * from/to it. Heap objects that were reachable only via this stack frame are removed, too.
    *
    * TODO: A test case with (invalid) passing of an address of a dropped frame object outside, and
    * working with them. For that, we should probably keep those as invalid, so we can spot such bug.
    *
+   * @param pUnreachableObjects collects the removed heap objects.
    */
-  public SymbolicProgramConfiguration copyAndDropStackFrame() {
+  public SymbolicProgramConfiguration copyAndDropStackFrame(
+      Collection<SMGObject> pUnreachableObjects) {
     StackFrame frame = stackVariableMapping.peek();
     PersistentStack<StackFrame> newStack = stackVariableMapping.popAndCopy();
-    SMG newSmg = smg;
-    for (SMGObject object : frame.getAllObjects()) {
-      newSmg = smg.copyAndInvalidateObject(object);
+    return copyAndRemoveRoots(
+        ImmutableSet.copyOf(frame.getAllObjects()),
+        globalVariableMapping,
+        newStack,
+        pUnreachableObjects);
+  }
+
+  /**
+   * Invalidate the given variable objects and all heap objects that are no longer reachable
+   * without them. This only looks at the part of the SMG that is reachable from the removed
+   * objects instead of the whole SMG like {@link #copyAndPruneUnreachable}.
+   */
+  private SymbolicProgramConfiguration copyAndRemoveRoots(
+      Set<SMGObject> pRemovedRoots,
+      PersistentMap<String, SMGObject> pNewGlobalVariableMapping,
+      PersistentStack<StackFrame> pNewStackVariableMapping,
+      Collection<SMGObject> pUnreachableObjects) {
+    Set<SMGObject> unreachableObjects =
+        smg.collectUnreachableObjectsAfterRemoving(pRemovedRoots, heapObjects::contains);
+    SMG newSmg = smg.copyAndRemoveObjects(pRemovedRoots).copyAndRemoveObjects(unreachableObjects);
+    PersistentSet<SMGObject> newHeapObjects = heapObjects;
+    for (SMGObject smgObject : unreachableObjects) {
+      newHeapObjects = newHeapObjects.removeAndCopy(smgObject);
     }
+    pUnreachableObjects.addAll(unreachableObjects);
     return of(
         newSmg,
-        globalVariableMapping,
-        newStack,
-        heapObjects,
+        pNewGlobalVariableMapping,
+        pNewStackVariableMapping,
+        newHeapObjects,
         externalObjectAllocation,
         valueMapping);
   }
@@ -235,8 +266,10 @@ public class SymbolicProgramConfiguration {
                     .transformAndConcat(stackFrame -> stackFrame.getAllObjects()))
             .toSet();
     SMGObjectsAndValues reachable = smg.collectReachableObjectsAndValues(visibleObjects);
+    // objects that are already invalid (e.g. freed or out of scope) are no memory leaks
     Set<SMGObject> unreachableObjects =
-        new HashSet<>(Sets.difference(smg.getObjects(), reachable.getObjects()));
+        new HashSet<>(
+            Sets.filter(Sets.difference(smg.getObjects(), reachable.getObjects()), smg::isValid));
     Set<SMGValue> unreachableValues =
         new HashSet<>(Sets.difference(smg.getValues(), reachable.getValues()));
     SMG newSmg =
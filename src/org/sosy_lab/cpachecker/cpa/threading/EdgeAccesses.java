@@ -0,0 +1,312 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.threading;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.sosy_lab.cpachecker.cfa.ast.c.CArraySubscriptExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CAssignment;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CCastExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CComplexCastExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CDesignatedInitializer;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpressionStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFieldReference;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCall;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallAssignmentStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CInitializer;
+import org.sosy_lab.cpachecker.cfa.ast.c.CInitializerExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CInitializerList;
+import org.sosy_lab.cpachecker.cfa.ast.c.CLeftHandSide;
+import org.sosy_lab.cpachecker.cfa.ast.c.CParameterDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CPointerExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CRightHandSide;
+import org.sosy_lab.cpachecker.cfa.ast.c.CRightHandSideVisitor;
+import org.sosy_lab.cpachecker.cfa.ast.c.CSimpleDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.DefaultCExpressionVisitor;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CAssumeEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CDeclarationEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionCallEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionReturnEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CReturnStatementEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CStatementEdge;
+import org.sosy_lab.cpachecker.cfa.types.c.CArrayType;
+import org.sosy_lab.cpachecker.exceptions.NoException;
+
+/**
+ * The variables that an edge reads and writes, used to decide whether two edges of different
+ * threads commute. Variables are identified by their qualified name, so the local variables of
+ * threads running the same (not cloned) function are shared. Accesses through pointers and calls
+ * of unknown functions are not tracked and make the edge conflict with all other accesses.
+ */
+public final class EdgeAccesses {
+
+  private static final String VERIFIER_PREFIX = "__VERIFIER_";
+  private static final String PTHREAD_PREFIX = "pthread_";
+
+  private static final EdgeAccesses NONE =
+      new EdgeAccesses(ImmutableSet.of(), ImmutableSet.of(), false);
+
+  private final ImmutableSet<String> reads;
+  private final ImmutableSet<String> writes;
+  private final boolean mayAccessAnyMemory;
+
+  private EdgeAccesses(
+      ImmutableSet<String> pReads, ImmutableSet<String> pWrites, boolean pMayAccessAnyMemory) {
+    reads = pReads;
+    writes = pWrites;
+    mayAccessAnyMemory = pMayAccessAnyMemory;
+  }
+
+  /** The qualified names of the variables that are read. */
+  public ImmutableSet<String> getReads() {
+    return reads;
+  }
+
+  /** The qualified names of the variables that are written. */
+  public ImmutableSet<String> getWrites() {
+    return writes;
+  }
+
+  /** Whether the edge accesses memory through pointers or in unknown functions. */
+  public boolean mayAccessAnyMemory() {
+    return mayAccessAnyMemory;
+  }
+
+  private boolean isEmpty() {
+    return !mayAccessAnyMemory && reads.isEmpty() && writes.isEmpty();
+  }
+
+  /** Whether executing both edges in different order may lead to different states. */
+  boolean conflictsWith(EdgeAccesses pOther) {
+    if (isEmpty() || pOther.isEmpty()) {
+      return false;
+    }
+    if (mayAccessAnyMemory || pOther.mayAccessAnyMemory) {
+      return true;
+    }
+    return !Collections.disjoint(writes, pOther.writes)
+        || !Collections.disjoint(writes, pOther.reads)
+        || !Collections.disjoint(reads, pOther.writes);
+  }
+
+  @Override
+  public String toString() {
+    return "reads=" + reads + ", writes=" + writes + (mayAccessAnyMemory ? ", unknown" : "");
+  }
+
+  public static EdgeAccesses of(CFAEdge pEdge) {
+    Collector collector = new Collector();
+    switch (pEdge.getEdgeType()) {
+      case BlankEdge:
+        return NONE;
+      case AssumeEdge:
+        collector.read(((CAssumeEdge) pEdge).getExpression());
+        break;
+      case StatementEdge:
+        collector.handleStatement(((CStatementEdge) pEdge).getStatement());
+        break;
+      case DeclarationEdge:
+        collector.handleDeclaration(((CDeclarationEdge) pEdge).getDeclaration());
+        break;
+      case ReturnStatementEdge:
+        CReturnStatementEdge returnEdge = (CReturnStatementEdge) pEdge;
+        if (returnEdge.asAssignment().isPresent()) {
+          collector.handleStatement(returnEdge.asAssignment().orElseThrow());
+        }
+        break;
+      case FunctionCallEdge:
+        // the parameters are assigned to fresh variables of the called function
+        for (CExpression param : ((CFunctionCallEdge) pEdge).getArguments()) {
+          collector.read(param);
+        }
+        for (CParameterDeclaration param :
+            ((CFunctionCallEdge) pEdge).getSuccessor().getFunctionParameters()) {
+          collector.writes.add(param.getQualifiedName());
+        }
+        break;
+      case FunctionReturnEdge:
+        CFunctionCall call = ((CFunctionReturnEdge) pEdge).getSummaryEdge().getExpression();
+        if (call instanceof CFunctionCallAssignmentStatement) {
+          collector.write(((CFunctionCallAssignmentStatement) call).getLeftHandSide());
+        }
+        ((CFunctionReturnEdge) pEdge)
+            .getFunctionEntry()
+            .getReturnVariable()
+            .ifPresent(var -> collector.reads.add(var.getQualifiedName()));
+        break;
+      default:
+        collector.mayAccessAnyMemory = true;
+    }
+    return collector.build();
+  }
+
+  private static class Collector extends DefaultCExpressionVisitor<Void, NoException>
+      implements CRightHandSideVisitor<Void, NoException> {
+
+    private final Set<String> reads = new HashSet<>();
+    private final Set<String> writes = new HashSet<>();
+    private boolean mayAccessAnyMemory = false;
+
+    private EdgeAccesses build() {
+      return new EdgeAccesses(
+          ImmutableSet.copyOf(reads), ImmutableSet.copyOf(writes), mayAccessAnyMemory);
+    }
+
+    private void handleStatement(CStatement pStatement) {
+      if (pStatement instanceof CAssignment) {
+        write(((CAssignment) pStatement).getLeftHandSide());
+        read(((CAssignment) pStatement).getRightHandSide());
+      } else if (pStatement instanceof CFunctionCall) {
+        read(((CFunctionCall) pStatement).getFunctionCallExpression());
+      } else if (pStatement instanceof CExpressionStatement) {
+        read(((CExpressionStatement) pStatement).getExpression());
+      } else {
+        mayAccessAnyMemory = true;
+      }
+    }
+
+    private void handleDeclaration(CDeclaration pDeclaration) {
+      if (pDeclaration instanceof CVariableDeclaration) {
+        CVariableDeclaration decl = (CVariableDeclaration) pDeclaration;
+        writes.add(decl.getQualifiedName());
+        handleInitializer(decl.getInitializer());
+      }
+      // type and function declarations do not access memory
+    }
+
+    private void handleInitializer(CInitializer pInitializer) {
+      if (pInitializer instanceof CInitializerExpression) {
+        read(((CInitializerExpression) pInitializer).getExpression());
+      } else if (pInitializer instanceof CInitializerList) {
+        ((CInitializerList) pInitializer).getInitializers().forEach(this::handleInitializer);
+      } else if (pInitializer instanceof CDesignatedInitializer) {
+        handleInitializer(((CDesignatedInitializer) pInitializer).getRightHandSide());
+      }
+    }
+
+    private void read(CRightHandSide pRhs) {
+      pRhs.accept(this);
+    }
+
+    private void write(CLeftHandSide pLhs) {
+      if (pLhs instanceof CIdExpression) {
+        addVariable(((CIdExpression) pLhs).getDeclaration(), writes);
+      } else if (pLhs instanceof CArraySubscriptExpression
+          && isArray(((CArraySubscriptExpression) pLhs).getArrayExpression())
+          && ((CArraySubscriptExpression) pLhs).getArrayExpression() instanceof CLeftHandSide) {
+        // the whole array is considered to be written
+        CArraySubscriptExpression subscript = (CArraySubscriptExpression) pLhs;
+        write((CLeftHandSide) subscript.getArrayExpression());
+        read(subscript.getSubscriptExpression());
+      } else if (pLhs instanceof CFieldReference
+          && !((CFieldReference) pLhs).isPointerDereference()
+          && ((CFieldReference) pLhs).getFieldOwner() instanceof CLeftHandSide) {
+        write((CLeftHandSide) ((CFieldReference) pLhs).getFieldOwner());
+      } else {
+        mayAccessAnyMemory = true;
+        read(pLhs);
+      }
+    }
+
+    private static boolean isArray(CExpression pExpression) {
+      return pExpression.getExpressionType().getCanonicalType() instanceof CArrayType;
+    }
+
+    private static void addVariable(CSimpleDeclaration pDeclaration, Set<String> pTarget) {
+      if (pDeclaration instanceof CVariableDeclaration
+          || pDeclaration instanceof CParameterDeclaration) {
+        pTarget.add(pDeclaration.getQualifiedName());
+      }
+    }
+
+    @Override
+    public Void visit(CIdExpression pE) {
+      addVariable(pE.getDeclaration(), reads);
+      return null;
+    }
+
+    @Override
+    public Void visit(CArraySubscriptExpression pE) {
+      if (!isArray(pE.getArrayExpression())) {
+        mayAccessAnyMemory = true;
+      }
+      pE.getArrayExpression().accept(this);
+      return pE.getSubscriptExpression().accept(this);
+    }
+
+    @Override
+    public Void visit(CFieldReference pE) {
+      if (pE.isPointerDereference()) {
+        mayAccessAnyMemory = true;
+      }
+      return pE.getFieldOwner().accept(this);
+    }
+
+    @Override
+    public Void visit(CPointerExpression pE) {
+      mayAccessAnyMemory = true;
+      return pE.getOperand().accept(this);
+    }
+
+    @Override
+    public Void visit(CBinaryExpression pE) {
+      pE.getOperand1().accept(this);
+      return pE.getOperand2().accept(this);
+    }
+
+    @Override
+    public Void visit(CCastExpression pE) {
+      return pE.getOperand().accept(this);
+    }
+
+    @Override
+    public Void visit(CComplexCastExpression pE) {
+      return pE.getOperand().accept(this);
+    }
+
+    @Override
+    public Void visit(CUnaryExpression pE) {
+      return pE.getOperand().accept(this);
+    }
+
+    @Override
+    public Void visit(CFunctionCallExpression pE) {
+      // only calls of functions without body are part of a single edge,
+      // the functions of the verifier and of pthread are known to access only their arguments
+      CFunctionDeclaration function = pE.getDeclaration();
+      if (function == null
+          || !(function.getOrigName().startsWith(VERIFIER_PREFIX)
+              || function.getOrigName().startsWith(PTHREAD_PREFIX))) {
+        mayAccessAnyMemory = true;
+      }
+      for (CExpression param : pE.getParameterExpressions()) {
+        param.accept(this);
+      }
+      return null;
+    }
+
+    @Override
+    protected Void visitDefault(CExpression pExp) {
+      // literals and type expressions do not access memory
+      return null;
+    }
+  }
+}
@@ -0,0 +1,188 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.threading;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.sosy_lab.cpachecker.cfa.model.CFANode.newDummyCFANode;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression.BinaryOperator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpressionAssignmentStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIntegerLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CLeftHandSide;
+import org.sosy_lab.cpachecker.cfa.ast.c.CPointerExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CAssumeEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CStatementEdge;
+import org.sosy_lab.cpachecker.cfa.types.c.CFunctionType;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.cfa.types.c.CPointerType;
+import org.sosy_lab.cpachecker.cfa.types.c.CStorageClass;
+import org.sosy_lab.cpachecker.cfa.types.c.CType;
+import org.sosy_lab.cpachecker.cfa.types.c.CVoidType;
+
+public class EdgeAccessesTest {
+
+  private static final CIdExpression X = variable("x", CNumericTypes.INT);
+  private static final CIdExpression Y = variable("y", CNumericTypes.INT);
+  private static final CIdExpression Z = variable("z", CNumericTypes.INT);
+  private static final CIdExpression P =
+      variable("p", new CPointerType(false, false, CNumericTypes.INT));
+
+  private static CIdExpression variable(String pName, CType pType) {
+    return new CIdExpression(
+        FileLocation.DUMMY,
+        new CVariableDeclaration(
+            FileLocation.DUMMY,
+            true,
+            CStorageClass.AUTO,
+            pType,
+            pName,
+            pName,
+            pName,
+            null));
+  }
+
+  private static CFAEdge statement(CStatement pStatement) {
+    return new CStatementEdge(
+        pStatement.toASTString(),
+        pStatement,
+        FileLocation.DUMMY,
+        newDummyCFANode("test"),
+        newDummyCFANode("test"));
+  }
+
+  /** The edge "pLhs = pRhs;". */
+  private static EdgeAccesses assign(CLeftHandSide pLhs, CExpression pRhs) {
+    return EdgeAccesses.of(
+        statement(new CExpressionAssignmentStatement(FileLocation.DUMMY, pLhs, pRhs)));
+  }
+
+  /** The edge "[pLeft < pRight]". */
+  private static EdgeAccesses assume(CExpression pLeft, CExpression pRight) {
+    return EdgeAccesses.of(
+        new CAssumeEdge(
+            "",
+            FileLocation.DUMMY,
+            newDummyCFANode("test"),
+            newDummyCFANode("test"),
+            new CBinaryExpression(
+                FileLocation.DUMMY,
+                CNumericTypes.INT,
+                CNumericTypes.INT,
+                pLeft,
+                pRight,
+                BinaryOperator.LESS_THAN),
+            true));
+  }
+
+  /** The edge "pFunction(pArgument);" for a function without body. */
+  private static EdgeAccesses call(String pFunction, CExpression pArgument) {
+    CFunctionType type =
+        new CFunctionType(CVoidType.VOID, ImmutableList.of(CNumericTypes.INT), false);
+    CFunctionDeclaration declaration =
+        new CFunctionDeclaration(FileLocation.DUMMY, type, pFunction, ImmutableList.of());
+    CFunctionCallExpression callExpression =
+        new CFunctionCallExpression(
+            FileLocation.DUMMY,
+            CVoidType.VOID,
+            new CIdExpression(FileLocation.DUMMY, declaration),
+            ImmutableList.of(pArgument),
+            declaration);
+    return EdgeAccesses.of(
+        statement(new CFunctionCallStatement(FileLocation.DUMMY, callExpression)));
+  }
+
+  private static CExpression one() {
+    return CIntegerLiteralExpression.ONE;
+  }
+
+  private static void assertConflict(
+      EdgeAccesses pFirst, EdgeAccesses pSecond, boolean pExpected) {
+    assertThat(pFirst.conflictsWith(pSecond)).isEqualTo(pExpected);
+    assertThat(pSecond.conflictsWith(pFirst)).isEqualTo(pExpected);
+  }
+
+  @Test
+  public void testAccessesOfAssignment() {
+    EdgeAccesses accesses = assign(X, Y);
+    assertThat(accesses.getWrites()).containsExactly("x");
+    assertThat(accesses.getReads()).containsExactly("y");
+    assertThat(accesses.mayAccessAnyMemory()).isFalse();
+  }
+
+  @Test
+  public void testWriteWriteConflict() {
+    assertConflict(assign(X, one()), assign(X, Y), true);
+  }
+
+  @Test
+  public void testWriteReadConflict() {
+    assertConflict(assign(X, one()), assign(Y, X), true);
+    assertConflict(assign(X, one()), assume(X, Y), true);
+  }
+
+  @Test
+  public void testReadsDoNotConflict() {
+    assertConflict(assign(Y, X), assign(Z, X), false);
+    assertConflict(assume(X, Y), assume(Y, X), false);
+  }
+
+  @Test
+  public void testDisjointVariablesDoNotConflict() {
+    assertConflict(assign(X, one()), assign(Y, Z), false);
+  }
+
+  @Test
+  public void testPointerAccessConflictsWithAnyAccess() {
+    EdgeAccesses pointerWrite =
+        assign(new CPointerExpression(FileLocation.DUMMY, CNumericTypes.INT, P), one());
+    assertThat(pointerWrite.mayAccessAnyMemory()).isTrue();
+    assertConflict(pointerWrite, assign(X, one()), true);
+    assertConflict(pointerWrite, assume(X, Y), true);
+  }
+
+  @Test
+  public void testBlankEdgeDoesNotConflict() {
+    EdgeAccesses blank =
+        EdgeAccesses.of(
+            new BlankEdge(
+                "", FileLocation.DUMMY, newDummyCFANode("test"), newDummyCFANode("test"), ""));
+    assertConflict(blank, assign(X, one()), false);
+    assertConflict(
+        blank,
+        assign(new CPointerExpression(FileLocation.DUMMY, CNumericTypes.INT, P), one()),
+        false);
+  }
+
+  @Test
+  public void testCallsOfFunctionsWithoutBody() {
+    // verifier functions only access their arguments
+    EdgeAccesses verifierCall = call("__VERIFIER_assume", X);
+    assertThat(verifierCall.mayAccessAnyMemory()).isFalse();
+    assertConflict(verifierCall, assign(Y, one()), false);
+    assertConflict(verifierCall, assign(X, one()), true);
+
+    // other functions may access any memory
+    EdgeAccesses unknownCall = call("unknown", X);
+    assertThat(unknownCall.mayAccessAnyMemory()).isTrue();
+    assertConflict(unknownCall, assign(Y, one()), true);
+  }
+}
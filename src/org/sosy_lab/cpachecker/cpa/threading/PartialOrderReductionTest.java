@@ -0,0 +1,151 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.threading;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.io.TempFile;
+import org.sosy_lab.common.io.TempFile.DeleteOnCloseFile;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.util.test.CPATestRunner;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+import org.sosy_lab.cpachecker.util.test.TestResults;
+
+public class PartialOrderReductionTest {
+
+  private static final String CONFIG_FILE = "config/valueAnalysis-concurrency.properties";
+
+  private static final String POR_OPTION = "cpa.threading.usePartialOrderReduction";
+
+  private static final ImmutableList<String> DECLARATIONS =
+      ImmutableList.of(
+          "typedef unsigned long int pthread_t;",
+          "extern int pthread_create(pthread_t *t, void *attr, void *(*f)(void *), void *arg);",
+          "",
+          "int x = 0;",
+          "int y = 0;",
+          "");
+
+  /** Two threads that write disjoint variables, so most of their interleavings are equivalent. */
+  private static final ImmutableList<String> THREADS =
+      ImmutableList.of(
+          "void *first(void *arg) {",
+          "  x = 1;",
+          "  x = 2;",
+          "  x = 3;",
+          "  return 0;",
+          "}",
+          "",
+          "void *second(void *arg) {",
+          "  y = 1;",
+          "  y = 2;",
+          "  y = 3;",
+          "  return 0;",
+          "}",
+          "");
+
+  private static TestResults run(
+      List<String> pProgram, boolean pPartialOrderReduction, Map<String, String> pOptions)
+      throws Exception {
+    try (DeleteOnCloseFile programFile =
+        TempFile.builder().prefix("test").suffix(".c").createDeleteOnClose()) {
+      Files.write(
+          programFile.toPath(),
+          ImmutableList.<String>builder()
+              .addAll(DECLARATIONS)
+              .addAll(THREADS)
+              .addAll(pProgram)
+              .build());
+
+      Configuration config =
+          TestDataTools.configurationForTest()
+              .loadFromFile(CONFIG_FILE)
+              .setOption(POR_OPTION, Boolean.toString(pPartialOrderReduction))
+              .setOptions(pOptions)
+              .build();
+      return CPATestRunner.run(config, programFile.toPath().toString());
+    }
+  }
+
+  private static int reachedSize(TestResults pResult) {
+    return pResult.getCheckerResult().getReached().size();
+  }
+
+  /**
+   * Checks that the partial-order reduction keeps the verdict of the full exploration and explores
+   * fewer states.
+   */
+  private static void assertReduction(
+      List<String> pProgram, Result pExpected, Map<String, String> pOptions) throws Exception {
+    TestResults full = run(pProgram, false, pOptions);
+    TestResults reduced = run(pProgram, true, pOptions);
+    full.assertIs(pExpected);
+    reduced.assertIs(pExpected);
+    assertThat(reachedSize(reduced)).isLessThan(reachedSize(full));
+  }
+
+  /** The error is only reachable after both threads wrote their last value. */
+  private static final ImmutableList<String> UNSAFE_MAIN =
+      ImmutableList.of(
+          "int main() {",
+          "  pthread_t t1, t2;",
+          "  pthread_create(&t1, 0, first, 0);",
+          "  pthread_create(&t2, 0, second, 0);",
+          "  if (x == 3 && y == 3) {",
+          "    ERROR: return 1;",
+          "  }",
+          "  return 0;",
+          "}");
+
+  /** No interleaving lets the main thread see a value that was never written. */
+  private static final ImmutableList<String> SAFE_MAIN =
+      ImmutableList.of(
+          "int main() {",
+          "  pthread_t t1, t2;",
+          "  pthread_create(&t1, 0, first, 0);",
+          "  pthread_create(&t2, 0, second, 0);",
+          "  if (x == 4 || y == 4) {",
+          "    ERROR: return 1;",
+          "  }",
+          "  return 0;",
+          "}");
+
+  @Test
+  public void testReductionKeepsViolation() throws Exception {
+    assertReduction(UNSAFE_MAIN, Result.FALSE, ImmutableMap.of());
+  }
+
+  @Test
+  public void testReductionKeepsSafety() throws Exception {
+    assertReduction(SAFE_MAIN, Result.TRUE, ImmutableMap.of());
+  }
+
+  /**
+   * Without cloned functions, the threads run on the edges of the original CFA, so the entries of
+   * the sleep set must be distinguished by their thread.
+   */
+  @Test
+  public void testReductionWithoutClonedFunctions() throws Exception {
+    Map<String, String> options =
+        ImmutableMap.of(
+            "cpa.threading.useClonedFunctions",
+            "false",
+            "cfa.useCFACloningForMultiThreadedPrograms",
+            "false");
+    assertReduction(UNSAFE_MAIN, Result.FALSE, options);
+    assertReduction(SAFE_MAIN, Result.TRUE, options);
+  }
+}
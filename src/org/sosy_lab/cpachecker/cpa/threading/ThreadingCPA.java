@@ -16,9 +16,11 @@ import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.defaults.AbstractCPA;
 import org.sosy_lab.cpachecker.core.defaults.AutomaticCPAFactory;
+import org.sosy_lab.cpachecker.core.defaults.FlatLatticeDomain;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.CPAFactory;
 import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
 
 public class ThreadingCPA extends AbstractCPA {
 
@@ -27,7 +29,21 @@ public class ThreadingCPA extends AbstractCPA {
   }
 
   public ThreadingCPA(Configuration config, LogManager pLogger, CFA pCfa) throws InvalidConfigurationException {
-    super("sep", "sep", new ThreadingTransferRelation(config, pCfa, pLogger));
+    super(
+        "sep", "sep", new ThreadingDomain(), new ThreadingTransferRelation(config, pCfa, pLogger));
+  }
+
+  /** Flat domain, except that states sleeping on more edges are covered by otherwise equal ones. */
+  private static class ThreadingDomain extends FlatLatticeDomain {
+
+    @Override
+    public boolean isLessOrEqual(AbstractState pNewState, AbstractState pReachedState)
+        throws CPAException {
+      if (pNewState instanceof ThreadingState && pReachedState instanceof ThreadingState) {
+        return ((ThreadingState) pNewState).isLessOrEqual((ThreadingState) pReachedState);
+      }
+      return super.isLessOrEqual(pNewState, pReachedState);
+    }
   }
 
   @Override
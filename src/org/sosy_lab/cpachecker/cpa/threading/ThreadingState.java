@@ -18,6 +18,7 @@ import static org.sosy_lab.cpachecker.cpa.threading.ThreadingTransferRelation.is
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableSetMultimap;
 import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
@@ -85,12 +86,21 @@ public class ThreadingState implements AbstractState, AbstractStateWithLocations
    */
   private final PersistentMap<String, Integer> threadIdsForWitness;
 
+  /**
+   * Edges of other threads that need not be explored from this state for partial-order reduction,
+   * because an equivalent interleaving is explored from one of the predecessors. The edges are
+   * mapped from the thread that would execute them, because threads may run the same function
+   * and share their edges. Without partial-order reduction, this set is always empty.
+   */
+  private final ImmutableSetMultimap<String, CFAEdge> sleepSet;
+
   public ThreadingState() {
     this.threads = PathCopyingPersistentTreeMap.of();
     this.locks = PathCopyingPersistentTreeMap.of();
     this.activeThread = null;
     this.entryFunction = null;
     this.threadIdsForWitness = PathCopyingPersistentTreeMap.of();
+    this.sleepSet = ImmutableSetMultimap.of();
   }
 
   private ThreadingState(
@@ -98,25 +108,30 @@ public class ThreadingState implements AbstractState, AbstractStateWithLocations
       PersistentMap<String, String> pLocks,
       String pActiveThread,
       FunctionCallEdge entryFunction,
-      PersistentMap<String, Integer> pThreadIdsForWitness) {
+      PersistentMap<String, Integer> pThreadIdsForWitness,
+      ImmutableSetMultimap<String, CFAEdge> pSleepSet) {
     this.threads = pThreads;
     this.locks = pLocks;
     this.activeThread = pActiveThread;
     this.entryFunction = entryFunction;
     this.threadIdsForWitness = pThreadIdsForWitness;
+    this.sleepSet = pSleepSet;
   }
 
   private ThreadingState withThreads(PersistentMap<String, ThreadState> pThreads) {
-    return new ThreadingState(pThreads, locks, activeThread, entryFunction, threadIdsForWitness);
+    return new ThreadingState(
+        pThreads, locks, activeThread, entryFunction, threadIdsForWitness, sleepSet);
   }
 
   private ThreadingState withLocks(PersistentMap<String, String> pLocks) {
-    return new ThreadingState(threads, pLocks, activeThread, entryFunction, threadIdsForWitness);
+    return new ThreadingState(
+        threads, pLocks, activeThread, entryFunction, threadIdsForWitness, sleepSet);
   }
 
   private ThreadingState withThreadIdsForWitness(
       PersistentMap<String, Integer> pThreadIdsForWitness) {
-    return new ThreadingState(threads, locks, activeThread, entryFunction, pThreadIdsForWitness);
+    return new ThreadingState(
+        threads, locks, activeThread, entryFunction, pThreadIdsForWitness, sleepSet);
   }
 
   public ThreadingState addThreadAndCopy(String id, int num, AbstractState stack, AbstractState loc) {
@@ -216,6 +231,7 @@ public class ThreadingState implements AbstractState, AbstractStateWithLocations
         + (activeThread == null ? "" : ("\n produced from thread " + activeThread))
         + " \n"
         + Joiner.on(",\n ").withKeyValueSeparator("=").join(threadIdsForWitness)
+        + (sleepSet.isEmpty() ? "" : ("\n sleeping on " + sleepSet))
         + ")";
   }
 
@@ -228,12 +244,25 @@ public class ThreadingState implements AbstractState, AbstractStateWithLocations
     return threads.equals(ts.threads)
         && locks.equals(ts.locks)
         && Objects.equals(activeThread, ts.activeThread)
-        && threadIdsForWitness.equals(ts.threadIdsForWitness);
+        && threadIdsForWitness.equals(ts.threadIdsForWitness)
+        && sleepSet.equals(ts.sleepSet);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(threads, locks, activeThread, threadIdsForWitness);
+    return Objects.hash(threads, locks, activeThread, threadIdsForWitness, sleepSet);
+  }
+
+  /**
+   * A state is covered by an otherwise equal state that sleeps on fewer edges, because the other
+   * state explores at least the same interleavings.
+   */
+  boolean isLessOrEqual(ThreadingState other) {
+    return threads.equals(other.threads)
+        && locks.equals(other.locks)
+        && Objects.equals(activeThread, other.activeThread)
+        && threadIdsForWitness.equals(other.threadIdsForWitness)
+        && sleepSet.entries().containsAll(other.sleepSet.entries());
   }
 
   private FluentIterable<AbstractStateWithLocations> getLocations() {
@@ -410,7 +439,8 @@ public class ThreadingState implements AbstractState, AbstractStateWithLocations
 
   /** See {@link #activeThread}. */
   public ThreadingState withActiveThread(@Nullable String pActiveThread) {
-    return new ThreadingState(threads, locks, pActiveThread, entryFunction, threadIdsForWitness);
+    return new ThreadingState(
+        threads, locks, pActiveThread, entryFunction, threadIdsForWitness, sleepSet);
   }
 
   String getActiveThread() {
@@ -419,7 +449,19 @@ public class ThreadingState implements AbstractState, AbstractStateWithLocations
 
   /** See {@link #entryFunction}. */
   public ThreadingState withEntryFunction(@Nullable FunctionCallEdge pEntryFunction) {
-    return new ThreadingState(threads, locks, activeThread, pEntryFunction, threadIdsForWitness);
+    return new ThreadingState(
+        threads, locks, activeThread, pEntryFunction, threadIdsForWitness, sleepSet);
+  }
+
+  /** See {@link #sleepSet}. */
+  ThreadingState withSleepSet(ImmutableSetMultimap<String, CFAEdge> pSleepSet) {
+    return new ThreadingState(
+        threads, locks, activeThread, entryFunction, threadIdsForWitness, pSleepSet);
+  }
+
+  /** See {@link #sleepSet}. */
+  ImmutableSetMultimap<String, CFAEdge> getSleepSet() {
+    return sleepSet;
   }
 
   /** See {@link #entryFunction}. */
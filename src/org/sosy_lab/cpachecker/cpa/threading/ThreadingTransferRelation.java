@@ -14,10 +14,12 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Iterables;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -102,6 +104,15 @@ public final class ThreadingTransferRelation extends SingleEdgeTransferRelation
   )
   private boolean useAllPossibleClones = false;
 
+  @Option(
+      description =
+          "use partial-order reduction with sleep sets to avoid exploring several orders of "
+              + "independent edges of different threads. Edges are independent if they are not "
+              + "related to thread management and do not access the same variables in a "
+              + "conflicting way.",
+      secure = true)
+  private boolean usePartialOrderReduction = false;
+
   public static final String THREAD_START = "pthread_create";
   public static final String THREAD_JOIN = "pthread_join";
   private static final String THREAD_EXIT = "pthread_exit";
@@ -125,6 +136,9 @@ public final class ThreadingTransferRelation extends SingleEdgeTransferRelation
 
   private final GlobalAccessChecker globalAccessChecker = new GlobalAccessChecker();
 
+  /** cache for partial-order reduction, edges and their content never change. */
+  private final Map<CFAEdge, EdgeAccesses> edgeAccesses = new IdentityHashMap<>();
+
   public ThreadingTransferRelation(Configuration pConfig, CFA pCfa, LogManager pLogger)
       throws InvalidConfigurationException {
     pConfig.inject(this);
@@ -149,6 +163,12 @@ public final class ThreadingTransferRelation extends SingleEdgeTransferRelation
       return ImmutableSet.of();
     }
 
+    // an equivalent interleaving with this edge is explored from a predecessor
+    if (threadingState.getSleepSet().containsEntry(activeThread, cfaEdge)) {
+      return ImmutableSet.of();
+    }
+    final ThreadingState stateBeforeEdge = threadingState;
+
     // check if atomic lock exists and is set for current thread
     if (useAtomicLocks && threadingState.hasLock(ATOMIC_LOCK)
         && !threadingState.hasLock(activeThread, ATOMIC_LOCK)) {
@@ -178,6 +198,12 @@ public final class ThreadingTransferRelation extends SingleEdgeTransferRelation
     // Store the active thread in the given states, cf. JavaDoc of activeThread
     results = Collections2.transform(results, ts -> ts.withActiveThread(activeThread));
 
+    if (usePartialOrderReduction) {
+      final ImmutableSetMultimap<String, CFAEdge> sleepSet =
+          getSleepSet(stateBeforeEdge, activeThread, cfaEdge);
+      results = Collections2.transform(results, ts -> ts.withSleepSet(sleepSet));
+    }
+
     return ImmutableList.copyOf(results);
   }
 
@@ -205,6 +231,79 @@ public final class ThreadingTransferRelation extends SingleEdgeTransferRelation
     return activeThreads.isEmpty() ? null : Iterables.getOnlyElement(activeThreads);
   }
 
+  /**
+   * Compute the sleep set for the successors of the given state along the given edge. We explore
+   * the threads of a state in the order of their identifiers. Thus the successor does not need to
+   * explore the edges of threads with a smaller identifier than the active thread that were
+   * already explored from the given state, if they are independent from the current edge. The
+   * same holds for the edges in the sleep set of the given state.
+   */
+  private ImmutableSetMultimap<String, CFAEdge> getSleepSet(
+      final ThreadingState threadingState, final String activeThread, final CFAEdge cfaEdge) {
+    if (!mayCommute(cfaEdge)) {
+      return ImmutableSetMultimap.of();
+    }
+    final EdgeAccesses accesses = getAccesses(cfaEdge);
+    ImmutableSetMultimap.Builder<String, CFAEdge> sleepSet = ImmutableSetMultimap.builder();
+    for (Map.Entry<String, CFAEdge> entry : threadingState.getSleepSet().entries()) {
+      // the active thread leaves its location, so its sleeping edges are no longer enabled
+      if (!entry.getKey().equals(activeThread) && isIndependent(accesses, entry.getValue())) {
+        sleepSet.put(entry);
+      }
+    }
+    for (String id : threadingState.getThreadIds()) {
+      if (id.compareTo(activeThread) < 0 && isExplorable(threadingState, id)) {
+        for (CFAEdge edge : threadingState.getThreadLocation(id).getOutgoingEdges()) {
+          if (isIndependent(accesses, edge)) {
+            sleepSet.put(id, edge);
+          }
+        }
+      }
+    }
+    return sleepSet.build();
+  }
+
+  private boolean isIndependent(EdgeAccesses pAccesses, CFAEdge pOtherEdge) {
+    return mayCommute(pOtherEdge) && !pAccesses.conflictsWith(getAccesses(pOtherEdge));
+  }
+
+  private EdgeAccesses getAccesses(CFAEdge cfaEdge) {
+    return edgeAccesses.computeIfAbsent(cfaEdge, EdgeAccesses::of);
+  }
+
+  /**
+   * Whether the edge can be swapped with an edge of another thread that accesses other variables.
+   * Edges that change the locks or the set of threads enable or disable edges of other threads.
+   */
+  private boolean mayCommute(CFAEdge cfaEdge) {
+    if (isImporantForThreading(cfaEdge)
+        || isEndOfMainFunction(cfaEdge)
+        || isTerminatingEdge(cfaEdge)
+        || isThreadExit(cfaEdge)
+        || isLastNodeOfThread(cfaEdge.getSuccessor())) {
+      return false;
+    }
+    if (useAtomicLocks
+        && (cfaEdge.getPredecessor().getFunctionName().startsWith(VERIFIER_ATOMIC)
+            || cfaEdge.getSuccessor().getFunctionName().startsWith(VERIFIER_ATOMIC))) {
+      return false;
+    }
+    // local edges acquire the local-access-lock and thus block all other threads
+    return !useLocalAccessLocks || globalAccessChecker.hasGlobalAccess(cfaEdge);
+  }
+
+  /** Whether the edges of the given thread are not blocked by a lock of another thread. */
+  private boolean isExplorable(ThreadingState threadingState, String id) {
+    if (useAtomicLocks
+        && threadingState.hasLock(ATOMIC_LOCK)
+        && !threadingState.hasLock(id, ATOMIC_LOCK)) {
+      return false;
+    }
+    return !useLocalAccessLocks
+        || !threadingState.hasLock(LOCAL_ACCESS_LOCK)
+        || threadingState.hasLock(id, LOCAL_ACCESS_LOCK);
+  }
+
   /** handle all edges related to thread-management:
    * THREAD_START, THREAD_JOIN, THREAD_EXIT, THREAD_MUTEX_LOCK, VERIFIER_ATOMIC,...
    *
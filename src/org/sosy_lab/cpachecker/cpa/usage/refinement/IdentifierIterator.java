@@ -13,10 +13,12 @@ import static com.google.common.collect.FluentIterable.from;
 import com.google.common.base.Predicates;
 import com.google.common.collect.Sets;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
@@ -146,6 +148,10 @@ public class IdentifierIterator extends WrappedConfigurableRefinementBlock<Reach
     boolean isPrecisionChanged = false;
     AbstractState firstState = pReached.getFirstState();
     AdjustablePrecision finalPrecision = (AdjustablePrecision) pReached.getPrecision(firstState);
+    // The identifiers are refined one after another, but their precisions are merged into
+    // finalPrecision only once after the loop, because rebuilding the precision for every
+    // identifier is quadratic in the number of unsafes
+    List<Precision> addedPrecisions = new ArrayList<>();
 
     while (iterator.hasNext()) {
       SingleIdentifier currentId = iterator.next();
@@ -163,7 +169,7 @@ public class IdentifierIterator extends WrappedConfigurableRefinementBlock<Reach
           updatedPrecision = info;
         }
         precisionMap.put(currentId, updatedPrecision);
-        finalPrecision = finalPrecision.add(updatedPrecision);
+        addedPrecisions.add(updatedPrecision);
         isPrecisionChanged = true;
       }
 
@@ -178,6 +184,9 @@ public class IdentifierIterator extends WrappedConfigurableRefinementBlock<Reach
         processedUnsafes.add(currentId);
       }
     }
+    if (!addedPrecisions.isEmpty()) {
+      finalPrecision = finalPrecision.add(PredicatePrecision.unionOf(addedPrecisions));
+    }
     int newTrueUnsafeSize = container.getProcessedUnsafeSize();
     counter += (newTrueUnsafeSize - lastTrueUnsafes);
     if (counter >= precisionReset) {
@@ -13,6 +13,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.NavigableSet;
 import java.util.TreeSet;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.cpa.usage.UsageInfo;
 import org.sosy_lab.cpachecker.cpa.usage.UsageState;
 
@@ -91,6 +92,18 @@ public class UnrefinedUsagePointSet implements AbstractUsagePointSet {
     }
   }
 
+  /** Returns whether there is a usage with a key state that wraps the given state. */
+  public boolean hasUsagesWithWrappedState(AbstractState pState) {
+    for (UsageInfoSet uset : usageInfoSets.values()) {
+      for (UsageInfo uinfo : uset) {
+        if (UsageState.get(uinfo.getKeyState()).getWrappedState().equals(pState)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   public Iterator<UsagePoint> getPointIterator() {
     return new TreeSet<>(topUsages).iterator();
   }
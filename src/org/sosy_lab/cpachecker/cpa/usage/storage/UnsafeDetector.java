@@ -10,10 +10,19 @@ package org.sosy_lab.cpachecker.cpa.usage.storage;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.NavigableSet;
 import java.util.Set;
 import org.sosy_lab.cpachecker.cpa.lock.DeadLockState.DeadLockTreeNode;
 import org.sosy_lab.cpachecker.cpa.lock.LockIdentifier;
+import org.sosy_lab.cpachecker.cpa.lock.LockState.LockTreeNode;
 import org.sosy_lab.cpachecker.cpa.usage.UsageInfo;
 import org.sosy_lab.cpachecker.cpa.usage.UsageInfo.Access;
 import org.sosy_lab.cpachecker.util.Pair;
@@ -73,31 +82,72 @@ public class UnsafeDetector {
     return getUnsafePair(set.getTopUsages());
   }
 
-  private boolean isUnsafe(NavigableSet<UsagePoint> points) {
-    for (UsagePoint point1 : points) {
-      for (UsagePoint point2 : points.tailSet(point1)) {
-        if (isUnsafePair(point1, point2)) {
-          return true;
+  @VisibleForTesting
+  boolean isUnsafe(NavigableSet<UsagePoint> points) {
+    List<UsageBucket> buckets = new LockSetIndex(points).buckets;
+    for (int i = 0; i < buckets.size(); i++) {
+      UsageBucket bucket1 = buckets.get(i);
+      for (int j = i; j < buckets.size(); j++) {
+        UsageBucket bucket2 = buckets.get(j);
+        if (!mayConflict(bucket1, bucket2)) {
+          continue;
+        }
+        for (int k = 0; k < bucket1.points.size(); k++) {
+          UsagePoint point1 = bucket1.points.get(k);
+          // Within one bucket, every pair is considered only once
+          for (int l = (i == j ? k : 0); l < bucket2.points.size(); l++) {
+            UsagePoint point2 = bucket2.points.get(l);
+            // Pass the points in the order of the set, as a scan over all pairs would do
+            boolean unsafe =
+                point1.compareTo(point2) <= 0
+                    ? isUnsafePair(point1, point2)
+                    : isUnsafePair(point2, point1);
+            if (unsafe) {
+              return true;
+            }
+          }
         }
       }
     }
     return false;
   }
 
-  private Pair<UsagePoint, UsagePoint> getUnsafePair(NavigableSet<UsagePoint> set) {
+  @VisibleForTesting
+  Pair<UsagePoint, UsagePoint> getUnsafePair(NavigableSet<UsagePoint> set) {
+    LockSetIndex index = new LockSetIndex(set);
+    Map<UsageBucket, List<UsageBucket>> conflictingBuckets = new IdentityHashMap<>();
+    for (UsageBucket bucket1 : index.buckets) {
+      List<UsageBucket> conflicting = new ArrayList<>();
+      for (UsageBucket bucket2 : index.buckets) {
+        if (mayConflict(bucket1, bucket2)) {
+          conflicting.add(bucket2);
+        }
+      }
+      conflictingBuckets.put(bucket1, conflicting);
+    }
 
+    // Return the first pair in the order of the set, as a scan over all pairs would do
     for (UsagePoint point1 : set) {
-      for (UsagePoint point2 : set.tailSet(point1)) {
-        if (point1.equals(point2)) {
-          /* There can be an unsafe even with only one usage,
-           * but at first we find two different usages
-           */
-          continue;
-        }
-        if (isUnsafePair(point1, point2)) {
-          return Pair.of(point1, point2);
+      UsagePoint firstPoint2 = null;
+      for (UsageBucket bucket : conflictingBuckets.get(index.bucketOfPoint.get(point1))) {
+        /* There can be an unsafe even with only one usage,
+         * but at first we find two different usages
+         */
+        int position = Collections.binarySearch(bucket.points, point1);
+        position = position >= 0 ? position + 1 : -position - 1;
+        for (UsagePoint point2 : bucket.points.subList(position, bucket.points.size())) {
+          if (firstPoint2 != null && point2.compareTo(firstPoint2) >= 0) {
+            break;
+          }
+          if (isUnsafePair(point1, point2)) {
+            firstPoint2 = point2;
+            break;
+          }
         }
       }
+      if (firstPoint2 != null) {
+        return Pair.of(point1, firstPoint2);
+      }
     }
     // Now we find an unsafe only from one usage
     if (!config.ignoreEmptyLockset()) {
@@ -111,6 +161,19 @@ public class UnsafeDetector {
     return null;
   }
 
+  /**
+   * Checks whether a pair of points from the given buckets may be unsafe. Points with intersecting
+   * lock sets are never compatible, and races need at least one write access.
+   */
+  private boolean mayConflict(UsageBucket bucket1, UsageBucket bucket2) {
+    if (bucket1.locks.intersects(bucket2.locks)) {
+      return false;
+    }
+    return config.getUnsafeMode() != UnsafeMode.RACE
+        || bucket1.access == Access.WRITE
+        || bucket2.access == Access.WRITE;
+  }
+
   public boolean isUnsafePair(UsagePoint point1, UsagePoint point2) {
     if (point1.isCompatible(point2)) {
       switch (config.getUnsafeMode()) {
@@ -179,4 +242,50 @@ public class UnsafeDetector {
     }
     return false;
   }
- }
+
+  /** Usage points with the same access and the same set of locks. */
+  private static final class UsageBucket {
+    private final Access access;
+    private final BitSet locks;
+    /** the points of the bucket in their natural order */
+    private final List<UsagePoint> points = new ArrayList<>();
+
+    private UsageBucket(Access pAccess, BitSet pLocks) {
+      access = pAccess;
+      locks = pLocks;
+    }
+  }
+
+  /**
+   * Groups usage points by their access and their set of locks. The lock identifiers are mapped
+   * to bit positions, such that the lock sets of two groups are intersected word by word.
+   */
+  private static final class LockSetIndex {
+    private final Map<LockIdentifier, Integer> lockIndices = new HashMap<>();
+    private final List<UsageBucket> buckets = new ArrayList<>();
+    private final Map<UsagePoint, UsageBucket> bucketOfPoint = new IdentityHashMap<>();
+
+    private LockSetIndex(NavigableSet<UsagePoint> points) {
+      Map<Pair<Access, BitSet>, UsageBucket> bucketsByKey = new HashMap<>();
+      for (UsagePoint point : points) {
+        BitSet locks = new BitSet();
+        LockTreeNode lockNode = point.get(LockTreeNode.class);
+        if (lockNode != null) {
+          for (LockIdentifier lock : lockNode) {
+            locks.set(lockIndices.computeIfAbsent(lock, l -> lockIndices.size()));
+          }
+        }
+        UsageBucket bucket =
+            bucketsByKey.computeIfAbsent(
+                Pair.of(point.getAccess(), locks),
+                key -> {
+                  UsageBucket newBucket = new UsageBucket(key.getFirst(), key.getSecond());
+                  buckets.add(newBucket);
+                  return newBucket;
+                });
+        bucket.points.add(point);
+        bucketOfPoint.put(point, bucket);
+      }
+    }
+  }
+}
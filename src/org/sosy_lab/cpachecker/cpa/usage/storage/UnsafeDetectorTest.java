@@ -0,0 +1,187 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.usage.storage;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.cpachecker.cpa.lock.LockIdentifier;
+import org.sosy_lab.cpachecker.cpa.lock.LockState.LockTreeNode;
+import org.sosy_lab.cpachecker.cpa.usage.CompatibleNode;
+import org.sosy_lab.cpachecker.cpa.usage.CompatibleState;
+import org.sosy_lab.cpachecker.cpa.usage.UsageInfo.Access;
+import org.sosy_lab.cpachecker.util.Pair;
+
+public class UnsafeDetectorTest {
+
+  private static final ImmutableList<LockIdentifier> LOCKS =
+      ImmutableList.of(
+          LockIdentifier.of("lock0"),
+          LockIdentifier.of("lock1"),
+          LockIdentifier.of("lock2"),
+          LockIdentifier.of("lock3"));
+
+  /** A node that makes usages of the same thread incompatible. */
+  private static final class ThreadNode implements CompatibleNode {
+    private final int thread;
+
+    private ThreadNode(int pThread) {
+      thread = pThread;
+    }
+
+    @Override
+    public boolean isCompatibleWith(CompatibleState pState) {
+      return thread != ((ThreadNode) pState).thread;
+    }
+
+    @Override
+    public boolean cover(CompatibleNode pNode) {
+      return equals(pNode);
+    }
+
+    @Override
+    public int compareTo(CompatibleState pOther) {
+      return Integer.compare(thread, ((ThreadNode) pOther).thread);
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      return pObj instanceof ThreadNode && thread == ((ThreadNode) pObj).thread;
+    }
+
+    @Override
+    public int hashCode() {
+      return thread;
+    }
+
+    @Override
+    public String toString() {
+      return "thread" + thread;
+    }
+  }
+
+  private static UnsafeDetector createDetector(boolean pIgnoreEmptyLockset)
+      throws InvalidConfigurationException {
+    Configuration config =
+        Configuration.builder()
+            .setOption(
+                "cpa.usage.unsafedetector.ignoreEmptyLockset",
+                Boolean.toString(pIgnoreEmptyLockset))
+            .build();
+    return new UnsafeDetector(new UsageConfiguration(config));
+  }
+
+  private static UsagePoint point(Access pAccess, int pThread, Set<LockIdentifier> pLocks) {
+    return new UsagePoint(
+        ImmutableList.of(new LockTreeNode(pLocks), new ThreadNode(pThread)), pAccess);
+  }
+
+  /** The check for unsafe sets that compares every pair of points. */
+  private static boolean isUnsafePairwise(
+      UnsafeDetector pDetector, NavigableSet<UsagePoint> pPoints) {
+    for (UsagePoint point1 : pPoints) {
+      for (UsagePoint point2 : pPoints.tailSet(point1, true)) {
+        if (pDetector.isUnsafePair(point1, point2)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /** The search for the first unsafe pair that compares every pair of points. */
+  private static Pair<UsagePoint, UsagePoint> getUnsafePairPairwise(
+      UnsafeDetector pDetector, NavigableSet<UsagePoint> pPoints, boolean pIgnoreEmptyLockset) {
+    for (UsagePoint point1 : pPoints) {
+      for (UsagePoint point2 : pPoints.tailSet(point1, false)) {
+        if (pDetector.isUnsafePair(point1, point2)) {
+          return Pair.of(point1, point2);
+        }
+      }
+    }
+    if (!pIgnoreEmptyLockset) {
+      for (UsagePoint point : pPoints) {
+        if (pDetector.isUnsafePair(point, point)) {
+          return Pair.of(point, point);
+        }
+      }
+    }
+    return null;
+  }
+
+  @Test
+  public void testOverlappingLocksets() throws InvalidConfigurationException {
+    UnsafeDetector detector = createDetector(true);
+    NavigableSet<UsagePoint> points = new TreeSet<>();
+    points.add(point(Access.WRITE, 0, ImmutableSet.of(LOCKS.get(0), LOCKS.get(1))));
+    points.add(point(Access.READ, 1, ImmutableSet.of(LOCKS.get(1))));
+    points.add(point(Access.WRITE, 2, ImmutableSet.of(LOCKS.get(1), LOCKS.get(2))));
+    assertThat(isUnsafePairwise(detector, points)).isFalse();
+    assertThat(detector.isUnsafe(points)).isFalse();
+    assertThat(detector.getUnsafePair(points)).isNull();
+  }
+
+  @Test
+  public void testDisjointLocksets() throws InvalidConfigurationException {
+    UnsafeDetector detector = createDetector(true);
+    UsagePoint read = point(Access.READ, 0, ImmutableSet.of(LOCKS.get(0)));
+    UsagePoint write = point(Access.WRITE, 1, ImmutableSet.of(LOCKS.get(1)));
+    NavigableSet<UsagePoint> points = new TreeSet<>();
+    points.add(read);
+    points.add(write);
+    points.add(point(Access.READ, 2, ImmutableSet.of(LOCKS.get(2))));
+    assertThat(isUnsafePairwise(detector, points)).isTrue();
+    assertThat(detector.isUnsafe(points)).isTrue();
+    assertThat(detector.getUnsafePair(points)).isEqualTo(Pair.of(write, read));
+  }
+
+  @Test
+  public void testReadsOnly() throws InvalidConfigurationException {
+    UnsafeDetector detector = createDetector(false);
+    NavigableSet<UsagePoint> points = new TreeSet<>();
+    points.add(point(Access.READ, 0, ImmutableSet.of()));
+    points.add(point(Access.READ, 1, ImmutableSet.of()));
+    assertThat(isUnsafePairwise(detector, points)).isFalse();
+    assertThat(detector.isUnsafe(points)).isFalse();
+    assertThat(detector.getUnsafePair(points)).isNull();
+  }
+
+  @Test
+  public void testRandomUsagesAgainstPairwiseCheck() throws InvalidConfigurationException {
+    Random random = new Random(0);
+    for (boolean ignoreEmptyLockset : ImmutableList.of(true, false)) {
+      UnsafeDetector detector = createDetector(ignoreEmptyLockset);
+      for (int round = 0; round < 500; round++) {
+        NavigableSet<UsagePoint> points = new TreeSet<>();
+        for (int i = random.nextInt(8) + 1; i > 0; i--) {
+          ImmutableSet.Builder<LockIdentifier> locks = ImmutableSet.builder();
+          for (LockIdentifier lock : LOCKS) {
+            if (random.nextInt(3) == 0) {
+              locks.add(lock);
+            }
+          }
+          Access access = random.nextBoolean() ? Access.READ : Access.WRITE;
+          points.add(point(access, random.nextInt(3), locks.build()));
+        }
+
+        assertThat(detector.isUnsafe(points)).isEqualTo(isUnsafePairwise(detector, points));
+        assertThat(detector.getUnsafePair(points))
+            .isEqualTo(getUnsafePairPairwise(detector, points, ignoreEmptyLockset));
+      }
+    }
+  }
+}
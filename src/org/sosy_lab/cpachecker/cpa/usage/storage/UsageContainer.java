@@ -10,8 +10,10 @@ package org.sosy_lab.cpachecker.cpa.usage.storage;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multiset;
 import com.google.common.collect.Sets;
 import java.util.ArrayDeque;
@@ -28,6 +30,7 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.logging.Level;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.cpa.lock.LockState;
 import org.sosy_lab.cpachecker.cpa.lock.LockState.LockStateBuilder;
 import org.sosy_lab.cpachecker.cpa.lock.effects.LockEffect;
@@ -52,6 +55,14 @@ public class UsageContainer {
   private final Set<SingleIdentifier> falseUnsafes;
 
   private final Set<SingleIdentifier> processedUnsafes = new HashSet<>();
+
+  // Identifiers, which have usages with a key state that wraps the given state, for removing
+  // states without a full walk over all unsafes. UsageInfoSet.remove compares key states by
+  // value, and equal key states wrap equal states. The key states themselves are not used as
+  // keys, because their recent usages may still change. An identifier is dropped from an entry
+  // once it has no usages with a key state that wraps the state
+  private final Map<AbstractState, Set<SingleIdentifier>> idsByKeyState = new HashMap<>();
+
   //Only for statistics
   private Set<SingleIdentifier> initialSet = null;
   private int initialUsages;
@@ -99,6 +110,8 @@ public class UsageContainer {
       copyTimer.start();
       Set<Pair<FunctionContainer, Multiset<LockEffect>>> processedContainers = new HashSet<>();
       Deque<Pair<FunctionContainer, Multiset<LockEffect>>> waitlist = new ArrayDeque<>();
+      // Lock states are expanded once for every set of effects, not once for every container
+      Map<Multiset<LockEffect>, Map<LockState, LockState>> expandedLockStates = new HashMap<>();
       Pair<FunctionContainer, Multiset<LockEffect>> first = Pair.of(storage, HashMultiset.create());
       waitlist.add(first);
 
@@ -113,7 +126,7 @@ public class UsageContainer {
           newEffects.addAll(currentEffects);
           newEffects.addAll(currentContainer.getLockEffects());
 
-          copyUsages(currentContainer, newEffects);
+          copyUsages(currentContainer, newEffects, expandedLockStates);
           processedContainers.add(currentPair);
 
           if (newEffects.equals(currentEffects)) {
@@ -148,18 +161,22 @@ public class UsageContainer {
 
       for (UsageInfo uinfo : entry.getValue()) {
         if (uinfo.getKeyState() != null) {
-          uset.add(uinfo);
+          addUsage(id, uset, uinfo);
         }
       }
     }
     emptyEffectsTimer.stop();
   }
 
-  private void copyUsages(FunctionContainer storage, Multiset<LockEffect> currentEffects) {
+  private void copyUsages(
+      FunctionContainer storage,
+      Multiset<LockEffect> currentEffects,
+      Map<Multiset<LockEffect>, Map<LockState, LockState>> expandedLockStates) {
     if (currentEffects.isEmpty()) {
       copyUsages(storage);
     } else {
-      Map<LockState, LockState> reduceToExpand = new HashMap<>();
+      Map<LockState, LockState> reduceToExpand =
+          expandedLockStates.computeIfAbsent(currentEffects, k -> new HashMap<>());
 
       for (Map.Entry<SingleIdentifier, NavigableSet<UsageInfo>> entry : storage.entrySet()) {
         SingleIdentifier id = entry.getKey();
@@ -184,12 +201,20 @@ public class UsageContainer {
             expandedLocks = builder.build();
             reduceToExpand.put(locks, expandedLocks);
           }
-          uset.add(uinfo.expand(expandedLocks));
+          addUsage(id, uset, uinfo.expand(expandedLocks));
         }
       }
     }
   }
 
+  private void addUsage(SingleIdentifier id, UnrefinedUsagePointSet uset, UsageInfo uinfo) {
+    uset.add(uinfo);
+    idsByKeyState
+        .computeIfAbsent(
+            UsageState.get(uinfo.getKeyState()).getWrappedState(), k -> new HashSet<>())
+        .add(id);
+  }
+
   private UnrefinedUsagePointSet getSet(SingleIdentifier id) {
     assert (!falseUnsafes.contains(id) || !refinedIds.containsKey(id));
 
@@ -299,15 +324,41 @@ public class UsageContainer {
     unsafeUsages = -1;
     unrefinedIds.values()
       .forEach(UnrefinedUsagePointSet::reset);
+    idsByKeyState.clear();
     logger.log(Level.FINE, "Unsafes are reseted");
     resetTimer.stop();
   }
 
   public void removeState(final UsageState pUstate) {
-    unrefinedIds.forEach((id, uset) -> uset.remove(pUstate));
+    AbstractState wrappedState = pUstate.getWrappedState();
+    Set<SingleIdentifier> ids = idsByKeyState.get(wrappedState);
+    if (ids == null) {
+      return;
+    }
+    // The identifiers stay unsafes until the next full calculation, even if their remaining
+    // usages are not unsafe, because the states are removed only to be analyzed again
+    Iterator<SingleIdentifier> iterator = ids.iterator();
+    while (iterator.hasNext()) {
+      UnrefinedUsagePointSet uset = unrefinedIds.get(iterator.next());
+      if (uset != null) {
+        uset.remove(pUstate);
+      }
+      // Other key states, which wrap the same state, may still have usages of the identifier
+      if (uset == null || !uset.hasUsagesWithWrappedState(wrappedState)) {
+        iterator.remove();
+      }
+    }
+    if (ids.isEmpty()) {
+      idsByKeyState.remove(wrappedState);
+    }
     logger.log(Level.ALL, "All unsafes related to key state " + pUstate + " were removed from reached set");
   }
 
+  @VisibleForTesting
+  Set<SingleIdentifier> getIdentifiersWithKeyState(AbstractState pWrappedState) {
+    return idsByKeyState.getOrDefault(pWrappedState, ImmutableSet.of());
+  }
+
   public AbstractUsagePointSet getUsages(SingleIdentifier id) {
     if (unrefinedIds.containsKey(id)) {
       return unrefinedIds.get(id);
@@ -0,0 +1,208 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.usage.storage;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.Sets;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractStateWithLocation;
+import org.sosy_lab.cpachecker.cpa.usage.CompatibleNode;
+import org.sosy_lab.cpachecker.cpa.usage.CompatibleState;
+import org.sosy_lab.cpachecker.cpa.usage.UsageInfo;
+import org.sosy_lab.cpachecker.cpa.usage.UsageInfo.Access;
+import org.sosy_lab.cpachecker.cpa.usage.UsageState;
+import org.sosy_lab.cpachecker.util.identifiers.GlobalVariableIdentifier;
+import org.sosy_lab.cpachecker.util.identifiers.SingleIdentifier;
+
+public class UsageContainerTest {
+
+  private static final SingleIdentifier RACY =
+      new GlobalVariableIdentifier("racy", CNumericTypes.INT, 0);
+  private static final SingleIdentifier LOCAL =
+      new GlobalVariableIdentifier("local", CNumericTypes.INT, 0);
+
+  /** A state of a thread at a location, usages of the same thread are not compatible. */
+  private static final class ThreadState implements AbstractStateWithLocation, CompatibleNode {
+    private final int thread;
+    private final CFANode location;
+
+    private ThreadState(int pThread) {
+      thread = pThread;
+      location = CFANode.newDummyCFANode("thread" + pThread);
+    }
+
+    @Override
+    public CFANode getLocationNode() {
+      return location;
+    }
+
+    @Override
+    public boolean isCompatibleWith(CompatibleState pState) {
+      return thread != ((ThreadState) pState).thread;
+    }
+
+    @Override
+    public boolean cover(CompatibleNode pNode) {
+      return equals(pNode);
+    }
+
+    @Override
+    public int compareTo(CompatibleState pOther) {
+      return Integer.compare(thread, ((ThreadState) pOther).thread);
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      return pObj instanceof ThreadState && thread == ((ThreadState) pObj).thread;
+    }
+
+    @Override
+    public int hashCode() {
+      return thread;
+    }
+  }
+
+  private final AbstractState wrapped1 = new AbstractState() {};
+  private final AbstractState wrapped2 = new AbstractState() {};
+  private final AbstractState wrapped3 = new AbstractState() {};
+
+  private UsageState keyState1;
+  private UsageState keyState2;
+  private UsageState keyState3;
+
+  private UsageConfiguration config;
+
+  @Before
+  public void setUp() throws InvalidConfigurationException {
+    config =
+        new UsageConfiguration(
+            Configuration.builder()
+                .setOption("cpa.usage.unsafedetector.ignoreEmptyLockset", "false")
+                .build());
+    keyState1 = UsageState.createInitialState(wrapped1);
+    keyState2 = UsageState.createInitialState(wrapped2);
+    keyState3 = UsageState.createInitialState(wrapped3);
+  }
+
+  private static UsageInfo usage(
+      SingleIdentifier pId, Access pAccess, int pThread, UsageState pKeyState) {
+    UsageInfo usage = UsageInfo.createUsageInfo(pAccess, new ThreadState(pThread), pId);
+    usage.setKeyState(pKeyState);
+    return usage;
+  }
+
+  /**
+   * Two writes of different threads to RACY, which are an unsafe, and a write and a read of the
+   * same thread to LOCAL, which are not.
+   */
+  private TemporaryUsageStorage createStorage() {
+    TemporaryUsageStorage storage = new TemporaryUsageStorage();
+    storage.add(RACY, usage(RACY, Access.WRITE, 0, keyState1));
+    storage.add(RACY, usage(RACY, Access.WRITE, 1, keyState2));
+    storage.add(LOCAL, usage(LOCAL, Access.WRITE, 0, keyState1));
+    storage.add(LOCAL, usage(LOCAL, Access.READ, 0, keyState3));
+    return storage;
+  }
+
+  private UsageContainer createContainer() {
+    return new UsageContainer(
+        config, LogManager.createTestLogManager(), new UnsafeDetector(config));
+  }
+
+  private static Set<SingleIdentifier> getUnsafes(UsageContainer pContainer) {
+    return Sets.newHashSet(pContainer.getUnsafeIterator());
+  }
+
+  @Test
+  public void testUnsafesAfterRemovingStates() {
+    UsageContainer container = createContainer();
+    container.forceAddNewUsages(createStorage());
+    assertThat(getUnsafes(container)).containsExactly(RACY);
+    assertThat(container.getFalseUnsafes()).isEmpty();
+
+    // Without the second write, the usages of RACY are not an unsafe on their own,
+    // but the identifier stays an unsafe until the next calculation
+    container.removeState(keyState2);
+    assertThat(container.getUsages(RACY).size()).isEqualTo(1);
+    assertThat(getUnsafes(container)).containsExactly(RACY);
+    assertThat(container.getFalseUnsafes()).isEmpty();
+
+    // The removed state is analyzed again, so its usages are found again
+    container.resetUnrefinedUnsafes();
+    container.forceAddNewUsages(createStorage());
+    assertThat(container.getUsages(RACY).size()).isEqualTo(2);
+    assertThat(getUnsafes(container)).containsExactly(RACY);
+    assertThat(container.getFalseUnsafes()).isEmpty();
+
+    // A container that never lost the usages reports the same unsafes
+    UsageContainer fullContainer = createContainer();
+    fullContainer.forceAddNewUsages(createStorage());
+    assertThat(getUnsafes(container)).isEqualTo(getUnsafes(fullContainer));
+    assertThat(container.getFalseUnsafes())
+        .containsExactlyElementsIn(fullContainer.getFalseUnsafes());
+  }
+
+  @Test
+  public void testRemoveEqualKeyState() {
+    UsageContainer container = createContainer();
+    container.forceAddNewUsages(createStorage());
+    assertThat(getUnsafes(container)).containsExactly(RACY);
+
+    // Usages are removed for all key states that are equal to the removed state
+    UsageState equalKeyState = UsageState.createInitialState(wrapped1);
+    assertThat(equalKeyState).isEqualTo(keyState1);
+    container.removeState(equalKeyState);
+    assertThat(container.getUsages(RACY).size()).isEqualTo(1);
+    assertThat(getUnsafes(container)).containsExactly(RACY);
+  }
+
+  @Test
+  public void testIndexIsPrunedOnRemoval() {
+    UsageContainer container = createContainer();
+    container.forceAddNewUsages(createStorage());
+    assertThat(container.getIdentifiersWithKeyState(wrapped1)).containsExactly(RACY, LOCAL);
+    assertThat(container.getIdentifiersWithKeyState(wrapped2)).containsExactly(RACY);
+
+    container.removeState(keyState1);
+    assertThat(container.getIdentifiersWithKeyState(wrapped1)).isEmpty();
+    assertThat(container.getIdentifiersWithKeyState(wrapped2)).containsExactly(RACY);
+    assertThat(container.getIdentifiersWithKeyState(wrapped3)).containsExactly(LOCAL);
+  }
+
+  @Test
+  public void testIndexKeepsOtherKeyStatesOfSameState() {
+    // A key state that wraps the same state, but is not equal to the first one
+    UsageState otherKeyState = keyState1.copy();
+    otherKeyState.put(RACY, LOCAL);
+    assertThat(otherKeyState).isNotEqualTo(keyState1);
+
+    TemporaryUsageStorage storage = createStorage();
+    storage.add(RACY, usage(RACY, Access.READ, 2, otherKeyState));
+    UsageContainer container = createContainer();
+    container.forceAddNewUsages(storage);
+    assertThat(container.getUsages(RACY).size()).isEqualTo(3);
+
+    container.removeState(keyState1);
+    assertThat(container.getUsages(RACY).size()).isEqualTo(2);
+    assertThat(container.getIdentifiersWithKeyState(wrapped1)).containsExactly(RACY);
+
+    container.removeState(otherKeyState);
+    assertThat(container.getUsages(RACY).size()).isEqualTo(1);
+    assertThat(container.getIdentifiersWithKeyState(wrapped1)).isEmpty();
+  }
+}
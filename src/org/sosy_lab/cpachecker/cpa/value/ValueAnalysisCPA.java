@@ -19,9 +19,13 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
@@ -60,8 +64,11 @@ import org.sosy_lab.cpachecker.cpa.value.symbolic.SymbolicValueAnalysisPrecision
 import org.sosy_lab.cpachecker.cpa.value.symbolic.SymbolicValueAssigner;
 import org.sosy_lab.cpachecker.cpa.value.symbolic.type.SymbolicValue;
 import org.sosy_lab.cpachecker.util.StateToFormulaWriter;
+import org.sosy_lab.cpachecker.util.states.DenseMemoryLocationMap;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+import org.sosy_lab.cpachecker.util.states.MemoryLocationIndex;
 import org.sosy_lab.cpachecker.util.states.MemoryLocationValueHandler;
+import org.sosy_lab.cpachecker.util.variableclassification.Partition;
 
 @Options(prefix = "cpa.value")
 public class ValueAnalysisCPA extends AbstractCPA
@@ -107,6 +114,14 @@ public class ValueAnalysisCPA extends AbstractCPA
       description = "Tells the value analysis how to handle unknown values.")
   private UnknownValueStrategy unknownValueStrategy = UnknownValueStrategy.DISCARD;
 
+  @Option(
+      secure = true,
+      description =
+          "Store the values of the value analysis in chunked arrays indexed by memory location"
+              + " instead of search trees. This reduces allocations and lookup costs for programs"
+              + " with many tracked memory locations, e.g., many global variables.")
+  private boolean denseStateRepresentation = false;
+
   public static CPAFactory factory() {
     return AutomaticCPAFactory.forType(ValueAnalysisCPA.class);
   }
@@ -132,6 +147,8 @@ public class ValueAnalysisCPA extends AbstractCPA
 
   private SymbolicStatistics symbolicStats;
 
+  private final @Nullable MemoryLocationIndex memoryLocationIndex;
+
   private ValueAnalysisCPA(Configuration config, LogManager logger,
       ShutdownNotifier pShutdownNotifier, CFA cfa) throws InvalidConfigurationException {
     super(DelegateAbstractDomain.<ValueAnalysisState>getInstance(), null);
@@ -156,6 +173,25 @@ public class ValueAnalysisCPA extends AbstractCPA
     transferOptions = new ValueTransferOptions(config);
     precisionAdjustmentOptions = new PrecAdjustmentOptions(config, cfa);
     precisionAdjustmentStatistics = new PrecAdjustmentStatistics();
+
+    memoryLocationIndex = denseStateRepresentation ? createMemoryLocationIndex(cfa) : null;
+  }
+
+  /**
+   * Create the index for the dense state representation, with all program variables known from
+   * the variable classification in a deterministic order.
+   */
+  private static MemoryLocationIndex createMemoryLocationIndex(CFA pCfa) {
+    if (!pCfa.getVarClassification().isPresent()) {
+      return new MemoryLocationIndex();
+    }
+    Set<MemoryLocation> variables = new TreeSet<>();
+    for (Partition partition : pCfa.getVarClassification().orElseThrow().getPartitions()) {
+      for (String variable : partition.getVars()) {
+        variables.add(MemoryLocation.fromQualifiedName(variable));
+      }
+    }
+    return new MemoryLocationIndex(variables);
   }
 
   private MemoryLocationValueHandler createUnknownValueHandler()
@@ -282,6 +318,10 @@ public class ValueAnalysisCPA extends AbstractCPA
 
   @Override
   public AbstractState getInitialState(CFANode pNode, StateSpacePartition pPartition) {
+    if (memoryLocationIndex != null) {
+      return new ValueAnalysisState(
+          Optional.of(cfa.getMachineModel()), DenseMemoryLocationMap.of(memoryLocationIndex));
+    }
     return new ValueAnalysisState(cfa.getMachineModel());
   }
 
@@ -10,6 +10,7 @@ package org.sosy_lab.cpachecker.cpa.value;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
@@ -19,6 +20,7 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -27,6 +29,7 @@ import java.util.Set;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.collect.PersistentMap;
+import org.sosy_lab.common.collect.PersistentSortedMap;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
 import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression;
@@ -74,6 +77,7 @@ import org.sosy_lab.cpachecker.util.predicates.smt.BitvectorFormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.FloatingPointFormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
 import org.sosy_lab.cpachecker.util.refinement.ForgetfulState;
+import org.sosy_lab.cpachecker.util.states.DenseMemoryLocationMap;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
 import org.sosy_lab.java_smt.api.BitvectorFormula;
 import org.sosy_lab.java_smt.api.BooleanFormula;
@@ -108,6 +112,14 @@ public final class ValueAnalysisState
    */
   private int hashCode = 0;
 
+  /**
+   * Hash code of {@link #constantsMap} that ignores the types of the values, i.e., the sum of
+   * {@link #valueHashCode(MemoryLocation, ValueAndType)} over all entries. It needs to be updated
+   * with every change of {@link #constantsMap} and allows to reject coverage of states with the same
+   * size in constant time.
+   */
+  private int valuesHashCode = 0;
+
   private final @Nullable MachineModel machineModel;
 
   public ValueAnalysisState(MachineModel pMachineModel) {
@@ -128,12 +140,25 @@ public final class ValueAnalysisState
     machineModel = pMachineModel;
     constantsMap = checkNotNull(pConstantsMap);
     hashCode = constantsMap.hashCode();
+    valuesHashCode = valuesHashCode(constantsMap);
+  }
+
+  private ValueAnalysisState(
+      @Nullable MachineModel pMachineModel,
+      PersistentMap<MemoryLocation, ValueAndType> pConstantsMap,
+      int pHashCode,
+      int pValuesHashCode) {
+    machineModel = pMachineModel;
+    constantsMap = checkNotNull(pConstantsMap);
+    hashCode = pHashCode;
+    valuesHashCode = pValuesHashCode;
   }
 
   private ValueAnalysisState(ValueAnalysisState state) {
     machineModel = state.machineModel;
     constantsMap = checkNotNull(state.constantsMap);
     hashCode = state.hashCode;
+    valuesHashCode = state.valuesHashCode;
     assert hashCode == constantsMap.hashCode();
   }
 
@@ -169,9 +194,11 @@ public final class ValueAnalysisState
     ValueAndType oldValueAndType = constantsMap.get(pMemLoc);
     if (oldValueAndType != null) {
       hashCode -= (pMemLoc.hashCode() ^ oldValueAndType.hashCode());
+      valuesHashCode -= valueHashCode(pMemLoc, oldValueAndType);
     }
     constantsMap = constantsMap.putAndCopy(pMemLoc, valueAndType);
     hashCode += (pMemLoc.hashCode() ^ valueAndType.hashCode());
+    valuesHashCode += valueHashCode(pMemLoc, valueAndType);
   }
 
   /**
@@ -241,6 +268,7 @@ public final class ValueAnalysisState
     ValueAndType value = constantsMap.get(pMemoryLocation);
     constantsMap = constantsMap.removeAndCopy(pMemoryLocation);
     hashCode -= (pMemoryLocation.hashCode() ^ value.hashCode());
+    valuesHashCode -= valueHashCode(pMemoryLocation, value);
 
     PersistentMap<MemoryLocation, ValueAndType> valueAssignment = PathCopyingPersistentTreeMap.of();
     valueAssignment = valueAssignment.putAndCopy(pMemoryLocation, value);
@@ -365,25 +393,94 @@ public final class ValueAnalysisState
    */
   @Override
   public ValueAnalysisState join(ValueAnalysisState reachedState) {
-    PersistentMap<MemoryLocation, ValueAndType> newConstantsMap = PathCopyingPersistentTreeMap.of();
+    if (constantsMap == reachedState.constantsMap) {
+      return reachedState;
+    }
+
+    if (DenseMemoryLocationMap.areCompatible(constantsMap, reachedState.constantsMap)) {
+      return joinDense(reachedState);
+    }
+
+    if (constantsMap instanceof DenseMemoryLocationMap
+        && !(reachedState.constantsMap instanceof DenseMemoryLocationMap)) {
+      return joinIntoDense(reachedState);
+    }
+
+    // Remove the differing entries from the map of the reached state instead of building a new
+    // map, such that the result shares as much structure as possible with the reached state.
+    PersistentMap<MemoryLocation, ValueAndType> newConstantsMap = reachedState.constantsMap;
+    int newHashCode = reachedState.hashCode;
+    int newValuesHashCode = reachedState.valuesHashCode;
 
     for (Entry<MemoryLocation, ValueAndType> otherEntry : reachedState.constantsMap.entrySet()) {
       MemoryLocation key = otherEntry.getKey();
       ValueAndType value = otherEntry.getValue();
+      ValueAndType thisValue = constantsMap.get(key);
 
-      if (Objects.equals(value, constantsMap.get(key))) {
-        newConstantsMap = newConstantsMap.putAndCopy(key, value);
+      if (value != thisValue && !value.equals(thisValue)) {
+        newConstantsMap = newConstantsMap.removeAndCopy(key);
+        newHashCode -= (key.hashCode() ^ value.hashCode());
+        newValuesHashCode -= valueHashCode(key, value);
       }
     }
 
     // return the reached state if both maps are equal
-    if (newConstantsMap.size() == reachedState.constantsMap.size()) {
+    if (newConstantsMap == reachedState.constantsMap) {
+      return reachedState;
+    } else {
+      return new ValueAnalysisState(
+          machineModel, newConstantsMap, newHashCode, newValuesHashCode);
+    }
+  }
+
+  private ValueAnalysisState joinDense(ValueAnalysisState reachedState) {
+    int[] newHashCodes = {reachedState.hashCode, reachedState.valuesHashCode};
+    DenseMemoryLocationMap<ValueAndType> newConstantsMap =
+        ((DenseMemoryLocationMap<ValueAndType>) reachedState.constantsMap)
+            .retainEquivalentEntries(
+                (DenseMemoryLocationMap<ValueAndType>) constantsMap,
+                ValueAndType::equals,
+                (key, value) -> {
+                  newHashCodes[0] -= (key.hashCode() ^ value.hashCode());
+                  newHashCodes[1] -= valueHashCode(key, value);
+                });
+
+    if (newConstantsMap == reachedState.constantsMap) {
       return reachedState;
     } else {
-      return new ValueAnalysisState(machineModel, newConstantsMap);
+      return new ValueAnalysisState(
+          machineModel, newConstantsMap, newHashCodes[0], newHashCodes[1]);
     }
   }
 
+  /**
+   * Join with a reached state that does not use the dense representation, such that the result
+   * keeps the dense representation of this state. The result replaces the reached state even if
+   * it has the same entries, such that later joins with it take the shortcuts of the dense map.
+   */
+  private ValueAnalysisState joinIntoDense(ValueAnalysisState reachedState) {
+    PersistentMap<MemoryLocation, ValueAndType> newConstantsMap = constantsMap.empty();
+    int newHashCode = 0;
+    int newValuesHashCode = 0;
+
+    for (Entry<MemoryLocation, ValueAndType> otherEntry : reachedState.constantsMap.entrySet()) {
+      MemoryLocation key = otherEntry.getKey();
+      ValueAndType value = otherEntry.getValue();
+      if (value.equals(constantsMap.get(key))) {
+        newConstantsMap = newConstantsMap.putAndCopy(key, value);
+        newHashCode += (key.hashCode() ^ value.hashCode());
+        newValuesHashCode += valueHashCode(key, value);
+      }
+    }
+
+    return new ValueAnalysisState(machineModel, newConstantsMap, newHashCode, newValuesHashCode);
+  }
+
+  @VisibleForTesting
+  boolean hasDenseRepresentation() {
+    return constantsMap instanceof DenseMemoryLocationMap;
+  }
+
   /**
    * This method decides if this element is less or equal than the other element, based on the order imposed by the lattice.
    *
@@ -393,11 +490,23 @@ public final class ValueAnalysisState
   @Override
   public boolean isLessOrEqual(ValueAnalysisState other) {
 
+    // states that share their map are trivially equal
+    if (constantsMap == other.constantsMap) {
+      return true;
+    }
+
     // also, this element is not less or equal than the other element, if it contains less elements
     if (constantsMap.size() < other.constantsMap.size()) {
       return false;
     }
 
+    // if both elements have the same size, they need to contain the same memory locations
+    // with the same values, which is impossible if the hash codes of the values differ
+    if (constantsMap.size() == other.constantsMap.size()
+        && valuesHashCode != other.valuesHashCode) {
+      return false;
+    }
+
     // also, this element is not less or equal than the other element,
     // if any one constant's value of the other element differs from the constant's value in this
     // element
@@ -408,11 +517,31 @@ public final class ValueAnalysisState
     // }
 
     // the tolerant way: ignore all type information. TODO really correct?
+    if (DenseMemoryLocationMap.areCompatible(constantsMap, other.constantsMap)) {
+      // chunks that are shared by both states are skipped
+      return ((DenseMemoryLocationMap<ValueAndType>) constantsMap)
+          .containsAllEntries(
+              (DenseMemoryLocationMap<ValueAndType>) other.constantsMap,
+              (thisValueAndType, otherValueAndType) ->
+                  otherValueAndType.getValue().equals(thisValueAndType.getValue()));
+    }
+
+    if (constantsMap instanceof PersistentSortedMap
+        && other.constantsMap instanceof PersistentSortedMap
+        && constantsMap.size() <= 2 * other.constantsMap.size()) {
+      // both maps have a similar size, a linear walk over both is cheaper than a lookup per entry
+      return containsAllValuesSorted(
+          (PersistentSortedMap<MemoryLocation, ValueAndType>) constantsMap,
+          (PersistentSortedMap<MemoryLocation, ValueAndType>) other.constantsMap);
+    }
+
     for (Entry<MemoryLocation, ValueAndType> otherEntry : other.constantsMap.entrySet()) {
       MemoryLocation key = otherEntry.getKey();
-      Value otherValue = otherEntry.getValue().getValue();
+      ValueAndType otherValueAndType = otherEntry.getValue();
       ValueAndType thisValueAndType = constantsMap.get(key);
-      if (thisValueAndType == null || !otherValue.equals(thisValueAndType.getValue())) {
+      if (thisValueAndType != otherValueAndType
+          && (thisValueAndType == null
+              || !otherValueAndType.getValue().equals(thisValueAndType.getValue()))) {
         return false;
       }
     }
@@ -420,6 +549,50 @@ public final class ValueAnalysisState
     return true;
   }
 
+  /**
+   * Check whether the first map contains all memory locations of the second map with the same
+   * values (ignoring types), by iterating over both sorted maps in parallel.
+   */
+  private static boolean containsAllValuesSorted(
+      PersistentSortedMap<MemoryLocation, ValueAndType> pMap,
+      PersistentSortedMap<MemoryLocation, ValueAndType> pSubMap) {
+    assert pMap.comparator() == null && pSubMap.comparator() == null;
+    Iterator<Entry<MemoryLocation, ValueAndType>> it = pMap.entrySet().iterator();
+    for (Entry<MemoryLocation, ValueAndType> subEntry : pSubMap.entrySet()) {
+      MemoryLocation key = subEntry.getKey();
+      Entry<MemoryLocation, ValueAndType> entry;
+      do {
+        if (!it.hasNext()) {
+          return false;
+        }
+        entry = it.next();
+      } while (entry.getKey().compareTo(key) < 0);
+
+      if (!entry.getKey().equals(key)) {
+        return false;
+      }
+      ValueAndType valueAndType = entry.getValue();
+      ValueAndType subValueAndType = subEntry.getValue();
+      if (valueAndType != subValueAndType
+          && !valueAndType.getValue().equals(subValueAndType.getValue())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int valueHashCode(MemoryLocation pMemLoc, ValueAndType pValueAndType) {
+    return pMemLoc.hashCode() ^ pValueAndType.getValue().hashCode();
+  }
+
+  private static int valuesHashCode(PersistentMap<MemoryLocation, ValueAndType> pConstantsMap) {
+    int result = 0;
+    for (Entry<MemoryLocation, ValueAndType> entry : pConstantsMap.entrySet()) {
+      result += valueHashCode(entry.getKey(), entry.getValue());
+    }
+    return result;
+  }
+
   @Override
   public boolean equals(Object other) {
     if (this == other) {
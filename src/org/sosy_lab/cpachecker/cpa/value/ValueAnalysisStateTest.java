@@ -0,0 +1,134 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.value;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.util.states.DenseMemoryLocationMap;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+import org.sosy_lab.cpachecker.util.states.MemoryLocationIndex;
+
+public class ValueAnalysisStateTest {
+
+  private static final MemoryLocation X = MemoryLocation.forIdentifier("x");
+  private static final MemoryLocation Y = MemoryLocation.forIdentifier("y");
+  private static final MemoryLocation Z = MemoryLocation.forIdentifier("z");
+
+  private ValueAnalysisState state;
+
+  @Before
+  public void setUp() {
+    state = new ValueAnalysisState(MachineModel.LINUX32);
+    state.assignConstant(X, new NumericValue(1), CNumericTypes.INT);
+    state.assignConstant(Y, new NumericValue(2), CNumericTypes.INT);
+  }
+
+  @Test
+  public void testIsLessOrEqualCopy() {
+    ValueAnalysisState copy = ValueAnalysisState.copyOf(state);
+    assertThat(copy.isLessOrEqual(state)).isTrue();
+    assertThat(state.isLessOrEqual(copy)).isTrue();
+  }
+
+  @Test
+  public void testIsLessOrEqualSameSizeDifferentValue() {
+    ValueAnalysisState other = ValueAnalysisState.copyOf(state);
+    other.assignConstant(Y, new NumericValue(3), CNumericTypes.INT);
+    assertThat(other.isLessOrEqual(state)).isFalse();
+    assertThat(state.isLessOrEqual(other)).isFalse();
+  }
+
+  @Test
+  public void testIsLessOrEqualIgnoresTypes() {
+    ValueAnalysisState other = ValueAnalysisState.copyOf(state);
+    other.assignConstant(Y, new NumericValue(2), CNumericTypes.LONG_INT);
+    assertThat(other.isLessOrEqual(state)).isTrue();
+    assertThat(state.isLessOrEqual(other)).isTrue();
+  }
+
+  @Test
+  public void testIsLessOrEqualMoreLocations() {
+    ValueAnalysisState bigger = ValueAnalysisState.copyOf(state);
+    bigger.assignConstant(Z, new NumericValue(3), CNumericTypes.INT);
+    assertThat(bigger.isLessOrEqual(state)).isTrue();
+    assertThat(state.isLessOrEqual(bigger)).isFalse();
+
+    bigger.forget(X);
+    assertThat(bigger.isLessOrEqual(state)).isFalse();
+  }
+
+  @Test
+  public void testJoin() {
+    ValueAnalysisState other = ValueAnalysisState.copyOf(state);
+    assertThat(state.join(other)).isSameInstanceAs(other);
+
+    other.assignConstant(Y, new NumericValue(3), CNumericTypes.INT);
+    other.assignConstant(Z, new NumericValue(3), CNumericTypes.INT);
+    ValueAnalysisState joined = state.join(other);
+
+    ValueAnalysisState expected = new ValueAnalysisState(MachineModel.LINUX32);
+    expected.assignConstant(X, new NumericValue(1), CNumericTypes.INT);
+    assertThat(joined).isEqualTo(expected);
+    assertThat(joined.hashCode()).isEqualTo(expected.hashCode());
+    assertThat(state.isLessOrEqual(joined)).isTrue();
+    assertThat(other.isLessOrEqual(joined)).isTrue();
+    // the hash codes of the join are updated incrementally, states of the same size are only
+    // compared if the hash codes of their values are equal
+    assertThat(joined.isLessOrEqual(expected)).isTrue();
+    assertThat(expected.isLessOrEqual(joined)).isTrue();
+  }
+
+  @Test
+  public void testJoinSameLocations() {
+    ValueAnalysisState other = ValueAnalysisState.copyOf(state);
+    other.assignConstant(Y, new NumericValue(3), CNumericTypes.INT);
+    other.assignConstant(Z, new NumericValue(4), CNumericTypes.INT);
+    state.assignConstant(Z, new NumericValue(4), CNumericTypes.INT);
+    ValueAnalysisState joined = state.join(other);
+
+    ValueAnalysisState expected = new ValueAnalysisState(MachineModel.LINUX32);
+    expected.assignConstant(X, new NumericValue(1), CNumericTypes.INT);
+    expected.assignConstant(Z, new NumericValue(4), CNumericTypes.INT);
+    assertThat(joined).isEqualTo(expected);
+    assertThat(joined.hashCode()).isEqualTo(expected.hashCode());
+    assertThat(joined.isLessOrEqual(expected)).isTrue();
+    assertThat(expected.isLessOrEqual(joined)).isTrue();
+  }
+
+  @Test
+  public void testJoinKeepsDenseRepresentation() {
+    ValueAnalysisState dense =
+        new ValueAnalysisState(
+            Optional.of(MachineModel.LINUX32),
+            DenseMemoryLocationMap.of(new MemoryLocationIndex()));
+    dense.assignConstant(X, new NumericValue(1), CNumericTypes.INT);
+    dense.assignConstant(Y, new NumericValue(3), CNumericTypes.INT);
+    assertThat(dense.hasDenseRepresentation()).isTrue();
+    assertThat(state.hasDenseRepresentation()).isFalse();
+
+    ValueAnalysisState joined = dense.join(state);
+    assertThat(joined.hasDenseRepresentation()).isTrue();
+
+    ValueAnalysisState expected = new ValueAnalysisState(MachineModel.LINUX32);
+    expected.assignConstant(X, new NumericValue(1), CNumericTypes.INT);
+    assertThat(joined).isEqualTo(expected);
+    assertThat(joined.hashCode()).isEqualTo(expected.hashCode());
+    assertThat(joined.isLessOrEqual(expected)).isTrue();
+    assertThat(expected.isLessOrEqual(joined)).isTrue();
+
+    // once the reached state is dense, joins with an equal state keep it
+    assertThat(dense.join(joined)).isSameInstanceAs(joined);
+  }
+}
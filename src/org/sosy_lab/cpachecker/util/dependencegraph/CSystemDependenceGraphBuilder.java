@@ -20,6 +20,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.TimeUnit;
 import org.sosy_lab.common.ShutdownManager;
 import org.sosy_lab.common.ShutdownNotifier;
@@ -58,8 +60,8 @@ import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.dependencegraph.ControlDependenceBuilder.FunctionPostDominance;
 import org.sosy_lab.cpachecker.util.dependencegraph.Dominance.DomTree;
-import org.sosy_lab.cpachecker.util.dependencegraph.FlowDepAnalysis.DependenceConsumer;
 import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.EdgeType;
 import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.Node;
 import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.NodeType;
@@ -165,6 +167,16 @@ public class CSystemDependenceGraphBuilder implements StatisticsProvider {
   private List<PointerStateComputationMethod> pointerStateComputationMethods =
       ImmutableList.of(PointerStateComputationMethod.FLOW_SENSITIVE);
 
+  @Option(
+      secure = true,
+      name = "threads",
+      description =
+          "The number of threads used for computing dominance, dependencies, and summary edges of"
+              + " independent functions in parallel. Positive values match exactly, with -1 the"
+              + " number of available processors is used. The resulting dependence graph does not"
+              + " depend on the number of threads.")
+  private int threads = -1;
+
   private final SystemDependenceGraph.Builder<
           AFunctionDeclaration, CFAEdge, MemoryLocation, CSystemDependenceGraph.Node>
       builder;
@@ -199,18 +211,24 @@ public class CSystemDependenceGraphBuilder implements StatisticsProvider {
               + " to build a meaningful dependence graph");
     }
 
+    if (threads <= 0 && threads != -1) {
+      throw new InvalidConfigurationException(
+          "Number of threads for dependence graph construction must be positive or -1");
+    }
+
     builder = SystemDependenceGraph.builder(CSystemDependenceGraph.Node::new);
   }
 
   private void insertDependencies(
       CallGraph<AFunctionDeclaration> pCallGraph,
-      ImmutableSet<AFunctionDeclaration> pReachableFunctions)
+      ImmutableSet<AFunctionDeclaration> pReachableFunctions,
+      ForkJoinPool pPool)
       throws CPAException {
 
     if (considerFlowDeps) {
       flowDependenceTimer.start();
       try {
-        insertFlowDependencies(pReachableFunctions);
+        insertFlowDependencies(pReachableFunctions, pPool);
       } finally {
         flowDependenceTimer.stop();
       }
@@ -219,7 +237,7 @@ public class CSystemDependenceGraphBuilder implements StatisticsProvider {
     if (considerControlDeps) {
       controlDependenceTimer.start();
       try {
-        insertControlDependencies(pReachableFunctions);
+        insertControlDependencies(pReachableFunctions, pPool);
       } finally {
         controlDependenceTimer.stop();
       }
@@ -231,7 +249,8 @@ public class CSystemDependenceGraphBuilder implements StatisticsProvider {
           builder,
           pCallGraph,
           cfa.getMainFunction().getFunction(),
-          SummaryEdgeBuilder.Method.BATCH);
+          SummaryEdgeBuilder.Method.BATCH,
+          pPool);
     } finally {
       summaryEdgeTimer.stop();
     }
@@ -254,7 +273,12 @@ public class CSystemDependenceGraphBuilder implements StatisticsProvider {
         reachableFunctions = reachableFunctionsBuilder.build();
       }
 
-      insertDependencies(callGraph, reachableFunctions);
+      ForkJoinPool pool = new ForkJoinPool(getThreadCount());
+      try {
+        insertDependencies(callGraph, reachableFunctions, pool);
+      } finally {
+        pool.shutdownNow();
+      }
       systemDependenceGraph = builder.build();
 
     } finally {
@@ -268,6 +292,27 @@ public class CSystemDependenceGraphBuilder implements StatisticsProvider {
     return new CSystemDependenceGraph(systemDependenceGraph);
   }
 
+  private int getThreadCount() {
+    return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * Returns the entry nodes of all functions that are part of the SDG, in the order of {@link
+   * CFA#getAllFunctionHeads()}.
+   */
+  private ImmutableList<FunctionEntryNode> getFunctionEntryNodes(
+      ImmutableSet<AFunctionDeclaration> pReachableFunctions) {
+
+    ImmutableList.Builder<FunctionEntryNode> entryNodes = ImmutableList.builder();
+    for (FunctionEntryNode entryNode : cfa.getAllFunctionHeads()) {
+      if (!onlyReachableFunctions || pReachableFunctions.contains(entryNode.getFunction())) {
+        entryNodes.add(entryNode);
+      }
+    }
+
+    return entryNodes.build();
+  }
+
   private static Optional<AFunctionDeclaration> getOptionalFunction(CFAEdge pEdge) {
 
     CFANode node =
@@ -695,7 +740,8 @@ public class CSystemDependenceGraphBuilder implements StatisticsProvider {
             }
   }
 
-  private void insertFlowDependencies(ImmutableSet<AFunctionDeclaration> pReachableFunctions)
+  private void insertFlowDependencies(
+      ImmutableSet<AFunctionDeclaration> pReachableFunctions, ForkJoinPool pPool)
       throws CPAException {
 
     GlobalPointerState pointerState = createGlobalPointerState();
@@ -714,47 +760,67 @@ public class CSystemDependenceGraphBuilder implements StatisticsProvider {
     ImmutableMultimap<String, CFAEdge> complexTypeDeclarationEdges =
         getComplexTypeDeclarationEdges(globalEdges);
 
-    for (FunctionEntryNode entryNode : cfa.getAllFunctionHeads()) {
-
-      if (onlyReachableFunctions && !pReachableFunctions.contains(entryNode.getFunction())) {
-        continue;
-      }
+    // flow dependencies of different functions are computed in parallel, but inserted in a fixed
+    // order, so the resulting SDG is deterministic
+    ImmutableList<FunctionEntryNode> entryNodes = getFunctionEntryNodes(pReachableFunctions);
+    List<ForkJoinTask<List<FlowDependence>>> tasks = new ArrayList<>(entryNodes.size());
+    for (FunctionEntryNode entryNode : entryNodes) {
 
-      DomTree<CFANode> domTree = DominanceUtils.createFunctionDomTree(entryNode);
+      boolean isMain = entryNode.equals(cfa.getMainFunction());
 
-      insertFunctionDeclarationEdge(functionDeclarationEdges, entryNode);
+      tasks.add(
+          pPool.submit(
+              () -> {
+                List<FlowDependence> dependences = new ArrayList<>();
+                DomTree<CFANode> domTree = DominanceUtils.createFunctionDomTree(entryNode);
+                new FlowDepAnalysis(
+                        domTree,
+                        Dominance.createDomFrontiers(domTree),
+                        entryNode,
+                        isMain ? ImmutableList.of() : globalEdges,
+                        defUseExtractor,
+                        pointerState,
+                        foreignDefUseData,
+                        complexTypeDeclarationEdges,
+                        (pDefEdge, pUseEdge, pCause, pIsDeclaration) ->
+                            dependences.add(
+                                new FlowDependence(pDefEdge, pUseEdge, pCause, pIsDeclaration)))
+                    .run();
+                return dependences;
+              }));
+    }
 
-      DependenceConsumer dependenceConsumer =
-          (pDefEdge, pUseEdge, pCause, pIsDeclaration) ->
-              insertFlowDependency(
-                  pointerState, foreignDefUseData, pDefEdge, pUseEdge, pCause, pIsDeclaration);
+    for (int index = 0; index < entryNodes.size(); index++) {
 
-      boolean isMain = entryNode.equals(cfa.getMainFunction());
+      insertFunctionDeclarationEdge(functionDeclarationEdges, entryNodes.get(index));
 
-      new FlowDepAnalysis(
-              domTree,
-              Dominance.createDomFrontiers(domTree),
-              entryNode,
-              isMain ? ImmutableList.of() : globalEdges,
-              defUseExtractor,
-              pointerState,
-              foreignDefUseData,
-              complexTypeDeclarationEdges,
-              dependenceConsumer)
-          .run();
+      for (FlowDependence dependence : tasks.get(index).join()) {
+        insertFlowDependency(
+            pointerState,
+            foreignDefUseData,
+            dependence.defEdge,
+            dependence.useEdge,
+            dependence.cause,
+            dependence.isDeclaration);
+      }
     }
   }
 
-  private void insertControlDependencies(ImmutableSet<AFunctionDeclaration> pReachableFunctions) {
+  private void insertControlDependencies(
+      ImmutableSet<AFunctionDeclaration> pReachableFunctions, ForkJoinPool pPool) {
 
-    for (FunctionEntryNode entryNode : cfa.getAllFunctionHeads()) {
+    ImmutableList<FunctionEntryNode> entryNodes = getFunctionEntryNodes(pReachableFunctions);
+    List<ForkJoinTask<FunctionPostDominance>> tasks = new ArrayList<>(entryNodes.size());
+    for (FunctionEntryNode entryNode : entryNodes) {
+      tasks.add(pPool.submit(() -> ControlDependenceBuilder.computePostDominance(entryNode)));
+    }
 
-      if (onlyReachableFunctions && !pReachableFunctions.contains(entryNode.getFunction())) {
-        continue;
-      }
+    for (int index = 0; index < entryNodes.size(); index++) {
+
+      FunctionEntryNode entryNode = entryNodes.get(index);
 
       ControlDependenceBuilder.insertControlDependencies(
-          builder, entryNode, controlDepsTakeBothAssumptions);
+          builder, tasks.get(index).join(), controlDepsTakeBothAssumptions);
 
       Optional<AFunctionDeclaration> procedure = Optional.of(entryNode.getFunction());
 
@@ -785,6 +851,23 @@ public class CSystemDependenceGraphBuilder implements StatisticsProvider {
     }
   }
 
+  /** A flow dependence found by {@link FlowDepAnalysis} that is not inserted yet. */
+  private static final class FlowDependence {
+
+    private final CFAEdge defEdge;
+    private final CFAEdge useEdge;
+    private final MemoryLocation cause;
+    private final boolean isDeclaration;
+
+    private FlowDependence(
+        CFAEdge pDefEdge, CFAEdge pUseEdge, MemoryLocation pCause, boolean pIsDeclaration) {
+      defEdge = pDefEdge;
+      useEdge = pUseEdge;
+      cause = pCause;
+      isDeclaration = pIsDeclaration;
+    }
+  }
+
   @Override
   public void collectStatistics(Collection<Statistics> pStatsCollection) {
     pStatsCollection.add(
@@ -0,0 +1,124 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.dependencegraph;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.EdgeType;
+import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.VisitResult;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class CSystemDependenceGraphBuilderTest {
+
+  private static final ImmutableList<Integer> THREAD_COUNTS = ImmutableList.of(2, 4, 8);
+
+  /** Several independent callers of a shared callee, a recursive function and global variables. */
+  private static final String[] PROGRAM = {
+    "int g1 = 0;",
+    "int g2 = 0;",
+    "",
+    "int leaf(int a, int b) {",
+    "  g1 = g1 + a;",
+    "  return a;",
+    "}",
+    "",
+    "int first(int a, int b) {",
+    "  return leaf(a, b);",
+    "}",
+    "",
+    "int second(int a, int b) {",
+    "  leaf(b, a);",
+    "  g2 = b;",
+    "  return b;",
+    "}",
+    "",
+    "int rec(int a, int b) {",
+    "  if (a <= 0) {",
+    "    return b;",
+    "  }",
+    "  return rec(b - 1, a) + g2;",
+    "}",
+    "",
+    "int main() {",
+    "  int x = first(1, 2);",
+    "  int y = second(x, 3);",
+    "  int z = rec(y, x);",
+    "  if (z > g1) {",
+    "    return 1;",
+    "  }",
+    "  return 0;",
+    "}"
+  };
+
+  private static CSystemDependenceGraph build(CFA pCfa, int pThreads) throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption("dependencegraph.threads", Integer.toString(pThreads))
+            .build();
+    return new CSystemDependenceGraphBuilder(
+            pCfa, config, LogManager.createTestLogManager(), ShutdownNotifier.createDummy())
+        .build();
+  }
+
+  /** All edges of the SDG in the order of the leaving edges of the nodes. */
+  private static List<List<Object>> getEdges(CSystemDependenceGraph pSdg) {
+    List<List<Object>> edges = new ArrayList<>();
+    pSdg.traverse(
+        pSdg.getNodes(),
+        new CSystemDependenceGraph.ForwardsVisitor() {
+
+          @Override
+          public VisitResult visitNode(CSystemDependenceGraph.Node pNode) {
+            return VisitResult.CONTINUE;
+          }
+
+          @Override
+          public VisitResult visitEdge(
+              EdgeType pType,
+              CSystemDependenceGraph.Node pPredecessor,
+              CSystemDependenceGraph.Node pSuccessor) {
+            edges.add(ImmutableList.of(pType, pPredecessor, pSuccessor));
+            return VisitResult.SKIP;
+          }
+        });
+    return edges;
+  }
+
+  @Test
+  public void testParallelConstructionIsDeterministic() throws Exception {
+    CFA cfa = TestDataTools.makeCFA(PROGRAM);
+
+    CSystemDependenceGraph sequential = build(cfa, 1);
+    List<List<Object>> sequentialEdges = getEdges(sequential);
+    assertThat(sequential.getEdgeCount(EdgeType.SUMMARY_EDGE)).isGreaterThan(0);
+
+    for (int threads : THREAD_COUNTS) {
+      CSystemDependenceGraph parallel = build(cfa, threads);
+
+      assertThat(parallel.getNodes()).containsExactlyElementsIn(sequential.getNodes()).inOrder();
+      assertThat(getEdges(parallel)).containsExactlyElementsIn(sequentialEdges).inOrder();
+      for (EdgeType type : EdgeType.values()) {
+        assertThat(parallel.getEdgeCount(type)).isEqualTo(sequential.getEdgeCount(type));
+      }
+      for (CSystemDependenceGraph.Node node : sequential.getNodes()) {
+        CSystemDependenceGraph.Node parallelNode = parallel.getNodeById(node.getId());
+        assertThat(parallel.getDefs(parallelNode)).isEqualTo(sequential.getDefs(node));
+        assertThat(parallel.getUses(parallelNode)).isEqualTo(sequential.getUses(node));
+      }
+    }
+  }
+}
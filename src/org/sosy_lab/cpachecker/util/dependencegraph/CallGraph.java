@@ -16,6 +16,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.HashMap;
@@ -246,6 +247,118 @@ final class CallGraph<P> {
     return ImmutableList.copyOf(Lists.reverse(postOrderList));
   }
 
+  /**
+   * Returns the strongly connected components of all procedures reachable from the specified start
+   * procedure, grouped into levels for a bottom-up traversal of the call graph.
+   *
+   * <p>All procedures called by a procedure of a component in level {@code i} are either contained
+   * in the same component or in a component of some level {@code j < i}. Thus, components of the
+   * same level do not call each other and can be handled independently. The returned levels and
+   * components are ordered deterministically.
+   *
+   * @param pStart the start procedure
+   * @return the components of all reachable procedures, grouped by level
+   */
+  ImmutableList<ImmutableList<ImmutableList<P>>> getComponentLevels(P pStart) {
+
+    Node<P> startNode = nodeMap.get(pStart);
+
+    if (startNode == null) {
+      return ImmutableList.of();
+    }
+
+    // iterative version of Tarjan's algorithm, components are found callees first
+    int[] indices = new int[nodes.size()];
+    int[] lowLinks = new int[nodes.size()];
+    int[] componentIds = new int[nodes.size()];
+    Arrays.fill(indices, -1);
+    Arrays.fill(componentIds, -1);
+    int index = 0;
+
+    List<List<P>> components = new ArrayList<>();
+    List<Integer> componentLevels = new ArrayList<>();
+    Deque<Node<P>> componentStack = new ArrayDeque<>();
+    Deque<Node<P>> callStack = new ArrayDeque<>();
+    Deque<Integer> successorIndexStack = new ArrayDeque<>();
+
+    indices[startNode.getId()] = lowLinks[startNode.getId()] = index++;
+    componentStack.push(startNode);
+    callStack.push(startNode);
+    successorIndexStack.push(0);
+
+    while (!callStack.isEmpty()) {
+
+      Node<P> caller = callStack.peek();
+      int callerId = caller.getId();
+      int successorIndex = successorIndexStack.pop();
+
+      if (successorIndex < caller.getSuccessors().size()) {
+
+        successorIndexStack.push(successorIndex + 1);
+        Node<P> callee = caller.getSuccessors().get(successorIndex);
+        int calleeId = callee.getId();
+
+        if (indices[calleeId] == -1) {
+          indices[calleeId] = lowLinks[calleeId] = index++;
+          componentStack.push(callee);
+          callStack.push(callee);
+          successorIndexStack.push(0);
+        } else if (componentIds[calleeId] == -1) {
+          // callee is on the component stack
+          lowLinks[callerId] = Math.min(lowLinks[callerId], indices[calleeId]);
+        }
+
+        continue;
+      }
+
+      callStack.pop();
+
+      if (lowLinks[callerId] == indices[callerId]) {
+
+        int componentId = components.size();
+        List<P> component = new ArrayList<>();
+        Node<P> node;
+        do {
+          node = componentStack.pop();
+          componentIds[node.getId()] = componentId;
+          component.add(node.getProcedure());
+        } while (node != caller);
+
+        // all callees outside of this component are contained in already finished components
+        int level = 0;
+        for (P procedure : component) {
+          for (Node<P> callee : nodeMap.get(procedure).getSuccessors()) {
+            int calleeComponentId = componentIds[callee.getId()];
+            if (calleeComponentId != componentId) {
+              level = Math.max(level, componentLevels.get(calleeComponentId) + 1);
+            }
+          }
+        }
+
+        components.add(Lists.reverse(component));
+        componentLevels.add(level);
+      }
+
+      if (!callStack.isEmpty()) {
+        int parentId = callStack.peek().getId();
+        lowLinks[parentId] = Math.min(lowLinks[parentId], lowLinks[callerId]);
+      }
+    }
+
+    List<ImmutableList.Builder<ImmutableList<P>>> levels = new ArrayList<>();
+    for (int componentId = 0; componentId < components.size(); componentId++) {
+      int level = componentLevels.get(componentId);
+      while (levels.size() <= level) {
+        levels.add(ImmutableList.builder());
+      }
+      levels.get(level).add(ImmutableList.copyOf(components.get(componentId)));
+    }
+
+    return levels.stream()
+        .map(ImmutableList.Builder::build)
+        .collect(ImmutableList.toImmutableList());
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName() + nodes;
@@ -63,38 +63,62 @@ final class ControlDependenceBuilder<N extends Node<AFunctionDeclaration, CFAEdg
         .filter(edge -> !ignoreFunctionEdge(edge));
   }
 
+  /**
+   * Compute the post-dominance information of a specified function that is required for {@link
+   * #insertControlDependencies(SystemDependenceGraph.Builder, FunctionPostDominance, boolean)}.
+   *
+   * <p>This method does not access any SDG, so it can be called concurrently for different
+   * functions.
+   *
+   * @param pEntryNode the function (specified by its entry node) to compute the post-dominance
+   *     information for
+   * @return the post-dominance information of the specified function
+   */
+  static FunctionPostDominance computePostDominance(FunctionEntryNode pEntryNode) {
+
+    DomTree<CFANode> postDomTree = DominanceUtils.createFunctionPostDomTree(pEntryNode);
+    Set<CFANode> postDomTreeNodes = new HashSet<>();
+    Iterators.addAll(postDomTreeNodes, postDomTree.iterator());
+
+    NodeCollectingCFAVisitor nodeCollector = new NodeCollectingCFAVisitor();
+    CFATraversal.dfs().ignoreFunctionCalls().traverse(pEntryNode, nodeCollector);
+
+    return new FunctionPostDominance(
+        pEntryNode,
+        postDomTree,
+        postDomTreeNodes,
+        Dominance.createDomFrontiers(postDomTree),
+        nodeCollector.getVisitedNodes());
+  }
+
   /**
    * Compute control dependencies for a specified function and insert them into a {@link
    * SystemDependenceGraph}.
    *
    * @param pBuilder the SDG builder used to insert dependencies
-   * @param pEntryNode the function (specified by its entry node) to compute control dependencies
-   *     for
+   * @param pPostDominance the post-dominance information of the function to compute control
+   *     dependencies for
    * @param pDependOnBothAssumptions whether to always depend on both assume edges of a branching,
    *     even if it would be sufficient to only depend on one of the assume edges
    */
   static void insertControlDependencies(
       SystemDependenceGraph.Builder<AFunctionDeclaration, CFAEdge, ?, ?> pBuilder,
-      FunctionEntryNode pEntryNode,
+      FunctionPostDominance pPostDominance,
       boolean pDependOnBothAssumptions) {
 
     ControlDependenceBuilder<?> controlDependenceBuilder =
-        new ControlDependenceBuilder<>(pBuilder, pEntryNode);
-
-    DomTree<CFANode> postDomTree = DominanceUtils.createFunctionPostDomTree(pEntryNode);
-    Set<CFANode> postDomTreeNodes = new HashSet<>();
-    Iterators.addAll(postDomTreeNodes, postDomTree.iterator());
+        new ControlDependenceBuilder<>(pBuilder, pPostDominance.entryNode);
 
     controlDependenceBuilder.insertControlDependencies(
-        postDomTree, postDomTreeNodes, pDependOnBothAssumptions);
-
-    NodeCollectingCFAVisitor nodeCollector = new NodeCollectingCFAVisitor();
-    CFATraversal.dfs().ignoreFunctionCalls().traverse(pEntryNode, nodeCollector);
+        pPostDominance.postDomTree,
+        pPostDominance.frontiers,
+        pPostDominance.postDomTreeNodes,
+        pDependOnBothAssumptions);
 
     controlDependenceBuilder.insertMissingControlDependencies(
-        postDomTree, postDomTreeNodes, nodeCollector.getVisitedNodes());
+        pPostDominance.postDomTree, pPostDominance.postDomTreeNodes, pPostDominance.functionNodes);
 
-    controlDependenceBuilder.insertEntryControlDependencies(nodeCollector.getVisitedNodes());
+    controlDependenceBuilder.insertEntryControlDependencies(pPostDominance.functionNodes);
   }
 
   /**
@@ -106,13 +130,13 @@ final class ControlDependenceBuilder<N extends Node<AFunctionDeclaration, CFAEdg
    */
   private void insertControlDependencies(
       DomTree<CFANode> pPostDomTree,
+      DomFrontiers<CFANode> pFrontiers,
       Set<CFANode> pPostDomTreeNodes,
       boolean pDependOnBothAssumptions) {
 
-    DomFrontiers<CFANode> frontiers = Dominance.createDomFrontiers(pPostDomTree);
     for (CFANode dependentNode : pPostDomTree) {
       int nodeId = pPostDomTree.getId(dependentNode);
-      for (CFANode branchNode : frontiers.getFrontier(dependentNode)) {
+      for (CFANode branchNode : pFrontiers.getFrontier(dependentNode)) {
         for (CFAEdge assumeEdge : CFAUtils.leavingEdges(branchNode)) {
           if (pPostDomTreeNodes.contains(assumeEdge.getSuccessor())) {
 
@@ -144,7 +168,7 @@ final class ControlDependenceBuilder<N extends Node<AFunctionDeclaration, CFAEdg
 
   /**
    * Insert necessary control dependencies that were overlooked by post-DomTree based {@link
-   * #insertControlDependencies(DomTree, Set, boolean)}.
+   * #insertControlDependencies(DomTree, DomFrontiers, Set, boolean)}.
    */
   private void insertMissingControlDependencies(
       DomTree<CFANode> pPostDomTree, Set<CFANode> pPostDomTreeNodes, Set<CFANode> pFunctionNodes) {
@@ -278,4 +302,28 @@ final class ControlDependenceBuilder<N extends Node<AFunctionDeclaration, CFAEdg
       }
     }
   }
+
+  /** Post-dominance information of a single function. */
+  static final class FunctionPostDominance {
+
+    private final FunctionEntryNode entryNode;
+    private final DomTree<CFANode> postDomTree;
+    private final Set<CFANode> postDomTreeNodes;
+    private final DomFrontiers<CFANode> frontiers;
+    private final Set<CFANode> functionNodes;
+
+    private FunctionPostDominance(
+        FunctionEntryNode pEntryNode,
+        DomTree<CFANode> pPostDomTree,
+        Set<CFANode> pPostDomTreeNodes,
+        DomFrontiers<CFANode> pFrontiers,
+        Set<CFANode> pFunctionNodes) {
+
+      entryNode = pEntryNode;
+      postDomTree = pPostDomTree;
+      postDomTreeNodes = pPostDomTreeNodes;
+      frontiers = pFrontiers;
+      functionNodes = pFunctionNodes;
+    }
+  }
 }
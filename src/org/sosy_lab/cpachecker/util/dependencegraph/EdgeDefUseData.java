@@ -10,12 +10,12 @@ package org.sosy_lab.cpachecker.util.dependencegraph;
 
 import com.google.common.base.Equivalence;
 import com.google.common.collect.ImmutableSet;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.sosy_lab.cpachecker.cfa.ast.AAstNode;
 import org.sosy_lab.cpachecker.cfa.ast.c.CAddressOfLabelExpression;
 import org.sosy_lab.cpachecker.cfa.ast.c.CArrayDesignator;
@@ -186,7 +186,8 @@ public final class EdgeDefUseData {
 
     public CachingExtractor(Extractor pDelegateExtractor) {
       delegateExtractor = pDelegateExtractor;
-      cache = new HashMap<>();
+      // the SDG builder extracts def/use data of different functions concurrently
+      cache = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -18,6 +18,12 @@ import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.BackwardsVisitOnceVisitor;
 import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.BackwardsVisitor;
 import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.EdgeType;
@@ -47,6 +53,12 @@ final class SummaryEdgeBuilder {
    * Compute summary edges reachable from a specified start procedure and insert them into a {@link
    * SystemDependenceGraph}.
    *
+   * <p>Summary edges are computed bottom-up over the strongly connected components of the call
+   * graph, so summary edges of called procedures are already available. Summary edges of
+   * non-recursive procedures that do not call each other are computed concurrently in the
+   * specified pool. The SDG is only read during these computations, all summary edges are inserted
+   * afterwards in a deterministic order.
+   *
    * @param <P> the procedure type of the SDG
    * @param <N> the node type of the SDG
    * @param pBuilder the SDG builder used to insert summary edges
@@ -54,12 +66,14 @@ final class SummaryEdgeBuilder {
    * @param pStartProcedure the start procedure of the program (only summary edges reachable from
    *     this procedure are inserted)
    * @param pMethod the method used from computing summary edges
+   * @param pPool the pool used for computing summary edges of independent procedures
    */
   static <P, N extends Node<P, ?, ?>> void insertSummaryEdges(
       SystemDependenceGraph.Builder<P, ?, ?, N> pBuilder,
       CallGraph<P> pCallGraph,
       P pStartProcedure,
-      Method pMethod) {
+      Method pMethod,
+      ForkJoinPool pPool) {
 
     Multimap<P, N> formalOutNodesPerProcedure = ArrayListMultimap.create();
     for (N node : pBuilder.getNodes()) {
@@ -68,39 +82,132 @@ final class SummaryEdgeBuilder {
       }
     }
 
-    List<N> orderedFormalOutNodes = new ArrayList<>();
-    for (P procedure : pCallGraph.getPostOrder(pStartProcedure)) {
-      orderedFormalOutNodes.addAll(formalOutNodesPerProcedure.get(procedure));
-    }
-
     ImmutableSet<P> recursiveProcedures = pCallGraph.getRecursiveProcedures();
     int[] procedureIds = pBuilder.createIds(Node::getProcedure);
+    BitSet finished = new BitSet(pBuilder.getNodeCount());
+
+    // summary edge finders contain a state for every SDG node, so they are reused
+    Queue<SummaryEdgeFinder<N>> finders = new ConcurrentLinkedQueue<>();
+    Supplier<SummaryEdgeFinder<N>> finderSupplier =
+        () -> {
+          SummaryEdgeFinder<N> finder = finders.poll();
+          if (finder != null) {
+            return finder;
+          }
+          if (pMethod == Method.BATCH) {
+            return new BatchSummaryEdgeFinder<>(pBuilder, procedureIds, finished);
+          } else {
+            return new SingleSummaryEdgeFinder<>(pBuilder, procedureIds, finished);
+          }
+        };
+    int batchSize = pMethod == Method.BATCH ? BatchSummaryEdgeFinder.MAX_BATCH_SIZE : 1;
+
+    for (ImmutableList<ImmutableList<P>> level : pCallGraph.getComponentLevels(pStartProcedure)) {
+
+      List<List<N>> formalOutNodesPerTask = new ArrayList<>();
+      List<ForkJoinTask<List<N>>> tasks = new ArrayList<>();
+      List<List<N>> recursiveFormalOutNodes = new ArrayList<>();
+
+      for (ImmutableList<P> component : level) {
+
+        List<N> formalOutNodes = new ArrayList<>();
+        for (P procedure : component) {
+          formalOutNodes.addAll(formalOutNodesPerProcedure.get(procedure));
+        }
+
+        if (formalOutNodes.isEmpty()) {
+          continue;
+        }
+
+        if (component.size() > 1 || recursiveProcedures.contains(component.get(0))) {
+          recursiveFormalOutNodes.add(formalOutNodes);
+        } else {
+          formalOutNodesPerTask.add(formalOutNodes);
+          tasks.add(
+              pPool.submit(
+                  () -> {
+                    SummaryEdgeFinder<N> finder = finderSupplier.get();
+                    List<N> summaryEdges = new ArrayList<>();
+                    findSummaryEdges(
+                        finder,
+                        formalOutNodes,
+                        batchSize,
+                        false,
+                        (formalInNode, formalOutNode) -> {
+                          summaryEdges.add(formalInNode);
+                          summaryEdges.add(formalOutNode);
+                        },
+                        selectedFormalOutNodes -> {});
+                    finders.add(finder);
+                    return summaryEdges;
+                  }));
+        }
+      }
+
+      // the SDG is not modified until all concurrent computations of this level are finished
+      List<List<N>> summaryEdgesPerTask = new ArrayList<>(tasks.size());
+      for (ForkJoinTask<List<N>> task : tasks) {
+        summaryEdgesPerTask.add(task.join());
+      }
 
-    SummaryEdgeFinder<N> summaryEdgeFinder;
-    int batchSize;
-    if (pMethod == Method.BATCH) {
-      summaryEdgeFinder = new BatchSummaryEdgeFinder<>(pBuilder, procedureIds);
-      batchSize = BatchSummaryEdgeFinder.MAX_BATCH_SIZE;
-    } else {
-      summaryEdgeFinder = new SingleSummaryEdgeFinder<>(pBuilder, procedureIds);
-      batchSize = 1;
+      for (int index = 0; index < tasks.size(); index++) {
+        List<N> summaryEdges = summaryEdgesPerTask.get(index);
+        for (int edgeIndex = 0; edgeIndex < summaryEdges.size(); edgeIndex += 2) {
+          pBuilder.insertActualSummaryEdges(
+              summaryEdges.get(edgeIndex), summaryEdges.get(edgeIndex + 1));
+        }
+        for (N formalOutNode : formalOutNodesPerTask.get(index)) {
+          finished.set(formalOutNode.getId());
+        }
+      }
+
+      // summary edges of recursive procedures are inserted immediately, as they are used to find
+      // further summary edges of the same component
+      for (List<N> formalOutNodes : recursiveFormalOutNodes) {
+        SummaryEdgeFinder<N> finder = finderSupplier.get();
+        findSummaryEdges(
+            finder,
+            formalOutNodes,
+            batchSize,
+            true,
+            pBuilder::insertActualSummaryEdges,
+            selectedFormalOutNodes -> {
+              for (N formalOutNode : selectedFormalOutNodes) {
+                finished.set(formalOutNode.getId());
+              }
+            });
+        finders.add(finder);
+      }
     }
+  }
+
+  /**
+   * Find summary edges for the specified formal-out nodes.
+   *
+   * <p>The formal-out nodes are selected in batches of nodes from a single procedure. After a batch
+   * has been handled by the finder, the batch is passed to the specified finished-consumer.
+   */
+  private static <N extends Node<?, ?, ?>> void findSummaryEdges(
+      SummaryEdgeFinder<N> pFinder,
+      List<N> pFormalOutNodes,
+      int pBatchSize,
+      boolean pRecursive,
+      SummaryEdgeConsumer<N> pConsumer,
+      Consumer<List<N>> pFinishedConsumer) {
 
     List<N> selectedFormalOutNodes = new ArrayList<>();
-    // insert summary edges for all formal-out nodes
-    for (int index = 0; index < orderedFormalOutNodes.size(); index++) {
+    for (int index = 0; index < pFormalOutNodes.size(); index++) {
 
-      N node = orderedFormalOutNodes.get(index);
-      int procedureId = procedureIds[node.getId()];
+      N node = pFormalOutNodes.get(index);
+      int procedureId = pFinder.getProcedureId(node.getId());
       selectedFormalOutNodes.add(node);
 
       // select up to batchSize formal-out nodes that are from a single procedure
-      while (index + 1 < orderedFormalOutNodes.size()
-          && selectedFormalOutNodes.size() < batchSize) {
+      while (index + 1 < pFormalOutNodes.size() && selectedFormalOutNodes.size() < pBatchSize) {
 
-        N nextNode = orderedFormalOutNodes.get(index + 1);
+        N nextNode = pFormalOutNodes.get(index + 1);
 
-        if (procedureIds[nextNode.getId()] != procedureId) {
+        if (pFinder.getProcedureId(nextNode.getId()) != procedureId) {
           break;
         }
 
@@ -108,8 +215,8 @@ final class SummaryEdgeBuilder {
         index++;
       }
 
-      boolean recursive = recursiveProcedures.contains(node.getProcedure().orElseThrow());
-      summaryEdgeFinder.run(selectedFormalOutNodes, recursive, pBuilder::insertActualSummaryEdges);
+      pFinder.run(selectedFormalOutNodes, pRecursive, pConsumer);
+      pFinishedConsumer.accept(selectedFormalOutNodes);
       selectedFormalOutNodes.clear();
     }
   }
@@ -128,6 +235,10 @@ final class SummaryEdgeBuilder {
    * node is found by a summary edge finder, the {@link SummaryEdgeConsumer} specified for the run
    * is called.
    *
+   * <p>Formal-out nodes are only marked as finished by the caller of a run, after the found summary
+   * edges were inserted. During a run, the SDG is only read, so multiple finders can run
+   * concurrently.
+   *
    * <p>Implementation must implement the run method.
    */
   private abstract static class SummaryEdgeFinder<N extends Node<?, ?, ?>> {
@@ -138,11 +249,11 @@ final class SummaryEdgeBuilder {
     private final List<N> reachedFormalInNodes;
 
     private SummaryEdgeFinder(
-        SystemDependenceGraph.Builder<?, ?, ?, N> pBuilder, int[] pProcedureIds) {
+        SystemDependenceGraph.Builder<?, ?, ?, N> pBuilder, int[] pProcedureIds, BitSet pFinished) {
 
       builder = pBuilder;
       procedureIds = pProcedureIds;
-      finished = new BitSet(pBuilder.getNodeCount());
+      finished = pFinished;
       reachedFormalInNodes = new ArrayList<>();
     }
 
@@ -161,10 +272,6 @@ final class SummaryEdgeBuilder {
       return finished.get(pNodeId);
     }
 
-    protected void setFormalOutFinished(int pNodeId) {
-      finished.set(pNodeId);
-    }
-
     protected List<N> getReachedFormalInNodes() {
       return reachedFormalInNodes;
     }
@@ -187,8 +294,8 @@ final class SummaryEdgeBuilder {
     private boolean recursive;
 
     private SingleSummaryEdgeFinder(
-        SystemDependenceGraph.Builder<?, ?, ?, N> pBuilder, int[] pProcedureIds) {
-      super(pBuilder, pProcedureIds);
+        SystemDependenceGraph.Builder<?, ?, ?, N> pBuilder, int[] pProcedureIds, BitSet pFinished) {
+      super(pBuilder, pProcedureIds, pFinished);
 
       visitor = new BackwardsVisitOnceVisitor<>(this, pBuilder.getNodeCount());
     }
@@ -208,7 +315,6 @@ final class SummaryEdgeBuilder {
           pConsumer.accept(formalInNode, formalOutNode);
         }
 
-        setFormalOutFinished(formalOutNode.getId());
         clearReachedFormalInNodes();
       }
     }
@@ -275,8 +381,8 @@ final class SummaryEdgeBuilder {
     private int statesDirtyMax;
 
     private BatchSummaryEdgeFinder(
-        SystemDependenceGraph.Builder<?, ?, ?, N> pBuilder, int[] pProcedureIds) {
-      super(pBuilder, pProcedureIds);
+        SystemDependenceGraph.Builder<?, ?, ?, N> pBuilder, int[] pProcedureIds, BitSet pFinished) {
+      super(pBuilder, pProcedureIds, pFinished);
 
       states = new long[pBuilder.getNodeCount()];
     }
@@ -329,10 +435,6 @@ final class SummaryEdgeBuilder {
 
       Arrays.fill(states, statesDirtyMin, statesDirtyMax + 1, EMPTY_STATE);
 
-      for (N formalOutNode : pFormalOutNodes) {
-        setFormalOutFinished(formalOutNode.getId());
-      }
-
       clearReachedFormalInNodes();
     }
 
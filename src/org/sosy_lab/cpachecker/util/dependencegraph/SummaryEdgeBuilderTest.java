@@ -0,0 +1,375 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.dependencegraph;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.util.dependencegraph.CallGraph.SuccessorResult;
+import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.BackwardsVisitor;
+import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.EdgeType;
+import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.ForwardsVisitor;
+import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.Node;
+import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.NodeType;
+import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.VisitResult;
+
+public class SummaryEdgeBuilderTest {
+
+  /**
+   * The procedures of the program and their call sites:
+   *
+   * <pre>
+   * int h(int a, int b) { return a; }
+   * int f(int a, int b) { return h(a, b); }
+   * int g(int a, int b) { h(b, a); return b; }
+   * int r(int a, int b) { return a + r(b, a); }
+   * int main() { f(1, 2); g(1, 2); r(1, 2); }
+   * </pre>
+   */
+  private static final ImmutableListMultimap<String, String> CALLS =
+      ImmutableListMultimap.<String, String>builder()
+          .putAll("main", "f", "g", "r")
+          .put("f", "h")
+          .put("g", "h")
+          .put("r", "r")
+          .build();
+
+  private static final ImmutableList<Integer> THREAD_COUNTS = ImmutableList.of(1, 2, 4, 8);
+
+  private static final int REPETITIONS = 10;
+
+  private final SystemDependenceGraph.Builder<String, String, String, Node<String, String, String>>
+      builder = SystemDependenceGraph.builder();
+
+  private void edge(
+      NodeType pPredecessorType,
+      String pPredecessorProcedure,
+      Optional<String> pPredecessorStatement,
+      Optional<String> pPredecessorVariable,
+      EdgeType pType,
+      NodeType pSuccessorType,
+      String pSuccessorProcedure,
+      Optional<String> pSuccessorStatement,
+      Optional<String> pSuccessorVariable) {
+    builder
+        .node(
+            pSuccessorType,
+            Optional.of(pSuccessorProcedure),
+            pSuccessorStatement,
+            pSuccessorVariable)
+        .depends(pType, Optional.empty())
+        .on(
+            pPredecessorType,
+            Optional.of(pPredecessorProcedure),
+            pPredecessorStatement,
+            pPredecessorVariable);
+  }
+
+  private static String callStatement(String pCaller, String pCallee) {
+    return pCaller + " calls " + pCallee;
+  }
+
+  /** Flow dependency from a formal-in node to a statement of the same procedure. */
+  private void formalInToStatement(String pProcedure, String pVariable, String pStatement) {
+    edge(
+        NodeType.FORMAL_IN,
+        pProcedure,
+        Optional.empty(),
+        Optional.of(pVariable),
+        EdgeType.FLOW_DEPENDENCY,
+        NodeType.STATEMENT,
+        pProcedure,
+        Optional.of(pStatement),
+        Optional.empty());
+  }
+
+  /** Flow dependency from a statement to the formal-out node of its procedure. */
+  private void statementToFormalOut(String pProcedure, String pStatement) {
+    edge(
+        NodeType.STATEMENT,
+        pProcedure,
+        Optional.of(pStatement),
+        Optional.empty(),
+        EdgeType.FLOW_DEPENDENCY,
+        NodeType.FORMAL_OUT,
+        pProcedure,
+        Optional.empty(),
+        Optional.of("ret"));
+  }
+
+  /** Flow dependency from a formal-in node to an actual-in node of a call in the procedure. */
+  private void formalInToActualIn(
+      String pCaller, String pCallee, String pFormalVariable, String pActualVariable) {
+    edge(
+        NodeType.FORMAL_IN,
+        pCaller,
+        Optional.empty(),
+        Optional.of(pFormalVariable),
+        EdgeType.FLOW_DEPENDENCY,
+        NodeType.ACTUAL_IN,
+        pCaller,
+        Optional.of(callStatement(pCaller, pCallee)),
+        Optional.of(pActualVariable));
+  }
+
+  /** Flow dependency from the actual-out node of a call to the formal-out node of the caller. */
+  private void actualOutToFormalOut(String pCaller, String pCallee) {
+    edge(
+        NodeType.ACTUAL_OUT,
+        pCaller,
+        Optional.of(callStatement(pCaller, pCallee)),
+        Optional.of("ret"),
+        EdgeType.FLOW_DEPENDENCY,
+        NodeType.FORMAL_OUT,
+        pCaller,
+        Optional.empty(),
+        Optional.of("ret"));
+  }
+
+  /** Call, control and parameter edges of a call site. */
+  private void call(String pCaller, String pCallee) {
+    Optional<String> statement = Optional.of(callStatement(pCaller, pCallee));
+    edge(
+        NodeType.ENTRY,
+        pCaller,
+        Optional.empty(),
+        Optional.empty(),
+        EdgeType.CONTROL_DEPENDENCY,
+        NodeType.STATEMENT,
+        pCaller,
+        statement,
+        Optional.empty());
+    edge(
+        NodeType.STATEMENT,
+        pCaller,
+        statement,
+        Optional.empty(),
+        EdgeType.CALL_EDGE,
+        NodeType.ENTRY,
+        pCallee,
+        Optional.empty(),
+        Optional.empty());
+    for (String variable : ImmutableList.of("a", "b")) {
+      edge(
+          NodeType.STATEMENT,
+          pCaller,
+          statement,
+          Optional.empty(),
+          EdgeType.CONTROL_DEPENDENCY,
+          NodeType.ACTUAL_IN,
+          pCaller,
+          statement,
+          Optional.of(variable));
+      edge(
+          NodeType.ACTUAL_IN,
+          pCaller,
+          statement,
+          Optional.of(variable),
+          EdgeType.PARAMETER_EDGE,
+          NodeType.FORMAL_IN,
+          pCallee,
+          Optional.empty(),
+          Optional.of(variable));
+    }
+    edge(
+        NodeType.FORMAL_OUT,
+        pCallee,
+        Optional.empty(),
+        Optional.of("ret"),
+        EdgeType.PARAMETER_EDGE,
+        NodeType.ACTUAL_OUT,
+        pCaller,
+        statement,
+        Optional.of("ret"));
+  }
+
+  private void insertProgram() {
+    for (String procedure : ImmutableSet.of("h", "f", "g", "r")) {
+      for (String variable : ImmutableList.of("a", "b")) {
+        edge(
+            NodeType.ENTRY,
+            procedure,
+            Optional.empty(),
+            Optional.empty(),
+            EdgeType.CONTROL_DEPENDENCY,
+            NodeType.FORMAL_IN,
+            procedure,
+            Optional.empty(),
+            Optional.of(variable));
+      }
+    }
+    for (String caller : CALLS.keySet()) {
+      for (String callee : CALLS.get(caller)) {
+        call(caller, callee);
+      }
+    }
+
+    formalInToStatement("h", "a", "return a");
+    statementToFormalOut("h", "return a");
+
+    formalInToActualIn("f", "h", "a", "a");
+    formalInToActualIn("f", "h", "b", "b");
+    actualOutToFormalOut("f", "h");
+
+    formalInToActualIn("g", "h", "b", "a");
+    formalInToActualIn("g", "h", "a", "b");
+    formalInToStatement("g", "b", "return b");
+    statementToFormalOut("g", "return b");
+
+    formalInToStatement("r", "a", "return a + r(b, a)");
+    statementToFormalOut("r", "return a + r(b, a)");
+    formalInToActualIn("r", "r", "b", "a");
+    formalInToActualIn("r", "r", "a", "b");
+    actualOutToFormalOut("r", "r");
+  }
+
+  private static CallGraph<String> createCallGraph() {
+    return CallGraph.createCallGraph(
+        (String procedure) -> {
+          List<SuccessorResult<String, String>> successors = new ArrayList<>();
+          for (String callee : CALLS.get(procedure)) {
+            successors.add(SuccessorResult.createCallSuccessor(procedure, callee, callee));
+          }
+          return successors;
+        },
+        ImmutableSet.of("main"));
+  }
+
+  /** All edges of the SDG in the order of the leaving edges of the nodes. */
+  private static List<List<Object>> getEdges(
+      SystemDependenceGraph<String, Node<String, String, String>> pSdg) {
+    List<List<Object>> edges = new ArrayList<>();
+    pSdg.traverse(
+        pSdg.getNodes(),
+        new ForwardsVisitor<Node<String, String, String>>() {
+
+          @Override
+          public VisitResult visitNode(Node<String, String, String> pNode) {
+            return VisitResult.CONTINUE;
+          }
+
+          @Override
+          public VisitResult visitEdge(
+              EdgeType pType,
+              Node<String, String, String> pPredecessor,
+              Node<String, String, String> pSuccessor) {
+            edges.add(ImmutableList.of(pType, pPredecessor, pSuccessor));
+            return VisitResult.SKIP;
+          }
+        });
+    return edges;
+  }
+
+  private static List<List<Object>> getSummaryEdges(
+      SystemDependenceGraph<String, Node<String, String, String>> pSdg) {
+    List<List<Object>> summaryEdges = new ArrayList<>();
+    for (List<Object> edge : getEdges(pSdg)) {
+      if (edge.get(0) == EdgeType.SUMMARY_EDGE) {
+        @SuppressWarnings("unchecked")
+        Node<String, String, String> actualIn = (Node<String, String, String>) edge.get(1);
+        summaryEdges.add(
+            ImmutableList.of(
+                actualIn.getStatement().orElseThrow(), actualIn.getVariable().orElseThrow()));
+      }
+    }
+    return summaryEdges;
+  }
+
+  private static SystemDependenceGraph<String, Node<String, String, String>> build(
+      SummaryEdgeBuilder.Method pMethod, int pThreads) {
+    SummaryEdgeBuilderTest test = new SummaryEdgeBuilderTest();
+    test.insertProgram();
+    ForkJoinPool pool = new ForkJoinPool(pThreads);
+    try {
+      SummaryEdgeBuilder.insertSummaryEdges(
+          test.builder, createCallGraph(), "main", pMethod, pool);
+    } finally {
+      pool.shutdownNow();
+    }
+    return test.builder.build();
+  }
+
+  @Test
+  public void testSummaryEdges() {
+    for (SummaryEdgeBuilder.Method method : SummaryEdgeBuilder.Method.values()) {
+      SystemDependenceGraph<String, Node<String, String, String>> sdg = build(method, 1);
+
+      assertThat(sdg.getEdgeCount(EdgeType.SUMMARY_EDGE)).isEqualTo(8);
+      assertThat(getSummaryEdges(sdg))
+          .containsExactly(
+              ImmutableList.of(callStatement("f", "h"), "a"),
+              ImmutableList.of(callStatement("g", "h"), "a"),
+              ImmutableList.of(callStatement("r", "r"), "a"),
+              ImmutableList.of(callStatement("r", "r"), "b"),
+              // the summary edge of f needs the summary edge of its call of h
+              ImmutableList.of(callStatement("main", "f"), "a"),
+              ImmutableList.of(callStatement("main", "g"), "b"),
+              // the summary edge for b needs the recursive call
+              ImmutableList.of(callStatement("main", "r"), "a"),
+              ImmutableList.of(callStatement("main", "r"), "b"));
+    }
+  }
+
+  @Test
+  public void testParallelConstructionIsDeterministic() {
+    for (SummaryEdgeBuilder.Method method : SummaryEdgeBuilder.Method.values()) {
+      SystemDependenceGraph<String, Node<String, String, String>> sequential = build(method, 1);
+      List<List<Object>> sequentialEdges = getEdges(sequential);
+
+      for (int threads : THREAD_COUNTS) {
+        for (int repetition = 0; repetition < REPETITIONS; repetition++) {
+          SystemDependenceGraph<String, Node<String, String, String>> parallel =
+              build(method, threads);
+
+          assertThat(parallel.getNodes())
+              .containsExactlyElementsIn(sequential.getNodes())
+              .inOrder();
+          assertThat(getEdges(parallel)).containsExactlyElementsIn(sequentialEdges).inOrder();
+          for (EdgeType type : EdgeType.values()) {
+            assertThat(parallel.getEdgeCount(type)).isEqualTo(sequential.getEdgeCount(type));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testBackwardEdgesOfParallelConstruction() {
+    SystemDependenceGraph<String, Node<String, String, String>> sdg =
+        build(SummaryEdgeBuilder.Method.BATCH, 4);
+
+    List<List<Object>> backwardEdges = new ArrayList<>();
+    sdg.traverse(
+        sdg.getNodes(),
+        new BackwardsVisitor<Node<String, String, String>>() {
+
+          @Override
+          public VisitResult visitNode(Node<String, String, String> pNode) {
+            return VisitResult.CONTINUE;
+          }
+
+          @Override
+          public VisitResult visitEdge(
+              EdgeType pType,
+              Node<String, String, String> pPredecessor,
+              Node<String, String, String> pSuccessor) {
+            backwardEdges.add(ImmutableList.of(pType, pPredecessor, pSuccessor));
+            return VisitResult.SKIP;
+          }
+        });
+    assertThat(backwardEdges).containsExactlyElementsIn(getEdges(sdg));
+  }
+}
@@ -12,11 +12,9 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -26,6 +24,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Represents a system dependence graph (SDG).
@@ -37,6 +36,9 @@ import java.util.function.Function;
  * <p>SDGs are traversed by calling the methods {@link #traverse(Collection, ForwardsVisitor)} or
  * {@link #traverse(Collection, BackwardsVisitor)}.
  *
+ * <p>Built SDGs store their edges in compressed sparse row format (one array of adjacent node ids
+ * and one array of edge types for all nodes), so traversals do not allocate objects per edge.
+ *
  * @param <V> The type of variables in this SDG. Variables are defined and used. Dependencies exist
  *     between defs and subsequent uses. Furthermore, formal-in/out and actual-in/out nodes exist
  *     for specific variables.
@@ -47,8 +49,12 @@ public class SystemDependenceGraph<V, N extends SystemDependenceGraph.Node<?, ?,
 
   // list of nodes where the node's index is equal to its id
   private final ImmutableList<N> nodes;
-  // list of nodes where the graph node's index is equal to its id
-  private final ImmutableList<GraphNode.ImmutableGraphNode<V, N>> graphNodes;
+  // edges leaving and entering a node, indexed by node id
+  private final CompactEdgeTable leavingEdges;
+  private final CompactEdgeTable enteringEdges;
+  // defs and uses of a node, indexed by node id
+  private final ImmutableList<ImmutableSet<V>> defs;
+  private final ImmutableList<ImmutableSet<V>> uses;
 
   // counters for nodes and edges per type
   private final TypeCounter<NodeType> nodeTypeCounter;
@@ -56,12 +62,18 @@ public class SystemDependenceGraph<V, N extends SystemDependenceGraph.Node<?, ?,
 
   private SystemDependenceGraph(
       ImmutableList<N> pNodes,
-      ImmutableList<GraphNode.ImmutableGraphNode<V, N>> pGraphNodes,
+      CompactEdgeTable pLeavingEdges,
+      CompactEdgeTable pEnteringEdges,
+      ImmutableList<ImmutableSet<V>> pDefs,
+      ImmutableList<ImmutableSet<V>> pUses,
       TypeCounter<NodeType> pNodeTypeCounter,
       TypeCounter<EdgeType> pEdgeTypeCounter) {
 
     nodes = pNodes;
-    graphNodes = pGraphNodes;
+    leavingEdges = pLeavingEdges;
+    enteringEdges = pEnteringEdges;
+    defs = pDefs;
+    uses = pUses;
 
     nodeTypeCounter = pNodeTypeCounter;
     edgeTypeCounter = pEdgeTypeCounter;
@@ -76,7 +88,14 @@ public class SystemDependenceGraph<V, N extends SystemDependenceGraph.Node<?, ?,
    * @param pSdg a SDG to create a copy of
    */
   protected SystemDependenceGraph(SystemDependenceGraph<V, N> pSdg) {
-    this(pSdg.nodes, pSdg.graphNodes, pSdg.nodeTypeCounter, pSdg.edgeTypeCounter);
+    this(
+        pSdg.nodes,
+        pSdg.leavingEdges,
+        pSdg.enteringEdges,
+        pSdg.defs,
+        pSdg.uses,
+        pSdg.nodeTypeCounter,
+        pSdg.edgeTypeCounter);
   }
 
   private static <N extends Node<?, ?, ?>> void throwExceptionForUnknownNode(N pNode) {
@@ -84,25 +103,19 @@ public class SystemDependenceGraph<V, N extends SystemDependenceGraph.Node<?, ?,
   }
 
   /**
-   * Gets the corresponding {@link GraphNode} for the specified {@link Node}. Throws runtime
-   * exception if the graph node does not exist or the specified node is {@code null}.
+   * Returns the id of the specified {@link Node} in the specified list of nodes. Throws runtime
+   * exception if the node does not exist or the specified node is {@code null}.
    */
-  private static <V, N extends Node<?, ?, V>> GraphNode<V, N> getGraphNode(
-      List<? extends GraphNode<V, N>> pGraphNodes, N pNode) {
+  private static <N extends Node<?, ?, ?>> int getNodeId(List<N> pNodes, N pNode) {
 
     Objects.requireNonNull(pNode, "node must not be null");
 
-    if (pNode.getId() >= pGraphNodes.size()) {
-      throwExceptionForUnknownNode(pNode);
-    }
-
-    GraphNode<V, N> graphNode = pGraphNodes.get(pNode.getId());
-
-    if (!graphNode.getNode().equals(pNode)) {
+    int nodeId = pNode.getId();
+    if (nodeId >= pNodes.size() || !pNodes.get(nodeId).equals(pNode)) {
       throwExceptionForUnknownNode(pNode);
     }
 
-    return graphNode;
+    return nodeId;
   }
 
   /**
@@ -114,6 +127,9 @@ public class SystemDependenceGraph<V, N extends SystemDependenceGraph.Node<?, ?,
    */
   public static <V, N extends Node<?, ?, V>> SystemDependenceGraph<V, N> empty() {
     return new SystemDependenceGraph<>(
+        ImmutableList.of(),
+        CompactEdgeTable.EMPTY,
+        CompactEdgeTable.EMPTY,
         ImmutableList.of(),
         ImmutableList.of(),
         new TypeCounter<>(NodeType.values().length),
@@ -231,7 +247,7 @@ public class SystemDependenceGraph<V, N extends SystemDependenceGraph.Node<?, ?,
    * @throws IllegalArgumentException if the specified node does not belong to this SDG
    */
   public final ImmutableSet<V> getDefs(N pNode) {
-    return ImmutableSet.copyOf(getGraphNode(graphNodes, pNode).getDefs());
+    return defs.get(getNodeId(nodes, pNode));
   }
 
   /**
@@ -246,15 +262,17 @@ public class SystemDependenceGraph<V, N extends SystemDependenceGraph.Node<?, ?,
    * @throws IllegalArgumentException if the specified node does not belong to this SDG
    */
   public final ImmutableSet<V> getUses(N pNode) {
-    return ImmutableSet.copyOf(getGraphNode(graphNodes, pNode).getUses());
+    return uses.get(getNodeId(nodes, pNode));
   }
 
   /**
-   * Traverses the SDG specified by the graph nodes using the specified start nodes, visitor, and
-   * direction.
+   * Traverses the SDG specified by the nodes and edge table using the specified start nodes,
+   * visitor, and direction. The edge table must contain the leaving edges for forward traversals
+   * and the entering edges for backward traversals.
    */
-  private static <V, N extends Node<?, ?, V>> void traverse(
-      List<? extends GraphNode<V, N>> pGraphNodes,
+  private static <N extends Node<?, ?, ?>> void traverse(
+      List<N> pNodes,
+      EdgeTable pEdges,
       Collection<N> pStartNodes,
       Visitor<N> pVisitor,
       boolean pForwards) {
@@ -262,35 +280,34 @@ public class SystemDependenceGraph<V, N extends SystemDependenceGraph.Node<?, ?,
     Objects.requireNonNull(pStartNodes, "pStartNodes must not be null");
     Objects.requireNonNull(pVisitor, "pVisitor must not be null");
 
-    Deque<GraphNode<V, N>> waitlist = new ArrayDeque<>();
+    NodeIdQueue waitlist = new NodeIdQueue(pStartNodes.size());
 
     for (N node : pStartNodes) {
-      waitlist.add(getGraphNode(pGraphNodes, node));
+      waitlist.add(getNodeId(pNodes, node));
     }
 
     while (!waitlist.isEmpty()) {
 
-      GraphNode<V, N> graphNode = waitlist.remove();
-      VisitResult nodeVisitResult = pVisitor.visitNode(graphNode.getNode());
+      int nodeId = waitlist.remove();
+      N node = pNodes.get(nodeId);
+      VisitResult nodeVisitResult = pVisitor.visitNode(node);
 
       if (nodeVisitResult == VisitResult.CONTINUE) {
 
-        List<GraphEdge<V, N>> edges =
-            pForwards ? graphNode.getLeavingEdges() : graphNode.getEnteringEdges();
+        int edgeCount = pEdges.getEdgeCount(nodeId);
+        for (int index = 0; index < edgeCount; index++) {
 
-        for (GraphEdge<V, N> edge : edges) {
-
-          GraphNode<V, N> predecessor = edge.getPredecessor();
-          GraphNode<V, N> successor = edge.getSuccessor();
+          int adjacentNodeId = pEdges.getAdjacentNodeId(nodeId, index);
+          N adjacentNode = pNodes.get(adjacentNodeId);
+          EdgeType edgeType = pEdges.getEdgeType(nodeId, index);
           VisitResult edgeVisitResult =
-              pVisitor.visitEdge(edge.getType(), predecessor.getNode(), successor.getNode());
+              pForwards
+                  ? pVisitor.visitEdge(edgeType, node, adjacentNode)
+                  : pVisitor.visitEdge(edgeType, adjacentNode, node);
 
           if (edgeVisitResult == VisitResult.CONTINUE) {
-
-            GraphNode<V, N> next = pForwards ? successor : predecessor;
-            waitlist.add(next);
-
-          } else if (nodeVisitResult == VisitResult.TERMINATE) {
+            waitlist.add(adjacentNodeId);
+          } else if (edgeVisitResult == VisitResult.TERMINATE) {
             return;
           }
         }
@@ -322,7 +339,7 @@ public class SystemDependenceGraph<V, N extends SystemDependenceGraph.Node<?, ?,
    *     belong to this SDG
    */
   public final void traverse(Collection<N> pStartNodes, ForwardsVisitor<N> pVisitor) {
-    traverse(graphNodes, pStartNodes, pVisitor, true);
+    traverse(nodes, leavingEdges, pStartNodes, pVisitor, true);
   }
 
   /**
@@ -346,7 +363,7 @@ public class SystemDependenceGraph<V, N extends SystemDependenceGraph.Node<?, ?,
    *     belong to this SDG
    */
   public final void traverse(Collection<N> pStartNodes, BackwardsVisitor<N> pVisitor) {
-    traverse(graphNodes, pStartNodes, pVisitor, false);
+    traverse(nodes, enteringEdges, pStartNodes, pVisitor, false);
   }
 
   /**
@@ -789,256 +806,191 @@ public class SystemDependenceGraph<V, N extends SystemDependenceGraph.Node<?, ?,
   }
 
   /**
-   * This class is used to represent a node in an SDG and its connection to other nodes via entering
-   * and leaving edges. This class is private to the SDG class, use {@link Visitor} for graph
-   * traversals and {@link Node} to refer to SDG nodes outside the SDG class.
+   * Edges of an SDG in one direction (leaving or entering edges). The edges of a node are accessed
+   * by the node id and an index, so no edge objects are necessary. This interface is private to the
+   * SDG class, use {@link Visitor} for graph traversals.
    */
-  private abstract static class GraphNode<V, N extends Node<?, ?, V>> {
+  private interface EdgeTable {
 
-    private final N node;
+    /** Returns the number of edges of the node with the specified id. */
+    int getEdgeCount(int pNodeId);
 
-    private GraphNode(N pNode) {
-      node = pNode;
-    }
+    /** Returns the id of the other node of the edge with the specified index. */
+    int getAdjacentNodeId(int pNodeId, int pIndex);
 
-    final N getNode() {
-      return node;
-    }
+    /** Returns the type of the edge with the specified index. */
+    EdgeType getEdgeType(int pNodeId, int pIndex);
+  }
 
-    abstract List<GraphEdge<V, N>> getEnteringEdges();
+  private static final EdgeType[] EDGE_TYPES = EdgeType.values();
 
-    abstract List<GraphEdge<V, N>> getLeavingEdges();
+  /** Edge table used during SDG construction, every node has its own growing arrays. */
+  private static final class MutableEdgeTable implements EdgeTable {
 
-    abstract Set<V> getDefs();
+    private static final int[] NO_NODE_IDS = new int[0];
+    private static final byte[] NO_EDGE_TYPES = new byte[0];
 
-    abstract Set<V> getUses();
+    private int[][] adjacentNodeIds = new int[16][];
+    private byte[][] edgeTypes = new byte[16][];
+    private int[] edgeCounts = new int[16];
 
-    @Override
-    public final int hashCode() {
-      return node.hashCode();
-    }
+    private int nodeCount = 0;
+    private int totalEdgeCount = 0;
 
-    @Override
-    public final boolean equals(Object pObject) {
-
-      if (this == pObject) {
-        return true;
-      }
+    private void addNode() {
 
-      if (!(pObject instanceof GraphNode)) {
-        return false;
+      if (nodeCount == edgeCounts.length) {
+        int capacity = nodeCount * 2;
+        adjacentNodeIds = Arrays.copyOf(adjacentNodeIds, capacity);
+        edgeTypes = Arrays.copyOf(edgeTypes, capacity);
+        edgeCounts = Arrays.copyOf(edgeCounts, capacity);
       }
 
-      GraphNode<?, ?> other = (GraphNode<?, ?>) pObject;
-      return node.equals(other.node);
+      adjacentNodeIds[nodeCount] = NO_NODE_IDS;
+      edgeTypes[nodeCount] = NO_EDGE_TYPES;
+      nodeCount++;
     }
 
-    @Override
-    public final String toString() {
-      return String.format(
-          Locale.ENGLISH,
-          "%s[node=%s, enteringEdges=%s, leavingEdges=%s, defs=%s, uses=%s]",
-          getClass().getName(),
-          node,
-          getEnteringEdges(),
-          getLeavingEdges(),
-          getDefs(),
-          getUses());
-    }
-
-    private static class MutableGraphNode<V, N extends Node<?, ?, V>> extends GraphNode<V, N> {
-
-      private final List<GraphEdge<V, N>> enteringEdges;
-      private final List<GraphEdge<V, N>> leavingEdges;
+    private boolean hasEdge(int pNodeId, EdgeType pType, int pAdjacentNodeId) {
 
-      private final Set<V> defs;
-      private final Set<V> uses;
+      int[] nodeIds = adjacentNodeIds[pNodeId];
+      byte[] types = edgeTypes[pNodeId];
+      byte type = (byte) pType.ordinal();
 
-      private MutableGraphNode(N pNode) {
-
-        super(pNode);
-
-        enteringEdges = new ArrayList<>();
-        leavingEdges = new ArrayList<>();
-
-        defs = new HashSet<>();
-        uses = new HashSet<>();
-      }
-
-      private int getEnteringEdgeCount() {
-        return enteringEdges.size();
-      }
-
-      @Override
-      List<GraphEdge<V, N>> getEnteringEdges() {
-        return enteringEdges;
-      }
-
-      private boolean hasEnteringEdgeFrom(EdgeType pType, GraphNode<V, N> pPredecessor) {
-
-        for (GraphEdge<V, N> graphEdge : enteringEdges) {
-          // identity comparison between graph nodes is intended here
-          // inside a single SDG, equality can be determined by their identity
-          if (graphEdge.getType() == pType && graphEdge.getPredecessor() == pPredecessor) {
-            return true;
-          }
-        }
-
-        return false;
-      }
-
-      private void addEnteringEdge(GraphEdge<V, N> pEdge) {
-        enteringEdges.add(pEdge);
-      }
-
-      private int getLeavingEdgeCount() {
-        return leavingEdges.size();
-      }
-
-      @Override
-      List<GraphEdge<V, N>> getLeavingEdges() {
-        return leavingEdges;
-      }
-
-      private boolean hasLeavingEdgeTo(EdgeType pType, GraphNode<V, N> pSuccessor) {
-
-        for (GraphEdge<V, N> graphEdge : leavingEdges) {
-          // identity comparison between graph nodes is intended here
-          // inside a single SDG, equality can be determined by their identity
-          if (graphEdge.getType() == pType && graphEdge.getSuccessor() == pSuccessor) {
-            return true;
-          }
+      for (int index = 0; index < edgeCounts[pNodeId]; index++) {
+        if (nodeIds[index] == pAdjacentNodeId && types[index] == type) {
+          return true;
         }
-
-        return false;
       }
 
-      private void addLeavingEdge(GraphEdge<V, N> pEdge) {
-        leavingEdges.add(pEdge);
-      }
+      return false;
+    }
 
-      @Override
-      Set<V> getDefs() {
-        return defs;
-      }
+    private void addEdge(int pNodeId, EdgeType pType, int pAdjacentNodeId) {
 
-      private void addDef(V pVariable) {
-        defs.add(pVariable);
-      }
+      int edgeCount = edgeCounts[pNodeId];
 
-      @Override
-      Set<V> getUses() {
-        return uses;
+      if (edgeCount == adjacentNodeIds[pNodeId].length) {
+        int capacity = Math.max(4, edgeCount * 2);
+        adjacentNodeIds[pNodeId] = Arrays.copyOf(adjacentNodeIds[pNodeId], capacity);
+        edgeTypes[pNodeId] = Arrays.copyOf(edgeTypes[pNodeId], capacity);
       }
 
-      private void addUse(V pVariable) {
-        uses.add(pVariable);
-      }
+      adjacentNodeIds[pNodeId][edgeCount] = pAdjacentNodeId;
+      edgeTypes[pNodeId][edgeCount] = (byte) pType.ordinal();
+      edgeCounts[pNodeId] = edgeCount + 1;
+      totalEdgeCount++;
     }
 
-    private static class ImmutableGraphNode<V, N extends Node<?, ?, V>> extends GraphNode<V, N> {
-
-      private ImmutableList<GraphEdge<V, N>> enteringEdges;
-      private ImmutableList<GraphEdge<V, N>> leavingEdges;
-
-      private ImmutableSet<V> defs;
-      private ImmutableSet<V> uses;
+    @Override
+    public int getEdgeCount(int pNodeId) {
+      return edgeCounts[pNodeId];
+    }
 
-      private ImmutableGraphNode(N pNode, ImmutableSet<V> pDefs, ImmutableSet<V> pUses) {
-        super(pNode);
+    @Override
+    public int getAdjacentNodeId(int pNodeId, int pIndex) {
+      return adjacentNodeIds[pNodeId][pIndex];
+    }
 
-        defs = pDefs;
-        uses = pUses;
-      }
+    @Override
+    public EdgeType getEdgeType(int pNodeId, int pIndex) {
+      return EDGE_TYPES[edgeTypes[pNodeId][pIndex]];
+    }
 
-      @Override
-      ImmutableList<GraphEdge<V, N>> getEnteringEdges() {
-        return enteringEdges;
-      }
+    /** Returns a compact copy of this edge table, the order of edges is preserved. */
+    private CompactEdgeTable toCompactEdgeTable() {
 
-      @Override
-      ImmutableList<GraphEdge<V, N>> getLeavingEdges() {
-        return leavingEdges;
-      }
+      int[] offsets = new int[nodeCount + 1];
+      int[] compactNodeIds = new int[totalEdgeCount];
+      byte[] compactEdgeTypes = new byte[totalEdgeCount];
 
-      @Override
-      ImmutableSet<V> getDefs() {
-        return defs;
+      for (int nodeId = 0; nodeId < nodeCount; nodeId++) {
+        int offset = offsets[nodeId];
+        int edgeCount = edgeCounts[nodeId];
+        System.arraycopy(adjacentNodeIds[nodeId], 0, compactNodeIds, offset, edgeCount);
+        System.arraycopy(edgeTypes[nodeId], 0, compactEdgeTypes, offset, edgeCount);
+        offsets[nodeId + 1] = offset + edgeCount;
       }
 
-      @Override
-      ImmutableSet<V> getUses() {
-        return uses;
-      }
+      return new CompactEdgeTable(offsets, compactNodeIds, compactEdgeTypes);
     }
   }
 
   /**
-   * This class is used to represent an edge between two graph nodes ({@link GraphNode}). This class
-   * is private, use {@link Visitor} for graph traversals.
+   * Immutable edge table in compressed sparse row format: the edges of all nodes are stored in
+   * single arrays, ordered by node id.
    */
-  private static final class GraphEdge<V, N extends Node<?, ?, V>> {
-
-    private final EdgeType type;
+  private static final class CompactEdgeTable implements EdgeTable {
 
-    private final GraphNode<V, N> predecessor;
-    private final GraphNode<V, N> successor;
+    private static final CompactEdgeTable EMPTY =
+        new CompactEdgeTable(new int[] {0}, new int[0], new byte[0]);
 
-    private GraphEdge(EdgeType pType, GraphNode<V, N> pPredecessor, GraphNode<V, N> pSuccessor) {
+    // the edges of node i are stored at the indices offsets[i] (inclusive) to offsets[i + 1]
+    private final int[] offsets;
+    private final int[] adjacentNodeIds;
+    private final byte[] edgeTypes;
 
-      type = pType;
+    private CompactEdgeTable(int[] pOffsets, int[] pAdjacentNodeIds, byte[] pEdgeTypes) {
+      offsets = pOffsets;
+      adjacentNodeIds = pAdjacentNodeIds;
+      edgeTypes = pEdgeTypes;
+    }
 
-      predecessor = pPredecessor;
-      successor = pSuccessor;
+    @Override
+    public int getEdgeCount(int pNodeId) {
+      return offsets[pNodeId + 1] - offsets[pNodeId];
     }
 
-    private EdgeType getType() {
-      return type;
+    @Override
+    public int getAdjacentNodeId(int pNodeId, int pIndex) {
+      return adjacentNodeIds[offsets[pNodeId] + pIndex];
     }
 
-    private GraphNode<V, N> getPredecessor() {
-      return predecessor;
+    @Override
+    public EdgeType getEdgeType(int pNodeId, int pIndex) {
+      return EDGE_TYPES[edgeTypes[offsets[pNodeId] + pIndex]];
     }
+  }
+
+  /** First-in-first-out queue of node ids that is used as waitlist for SDG traversals. */
+  private static final class NodeIdQueue {
+
+    private int[] elements;
+    private int head = 0;
+    private int size = 0;
 
-    private GraphNode<V, N> getSuccessor() {
-      return successor;
+    private NodeIdQueue(int pInitialCapacity) {
+      elements = new int[Math.max(16, Integer.highestOneBit(pInitialCapacity) * 2)];
     }
 
-    @Override
-    public int hashCode() {
-      return Objects.hash(type, predecessor, successor);
+    private boolean isEmpty() {
+      return size == 0;
     }
 
-    @Override
-    public boolean equals(Object pObject) {
+    private void add(int pNodeId) {
 
-      if (this == pObject) {
-        return true;
+      if (size == elements.length) {
+        // unwrap the ring buffer while growing it
+        int[] newElements = new int[elements.length * 2];
+        int firstPartLength = elements.length - head;
+        System.arraycopy(elements, head, newElements, 0, firstPartLength);
+        System.arraycopy(elements, 0, newElements, firstPartLength, head);
+        elements = newElements;
+        head = 0;
       }
 
-      if (pObject == null) {
-        return false;
-      }
+      // the capacity is always a power of two
+      elements[(head + size) & (elements.length - 1)] = pNodeId;
+      size++;
+    }
 
-      if (getClass() != pObject.getClass()) {
-        return false;
-      }
+    private int remove() {
 
-      GraphEdge<?, ?> other = (GraphEdge<?, ?>) pObject;
-      return type == other.type
-          && Objects.equals(predecessor, other.predecessor)
-          && Objects.equals(successor, other.successor);
-    }
+      int nodeId = elements[head];
+      head = (head + 1) & (elements.length - 1);
+      size--;
 
-    @Override
-    public String toString() {
-      return String.format(
-          Locale.ENGLISH,
-          "%s[type=%s, predecessor=%s, successor=%s]",
-          getClass().getName(),
-          type,
-          predecessor,
-          successor);
+      return nodeId;
     }
   }
 
@@ -1062,9 +1014,15 @@ public class SystemDependenceGraph<V, N extends SystemDependenceGraph.Node<?, ?,
 
     // list of nodes where the node's index is equal to its id
     private final List<N> nodes;
-    // list of nodes where the graph node's index is equal to its id
-    private final List<GraphNode.MutableGraphNode<V, N>> graphNodes;
-    private final Map<NodeMapKey<P, T, V>, GraphNode.MutableGraphNode<V, N>> nodeMap;
+    private final Map<NodeMapKey<P, T, V>, N> nodeMap;
+
+    // edges leaving and entering a node, indexed by node id
+    private final MutableEdgeTable leavingEdges;
+    private final MutableEdgeTable enteringEdges;
+
+    // defs and uses of a node, indexed by node id (null if a node has no defs/uses)
+    private final List<Set<V>> defs;
+    private final List<Set<V>> uses;
 
     private final TypeCounter<NodeType> nodeTypeCounter;
     private final TypeCounter<EdgeType> edgeTypeCounter;
@@ -1074,70 +1032,81 @@ public class SystemDependenceGraph<V, N extends SystemDependenceGraph.Node<?, ?,
       nodeCreationFunction = pNodeCreationFunction;
 
       nodes = new ArrayList<>();
-      graphNodes = new ArrayList<>();
       nodeMap = new HashMap<>();
 
+      leavingEdges = new MutableEdgeTable();
+      enteringEdges = new MutableEdgeTable();
+
+      defs = new ArrayList<>();
+      uses = new ArrayList<>();
+
       nodeTypeCounter = new TypeCounter<>(NodeType.values().length);
       edgeTypeCounter = new TypeCounter<>(EdgeType.values().length);
     }
 
-    private GraphNode.MutableGraphNode<V, N> newGraphNode(NodeMapKey<P, T, V> pNodeKey) {
-      Node<P, T, V> node = pNodeKey.createNode(nodes.size());
-      return new GraphNode.MutableGraphNode<>(nodeCreationFunction.apply(node));
+    private N newNode(NodeMapKey<P, T, V> pNodeKey) {
+
+      N node = nodeCreationFunction.apply(pNodeKey.createNode(nodes.size()));
+
+      nodes.add(node);
+      leavingEdges.addNode();
+      enteringEdges.addNode();
+      defs.add(null);
+      uses.add(null);
+
+      nodeTypeCounter.increment(pNodeKey.type);
+
+      return node;
     }
 
     /**
-     * Creates and inserts a {@link GraphNode} and {@link Node} for the specified parameters if such
-     * a node does not already exist. In all cases it returns a graph node fitting the specified
-     * parameters.
+     * Creates and inserts a {@link Node} for the specified parameters if such a node does not
+     * already exist. In all cases it returns the id of a node fitting the specified parameters.
      */
-    private GraphNode.MutableGraphNode<V, N> graphNode(
+    private int nodeId(
         NodeType pType, Optional<P> pProcedure, Optional<T> pStatement, Optional<V> pVariable) {
 
       NodeMapKey<P, T, V> nodeKey = new NodeMapKey<>(pType, pProcedure, pStatement, pVariable);
-      GraphNode.MutableGraphNode<V, N> graphNode =
-          nodeMap.computeIfAbsent(nodeKey, this::newGraphNode);
-      N node = graphNode.getNode();
 
-      if (node.getId() == nodes.size()) {
+      return nodeMap.computeIfAbsent(nodeKey, this::newNode).getId();
+    }
 
-        nodes.add(node);
-        graphNodes.add(graphNode);
+    private static <V> void addVariable(List<Set<V>> pVariables, int pNodeId, V pVariable) {
 
-        nodeTypeCounter.increment(pType);
+      Set<V> variables = pVariables.get(pNodeId);
+
+      if (variables == null) {
+        variables = new HashSet<>();
+        pVariables.set(pNodeId, variables);
       }
 
-      return graphNode;
+      variables.add(pVariable);
     }
 
     /**
-     * Inserts an edge between two graph nodes. Only adds the edge if it doesn't already exist.
-     * Also, updates the defs and uses of the nodes by using the cause.
+     * Inserts an edge between two nodes. Only adds the edge if it doesn't already exist. Also,
+     * updates the defs and uses of the nodes by using the cause.
      */
     private void insertEdge(
-        GraphNode.MutableGraphNode<V, N> pPredecessor,
-        GraphNode.MutableGraphNode<V, N> pSuccessor,
-        EdgeType pType,
-        Optional<V> pCause) {
+        int pPredecessorId, int pSuccessorId, EdgeType pType, Optional<V> pCause) {
 
       boolean insertEdge = true;
       // typically, only one of the edge counts is large, so this greatly improves performance
-      if (pSuccessor.getEnteringEdgeCount() < pPredecessor.getLeavingEdgeCount()) {
-        insertEdge = !pSuccessor.hasEnteringEdgeFrom(pType, pPredecessor);
+      if (enteringEdges.getEdgeCount(pSuccessorId) < leavingEdges.getEdgeCount(pPredecessorId)) {
+        insertEdge = !enteringEdges.hasEdge(pSuccessorId, pType, pPredecessorId);
       } else {
-        insertEdge = !pPredecessor.hasLeavingEdgeTo(pType, pSuccessor);
+        insertEdge = !leavingEdges.hasEdge(pPredecessorId, pType, pSuccessorId);
       }
 
       if (insertEdge) {
-        GraphEdge<V, N> edge = new GraphEdge<>(pType, pPredecessor, pSuccessor);
-        pPredecessor.addLeavingEdge(edge);
-        pSuccessor.addEnteringEdge(edge);
+        leavingEdges.addEdge(pPredecessorId, pType, pSuccessorId);
+        enteringEdges.addEdge(pSuccessorId, pType, pPredecessorId);
       }
 
       if (pCause.isPresent()) {
         V variable = pCause.orElseThrow();
-        pPredecessor.addDef(variable);
-        pSuccessor.addUse(variable);
+        addVariable(defs, pPredecessorId, variable);
+        addVariable(uses, pSuccessorId, variable);
       }
 
       edgeTypeCounter.increment(pType);
@@ -1152,11 +1121,11 @@ public class SystemDependenceGraph<V, N extends SystemDependenceGraph.Node<?, ?,
     }
 
     void traverse(Collection<N> pStartNodes, ForwardsVisitor<N> pVisitor) {
-      SystemDependenceGraph.traverse(graphNodes, pStartNodes, pVisitor, true);
+      SystemDependenceGraph.traverse(nodes, leavingEdges, pStartNodes, pVisitor, true);
     }
 
     void traverse(Collection<N> pStartNodes, BackwardsVisitor<N> pVisitor) {
-      SystemDependenceGraph.traverse(graphNodes, pStartNodes, pVisitor, false);
+      SystemDependenceGraph.traverse(nodes, enteringEdges, pStartNodes, pVisitor, false);
     }
 
     /**
@@ -1220,29 +1189,31 @@ public class SystemDependenceGraph<V, N extends SystemDependenceGraph.Node<?, ?,
           pFormalOutNode.getType() == NodeType.FORMAL_OUT,
           "pFormalOutNode does not have type FORMAL_OUT");
 
-      GraphNode<V, N> formalOutGraphNode = graphNodes.get(pFormalOutNode.getId());
+      int formalOutNodeId = pFormalOutNode.getId();
       Preconditions.checkArgument(
-          formalOutGraphNode.getNode().equals(pFormalOutNode),
+          formalOutNodeId < nodes.size() && nodes.get(formalOutNodeId).equals(pFormalOutNode),
           "pFormalOutNode does not belong to this SDG builder");
 
-      for (GraphEdge<V, N> outEdge : formalOutGraphNode.getLeavingEdges()) {
-        if (outEdge.getType() == EdgeType.PARAMETER_EDGE) {
+      for (int index = 0; index < leavingEdges.getEdgeCount(formalOutNodeId); index++) {
+        if (leavingEdges.getEdgeType(formalOutNodeId, index) == EdgeType.PARAMETER_EDGE) {
 
-          GraphNode.MutableGraphNode<V, N> actualOutGraphNode =
-              (GraphNode.MutableGraphNode<V, N>) outEdge.getSuccessor();
-          assert actualOutGraphNode.getNode().getType() == NodeType.ACTUAL_OUT;
+          N actualOutNode = nodes.get(leavingEdges.getAdjacentNodeId(formalOutNodeId, index));
+          assert actualOutNode.getType() == NodeType.ACTUAL_OUT;
 
           NodeMapKey<P, T, V> actualInNodeKey =
               new NodeMapKey<>(
                   NodeType.ACTUAL_IN,
-                  actualOutGraphNode.getNode().getProcedure(),
-                  actualOutGraphNode.getNode().getStatement(),
+                  actualOutNode.getProcedure(),
+                  actualOutNode.getStatement(),
                   pFormalInNode.getVariable());
-          GraphNode.MutableGraphNode<V, N> actualInGraphNode = nodeMap.get(actualInNodeKey);
+          N actualInNode = nodeMap.get(actualInNodeKey);
 
-          if (actualInGraphNode != null) {
+          if (actualInNode != null) {
             insertEdge(
-                actualInGraphNode, actualOutGraphNode, EdgeType.SUMMARY_EDGE, Optional.empty());
+                actualInNode.getId(),
+                actualOutNode.getId(),
+                EdgeType.SUMMARY_EDGE,
+                Optional.empty());
           }
         }
       }
@@ -1272,7 +1243,7 @@ public class SystemDependenceGraph<V, N extends SystemDependenceGraph.Node<?, ?,
       Objects.requireNonNull(pStatement, "pStatement must not be null");
       Objects.requireNonNull(pVariable, "pVariable must not be null");
 
-      return new EdgeChooser(graphNode(pType, pProcedure, pStatement, pVariable));
+      return new EdgeChooser(nodeId(pType, pProcedure, pStatement, pVariable));
     }
 
     /**
@@ -1285,65 +1256,40 @@ public class SystemDependenceGraph<V, N extends SystemDependenceGraph.Node<?, ?,
      */
     public SystemDependenceGraph<V, N> build() {
 
-      ImmutableList.Builder<GraphNode.ImmutableGraphNode<V, N>> immutableGraphNodesBuilder =
-          ImmutableList.builderWithExpectedSize(graphNodes.size());
-      List<ImmutableList.Builder<GraphEdge<V, N>>> immutableEnteringEdges =
-          new ArrayList<>(graphNodes.size());
-      List<ImmutableList.Builder<GraphEdge<V, N>>> immutableLeavingEdges =
-          new ArrayList<>(graphNodes.size());
-
-      for (GraphNode.MutableGraphNode<V, N> mutableGraphNode : graphNodes) {
-        immutableGraphNodesBuilder.add(
-            new GraphNode.ImmutableGraphNode<>(
-                mutableGraphNode.getNode(),
-                ImmutableSet.copyOf(mutableGraphNode.getDefs()),
-                ImmutableSet.copyOf(mutableGraphNode.getUses())));
-        immutableEnteringEdges.add(
-            ImmutableList.builderWithExpectedSize(mutableGraphNode.getEnteringEdgeCount()));
-        immutableLeavingEdges.add(
-            ImmutableList.builderWithExpectedSize(mutableGraphNode.getLeavingEdgeCount()));
-      }
+      ImmutableList.Builder<ImmutableSet<V>> immutableDefs =
+          ImmutableList.builderWithExpectedSize(nodes.size());
+      ImmutableList.Builder<ImmutableSet<V>> immutableUses =
+          ImmutableList.builderWithExpectedSize(nodes.size());
 
-      ImmutableList<GraphNode.ImmutableGraphNode<V, N>> immutableGraphNodes =
-          immutableGraphNodesBuilder.build();
-
-      for (GraphNode.MutableGraphNode<V, N> mutableGraphNode : graphNodes) {
-        int predecessorId = mutableGraphNode.getNode().getId();
-        for (GraphEdge<V, N> graphEdge : mutableGraphNode.getLeavingEdges()) {
-          int successorId = graphEdge.getSuccessor().getNode().getId();
-          GraphEdge<V, N> immutableGraphEdge =
-              new GraphEdge<>(
-                  graphEdge.getType(),
-                  immutableGraphNodes.get(predecessorId),
-                  immutableGraphNodes.get(successorId));
-          immutableLeavingEdges.get(predecessorId).add(immutableGraphEdge);
-          immutableEnteringEdges.get(successorId).add(immutableGraphEdge);
-        }
-      }
-
-      for (int index = 0; index < immutableGraphNodes.size(); index++) {
-        GraphNode.ImmutableGraphNode<V, N> immutableGraphNode = immutableGraphNodes.get(index);
-        immutableGraphNode.enteringEdges = immutableEnteringEdges.get(index).build();
-        immutableGraphNode.leavingEdges = immutableLeavingEdges.get(index).build();
+      for (int nodeId = 0; nodeId < nodes.size(); nodeId++) {
+        immutableDefs.add(toImmutableSet(defs.get(nodeId)));
+        immutableUses.add(toImmutableSet(uses.get(nodeId)));
       }
 
       return new SystemDependenceGraph<>(
           ImmutableList.copyOf(nodes),
-          immutableGraphNodes,
+          leavingEdges.toCompactEdgeTable(),
+          enteringEdges.toCompactEdgeTable(),
+          immutableDefs.build(),
+          immutableUses.build(),
           nodeTypeCounter.copy(),
           edgeTypeCounter.copy());
     }
 
+    private static <V> ImmutableSet<V> toImmutableSet(@Nullable Set<V> pVariables) {
+      return pVariables == null ? ImmutableSet.of() : ImmutableSet.copyOf(pVariables);
+    }
+
     /**
      * Chooser for an edge to insert into the system dependence graph. The successor of the edge has
      * already been selected and is known to the edge chooser.
      */
     public final class EdgeChooser {
 
-      private final GraphNode.MutableGraphNode<V, N> graphNode;
+      private final int nodeId;
 
-      private EdgeChooser(GraphNode.MutableGraphNode<V, N> pGraphNode) {
-        graphNode = pGraphNode;
+      private EdgeChooser(int pNodeId) {
+        nodeId = pNodeId;
       }
 
       /**
@@ -1365,7 +1311,7 @@ public class SystemDependenceGraph<V, N extends SystemDependenceGraph.Node<?, ?,
         Objects.requireNonNull(pType, "pType must not be null");
         Objects.requireNonNull(pCause, "pCause must not be null");
 
-        return new DependencyChooser(graphNode, pType, pCause);
+        return new DependencyChooser(nodeId, pType, pCause);
       }
 
       /**
@@ -1376,7 +1322,7 @@ public class SystemDependenceGraph<V, N extends SystemDependenceGraph.Node<?, ?,
        * @return the previously chosen node
        */
       public N getNode() {
-        return graphNode.getNode();
+        return nodes.get(nodeId);
       }
     }
 
@@ -1386,13 +1332,12 @@ public class SystemDependenceGraph<V, N extends SystemDependenceGraph.Node<?, ?,
      */
     public final class DependencyChooser {
 
-      private final GraphNode.MutableGraphNode<V, N> graphNode;
+      private final int nodeId;
       private final EdgeType edgeType;
       private final Optional<V> cause;
 
-      private DependencyChooser(
-          GraphNode.MutableGraphNode<V, N> pGraphNode, EdgeType pEdgeType, Optional<V> pCause) {
-        graphNode = pGraphNode;
+      private DependencyChooser(int pNodeId, EdgeType pEdgeType, Optional<V> pCause) {
+        nodeId = pNodeId;
         edgeType = pEdgeType;
         cause = pCause;
       }
@@ -1419,7 +1364,7 @@ public class SystemDependenceGraph<V, N extends SystemDependenceGraph.Node<?, ?,
         Objects.requireNonNull(pStatement, "pStatement must not be null");
         Objects.requireNonNull(pVariable, "pVariable must not be null");
 
-        insertEdge(graphNode(pType, pProcedure, pStatement, pVariable), graphNode, edgeType, cause);
+        insertEdge(nodeId(pType, pProcedure, pStatement, pVariable), nodeId, edgeType, cause);
       }
     }
   }
@@ -0,0 +1,361 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.dependencegraph;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.BackwardsVisitor;
+import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.EdgeType;
+import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.ForwardsVisitor;
+import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.Node;
+import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.NodeType;
+import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.VisitResult;
+
+public class SystemDependenceGraphTest {
+
+  private SystemDependenceGraph.Builder<String, String, String, Node<String, String, String>>
+      builder;
+
+  @Before
+  public void setUp() {
+    builder = SystemDependenceGraph.builder();
+  }
+
+  private Node<String, String, String> node(NodeType pType, String pProcedure, String pStatement) {
+    return builder
+        .node(pType, Optional.of(pProcedure), Optional.ofNullable(pStatement), Optional.empty())
+        .getNode();
+  }
+
+  private Node<String, String, String> node(
+      NodeType pType, String pProcedure, String pStatement, String pVariable) {
+    return builder
+        .node(
+            pType, Optional.of(pProcedure), Optional.ofNullable(pStatement), Optional.of(pVariable))
+        .getNode();
+  }
+
+  /** Inserts an edge from the predecessor to the successor that is caused by the variable. */
+  private void edge(
+      Node<String, String, String> pPredecessor,
+      EdgeType pType,
+      Node<String, String, String> pSuccessor,
+      Optional<String> pCause) {
+    builder
+        .node(
+            pSuccessor.getType(),
+            pSuccessor.getProcedure(),
+            pSuccessor.getStatement(),
+            pSuccessor.getVariable())
+        .depends(pType, pCause)
+        .on(
+            pPredecessor.getType(),
+            pPredecessor.getProcedure(),
+            pPredecessor.getStatement(),
+            pPredecessor.getVariable());
+  }
+
+  private void edge(
+      Node<String, String, String> pPredecessor,
+      EdgeType pType,
+      Node<String, String, String> pSuccessor) {
+    edge(pPredecessor, pType, pSuccessor, Optional.empty());
+  }
+
+  /** A visited edge, independent of the direction of the traversal. */
+  private static ImmutableList<Object> visitedEdge(
+      EdgeType pType, Node<?, ?, ?> pPredecessor, Node<?, ?, ?> pSuccessor) {
+    return ImmutableList.of(pType, pPredecessor.getId(), pSuccessor.getId());
+  }
+
+  /** Records all visited nodes and edges and returns the specified results for them. */
+  private static class RecordingVisitor
+      implements ForwardsVisitor<Node<String, String, String>>,
+          BackwardsVisitor<Node<String, String, String>> {
+
+    private final VisitResult nodeResult;
+    private final VisitResult edgeResult;
+
+    private final List<Node<String, String, String>> visitedNodes = new ArrayList<>();
+    private final Set<List<Object>> visitedEdges = new HashSet<>();
+
+    private RecordingVisitor(VisitResult pNodeResult, VisitResult pEdgeResult) {
+      nodeResult = pNodeResult;
+      edgeResult = pEdgeResult;
+    }
+
+    @Override
+    public VisitResult visitNode(Node<String, String, String> pNode) {
+      visitedNodes.add(pNode);
+      return nodeResult;
+    }
+
+    @Override
+    public VisitResult visitEdge(
+        EdgeType pType,
+        Node<String, String, String> pPredecessor,
+        Node<String, String, String> pSuccessor) {
+      visitedEdges.add(visitedEdge(pType, pPredecessor, pSuccessor));
+      return edgeResult;
+    }
+  }
+
+  private static Set<Node<String, String, String>> reachableForwards(
+      SystemDependenceGraph<String, Node<String, String, String>> pSdg,
+      Node<String, String, String> pStartNode) {
+    RecordingVisitor visitor = new RecordingVisitor(VisitResult.CONTINUE, VisitResult.CONTINUE);
+    pSdg.traverse(
+        ImmutableSet.of(pStartNode),
+        pSdg.createVisitOnceVisitor((ForwardsVisitor<Node<String, String, String>>) visitor));
+    assertThat(visitor.visitedNodes).containsNoDuplicates();
+    return ImmutableSet.copyOf(visitor.visitedNodes);
+  }
+
+  private static Set<Node<String, String, String>> reachableBackwards(
+      SystemDependenceGraph<String, Node<String, String, String>> pSdg,
+      Node<String, String, String> pStartNode) {
+    RecordingVisitor visitor = new RecordingVisitor(VisitResult.CONTINUE, VisitResult.CONTINUE);
+    pSdg.traverse(
+        ImmutableSet.of(pStartNode),
+        pSdg.createVisitOnceVisitor((BackwardsVisitor<Node<String, String, String>>) visitor));
+    assertThat(visitor.visitedNodes).containsNoDuplicates();
+    return ImmutableSet.copyOf(visitor.visitedNodes);
+  }
+
+  /** Visits every edge exactly once by starting at all nodes without following any edge. */
+  private static Set<List<Object>> allEdges(
+      SystemDependenceGraph<String, Node<String, String, String>> pSdg, boolean pForwards) {
+    RecordingVisitor visitor = new RecordingVisitor(VisitResult.CONTINUE, VisitResult.SKIP);
+    if (pForwards) {
+      pSdg.traverse(pSdg.getNodes(), (ForwardsVisitor<Node<String, String, String>>) visitor);
+    } else {
+      pSdg.traverse(pSdg.getNodes(), (BackwardsVisitor<Node<String, String, String>>) visitor);
+    }
+    return visitor.visitedEdges;
+  }
+
+  /**
+   * The SDG for the following program, where {@code f} returns its parameter:
+   *
+   * <pre>
+   * int main() {
+   *   int x = 1;
+   *   int y = x;
+   *   int z = f(y);
+   * }
+   * </pre>
+   */
+  private class Program {
+
+    private final Node<String, String, String> mainEntry = node(NodeType.ENTRY, "main", null);
+    private final Node<String, String, String> x = node(NodeType.STATEMENT, "main", "x = 1");
+    private final Node<String, String, String> y = node(NodeType.STATEMENT, "main", "y = x");
+    private final Node<String, String, String> call =
+        node(NodeType.STATEMENT, "main", "z = f(y)");
+    private final Node<String, String, String> actualIn =
+        node(NodeType.ACTUAL_IN, "main", "z = f(y)", "p");
+    private final Node<String, String, String> actualOut =
+        node(NodeType.ACTUAL_OUT, "main", "z = f(y)", "ret");
+    private final Node<String, String, String> fEntry = node(NodeType.ENTRY, "f", null);
+    private final Node<String, String, String> formalIn =
+        node(NodeType.FORMAL_IN, "f", null, "p");
+    private final Node<String, String, String> ret = node(NodeType.STATEMENT, "f", "return p");
+    private final Node<String, String, String> formalOut =
+        node(NodeType.FORMAL_OUT, "f", null, "ret");
+
+    private Program() {
+      edge(mainEntry, EdgeType.CONTROL_DEPENDENCY, x);
+      edge(mainEntry, EdgeType.CONTROL_DEPENDENCY, y);
+      edge(mainEntry, EdgeType.CONTROL_DEPENDENCY, call);
+      edge(x, EdgeType.FLOW_DEPENDENCY, y, Optional.of("x"));
+      edge(y, EdgeType.FLOW_DEPENDENCY, actualIn, Optional.of("y"));
+      edge(call, EdgeType.CALL_EDGE, fEntry);
+      edge(actualIn, EdgeType.PARAMETER_EDGE, formalIn);
+      edge(fEntry, EdgeType.CONTROL_DEPENDENCY, ret);
+      edge(formalIn, EdgeType.FLOW_DEPENDENCY, ret, Optional.of("p"));
+      edge(ret, EdgeType.FLOW_DEPENDENCY, formalOut, Optional.of("ret"));
+      edge(formalOut, EdgeType.PARAMETER_EDGE, actualOut);
+      edge(actualIn, EdgeType.SUMMARY_EDGE, actualOut);
+    }
+  }
+
+  @Test
+  public void testCounts() {
+    new Program();
+    SystemDependenceGraph<String, Node<String, String, String>> sdg = builder.build();
+
+    assertThat(sdg.getNodeCount()).isEqualTo(10);
+    assertThat(sdg.getNodeCount(NodeType.ENTRY)).isEqualTo(2);
+    assertThat(sdg.getNodeCount(NodeType.STATEMENT)).isEqualTo(4);
+    assertThat(sdg.getNodeCount(NodeType.FORMAL_IN)).isEqualTo(1);
+    assertThat(sdg.getNodeCount(NodeType.FORMAL_OUT)).isEqualTo(1);
+    assertThat(sdg.getNodeCount(NodeType.ACTUAL_IN)).isEqualTo(1);
+    assertThat(sdg.getNodeCount(NodeType.ACTUAL_OUT)).isEqualTo(1);
+
+    assertThat(sdg.getEdgeCount(EdgeType.CONTROL_DEPENDENCY)).isEqualTo(4);
+    assertThat(sdg.getEdgeCount(EdgeType.FLOW_DEPENDENCY)).isEqualTo(4);
+    assertThat(sdg.getEdgeCount(EdgeType.CALL_EDGE)).isEqualTo(1);
+    assertThat(sdg.getEdgeCount(EdgeType.PARAMETER_EDGE)).isEqualTo(2);
+    assertThat(sdg.getEdgeCount(EdgeType.SUMMARY_EDGE)).isEqualTo(1);
+    assertThat(sdg.getEdgeCount(EdgeType.DECLARATION_EDGE)).isEqualTo(0);
+
+    assertThat(allEdges(sdg, true)).hasSize(12);
+  }
+
+  @Test
+  public void testNodeIds() {
+    Program program = new Program();
+    SystemDependenceGraph<String, Node<String, String, String>> sdg = builder.build();
+
+    for (Node<String, String, String> node : sdg.getNodes()) {
+      assertThat(sdg.getNodeById(node.getId())).isEqualTo(node);
+    }
+    assertThat(sdg.getNodeById(program.actualIn.getId())).isEqualTo(program.actualIn);
+  }
+
+  @Test
+  public void testDefsAndUses() {
+    Program program = new Program();
+    SystemDependenceGraph<String, Node<String, String, String>> sdg = builder.build();
+
+    assertThat(sdg.getDefs(program.x)).containsExactly("x");
+    assertThat(sdg.getUses(program.x)).isEmpty();
+    assertThat(sdg.getDefs(program.y)).containsExactly("y");
+    assertThat(sdg.getUses(program.y)).containsExactly("x");
+    assertThat(sdg.getUses(program.actualIn)).containsExactly("y");
+    assertThat(sdg.getDefs(program.ret)).containsExactly("ret");
+    assertThat(sdg.getUses(program.ret)).containsExactly("p");
+    // control, call, parameter and summary edges have no cause
+    assertThat(sdg.getDefs(program.mainEntry)).isEmpty();
+    assertThat(sdg.getDefs(program.actualOut)).isEmpty();
+    assertThat(sdg.getUses(program.actualOut)).isEmpty();
+  }
+
+  @Test
+  public void testForwardAndBackwardEdgesAgree() {
+    new Program();
+    SystemDependenceGraph<String, Node<String, String, String>> sdg = builder.build();
+
+    Set<List<Object>> forwardEdges = allEdges(sdg, true);
+    assertThat(allEdges(sdg, false)).isEqualTo(forwardEdges);
+
+    // a node reaches another node forwards iff the other node reaches it backwards
+    for (Node<String, String, String> node : sdg.getNodes()) {
+      for (Node<String, String, String> reachable : reachableForwards(sdg, node)) {
+        assertThat(reachableBackwards(sdg, reachable)).contains(node);
+      }
+    }
+  }
+
+  @Test
+  public void testTraversal() {
+    Program program = new Program();
+    SystemDependenceGraph<String, Node<String, String, String>> sdg = builder.build();
+
+    assertThat(reachableForwards(sdg, program.x))
+        .containsExactly(
+            program.x,
+            program.y,
+            program.actualIn,
+            program.formalIn,
+            program.ret,
+            program.formalOut,
+            program.actualOut);
+    assertThat(reachableBackwards(sdg, program.actualOut))
+        .containsExactly(
+            program.actualOut,
+            program.actualIn,
+            program.formalOut,
+            program.ret,
+            program.formalIn,
+            program.fEntry,
+            program.call,
+            program.y,
+            program.x,
+            program.mainEntry);
+  }
+
+  @Test
+  public void testBuilderTraversalAgreesWithBuiltSdg() {
+    Program program = new Program();
+
+    RecordingVisitor builderVisitor =
+        new RecordingVisitor(VisitResult.CONTINUE, VisitResult.SKIP);
+    builder.traverse(
+        builder.getNodes(), (BackwardsVisitor<Node<String, String, String>>) builderVisitor);
+    Set<List<Object>> builderEdges = builderVisitor.visitedEdges;
+
+    SystemDependenceGraph<String, Node<String, String, String>> sdg = builder.build();
+    assertThat(allEdges(sdg, false)).isEqualTo(builderEdges);
+    assertThat(builderEdges)
+        .contains(visitedEdge(EdgeType.SUMMARY_EDGE, program.actualIn, program.actualOut));
+  }
+
+  @Test
+  public void testDuplicateEdgesAreInsertedOnce() {
+    Program program = new Program();
+    edge(program.x, EdgeType.FLOW_DEPENDENCY, program.y, Optional.of("x"));
+    // the same nodes with another edge type are a different edge
+    edge(program.x, EdgeType.DECLARATION_EDGE, program.y);
+    SystemDependenceGraph<String, Node<String, String, String>> sdg = builder.build();
+
+    assertThat(sdg.getNodeCount()).isEqualTo(10);
+    assertThat(allEdges(sdg, true)).hasSize(13);
+    assertThat(allEdges(sdg, false)).hasSize(13);
+  }
+
+  @Test
+  public void testTerminateOnNode() {
+    Program program = new Program();
+    SystemDependenceGraph<String, Node<String, String, String>> sdg = builder.build();
+
+    RecordingVisitor visitor = new RecordingVisitor(VisitResult.TERMINATE, VisitResult.CONTINUE);
+    sdg.traverse(
+        ImmutableList.of(program.mainEntry, program.x),
+        (ForwardsVisitor<Node<String, String, String>>) visitor);
+    assertThat(visitor.visitedNodes).containsExactly(program.mainEntry);
+    assertThat(visitor.visitedEdges).isEmpty();
+  }
+
+  @Test
+  public void testTerminateOnEdge() {
+    Program program = new Program();
+    SystemDependenceGraph<String, Node<String, String, String>> sdg = builder.build();
+
+    // the main entry has three leaving edges, but the traversal ends at the first one
+    RecordingVisitor visitor = new RecordingVisitor(VisitResult.CONTINUE, VisitResult.TERMINATE);
+    sdg.traverse(
+        ImmutableList.of(program.mainEntry, program.x),
+        (ForwardsVisitor<Node<String, String, String>>) visitor);
+    assertThat(visitor.visitedNodes).containsExactly(program.mainEntry);
+    assertThat(visitor.visitedEdges).hasSize(1);
+  }
+
+  @Test
+  public void testSkipOnEdge() {
+    Program program = new Program();
+    SystemDependenceGraph<String, Node<String, String, String>> sdg = builder.build();
+
+    RecordingVisitor visitor = new RecordingVisitor(VisitResult.CONTINUE, VisitResult.SKIP);
+    sdg.traverse(
+        ImmutableList.of(program.mainEntry),
+        (ForwardsVisitor<Node<String, String, String>>) visitor);
+    assertThat(visitor.visitedNodes).containsExactly(program.mainEntry);
+    assertThat(visitor.visitedEdges).hasSize(3);
+  }
+}
@@ -0,0 +1,30 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.octagon;
+
+import java.util.Arrays;
+
+/** A number array of the {@link OctagonJavaManager}, infinity is stored as positive infinity. */
+final class JavaNumArray extends NumArray {
+
+  private final double[] values;
+
+  JavaNumArray(int pSize) {
+    values = new double[pSize];
+  }
+
+  double[] getValues() {
+    return values;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(values);
+  }
+}
@@ -0,0 +1,98 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.octagon;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An immutable octagon of the {@link OctagonJavaManager}.
+ *
+ * <p>The constraints are stored as half matrix of a difference bound matrix over the 2n values
+ * v<sub>2k</sub> = x<sub>k</sub> and v<sub>2k+1</sub> = -x<sub>k</sub>, where the element (i, j)
+ * is the bound of v<sub>j</sub> - v<sub>i</sub>. Only elements with j &lt;= (i | 1) are stored,
+ * all other elements are given by coherence, i.e., (i, j) equals (j ^ 1, i ^ 1). The strong closure
+ * of an octagon is computed lazily and cached.
+ */
+final class JavaOctagon extends Octagon {
+
+  private final OctagonJavaManager manager;
+  private final int dimension;
+
+  /** The half matrix, null if the octagon is known to be empty. */
+  private final double @Nullable [] matrix;
+
+  /** Whether the matrix is (strongly or tightly) closed. */
+  private final boolean closed;
+
+  private @Nullable JavaOctagon closure = null;
+
+  JavaOctagon(
+      OctagonJavaManager pManager, int pDimension, double @Nullable [] pMatrix, boolean pClosed) {
+    manager = pManager;
+    dimension = pDimension;
+    matrix = pMatrix;
+    closed = pClosed || pMatrix == null;
+  }
+
+  int getDimension() {
+    return dimension;
+  }
+
+  double @Nullable [] getMatrix() {
+    return matrix;
+  }
+
+  boolean isClosed() {
+    return closed;
+  }
+
+  @Nullable JavaOctagon getCachedClosure() {
+    return closure;
+  }
+
+  void setCachedClosure(JavaOctagon pClosure) {
+    closure = pClosure;
+  }
+
+  @Override
+  public OctagonJavaManager getManager() {
+    return manager;
+  }
+
+  @Override
+  public int hashCode() {
+    // equal octagons have the same closure
+    double @Nullable [] closedMatrix = manager.closure(this).matrix;
+    int hashCode = dimension;
+    if (closedMatrix != null) {
+      for (double value : closedMatrix) {
+        // adding 0.0 maps -0.0 to 0.0, which are equal as bounds
+        hashCode = 31 * hashCode + Double.hashCode(value + 0.0);
+      }
+    }
+    return hashCode;
+  }
+
+  @Override
+  public boolean equals(Object pObj) {
+    if (this == pObj) {
+      return true;
+    }
+    if (!(pObj instanceof JavaOctagon)) {
+      return false;
+    }
+    JavaOctagon otherOct = (JavaOctagon) pObj;
+    return dimension == otherOct.dimension && manager.isEqual(this, otherOct);
+  }
+
+  @Override
+  public String toString() {
+    return "octagon with dimension: " + dimension;
+  }
+}
@@ -0,0 +1,43 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.octagon;
+
+/** A number array in the native memory of the octagon library. */
+final class NativeNumArray extends NumArray {
+
+  private final long array;
+
+  NativeNumArray(long l) {
+    array = l;
+  }
+
+  long getArray() {
+    return array;
+  }
+
+  @Override
+  public String toString() {
+    // TODO
+    return super.toString();
+  }
+
+  @Override
+  public boolean equals(Object pObj) {
+    if (!(pObj instanceof NativeNumArray)) {
+      return false;
+    }
+    NativeNumArray otherArr = (NativeNumArray) pObj;
+    return this.array == otherArr.array;
+  }
+
+  @Override
+  public int hashCode() {
+    return (int)array;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.octagon;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/** An octagon in the native memory of the octagon library. */
+final class NativeOctagon extends Octagon {
+
+  private final long octId;
+  private final NativeOctagonManager manager;
+  private static List<OctagonPhantomReference> phantomReferences = new ArrayList<>();
+  private static ReferenceQueue<NativeOctagon> referenceQueue = new ReferenceQueue<>();
+
+  NativeOctagon(long l, NativeOctagonManager manager) {
+    octId = l;
+    this.manager = manager;
+    registerPhantomReference(this);
+  }
+
+  private static void registerPhantomReference(NativeOctagon oct) {
+    phantomReferences.add(new OctagonPhantomReference(oct, referenceQueue));
+  }
+
+  static void removeNativePhantomReferences() {
+    Reference<? extends NativeOctagon> reference;
+    while ((reference = referenceQueue.poll()) != null) {
+      ((OctagonPhantomReference)reference).cleanup();
+    }
+  }
+
+  long getOctId() {
+    return octId;
+  }
+
+  @Override
+  public NativeOctagonManager getManager() {
+    return manager;
+  }
+
+  @Override
+  public int hashCode() {
+    return (int)octId;
+  }
+
+  @Override
+  public boolean equals(Object pObj) {
+    if (!(pObj instanceof NativeOctagon)) {
+      return false;
+    }
+    NativeOctagon otherOct = (NativeOctagon) pObj;
+
+    return manager.dimension(this) == otherOct.manager.dimension(otherOct) && manager.isEqual(this, otherOct);
+  }
+
+  @Override
+  public String toString() {
+    return "octagon with id: " + octId;
+  }
+}
\ No newline at end of file
@@ -8,61 +8,18 @@
 
 package org.sosy_lab.cpachecker.util.octagon;
 
-import java.lang.ref.Reference;
-import java.lang.ref.ReferenceQueue;
-import java.util.ArrayList;
-import java.util.List;
+/**
+ * An octagon of an {@link OctagonManager}. Octagons are equal if they represent the same set of
+ * values.
+ */
+public abstract class Octagon {
 
+  Octagon() {}
 
-public class Octagon {
-
-  private final long octId;
-  private final OctagonManager manager;
-  private static List<OctagonPhantomReference> phantomReferences = new ArrayList<>();
-  private static ReferenceQueue<Octagon> referenceQueue = new ReferenceQueue<>();
-
-  Octagon(long l, OctagonManager manager) {
-    octId = l;
-    this.manager = manager;
-    registerPhantomReference(this);
-  }
-
-  private static void registerPhantomReference(Octagon oct) {
-    phantomReferences.add(new OctagonPhantomReference(oct, referenceQueue));
-  }
-
+  /** Free the native memory of all octagons of the octagon library that are no longer used. */
   public static void removePhantomReferences() {
-    Reference<? extends Octagon> reference;
-    while ((reference = referenceQueue.poll()) != null) {
-      ((OctagonPhantomReference)reference).cleanup();
-    }
-  }
-
-  long getOctId() {
-    return octId;
+    NativeOctagon.removeNativePhantomReferences();
   }
 
-  public OctagonManager getManager() {
-    return manager;
-  }
-
-  @Override
-  public int hashCode() {
-    return (int)octId;
-  }
-
-  @Override
-  public boolean equals(Object pObj) {
-    if (!(pObj instanceof Octagon)) {
-      return false;
-    }
-    Octagon otherOct = (Octagon) pObj;
-
-    return manager.dimension(this) == otherOct.manager.dimension(otherOct) && manager.isEqual(this, otherOct);
-  }
-
-  @Override
-  public String toString() {
-    return "octagon with id: " + octId;
-  }
-}
\ No newline at end of file
+  public abstract OctagonManager getManager();
+}
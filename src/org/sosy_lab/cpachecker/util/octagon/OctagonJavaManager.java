@@ -0,0 +1,1055 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.octagon;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import com.google.common.collect.BiMap;
+import java.util.Arrays;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonDoubleValue;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonIntValue;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonInterval;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+/**
+ * Octagon manager that implements the octagon domain in Java, so it does not need the native
+ * octagon library.
+ *
+ * <p>Octagons are immutable difference bound matrices (see {@link JavaOctagon}), so copying an
+ * octagon returns the same instance and number arrays do not need to be freed. Assignments and
+ * guards only change the constraints of a few variables of a closed octagon, so the closure is
+ * restored incrementally in time O(k*n^2) for k changed variables instead of O(n^3). Furthermore,
+ * the variables are packed dynamically into groups that are related by the constraints, and the
+ * (incremental) closure only runs on the affected packs. If the variables have integer values, the
+ * tight closure is computed instead of the strong closure.
+ */
+public class OctagonJavaManager extends OctagonManager {
+
+  private static final double INFINITY = Double.POSITIVE_INFINITY;
+
+  private static final int LAZY_TRUE = 1;
+  private static final int LAZY_FALSE = 2;
+  private static final int LAZY_UNKNOWN = 3;
+
+  /* constraint types of addBinConstraint */
+  private static final int PX = 0;
+  private static final int MX = 1;
+  private static final int PXPY = 2;
+  private static final int PXMY = 3;
+  private static final int MXPY = 4;
+  private static final int MXMY = 5;
+
+  private final boolean integral;
+
+  /**
+   * Create a manager for octagons over integer or over floating-point variables.
+   *
+   * @param pIntegral whether all variables have integer values
+   */
+  public OctagonJavaManager(boolean pIntegral) {
+    integral = pIntegral;
+  }
+
+  /* num handling function*/
+
+  private static double[] values(NumArray n) {
+    return ((JavaNumArray) n).getValues();
+  }
+
+  @Override
+  public NumArray init_num_t(int n) {
+    return new JavaNumArray(n);
+  }
+
+  @Override
+  public void num_set(NumArray n1, NumArray n2) {
+    values(n1)[0] = values(n2)[0];
+  }
+
+  /** Like the octagon library, the lower bound is given as its negation. */
+  @Override
+  public Octagon set_bounds(Octagon oct, int pos, NumArray lower, NumArray upper) {
+    JavaOctagon closed = closure(oct);
+    int n = closed.getDimension();
+    checkElementIndex(pos, n);
+    double @Nullable [] matrix = closed.getMatrix();
+    if (matrix == null) {
+      return closed;
+    }
+    int size = 2 * n;
+    double[] full = toFullMatrix(matrix, size);
+    forget(full, size, pos);
+    addConstraint(full, size, 2 * pos + 1, 2 * pos, 2 * values(upper)[0], integral);
+    addConstraint(full, size, 2 * pos, 2 * pos + 1, 2 * values(lower)[0], integral);
+    return closeIncrementally(n, full, new int[] {pos});
+  }
+
+  @Override
+  public void num_set_int(NumArray n, int pos, long i) {
+    values(n)[pos] = i;
+  }
+
+  @Override
+  public void num_set_float(NumArray n, int pos, double d) {
+    values(n)[pos] = d;
+  }
+
+  @Override
+  public void num_set_inf(NumArray n, int pos) {
+    values(n)[pos] = INFINITY;
+  }
+
+  @Override
+  public long num_get_int(NumArray n, int pos) {
+    return (long) values(n)[pos];
+  }
+
+  @Override
+  public double num_get_float(NumArray n, int pos) {
+    return values(n)[pos];
+  }
+
+  @Override
+  public boolean num_infty(NumArray n, int pos) {
+    return Double.isInfinite(values(n)[pos]);
+  }
+
+  @Override
+  public void num_clear_n(NumArray n, int size) {
+    // nothing to free
+  }
+
+  /* Octagon handling functions */
+
+  private static JavaOctagon toJava(Octagon oct) {
+    return (JavaOctagon) oct;
+  }
+
+  /** Returns the closed octagon that is equal to the given one. */
+  JavaOctagon closure(Octagon pOct) {
+    JavaOctagon oct = toJava(pOct);
+    if (oct.isClosed()) {
+      return oct;
+    }
+    JavaOctagon closure = oct.getCachedClosure();
+    if (closure == null) {
+      int n = oct.getDimension();
+      closure = new JavaOctagon(this, n, strongClosure(oct.getMatrix(), n, integral), true);
+      oct.setCachedClosure(closure);
+    }
+    return closure;
+  }
+
+  @Override
+  public Octagon empty(int n) {
+    return new JavaOctagon(this, n, null, true);
+  }
+
+  @Override
+  public Octagon universe(int n) {
+    return new JavaOctagon(this, n, universeMatrix(n), true);
+  }
+
+  @Override
+  public Octagon copy(Octagon oct) {
+    return toJava(oct);
+  }
+
+  @Override
+  public Octagon full_copy(Octagon oct) {
+    return toJava(oct);
+  }
+
+  /* Query Functions */
+  @Override
+  public int dimension(Octagon oct) {
+    return toJava(oct).getDimension();
+  }
+
+  @Override
+  public int nbconstraints(Octagon oct) {
+    JavaOctagon javaOct = toJava(oct);
+    double @Nullable [] matrix = javaOct.getMatrix();
+    if (matrix == null) {
+      return 0;
+    }
+    int count = 0;
+    for (int i = 0; i < 2 * javaOct.getDimension(); i++) {
+      for (int j = 0; j <= (i | 1); j++) {
+        if (i != j && matrix[position(i, j)] < INFINITY) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  /* Test Functions */
+  @Override
+  public boolean isEmpty(Octagon oct) {
+    return closure(oct).getMatrix() == null;
+  }
+
+  @Override
+  public int isEmptyLazy(Octagon oct) {
+    JavaOctagon javaOct = toJava(oct);
+    if (javaOct.getMatrix() == null) {
+      return LAZY_TRUE;
+    } else if (javaOct.isClosed()) {
+      return LAZY_FALSE;
+    }
+    JavaOctagon closure = javaOct.getCachedClosure();
+    if (closure == null) {
+      return LAZY_UNKNOWN;
+    }
+    return closure.getMatrix() == null ? LAZY_TRUE : LAZY_FALSE;
+  }
+
+  @Override
+  public boolean isUniverse(Octagon oct) {
+    JavaOctagon closure = closure(oct);
+    double @Nullable [] matrix = closure.getMatrix();
+    if (matrix == null) {
+      return false;
+    }
+    for (int i = 0; i < 2 * closure.getDimension(); i++) {
+      for (int j = 0; j <= (i | 1); j++) {
+        if (i != j && matrix[position(i, j)] < INFINITY) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean isIncludedIn(Octagon oct1, Octagon oct2) {
+    checkSameDimension(oct1, oct2);
+    double @Nullable [] matrix1 = closure(oct1).getMatrix();
+    if (matrix1 == null) {
+      return true;
+    }
+    // the second octagon does not need to be closed
+    double @Nullable [] matrix2 = toJava(oct2).getMatrix();
+    if (matrix2 == null) {
+      return false;
+    }
+    for (int p = 0; p < matrix1.length; p++) {
+      if (matrix1[p] > matrix2[p]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int isIncludedInLazy(Octagon oct1, Octagon oct2) {
+    return isIncludedIn(oct1, oct2) ? LAZY_TRUE : LAZY_FALSE;
+  }
+
+  @Override
+  public boolean isEqual(Octagon oct1, Octagon oct2) {
+    checkSameDimension(oct1, oct2);
+    double @Nullable [] matrix1 = closure(oct1).getMatrix();
+    double @Nullable [] matrix2 = closure(oct2).getMatrix();
+    if (matrix1 == null || matrix2 == null) {
+      return matrix1 == matrix2;
+    }
+    for (int p = 0; p < matrix1.length; p++) {
+      // not Arrays.equals, because that distinguishes 0.0 and -0.0
+      if (matrix1[p] != matrix2[p]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int isEqualLazy(Octagon oct1, Octagon oct2) {
+    return isEqual(oct1, oct2) ? LAZY_TRUE : LAZY_FALSE;
+  }
+
+  @Override
+  public boolean isIn(Octagon oct1, NumArray array) {
+    JavaOctagon javaOct = toJava(oct1);
+    double @Nullable [] matrix = javaOct.getMatrix();
+    if (matrix == null) {
+      return false;
+    }
+    double[] point = values(array);
+    for (int i = 0; i < 2 * javaOct.getDimension(); i++) {
+      for (int j = 0; j <= (i | 1); j++) {
+        if (signedValue(point, j) - signedValue(point, i) > matrix[position(i, j)]) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /** Returns the value of v_i, i.e., x_(i/2) for even i and -x_(i/2) for odd i. */
+  private static double signedValue(double[] pPoint, int i) {
+    double value = pPoint[i / 2];
+    return (i & 1) == 0 ? value : -value;
+  }
+
+  /* Operators */
+  @Override
+  public Octagon intersection(Octagon oct1, Octagon oct2) {
+    checkSameDimension(oct1, oct2);
+    int n = dimension(oct1);
+    double @Nullable [] matrix1 = toJava(oct1).getMatrix();
+    double @Nullable [] matrix2 = toJava(oct2).getMatrix();
+    if (matrix1 == null || matrix2 == null) {
+      return empty(n);
+    }
+    double[] result = new double[matrix1.length];
+    for (int p = 0; p < result.length; p++) {
+      result[p] = Math.min(matrix1[p], matrix2[p]);
+    }
+    return new JavaOctagon(this, n, result, false);
+  }
+
+  @Override
+  public Octagon union(Octagon oct1, Octagon oct2) {
+    checkSameDimension(oct1, oct2);
+    JavaOctagon closure1 = closure(oct1);
+    JavaOctagon closure2 = closure(oct2);
+    double @Nullable [] matrix1 = closure1.getMatrix();
+    double @Nullable [] matrix2 = closure2.getMatrix();
+    if (matrix1 == null) {
+      return closure2;
+    } else if (matrix2 == null) {
+      return closure1;
+    }
+    // the element-wise maximum of closed matrices is closed
+    double[] result = new double[matrix1.length];
+    for (int p = 0; p < result.length; p++) {
+      result[p] = Math.max(matrix1[p], matrix2[p]);
+    }
+    return new JavaOctagon(this, closure1.getDimension(), result, true);
+  }
+
+  /**
+   * Widening with the thresholds 0 and infinity (OCT_WIDENING_ZERO of the octagon library). The
+   * first octagon is not closed, otherwise the widening would not guarantee termination.
+   */
+  @Override
+  public Octagon widening(Octagon oct1, Octagon oct2) {
+    checkSameDimension(oct1, oct2);
+    double @Nullable [] matrix1 = toJava(oct1).getMatrix();
+    if (matrix1 == null || isEmpty(oct1)) {
+      return oct2;
+    }
+    double @Nullable [] matrix2 = closure(oct2).getMatrix();
+    if (matrix2 == null) {
+      return oct1;
+    }
+    double[] result = new double[matrix1.length];
+    for (int p = 0; p < result.length; p++) {
+      if (matrix2[p] <= matrix1[p]) {
+        result[p] = matrix1[p];
+      } else {
+        result[p] = matrix2[p] <= 0 ? 0 : INFINITY;
+      }
+    }
+    return new JavaOctagon(this, dimension(oct1), result, false);
+  }
+
+  @Override
+  public Octagon narrowing(Octagon oct1, Octagon oct2) {
+    checkSameDimension(oct1, oct2);
+    int n = dimension(oct1);
+    double @Nullable [] matrix1 = closure(oct1).getMatrix();
+    double @Nullable [] matrix2 = closure(oct2).getMatrix();
+    if (matrix1 == null || matrix2 == null) {
+      return empty(n);
+    }
+    double[] result = new double[matrix1.length];
+    for (int p = 0; p < result.length; p++) {
+      result[p] = matrix1[p] == INFINITY ? matrix2[p] : matrix1[p];
+    }
+    return new JavaOctagon(this, n, result, false);
+  }
+
+  /* Transfer Functions */
+  @Override
+  public Octagon forget(Octagon oct, int k) {
+    JavaOctagon closed = closure(oct);
+    int n = closed.getDimension();
+    checkElementIndex(k, n);
+    double @Nullable [] matrix = closed.getMatrix();
+    if (matrix == null) {
+      return closed;
+    }
+    double[] result = matrix.clone();
+    int p = 2 * k;
+    // rows 2k and 2k+1 (all elements (i, 2k) and (i, 2k+1) with i < 2k are stored there as well)
+    Arrays.fill(result, position(p, 0), position(p + 2, 0), INFINITY);
+    // columns 2k and 2k+1 below
+    for (int i = p + 2; i < 2 * n; i++) {
+      result[position(i, p)] = INFINITY;
+      result[position(i, p + 1)] = INFINITY;
+    }
+    result[position(p, p)] = 0;
+    result[position(p + 1, p + 1)] = 0;
+    // forgetting a variable keeps the matrix closed
+    return new JavaOctagon(this, n, result, true);
+  }
+
+  /**
+   * Assign x_k := tab[0] * x_0 + ... + tab[n-1] * x_(n-1) + tab[n] for the dimension n of the
+   * octagon.
+   */
+  @Override
+  public Octagon assingVar(Octagon oct, int k, NumArray array) {
+    double[] coefficients = values(array);
+    int n = dimension(oct);
+    double[] copy = Arrays.copyOf(coefficients, n + 1);
+    return assign(oct, k, copy, copy);
+  }
+
+  @Override
+  public Octagon addBinConstraint(Octagon oct, int noOfConstraints, NumArray array) {
+    JavaOctagon closed = closure(oct);
+    double @Nullable [] matrix = closed.getMatrix();
+    if (matrix == null || noOfConstraints == 0) {
+      return closed;
+    }
+    int n = closed.getDimension();
+    int size = 2 * n;
+    double[] full = toFullMatrix(matrix, size);
+    double[] tab = values(array);
+    int[] variables = new int[2 * noOfConstraints];
+    int changed = 0;
+    for (int c = 0; c < noOfConstraints; c++) {
+      int type = (int) tab[4 * c];
+      int i = (int) tab[4 * c + 1];
+      int j = (int) tab[4 * c + 2];
+      double bound = tab[4 * c + 3];
+      checkElementIndex(i, n);
+      variables[changed++] = i;
+      if (type != PX && type != MX) {
+        checkElementIndex(j, n);
+        variables[changed++] = j;
+      }
+      switch (type) {
+        case PX: // x_i <= c
+          addConstraint(full, size, 2 * i + 1, 2 * i, 2 * bound, integral);
+          break;
+        case MX: // -x_i <= c
+          addConstraint(full, size, 2 * i, 2 * i + 1, 2 * bound, integral);
+          break;
+        case PXPY: // x_i + x_j <= c
+          addConstraint(full, size, 2 * j + 1, 2 * i, bound, integral);
+          break;
+        case PXMY: // x_i - x_j <= c
+          addConstraint(full, size, 2 * j, 2 * i, bound, integral);
+          break;
+        case MXPY: // -x_i + x_j <= c
+          addConstraint(full, size, 2 * i, 2 * j, bound, integral);
+          break;
+        case MXMY: // -x_i - x_j <= c
+          addConstraint(full, size, 2 * j, 2 * i + 1, bound, integral);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown type of octagon constraint: " + type);
+      }
+    }
+    return closeIncrementally(n, full, Arrays.copyOf(variables, changed));
+  }
+
+  /**
+   * Assign an expression with interval coefficients to x_k, where the coefficient of x_i is given
+   * as tab[2i] (upper bound) and tab[2i+1] (negated lower bound), and the constant is at index 2n.
+   */
+  @Override
+  public Octagon intervAssingVar(Octagon oct, int k, NumArray array) {
+    double[] tab = values(array);
+    int n = dimension(oct);
+    double[] lower = new double[n + 1];
+    double[] upper = new double[n + 1];
+    for (int i = 0; i <= n; i++) {
+      upper[i] = tab[2 * i];
+      lower[i] = -tab[2 * i + 1];
+    }
+    return assign(oct, k, lower, upper);
+  }
+
+  /**
+   * Assign x_k := [l_0, u_0] * x_0 + ... + [l_(n-1), u_(n-1)] * x_(n-1) + [l_n, u_n]. Assignments
+   * of the form x_k := +-x_i + [l_n, u_n] are exact, all other assignments are evaluated in the
+   * interval domain.
+   */
+  private Octagon assign(Octagon pOct, int k, double[] pLower, double[] pUpper) {
+    JavaOctagon closed = closure(pOct);
+    int n = closed.getDimension();
+    checkElementIndex(k, n);
+    double @Nullable [] matrix = closed.getMatrix();
+    if (matrix == null) {
+      return closed;
+    }
+    int size = 2 * n;
+    double[] full = toFullMatrix(matrix, size);
+
+    // the single variable with coefficient 1 or -1, if the expression is octagonal
+    int other = -1;
+    boolean octagonal = true;
+    for (int i = 0; i < n && octagonal; i++) {
+      if (pLower[i] == 0 && pUpper[i] == 0) {
+        continue;
+      }
+      if (other == -1 && pLower[i] == pUpper[i] && Math.abs(pLower[i]) == 1) {
+        other = i;
+      } else {
+        octagonal = false;
+      }
+    }
+    double constantLow = pLower[n];
+    double constantHigh = pUpper[n];
+
+    if (octagonal && other == k) {
+      // x_k := +-x_k + c
+      if (pLower[k] < 0) {
+        negate(full, size, k);
+      }
+      translate(full, size, k, constantLow, constantHigh, integral);
+
+    } else if (octagonal && other >= 0) {
+      // x_k := +-x_i + c
+      forget(full, size, k);
+      if (pLower[other] > 0) {
+        addConstraint(full, size, 2 * other, 2 * k, constantHigh, integral);
+        addConstraint(full, size, 2 * k, 2 * other, -constantLow, integral);
+      } else {
+        addConstraint(full, size, 2 * other + 1, 2 * k, constantHigh, integral);
+        addConstraint(full, size, 2 * k, 2 * other + 1, -constantLow, integral);
+      }
+
+    } else {
+      // x_k := [low, high] (this includes constants)
+      double low = constantLow;
+      double high = constantHigh;
+      for (int i = 0; i < n; i++) {
+        if (pLower[i] == 0 && pUpper[i] == 0) {
+          continue;
+        }
+        double varLow = -full[2 * i * size + 2 * i + 1] / 2;
+        double varHigh = full[(2 * i + 1) * size + 2 * i] / 2;
+        double p1 = multiply(pLower[i], varLow);
+        double p2 = multiply(pLower[i], varHigh);
+        double p3 = multiply(pUpper[i], varLow);
+        double p4 = multiply(pUpper[i], varHigh);
+        low += Math.min(Math.min(p1, p2), Math.min(p3, p4));
+        high += Math.max(Math.max(p1, p2), Math.max(p3, p4));
+      }
+      forget(full, size, k);
+      addConstraint(full, size, 2 * k + 1, 2 * k, 2 * high, integral);
+      addConstraint(full, size, 2 * k, 2 * k + 1, -2 * low, integral);
+    }
+    return closeIncrementally(n, full, new int[] {k});
+  }
+
+  /** Multiplication of interval bounds, where 0 times infinity is 0. */
+  private static double multiply(double a, double b) {
+    return (a == 0 || b == 0) ? 0 : a * b;
+  }
+
+  /* change of dimensions */
+  @Override
+  public Octagon addDimensionAndEmbed(Octagon oct, int k) {
+    JavaOctagon javaOct = toJava(oct);
+    int n = javaOct.getDimension() + k;
+    double @Nullable [] matrix = javaOct.getMatrix();
+    if (matrix == null) {
+      return empty(n);
+    }
+    // the half matrix of the smaller octagon is a prefix of the half matrix of the larger one
+    double[] result = universeMatrix(n);
+    System.arraycopy(matrix, 0, result, 0, matrix.length);
+    return new JavaOctagon(this, n, result, javaOct.isClosed());
+  }
+
+  @Override
+  public Octagon addDimensionAndProject(Octagon oct, int k) {
+    JavaOctagon embedded = toJava(addDimensionAndEmbed(oct, k));
+    double @Nullable [] matrix = embedded.getMatrix();
+    if (matrix == null) {
+      return embedded;
+    }
+    double[] result = matrix.clone();
+    for (int i = 2 * (embedded.getDimension() - k); i < 2 * embedded.getDimension(); i++) {
+      result[position(i, i ^ 1)] = 0;
+    }
+    return new JavaOctagon(this, embedded.getDimension(), result, false);
+  }
+
+  @Override
+  public Octagon removeDimension(Octagon oct, int k) {
+    JavaOctagon closed = closure(oct);
+    int n = closed.getDimension() - k;
+    checkArgument(n >= 0, "Cannot remove %s dimensions of %s", k, closed);
+    double @Nullable [] matrix = closed.getMatrix();
+    if (matrix == null) {
+      return empty(n);
+    }
+    // the projection of a closed matrix is closed
+    return new JavaOctagon(this, n, Arrays.copyOf(matrix, matrixSize(n)), true);
+  }
+
+  @Override
+  public String print(Octagon oct, BiMap<Integer, MemoryLocation> map) {
+    StringBuilder str = new StringBuilder();
+    JavaOctagon closed = closure(oct);
+    str.append("Octagon (dimension: " + closed.getDimension() + ")\n");
+    double @Nullable [] matrix = closed.getMatrix();
+    if (matrix == null) {
+      str.append("[Empty]\n");
+      return str.toString();
+    }
+
+    for (int i = 0; i < map.size(); i++) {
+      str.append(" ").append(map.get(i)).append(" -> [");
+      double lower = lowerBound(matrix, i);
+      double upper = upperBound(matrix, i);
+      if (lower == -INFINITY) {
+        str.append("-INFINITY, ");
+      } else {
+        str.append(integral ? Long.toString((long) lower) : Double.toString(lower)).append(", ");
+      }
+      if (upper == INFINITY) {
+        str.append("INFINITY]\n");
+      } else {
+        str.append(integral ? Long.toString((long) upper) : Double.toString(upper)).append("]\n");
+      }
+    }
+    return str.toString();
+  }
+
+  @Override
+  public OctagonInterval getVariableBounds(Octagon oct, int id) {
+    JavaOctagon closed = closure(oct);
+    checkElementIndex(id, closed.getDimension());
+    double @Nullable [] matrix = closed.getMatrix();
+    if (matrix == null) {
+      // every interval is an over-approximation of the empty set
+      return new OctagonInterval(-INFINITY, INFINITY);
+    }
+    double lower = lowerBound(matrix, id);
+    double upper = upperBound(matrix, id);
+    if (!integral) {
+      return new OctagonInterval(lower, upper);
+    }
+    return new OctagonInterval(
+        lower == -INFINITY ? new OctagonDoubleValue(lower) : OctagonIntValue.of((long) lower),
+        upper == INFINITY ? new OctagonDoubleValue(upper) : OctagonIntValue.of((long) upper));
+  }
+
+  private static double lowerBound(double[] pMatrix, int pVar) {
+    return -pMatrix[position(2 * pVar, 2 * pVar + 1)] / 2;
+  }
+
+  private static double upperBound(double[] pMatrix, int pVar) {
+    return pMatrix[position(2 * pVar + 1, 2 * pVar)] / 2;
+  }
+
+  private void checkSameDimension(Octagon oct1, Octagon oct2) {
+    checkArgument(
+        dimension(oct1) == dimension(oct2),
+        "Octagons %s and %s have different dimensions",
+        oct1,
+        oct2);
+  }
+
+  private JavaOctagon closeIncrementally(int n, double[] pFullMatrix, int[] pVariables) {
+    return new JavaOctagon(
+        this, n, incrementalClosureOfFullMatrix(pFullMatrix, 2 * n, pVariables, integral), true);
+  }
+
+  /* matrix operations */
+
+  /** Returns the number of elements of the half matrix of an octagon with the given dimension. */
+  static int matrixSize(int pDimension) {
+    return 2 * pDimension * (pDimension + 1);
+  }
+
+  /** Returns the position of the element (i, j) with j &lt;= (i | 1) in a half matrix. */
+  static int position(int i, int j) {
+    return j + ((i + 1) * (i + 1)) / 2;
+  }
+
+  static double[] universeMatrix(int pDimension) {
+    double[] matrix = new double[matrixSize(pDimension)];
+    Arrays.fill(matrix, INFINITY);
+    for (int i = 0; i < 2 * pDimension; i++) {
+      matrix[position(i, i)] = 0;
+    }
+    return matrix;
+  }
+
+  private static double[] toFullMatrix(double[] pMatrix, int size) {
+    double[] full = new double[size * size];
+    for (int i = 0; i < size; i++) {
+      for (int j = 0; j <= (i | 1); j++) {
+        double value = pMatrix[position(i, j)];
+        full[i * size + j] = value;
+        full[(j ^ 1) * size + (i ^ 1)] = value;
+      }
+    }
+    return full;
+  }
+
+  private static double[] toHalfMatrix(double[] pFullMatrix, int size) {
+    double[] matrix = new double[matrixSize(size / 2)];
+    for (int i = 0; i < size; i++) {
+      System.arraycopy(pFullMatrix, i * size, matrix, position(i, 0), (i | 1) + 1);
+    }
+    return matrix;
+  }
+
+  /** Add the constraint v_j - v_i &lt;= c and its coherent counterpart to a full matrix. */
+  private static void addConstraint(
+      double[] pFullMatrix, int size, int i, int j, double c, boolean pIntegral) {
+    double bound = pIntegral ? Math.floor(c) : c;
+    if (bound < pFullMatrix[i * size + j]) {
+      pFullMatrix[i * size + j] = bound;
+      pFullMatrix[(j ^ 1) * size + (i ^ 1)] = bound;
+    }
+  }
+
+  /** Remove all constraints of x_k from a full matrix. */
+  private static void forget(double[] pFullMatrix, int size, int k) {
+    for (int v = 2 * k; v <= 2 * k + 1; v++) {
+      Arrays.fill(pFullMatrix, v * size, (v + 1) * size, INFINITY);
+      for (int i = 0; i < size; i++) {
+        pFullMatrix[i * size + v] = INFINITY;
+      }
+      pFullMatrix[v * size + v] = 0;
+    }
+  }
+
+  /** Replace x_k by -x_k in a full matrix, i.e., swap v_2k and v_2k+1. */
+  private static void negate(double[] pFullMatrix, int size, int k) {
+    int p = 2 * k;
+    int q = p + 1;
+    for (int j = 0; j < size; j++) {
+      double tmp = pFullMatrix[p * size + j];
+      pFullMatrix[p * size + j] = pFullMatrix[q * size + j];
+      pFullMatrix[q * size + j] = tmp;
+    }
+    for (int i = 0; i < size; i++) {
+      double tmp = pFullMatrix[i * size + p];
+      pFullMatrix[i * size + p] = pFullMatrix[i * size + q];
+      pFullMatrix[i * size + q] = tmp;
+    }
+  }
+
+  /** Replace x_k by x_k + [low, high] in a full matrix. */
+  private static void translate(
+      double[] pFullMatrix, int size, int k, double low, double high, boolean pIntegral) {
+    int p = 2 * k;
+    int q = p + 1;
+    for (int i = 0; i < size; i++) {
+      if (i == p || i == q) {
+        continue;
+      }
+      // v_2k - v_i and v_i + v_2k+1 increase by at most high
+      pFullMatrix[i * size + p] = shift(pFullMatrix[i * size + p], high, pIntegral);
+      pFullMatrix[q * size + i] = shift(pFullMatrix[q * size + i], high, pIntegral);
+      // v_i - v_2k and v_2k+1 - v_i increase by at most -low
+      pFullMatrix[p * size + i] = shift(pFullMatrix[p * size + i], -low, pIntegral);
+      pFullMatrix[i * size + q] = shift(pFullMatrix[i * size + q], -low, pIntegral);
+    }
+    pFullMatrix[q * size + p] = shift(pFullMatrix[q * size + p], 2 * high, pIntegral);
+    pFullMatrix[p * size + q] = shift(pFullMatrix[p * size + q], -2 * low, pIntegral);
+  }
+
+  private static double shift(double pBound, double pOffset, boolean pIntegral) {
+    if (pBound == INFINITY) {
+      return INFINITY;
+    }
+    double result = pBound + pOffset;
+    return pIntegral ? Math.floor(result) : result;
+  }
+
+  /**
+   * Compute the strong closure (or the tight closure for integer variables) of a half matrix with
+   * the Floyd-Warshall algorithm in time O(n^3), or O(b^3 + n^2) if the largest pack has b
+   * variables (see {@link #computePacks}).
+   *
+   * @return the closed half matrix, or null if the octagon is empty
+   */
+  static double @Nullable [] strongClosure(
+      double @Nullable [] pMatrix, int pDimension, boolean pIntegral) {
+    if (pMatrix == null) {
+      return null;
+    }
+    int size = 2 * pDimension;
+    double[] full = toFullMatrix(pMatrix, size);
+    for (int[] pack : computePacks(full, size)) {
+      for (int k : pack) {
+        relax(full, size, k, pack);
+      }
+    }
+    return strengthen(full, size, pIntegral);
+  }
+
+  /**
+   * Compute the strong closure (or the tight closure for integer variables) of a half matrix that
+   * was closed before the constraints of the given variables were changed. This takes time
+   * O(k*b^2 + n^2) for k variables, if their packs (see {@link #computePacks}) have at most b
+   * variables.
+   *
+   * @return the closed half matrix, or null if the octagon is empty
+   */
+  static double @Nullable [] incrementalClosure(
+      double[] pMatrix, int pDimension, int[] pVariables, boolean pIntegral) {
+    int size = 2 * pDimension;
+    return incrementalClosureOfFullMatrix(
+        toFullMatrix(pMatrix, size), size, pVariables, pIntegral);
+  }
+
+  private static double @Nullable [] incrementalClosureOfFullMatrix(
+      double[] full, int size, int[] pVariables, boolean pIntegral) {
+    boolean[] changed = new boolean[size];
+    for (int var : pVariables) {
+      changed[2 * var] = true;
+      changed[2 * var + 1] = true;
+    }
+    for (int[] pack : computePacks(full, size)) {
+      // the pack contains both indices of a variable, so checking every second index is enough
+      for (int p = 0; p < pack.length; p += 2) {
+        if (changed[pack[p]]) {
+          closePackIncrementally(full, size, pack, changed);
+          break;
+        }
+      }
+    }
+    return strengthen(full, size, pIntegral);
+  }
+
+  private static void closePackIncrementally(
+      double[] full, int size, int[] pack, boolean[] changed) {
+    int changedCount = 0;
+    for (int i : pack) {
+      if (changed[i]) {
+        changedCount++;
+      }
+    }
+    int[] changedIndices = new int[changedCount];
+    int[] unchangedIndices = new int[pack.length - changedCount];
+    for (int i = 0, c = 0, u = 0; i < pack.length; i++) {
+      if (changed[pack[i]]) {
+        changedIndices[c++] = pack[i];
+      } else {
+        unchangedIndices[u++] = pack[i];
+      }
+    }
+
+    // The elements between unchanged indices are closed with respect to paths over unchanged
+    // indices. So a shortest path between changed indices with only unchanged indices in between
+    // consists of at most three elements: from the changed index to an unchanged one, between
+    // unchanged ones, and back to a changed one. First extend the changed rows and columns by such
+    // paths, then relax over all paths via changed indices.
+    for (int t : changedIndices) {
+      int rowT = t * size;
+      for (int k : unchangedIndices) {
+        double tk = full[rowT + k];
+        if (tk == INFINITY) {
+          continue;
+        }
+        int rowK = k * size;
+        for (int j : unchangedIndices) {
+          double value = tk + full[rowK + j];
+          if (value < full[rowT + j]) {
+            full[rowT + j] = value;
+          }
+        }
+      }
+    }
+    for (int i : unchangedIndices) {
+      int rowI = i * size;
+      for (int k : unchangedIndices) {
+        double ik = full[rowI + k];
+        if (ik == INFINITY) {
+          continue;
+        }
+        int rowK = k * size;
+        for (int t : changedIndices) {
+          double value = ik + full[rowK + t];
+          if (value < full[rowI + t]) {
+            full[rowI + t] = value;
+          }
+        }
+      }
+    }
+    for (int t : changedIndices) {
+      int rowT = t * size;
+      for (int k : unchangedIndices) {
+        double tk = full[rowT + k];
+        if (tk == INFINITY) {
+          continue;
+        }
+        int rowK = k * size;
+        for (int s : changedIndices) {
+          double value = tk + full[rowK + s];
+          if (value < full[rowT + s]) {
+            full[rowT + s] = value;
+          }
+        }
+      }
+    }
+    for (int k : changedIndices) {
+      relax(full, size, k, pack);
+    }
+  }
+
+  /**
+   * Partition the variables of a full matrix into packs, such that no bound between variables of
+   * different packs is tighter than the bound that strengthening derives from the unary bounds of
+   * the variables. A shortest path that leaves a pack is then never shorter than the strengthened
+   * bound, so it suffices to close each pack separately and strengthen the whole matrix afterwards.
+   * The packs are computed from the current bounds, so they are always at least as fine as a
+   * static partition of the variables by the program statements that relate them.
+   *
+   * @return for each pack the indices 2k and 2k+1 of its variables x_k in ascending order
+   */
+  private static int[][] computePacks(double[] full, int size) {
+    int n = size / 2;
+    int[] parent = new int[n];
+    for (int k = 0; k < n; k++) {
+      parent[k] = k;
+    }
+    for (int i = 0; i < size; i++) {
+      int rowI = i * size;
+      double unaryI = full[rowI + (i ^ 1)];
+      // all indices of variables smaller than the variable of i
+      for (int j = 0; j < (i & ~1); j++) {
+        double bound = full[rowI + j];
+        if (bound < INFINITY && bound < (unaryI + full[(j ^ 1) * size + j]) / 2) {
+          union(parent, i / 2, j / 2);
+        }
+      }
+    }
+
+    int[] packOfRoot = new int[n];
+    int[] packSizes = new int[n];
+    int packCount = 0;
+    for (int k = 0; k < n; k++) {
+      int root = find(parent, k);
+      if (root == k) {
+        packOfRoot[k] = packCount++;
+      }
+      packSizes[packOfRoot[root]] += 2;
+    }
+    int[][] packs = new int[packCount][];
+    for (int p = 0; p < packCount; p++) {
+      packs[p] = new int[packSizes[p]];
+    }
+    int[] filled = new int[packCount];
+    for (int k = 0; k < n; k++) {
+      int p = packOfRoot[find(parent, k)];
+      packs[p][filled[p]++] = 2 * k;
+      packs[p][filled[p]++] = 2 * k + 1;
+    }
+    return packs;
+  }
+
+  private static int find(int[] parent, int k) {
+    int root = k;
+    while (parent[root] != root) {
+      root = parent[root];
+    }
+    // path compression
+    int current = k;
+    while (parent[current] != root) {
+      int next = parent[current];
+      parent[current] = root;
+      current = next;
+    }
+    return root;
+  }
+
+  private static void union(int[] parent, int k, int l) {
+    int rootK = find(parent, k);
+    int rootL = find(parent, l);
+    // the smaller root is the representative, so roots are seen first when iterating upwards
+    if (rootK < rootL) {
+      parent[rootL] = rootK;
+    } else if (rootL < rootK) {
+      parent[rootK] = rootL;
+    }
+  }
+
+  /** One step of the Floyd-Warshall algorithm with pivot k on the given indices of a matrix. */
+  private static void relax(double[] full, int size, int k, int[] indices) {
+    int rowK = k * size;
+    for (int i : indices) {
+      int rowI = i * size;
+      double ik = full[rowI + k];
+      if (ik == INFINITY) {
+        continue;
+      }
+      for (int j : indices) {
+        double value = ik + full[rowK + j];
+        if (value < full[rowI + j]) {
+          full[rowI + j] = value;
+        }
+      }
+    }
+  }
+
+  /**
+   * Strengthen a full matrix that is closed under shortest paths, i.e., use the sum of the unary
+   * bounds of two variables as bound of their sum or difference. For integer variables, the unary
+   * bounds are tightened first.
+   *
+   * @return the closed half matrix, or null if the octagon is empty
+   */
+  private static double @Nullable [] strengthen(double[] full, int size, boolean pIntegral) {
+    for (int i = 0; i < size; i++) {
+      if (full[i * size + i] < 0) {
+        return null;
+      }
+    }
+    // unary[i] is the bound of v_(i^1) - v_i, i.e., twice the bound of -v_i
+    double[] unary = new double[size];
+    for (int i = 0; i < size; i++) {
+      double bound = full[i * size + (i ^ 1)];
+      if (pIntegral) {
+        bound = 2 * Math.floor(bound / 2);
+        full[i * size + (i ^ 1)] = bound;
+      }
+      unary[i] = bound;
+    }
+    if (pIntegral) {
+      for (int i = 0; i < size; i += 2) {
+        if (unary[i] + unary[i + 1] < 0) {
+          return null;
+        }
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      double unaryI = unary[i];
+      if (unaryI == INFINITY) {
+        continue;
+      }
+      int rowI = i * size;
+      for (int j = 0; j < size; j++) {
+        double value = (unaryI + unary[j ^ 1]) / 2;
+        if (value < full[rowI + j]) {
+          full[rowI + j] = value;
+        }
+      }
+    }
+    return toHalfMatrix(full, size);
+  }
+}
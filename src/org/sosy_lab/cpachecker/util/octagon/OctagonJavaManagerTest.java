@@ -0,0 +1,265 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.octagon;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.sosy_lab.cpachecker.util.octagon.OctagonJavaManager.position;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonInterval;
+
+public class OctagonJavaManagerTest {
+
+  private final OctagonJavaManager intManager = new OctagonJavaManager(true);
+  private final OctagonJavaManager floatManager = new OctagonJavaManager(false);
+
+  private static Octagon assign(OctagonManager manager, Octagon oct, int var, double... tab) {
+    NumArray array = manager.init_num_t(tab.length);
+    for (int i = 0; i < tab.length; i++) {
+      manager.num_set_float(array, i, tab[i]);
+    }
+    return manager.assingVar(oct, var, array);
+  }
+
+  private static Octagon constrain(
+      OctagonManager manager, Octagon oct, int type, int i, int j, double c) {
+    NumArray array = manager.init_num_t(4);
+    manager.num_set_int(array, 0, type);
+    manager.num_set_int(array, 1, i);
+    manager.num_set_int(array, 2, j);
+    manager.num_set_float(array, 3, c);
+    return manager.addBinConstraint(oct, 1, array);
+  }
+
+  private static void assertBounds(
+      OctagonManager manager, Octagon oct, int var, double low, double high) {
+    OctagonInterval bounds = manager.getVariableBounds(oct, var);
+    assertThat(bounds.getLow().getValue().doubleValue()).isEqualTo(low);
+    assertThat(bounds.getHigh().getValue().doubleValue()).isEqualTo(high);
+  }
+
+  @Test
+  public void testAssignment() {
+    Octagon oct = intManager.universe(2);
+    oct = assign(intManager, oct, 0, 0, 0, 5);
+    oct = assign(intManager, oct, 1, 1, 0, 1);
+    assertBounds(intManager, oct, 0, 5, 5);
+    assertBounds(intManager, oct, 1, 6, 6);
+
+    // x := x + 1 keeps the relation y - x = 1 up to the shift
+    oct = intManager.forget(oct, 0);
+    oct = assign(intManager, oct, 0, 1, 0, 1);
+    oct = assign(intManager, oct, 1, 1, 0, 0);
+    assertThat(intManager.isEmpty(oct)).isFalse();
+    // x - y <= -1 contradicts x = y
+    assertThat(intManager.isEmpty(constrain(intManager, oct, 3, 0, 1, -1))).isTrue();
+  }
+
+  @Test
+  public void testTightClosure() {
+    // x + y <= 3 and x - y <= 0 implies 2x <= 3, i.e., x <= 1 for integers
+    for (OctagonJavaManager manager : Arrays.asList(intManager, floatManager)) {
+      Octagon oct = manager.universe(2);
+      oct = constrain(manager, oct, 2, 0, 1, 3);
+      oct = constrain(manager, oct, 3, 0, 1, 0);
+      double upper = manager == intManager ? 1 : 1.5;
+      assertBounds(manager, oct, 0, Double.NEGATIVE_INFINITY, upper);
+    }
+  }
+
+  @Test
+  public void testLatticeOperations() {
+    Octagon universe = floatManager.universe(1);
+    Octagon one = assign(floatManager, universe, 0, 0, 1);
+    Octagon three = assign(floatManager, universe, 0, 0, 3);
+    Octagon union = floatManager.union(one, three);
+
+    assertBounds(floatManager, union, 0, 1, 3);
+    assertThat(floatManager.isIncludedIn(one, union)).isTrue();
+    assertThat(floatManager.isIncludedIn(union, one)).isFalse();
+    assertThat(floatManager.isEmpty(floatManager.intersection(one, three))).isTrue();
+    assertThat(floatManager.union(three, one)).isEqualTo(union);
+    assertThat(floatManager.union(three, one).hashCode()).isEqualTo(union.hashCode());
+
+    Octagon zeroToOne = floatManager.union(assign(floatManager, universe, 0, 0, 0), one);
+    Octagon widened = floatManager.widening(zeroToOne, union);
+    assertBounds(floatManager, widened, 0, 0, Double.POSITIVE_INFINITY);
+  }
+
+  @Test
+  public void testDimensions() {
+    Octagon oct = intManager.universe(1);
+    oct = assign(intManager, oct, 0, 0, 2);
+    oct = intManager.addDimensionAndEmbed(oct, 2);
+    assertThat(intManager.dimension(oct)).isEqualTo(3);
+    oct = assign(intManager, oct, 2, 1, 0, 0, 0);
+    assertBounds(intManager, oct, 2, 2, 2);
+    oct = intManager.removeDimension(oct, 2);
+    assertThat(intManager.dimension(oct)).isEqualTo(1);
+    assertBounds(intManager, oct, 0, 2, 2);
+  }
+
+  @Test
+  public void testIncrementalClosureRational() {
+    checkIncrementalClosure(false);
+  }
+
+  @Test
+  public void testIncrementalClosureIntegral() {
+    checkIncrementalClosure(true);
+  }
+
+  /**
+   * Compare the incremental closure after changing the constraints of some variables of a closed
+   * matrix with the closure from scratch. All bounds are small integers, so the results are
+   * computed exactly.
+   */
+  private static void checkIncrementalClosure(boolean pIntegral) {
+    Random random = new Random(0);
+    int nonEmpty = 0;
+    for (int round = 0; round < 500; round++) {
+      int n = 1 + random.nextInt(6);
+      double[] closed = OctagonJavaManager.strongClosure(randomMatrix(random, n), n, pIntegral);
+      if (closed == null) {
+        continue;
+      }
+
+      int[] variables = new int[1 + random.nextInt(Math.min(n, 2))];
+      double[] changed = closed.clone();
+      for (int v = 0; v < variables.length; v++) {
+        int var = random.nextInt(n);
+        variables[v] = var;
+        if (random.nextBoolean()) {
+          forget(changed, n, var);
+        }
+        for (int c = random.nextInt(4); c > 0; c--) {
+          int changedIndex = 2 * var + random.nextInt(2);
+          int otherIndex = random.nextInt(2 * n);
+          int i = random.nextBoolean() ? changedIndex : otherIndex;
+          int j = i == changedIndex ? otherIndex : changedIndex;
+          if (i != j) {
+            set(changed, i, j, Math.min(get(changed, i, j), random.nextInt(21) - 10));
+          }
+        }
+      }
+
+      double[] expected = denseClosure(changed, n, pIntegral);
+      double[] actual = OctagonJavaManager.incrementalClosure(changed, n, variables, pIntegral);
+      if (expected == null) {
+        assertThat(actual).isNull();
+      } else {
+        nonEmpty++;
+        assertThat(actual).usingExactEquality().containsExactly(expected).inOrder();
+      }
+    }
+    assertThat(nonEmpty).isGreaterThan(100);
+  }
+
+  @Test
+  public void testPackedClosureRational() {
+    checkPackedClosure(false);
+  }
+
+  @Test
+  public void testPackedClosureIntegral() {
+    checkPackedClosure(true);
+  }
+
+  /** Compare the closure that works on packs of variables with a closure of the whole matrix. */
+  private static void checkPackedClosure(boolean pIntegral) {
+    Random random = new Random(1);
+    int nonEmpty = 0;
+    for (int round = 0; round < 500; round++) {
+      int n = 1 + random.nextInt(8);
+      double[] matrix = randomMatrix(random, n);
+      double[] expected = denseClosure(matrix, n, pIntegral);
+      double[] actual = OctagonJavaManager.strongClosure(matrix, n, pIntegral);
+      if (expected == null) {
+        assertThat(actual).isNull();
+      } else {
+        nonEmpty++;
+        assertThat(actual).usingExactEquality().containsExactly(expected).inOrder();
+      }
+    }
+    assertThat(nonEmpty).isGreaterThan(100);
+  }
+
+  /** Textbook strong (or tight) closure of the whole matrix, used as reference. */
+  private static double @Nullable [] denseClosure(double[] matrix, int n, boolean pIntegral) {
+    int size = 2 * n;
+    double[][] m = new double[size][size];
+    for (int i = 0; i < size; i++) {
+      for (int j = 0; j < size; j++) {
+        m[i][j] = get(matrix, i, j);
+      }
+    }
+    for (int k = 0; k < size; k++) {
+      for (int i = 0; i < size; i++) {
+        for (int j = 0; j < size; j++) {
+          m[i][j] = Math.min(m[i][j], m[i][k] + m[k][j]);
+        }
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      if (m[i][i] < 0) {
+        return null;
+      }
+      if (pIntegral) {
+        m[i][i ^ 1] = 2 * Math.floor(m[i][i ^ 1] / 2);
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      if (m[i][i ^ 1] + m[i ^ 1][i] < 0) {
+        return null;
+      }
+    }
+    double[] result = new double[matrix.length];
+    for (int i = 0; i < size; i++) {
+      for (int j = 0; j <= (i | 1); j++) {
+        result[position(i, j)] = Math.min(m[i][j], (m[i][i ^ 1] + m[j ^ 1][j]) / 2);
+      }
+    }
+    return result;
+  }
+
+  private static double[] randomMatrix(Random random, int n) {
+    double[] matrix = OctagonJavaManager.universeMatrix(n);
+    for (int c = random.nextInt(2 * n + 1); c > 0; c--) {
+      int i = random.nextInt(2 * n);
+      int j = random.nextInt(2 * n);
+      if (i != j) {
+        set(matrix, i, j, random.nextInt(21) - 5);
+      }
+    }
+    return matrix;
+  }
+
+  private static double get(double[] matrix, int i, int j) {
+    return j <= (i | 1) ? matrix[position(i, j)] : matrix[position(j ^ 1, i ^ 1)];
+  }
+
+  private static void set(double[] matrix, int i, int j, double value) {
+    if (j <= (i | 1)) {
+      matrix[position(i, j)] = value;
+    } else {
+      matrix[position(j ^ 1, i ^ 1)] = value;
+    }
+  }
+
+  private static void forget(double[] matrix, int n, int var) {
+    for (int v = 2 * var; v <= 2 * var + 1; v++) {
+      for (int i = 0; i < 2 * n; i++) {
+        set(matrix, v, i, v == i ? 0 : Double.POSITIVE_INFINITY);
+      }
+    }
+  }
+}
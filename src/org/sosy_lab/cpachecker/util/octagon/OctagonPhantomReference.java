@@ -11,12 +11,12 @@ package org.sosy_lab.cpachecker.util.octagon;
 import java.lang.ref.PhantomReference;
 import java.lang.ref.ReferenceQueue;
 
-public class OctagonPhantomReference extends PhantomReference<Octagon> {
+class OctagonPhantomReference extends PhantomReference<NativeOctagon> {
 
   private Long octRef;
-  private OctagonManager manager;
+  private NativeOctagonManager manager;
 
-  public OctagonPhantomReference(Octagon reference, ReferenceQueue<? super Octagon> queue) {
+  OctagonPhantomReference(NativeOctagon reference, ReferenceQueue<? super NativeOctagon> queue) {
     super(reference, queue);
     octRef = reference.getOctId();
     manager = reference.getManager();
@@ -8,6 +8,7 @@
 
 package org.sosy_lab.cpachecker.util.predicates.bdd;
 
+import java.util.logging.Level;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
@@ -43,7 +44,13 @@ public class BDDManagerFactory {
   // documentation of the packages can be found at source of BDDFactory.init()
   private String bddPackage = "JAVA";
 
-  @Option(secure = true, description = "sequentialize all accesses to the BDD library.")
+  @Option(
+      secure = true,
+      description =
+          "sequentialize all accesses to the BDD library. "
+              + "This is skipped for BDD packages that natively support concurrent accesses "
+              + "(e.g., PJBDD), such that parallel analyses can share the BDD universe "
+              + "without a global lock.")
   private boolean synchronizeLibraryAccess = false;
 
   @Option(
@@ -85,7 +92,15 @@ public class BDDManagerFactory {
       rmgr = new CountingRegionManager(rmgr);
     }
     if (synchronizeLibraryAccess) {
-      rmgr = new SynchronizedRegionManager(rmgr);
+      if (rmgr.isThreadSafe()) {
+        logger.log(
+            Level.FINE,
+            "BDD package",
+            bddPackage,
+            "supports concurrent accesses, no synchronization of library access is needed.");
+      } else {
+        rmgr = new SynchronizedRegionManager(rmgr);
+      }
     }
     return rmgr;
   }
@@ -50,10 +50,12 @@ public class PJBDDRegionManager implements RegionManager {
   private final Region trueFormula;
   private final Region falseFormula;
   private final Creator bddCreator;
+  private final boolean threadSafe;
 
   public PJBDDRegionManager(Configuration pConfig) throws InvalidConfigurationException {
     BuildFromConfig buildFromConfig = new BuildFromConfig(pConfig);
     bddCreator = buildFromConfig.makeCreator();
+    threadSafe = !buildFromConfig.disableThreadSafety;
     trueFormula = wrap(bddCreator.makeTrue());
     falseFormula = wrap(bddCreator.makeFalse());
   }
@@ -179,6 +181,20 @@ public class PJBDDRegionManager implements RegionManager {
     return wrap(bdd);
   }
 
+  /**
+   * PJBDD uses a concurrent unique table and concurrent operation caches, such that all operations
+   * can be applied from several threads in parallel, unless thread safety was explicitly disabled.
+   */
+  @Override
+  public boolean isThreadSafe() {
+    return threadSafe;
+  }
+
+  @Override
+  public void close() {
+    bddCreator.shutDown();
+  }
+
   @Options(prefix = "bdd.pjbdd")
   private static class BuildFromConfig {
 
@@ -306,8 +322,9 @@ public class PJBDDRegionManager implements RegionManager {
 
     @Override
     public void close() {
+      // The creator is shared by all threads and is shut down by PJBDDRegionManager#close(),
+      // only the local cache is dropped.
       cache.clear();
-      PJBDDRegionManager.this.bddCreator.shutDown();
     }
 
     @Override
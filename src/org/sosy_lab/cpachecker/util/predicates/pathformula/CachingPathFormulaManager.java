@@ -11,12 +11,20 @@ package org.sosy_lab.cpachecker.util.predicates.pathformula;
 import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
 
 import com.google.common.base.Equivalence;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableSet;
 import java.io.PrintStream;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.LongAdder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
 import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
@@ -37,9 +45,28 @@ import org.sosy_lab.java_smt.api.Model.ValueAssignment;
 /**
  * Implementation of {@link PathFormulaManager} that delegates to another
  * instance but caches results of some methods.
+ *
+ * <p>The caches can be bounded in size and can hold their values only softly, such that they do
+ * not retain formulas for states that are no longer part of the analysis forever.
  */
+@Options(prefix = "cpa.predicate.pathFormulaCache")
 public class CachingPathFormulaManager implements PathFormulaManager {
 
+  @Option(
+      secure = true,
+      description =
+          "maximum number of entries in each of the path-formula caches, "
+              + "least-recently used entries are evicted first (0 for unbounded caches)")
+  @IntegerOption(min = 0)
+  private int maximumSize = 0;
+
+  @Option(
+      secure = true,
+      description =
+          "reference cached path formulas only softly, "
+              + "such that the garbage collector can evict them under memory pressure")
+  private boolean softValues = false;
+
   @SuppressWarnings("deprecation")
   public final ThreadSafeTimerContainer pathFormulaComputationTimer =
       new ThreadSafeTimerContainer(null);
@@ -48,23 +75,40 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
   public final PathFormulaManager delegate;
 
-  private final Map<
+  private final Cache<
           Pair<Equivalence.Wrapper<CFAEdge>, PathFormula>, Pair<PathFormula, ErrorConditions>>
-      andFormulaWithConditionsCache = new HashMap<>();
-  private final Map<Pair<Equivalence.Wrapper<CFAEdge>, PathFormula>, PathFormula> andFormulaCache =
-      new HashMap<>();
+      andFormulaWithConditionsCache;
+  private final Cache<Pair<Equivalence.Wrapper<CFAEdge>, PathFormula>, PathFormula>
+      andFormulaCache;
 
-  private final Map<Pair<PathFormula, PathFormula>, PathFormula> orFormulaCache
-            = new HashMap<>();
+  // disjunction is commutative, so the key is the unordered pair of both formulas
+  private final Cache<ImmutableSet<PathFormula>, PathFormula> orFormulaCache;
 
-  private final Map<PathFormula, PathFormula> emptyFormulaCache
-            = new HashMap<>();
+  private final Cache<PathFormula, PathFormula> emptyFormulaCache;
 
   private final PathFormula emptyFormula;
 
-  public CachingPathFormulaManager(PathFormulaManager pDelegate) {
+  public CachingPathFormulaManager(PathFormulaManager pDelegate, Configuration pConfig)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
     delegate = pDelegate;
     emptyFormula = delegate.makeEmptyPathFormula();
+
+    andFormulaWithConditionsCache = newCache();
+    andFormulaCache = newCache();
+    orFormulaCache = newCache();
+    emptyFormulaCache = newCache();
+  }
+
+  private <K, V> Cache<K, V> newCache() {
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+    if (maximumSize > 0) {
+      builder.maximumSize(maximumSize);
+    }
+    if (softValues) {
+      builder.softValues();
+    }
+    return builder.build();
   }
 
   /**
@@ -81,7 +125,8 @@ public class CachingPathFormulaManager implements PathFormulaManager {
       PathFormula pOldFormula, CFAEdge pEdge) throws CPATransferException, InterruptedException {
     final Pair<Equivalence.Wrapper<CFAEdge>, PathFormula> formulaCacheKey =
         createFormulaCacheKey(pOldFormula, pEdge);
-    Pair<PathFormula, ErrorConditions> result = andFormulaWithConditionsCache.get(formulaCacheKey);
+    Pair<PathFormula, ErrorConditions> result =
+        andFormulaWithConditionsCache.getIfPresent(formulaCacheKey);
     if (result == null) {
       TimerWrapper t = pathFormulaComputationTimer.getNewTimer();
       t.start();
@@ -100,7 +145,7 @@ public class CachingPathFormulaManager implements PathFormulaManager {
   public PathFormula makeAnd(PathFormula pOldFormula, CFAEdge pEdge) throws CPATransferException, InterruptedException {
     final Pair<Equivalence.Wrapper<CFAEdge>, PathFormula> formulaCacheKey =
         createFormulaCacheKey(pOldFormula, pEdge);
-    PathFormula result = andFormulaCache.get(formulaCacheKey);
+    PathFormula result = andFormulaCache.getIfPresent(formulaCacheKey);
     if (result == null) {
       TimerWrapper t = pathFormulaComputationTimer.getNewTimer();
       try {
@@ -119,14 +164,9 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
   @Override
   public PathFormula makeOr(PathFormula pF1, PathFormula pF2) throws InterruptedException {
-    final Pair<PathFormula, PathFormula> formulaCacheKey = Pair.of(pF1, pF2);
-
-    PathFormula result = orFormulaCache.get(formulaCacheKey);
-    if (result == null) {
-      // try again with other order
-      result = orFormulaCache.get(Pair.of(pF2, pF1));
-    }
+    final ImmutableSet<PathFormula> formulaCacheKey = ImmutableSet.of(pF1, pF2);
 
+    PathFormula result = orFormulaCache.getIfPresent(formulaCacheKey);
     if (result == null) {
       result = delegate.makeOr(pF1, pF2);
       orFormulaCache.put(formulaCacheKey, result);
@@ -148,7 +188,7 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
   @Override
   public PathFormula makeEmptyPathFormulaWithContextFrom(PathFormula pOldFormula) {
-    PathFormula result = emptyFormulaCache.get(pOldFormula);
+    PathFormula result = emptyFormulaCache.getIfPresent(pOldFormula);
     if (result == null) {
       result = delegate.makeEmptyPathFormulaWithContextFrom(pOldFormula);
       emptyFormulaCache.put(pOldFormula, result);
@@ -214,10 +254,10 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
   @Override
   public void clearCaches() {
-    andFormulaWithConditionsCache.clear();
-    andFormulaCache.clear();
-    orFormulaCache.clear();
-    emptyFormulaCache.clear();
+    andFormulaWithConditionsCache.invalidateAll();
+    andFormulaCache.invalidateAll();
+    orFormulaCache.invalidateAll();
+    emptyFormulaCache.invalidateAll();
     delegate.clearCaches();
   }
 
@@ -243,6 +283,11 @@ public class CachingPathFormulaManager implements PathFormulaManager {
             + " ("
             + toPercent(cacheHits, totalPathFormulaComputations)
             + ")");
+    printCacheStatistics(out, "  for conjunction with edge:       ", andFormulaCache.stats());
+    printCacheStatistics(
+        out, "  for conjunction with conditions: ", andFormulaWithConditionsCache.stats());
+    printCacheStatistics(out, "  for disjunction:                 ", orFormulaCache.stats());
+    printCacheStatistics(out, "  for empty formula with context:  ", emptyFormulaCache.stats());
     out.println();
 
     out.println("Inside post operator:                  ");
@@ -253,6 +298,19 @@ public class CachingPathFormulaManager implements PathFormulaManager {
     delegate.printStatistics(out);
   }
 
+  private static void printCacheStatistics(PrintStream out, String name, CacheStats stats) {
+    out.println(
+        name
+            + stats.hitCount()
+            + " hits of "
+            + stats.requestCount()
+            + " lookups ("
+            + toPercent(stats.hitCount(), stats.requestCount())
+            + "), "
+            + stats.evictionCount()
+            + " evictions");
+  }
+
   @Override
   public BooleanFormula addBitwiseAxiomsIfNeeded(final BooleanFormula pMainFormula, final BooleanFormula pExtractionFormula) {
     return delegate.addBitwiseAxiomsIfNeeded(pMainFormula, pExtractionFormula);
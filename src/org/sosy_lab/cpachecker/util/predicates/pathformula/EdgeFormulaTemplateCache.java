@@ -0,0 +1,311 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.predicates.pathformula;
+
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalInt;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.exceptions.UnrecognizedCFAEdgeException;
+import org.sosy_lab.cpachecker.exceptions.UnrecognizedCodeException;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap.SSAMapBuilder;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.ctoformula.CtoFormulaConverter;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.pointeraliasing.PointerTargetSet;
+import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+/**
+ * Cache that encodes each {@link CFAEdge} only once and reuses the resulting edge formula for other
+ * SSA contexts.
+ *
+ * <p>The formula of an edge is stored as a template together with the SSA context it was created
+ * for. If the edge is encoded again for a context where all variables of the template are present
+ * (or absent) in the same way, the template is instantiated by shifting the SSA index of each
+ * variable by the difference of its indices in both contexts. This is correct as long as fresh
+ * indices are always computed as current index plus one, which is checked for both contexts.
+ *
+ * <p>This class is not thread-safe.
+ */
+final class EdgeFormulaTemplateCache {
+
+  private static final char NONDET_INDEX_SEPARATOR = '!';
+
+  private final CtoFormulaConverter converter;
+  private final FormulaManagerView fmgr;
+  private final BooleanFormulaManagerView bfmgr;
+
+  private final Map<CFAEdge, EdgeFormulaTemplate> templates = Maps.newIdentityHashMap();
+
+  private int instantiatedTemplates = 0;
+  private int encodedEdges = 0;
+
+  EdgeFormulaTemplateCache(CtoFormulaConverter pConverter, FormulaManagerView pFmgr) {
+    converter = pConverter;
+    fmgr = pFmgr;
+    bfmgr = pFmgr.getBooleanFormulaManager();
+  }
+
+  /**
+   * Same as {@link CtoFormulaConverter#makeAnd(PathFormula, CFAEdge, ErrorConditions)} without
+   * error conditions, but reuses a previously created formula for the edge if possible.
+   */
+  PathFormula makeAnd(PathFormula pOldFormula, CFAEdge pEdge)
+      throws UnrecognizedCodeException, UnrecognizedCFAEdgeException, InterruptedException {
+    SSAMap ssa = pOldFormula.getSsa();
+    PointerTargetSet pts = pOldFormula.getPointerTargetSet();
+
+    EdgeFormulaTemplate template = templates.get(pEdge);
+    if (template != null) {
+      @Nullable Map<String, Integer> shifts = template.getShiftsFor(ssa, pts);
+      if (shifts != null) {
+        instantiatedTemplates++;
+        return template.instantiate(pOldFormula, shifts);
+      }
+    }
+
+    encodedEdges++;
+    template = createTemplate(ssa, pts, pEdge);
+    if (converter.isEdgeEncodingShiftable(pEdge) && template.isReusable()) {
+      templates.put(pEdge, template);
+    } else {
+      templates.remove(pEdge);
+    }
+    return template.instantiate(pOldFormula, ImmutableMap.of());
+  }
+
+  private EdgeFormulaTemplate createTemplate(SSAMap pSsa, PointerTargetSet pPts, CFAEdge pEdge)
+      throws UnrecognizedCodeException, UnrecognizedCFAEdgeException, InterruptedException {
+    PathFormula context = new PathFormula(bfmgr.makeTrue(), pSsa, pPts, 0);
+    PathFormula result = converter.makeAnd(context, pEdge, ErrorConditions.dummyInstance(bfmgr));
+    if (result == context) {
+      // edge does not change anything
+      return new EdgeFormulaTemplate(
+          pSsa, pPts, null, pSsa, pPts, ImmutableSet.of(), ImmutableSet.of(), true);
+    }
+
+    SSAMap newSsa = result.getSsa();
+    boolean reusable = true;
+    ImmutableSet.Builder<String> changedVariables = ImmutableSet.builder();
+    if (newSsa != pSsa) {
+      for (String variable : newSsa.allVariables()) {
+        if (!pSsa.containsVariable(variable)
+            || pSsa.getIndex(variable) != newSsa.getIndex(variable)) {
+          changedVariables.add(variable);
+        }
+      }
+      for (String variable : pSsa.allVariables()) {
+        if (!newSsa.containsVariable(variable)) {
+          // deleting variables is not supported by templates
+          reusable = false;
+        }
+      }
+    }
+    ImmutableSet<String> changed = changedVariables.build();
+
+    ImmutableSet.Builder<String> variables = ImmutableSet.<String>builder().addAll(changed);
+    for (String symbol : fmgr.extractFunctionNames(result.getFormula())) {
+      String variable = getIndexedVariable(symbol);
+      if (variable != null) {
+        variables.add(variable);
+      }
+    }
+
+    return new EdgeFormulaTemplate(
+        pSsa,
+        pPts,
+        result.getFormula(),
+        newSsa,
+        result.getPointerTargetSet(),
+        variables.build(),
+        changed,
+        reusable);
+  }
+
+  /**
+   * Returns the name of the variable whose SSA index is part of the given symbol name, i.e., the
+   * variable name of instantiated symbols and of nondet variables, or null for all other symbols.
+   */
+  private static @Nullable String getIndexedVariable(String pSymbol) {
+    Pair<String, OptionalInt> parsed = FormulaManagerView.parseName(pSymbol);
+    if (parsed.getSecond().isPresent()) {
+      return parsed.getFirst();
+    }
+    int separator = parsed.getFirst().lastIndexOf(NONDET_INDEX_SEPARATOR);
+    if (separator > 0 && isNumber(parsed.getFirst(), separator + 1, parsed.getFirst().length())) {
+      return parsed.getFirst().substring(0, separator);
+    }
+    return null;
+  }
+
+  /** Renames a symbol of a template according to the given index shifts. */
+  private static String shiftSymbol(String pSymbol, Map<String, Integer> pShifts) {
+    Pair<String, OptionalInt> parsed = FormulaManagerView.parseName(pSymbol);
+    String name = parsed.getFirst();
+    if (parsed.getSecond().isPresent()) {
+      Integer shift = pShifts.get(name);
+      if (shift == null) {
+        return pSymbol;
+      }
+      int index = parsed.getSecond().getAsInt();
+      // keep the separator of the original symbol
+      String prefix = pSymbol.substring(0, pSymbol.length() - Integer.toString(index).length());
+      return prefix + (index + shift);
+    }
+
+    int separator = name.lastIndexOf(NONDET_INDEX_SEPARATOR);
+    if (separator > 0 && isNumber(name, separator + 1, name.length())) {
+      Integer shift = pShifts.get(name.substring(0, separator));
+      if (shift == null) {
+        return pSymbol;
+      }
+      int index = Integer.parseInt(name.substring(separator + 1));
+      return pSymbol.substring(0, separator + 1)
+          + (index + shift)
+          + pSymbol.substring(name.length());
+    }
+    return pSymbol;
+  }
+
+  private static boolean isNumber(String pString, int pStart, int pEnd) {
+    if (pStart >= pEnd) {
+      return false;
+    }
+    for (int i = pStart; i < pEnd; i++) {
+      if (!Character.isDigit(pString.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  void clear() {
+    templates.clear();
+  }
+
+  void printStatistics(PrintStream out) {
+    int total = instantiatedTemplates + encodedEdges;
+    out.println(
+        "Number of reused edge formulas:        "
+            + instantiatedTemplates
+            + " ("
+            + toPercent(instantiatedTemplates, total)
+            + ")");
+    out.println("Number of cached edge templates:       " + templates.size());
+  }
+
+  private final class EdgeFormulaTemplate {
+
+    private final SSAMap ssa;
+    private final PointerTargetSet pts;
+    private final @Nullable BooleanFormula edgeFormula;
+    private final SSAMap newSsa;
+    private final PointerTargetSet newPts;
+
+    /** All variables whose SSA index occurs in the edge formula or is changed by the edge. */
+    private final ImmutableSet<String> variables;
+
+    /** Variables whose SSA index is changed by the edge. */
+    private final ImmutableSet<String> changedVariables;
+
+    private final boolean reusable;
+
+    private EdgeFormulaTemplate(
+        SSAMap pSsa,
+        PointerTargetSet pPts,
+        @Nullable BooleanFormula pEdgeFormula,
+        SSAMap pNewSsa,
+        PointerTargetSet pNewPts,
+        ImmutableSet<String> pVariables,
+        ImmutableSet<String> pChangedVariables,
+        boolean pReusable) {
+      ssa = pSsa;
+      pts = pPts;
+      edgeFormula = pEdgeFormula;
+      newSsa = pNewSsa;
+      newPts = pNewPts;
+      variables = pVariables;
+      changedVariables = pChangedVariables;
+      reusable = pReusable && pSsa.hasDefaultIndexScheme();
+    }
+
+    private boolean isReusable() {
+      return reusable;
+    }
+
+    /**
+     * Returns the index shift for each variable of the template that is necessary to instantiate
+     * it for the given context, or null if the template is not applicable for this context.
+     */
+    private @Nullable Map<String, Integer> getShiftsFor(SSAMap pSsa, PointerTargetSet pPts) {
+      if (pPts != pts && !pPts.equals(pts)) {
+        return null;
+      }
+      if (pSsa == ssa) {
+        return ImmutableMap.of();
+      }
+      if (!pSsa.hasDefaultIndexScheme()) {
+        return null;
+      }
+      Map<String, Integer> shifts = new HashMap<>();
+      for (String variable : variables) {
+        boolean present = ssa.containsVariable(variable);
+        if (present != pSsa.containsVariable(variable)
+            || !Objects.equals(ssa.getType(variable), pSsa.getType(variable))) {
+          return null;
+        }
+        if (present) {
+          int shift = pSsa.getIndex(variable) - ssa.getIndex(variable);
+          if (shift != 0) {
+            shifts.put(variable, shift);
+          }
+        }
+      }
+      return shifts;
+    }
+
+    private PathFormula instantiate(PathFormula pOldFormula, Map<String, Integer> pShifts) {
+      if (edgeFormula == null) {
+        return pOldFormula;
+      }
+
+      BooleanFormula formula = edgeFormula;
+      SSAMap resultSsa = newSsa;
+      if (pOldFormula.getSsa() != ssa) {
+        if (!pShifts.isEmpty()) {
+          formula =
+              fmgr.renameFreeVariablesAndUFs(edgeFormula, symbol -> shiftSymbol(symbol, pShifts));
+        }
+        SSAMapBuilder builder = pOldFormula.getSsa().builder();
+        for (String variable : changedVariables) {
+          builder.setIndex(
+              variable,
+              newSsa.getType(variable),
+              newSsa.getIndex(variable) + pShifts.getOrDefault(variable, 0));
+        }
+        resultSsa = builder.build();
+      }
+
+      return new PathFormula(
+          bfmgr.and(pOldFormula.getFormula(), formula),
+          resultSsa,
+          newPts,
+          pOldFormula.getLength() + 1);
+    }
+  }
+}
@@ -46,6 +46,11 @@ public final class FreshValueProvider implements Serializable {
     return value + DEFAULT_INCREMENT;
   }
 
+  /** Returns whether this provider always returns the given value plus the default increment. */
+  boolean isEmpty() {
+    return vars.isEmpty();
+  }
+
   /**
    * Get a new provider, that is based on the current one and the given one.
    *
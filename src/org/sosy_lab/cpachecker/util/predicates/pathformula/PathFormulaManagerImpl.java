@@ -121,6 +121,15 @@ public class PathFormulaManagerImpl implements PathFormulaManager {
   )
   private boolean useNondetFlags = false;
 
+  @Option(
+      secure = true,
+      description =
+          "Encode each CFA edge only once and reuse its formula for other SSA contexts "
+              + "by shifting the SSA indices (only without handling of pointer aliasing).")
+  private boolean useEdgeFormulaTemplates = false;
+
+  private final @Nullable EdgeFormulaTemplateCache edgeFormulaTemplates;
+
   public PathFormulaManagerImpl(FormulaManagerView pFmgr,
       Configuration config, LogManager pLogger, ShutdownNotifier pShutdownNotifier,
       CFA pCfa, AnalysisDirection pDirection)
@@ -211,22 +220,25 @@ public class PathFormulaManagerImpl implements PathFormulaManager {
     }
 
     NONDET_FORMULA_TYPE = converter.getFormulaTypeFromCType(NONDET_TYPE);
+
+    if (useEdgeFormulaTemplates) {
+      edgeFormulaTemplates = new EdgeFormulaTemplateCache(converter, fmgr);
+    } else {
+      edgeFormulaTemplates = null;
+    }
   }
 
   @Override
   public Pair<PathFormula, ErrorConditions> makeAndWithErrorConditions(PathFormula pOldFormula,
                              final CFAEdge pEdge) throws CPATransferException, InterruptedException {
     ErrorConditions errorConditions = new ErrorConditions(bfmgr);
-    PathFormula pf = makeAnd(pOldFormula, pEdge, errorConditions);
+    PathFormula pf = converter.makeAnd(pOldFormula, pEdge, errorConditions);
+    pf = addNondetFlagsAndSimplify(pf);
 
     return Pair.of(pf, errorConditions);
   }
 
-  private PathFormula makeAnd(
-      PathFormula pOldFormula, final CFAEdge pEdge, ErrorConditions errorConditions)
-      throws UnrecognizedCodeException, UnrecognizedCFAEdgeException, InterruptedException {
-    PathFormula pf = converter.makeAnd(pOldFormula, pEdge, errorConditions);
-
+  private PathFormula addNondetFlagsAndSimplify(PathFormula pf) throws InterruptedException {
     if (useNondetFlags) {
       SSAMapBuilder ssa = pf.getSsa().builder();
 
@@ -276,8 +288,13 @@ public class PathFormulaManagerImpl implements PathFormulaManager {
   @Override
   public PathFormula makeAnd(PathFormula pOldFormula, CFAEdge pEdge)
       throws CPATransferException, InterruptedException {
-    ErrorConditions errorConditions = ErrorConditions.dummyInstance(bfmgr);
-    return makeAnd(pOldFormula, pEdge, errorConditions);
+    PathFormula pf;
+    if (edgeFormulaTemplates != null) {
+      pf = edgeFormulaTemplates.makeAnd(pOldFormula, pEdge);
+    } else {
+      pf = converter.makeAnd(pOldFormula, pEdge, ErrorConditions.dummyInstance(bfmgr));
+    }
+    return addNondetFlagsAndSimplify(pf);
   }
 
   @Override
@@ -535,6 +552,9 @@ public class PathFormulaManagerImpl implements PathFormulaManager {
 
   @Override
   public void clearCaches() {
+    if (edgeFormulaTemplates != null) {
+      edgeFormulaTemplates.clear();
+    }
   }
 
   @Override
@@ -580,6 +600,9 @@ public class PathFormulaManagerImpl implements PathFormulaManager {
 
   @Override
   public void printStatistics(PrintStream out) {
+    if (edgeFormulaTemplates != null) {
+      edgeFormulaTemplates.printStatistics(out);
+    }
     converter.printStatistics(out);
   }
 
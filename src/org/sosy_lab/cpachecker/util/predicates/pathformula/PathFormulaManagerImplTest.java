@@ -82,6 +82,8 @@ public class PathFormulaManagerImplTest extends SolverViewBasedTest0 {
 
   private PathFormulaManager pfmgrFwd;
   private PathFormulaManager pfmgrBwd;
+  private PathFormulaManager pfmgrWithoutAliasing;
+  private PathFormulaManager pfmgrWithTemplates;
 
   private CDeclarationEdge x_decl;
 
@@ -114,6 +116,37 @@ public class PathFormulaManagerImplTest extends SolverViewBasedTest0 {
             MachineModel.LINUX32,
             Optional.empty(),
             AnalysisDirection.BACKWARD);
+
+    Configuration configWithoutAliasing =
+        Configuration.builder()
+            .copyFrom(config)
+            .setOption("cpa.predicate.handlePointerAliasing", "false")
+            .build();
+    Configuration configWithTemplates =
+        Configuration.builder()
+            .copyFrom(configWithoutAliasing)
+            .setOption("cpa.predicate.useEdgeFormulaTemplates", "true")
+            .build();
+
+    pfmgrWithoutAliasing =
+        new PathFormulaManagerImpl(
+            mgrv,
+            configWithoutAliasing,
+            logger,
+            ShutdownNotifier.createDummy(),
+            MachineModel.LINUX32,
+            Optional.empty(),
+            AnalysisDirection.FORWARD);
+
+    pfmgrWithTemplates =
+        new PathFormulaManagerImpl(
+            mgrv,
+            configWithTemplates,
+            logger,
+            ShutdownNotifier.createDummy(),
+            MachineModel.LINUX32,
+            Optional.empty(),
+            AnalysisDirection.FORWARD);
   }
 
   private Triple<CFAEdge, CFAEdge, MutableCFA> createCFA() throws UnrecognizedCodeException {
@@ -307,6 +340,30 @@ public class PathFormulaManagerImplTest extends SolverViewBasedTest0 {
     assertThatFormula(pf.getFormula()).isEquivalentTo(expected);
   }
 
+  @Test
+  public void testEdgeFormulaTemplates() throws Exception {
+    Triple<CFAEdge, CFAEdge, MutableCFA> data = createCFA();
+    CFAEdge a_to_b = data.getFirst();
+    CFAEdge b_to_a = data.getSecond();
+
+    PathFormula expected =
+        makePathFormulaWithCustomIndex(pfmgrWithoutAliasing, "x", CNumericTypes.INT, 10);
+    PathFormula pf = makePathFormulaWithCustomIndex(pfmgrWithTemplates, "x", CNumericTypes.INT, 10);
+
+    // unroll the loop, such that the edge formulas are reused with shifted SSA indices
+    for (int i = 0; i < 3; i++) {
+      expected = pfmgrWithoutAliasing.makeAnd(expected, a_to_b);
+      expected = pfmgrWithoutAliasing.makeAnd(expected, b_to_a);
+      pf = pfmgrWithTemplates.makeAnd(pf, a_to_b);
+      pf = pfmgrWithTemplates.makeAnd(pf, b_to_a);
+    }
+
+    assertThat(pf.getSsa()).isEqualTo(expected.getSsa());
+    assertThat(pf.getSsa().getIndex("x")).isEqualTo(13);
+    assertThat(pf.getLength()).isEqualTo(expected.getLength());
+    assertThatFormula(pf.getFormula()).isEquivalentTo(expected.getFormula());
+  }
+
   private PathFormula makePathFormulaWithCustomIndex(
       PathFormulaManager pPfmgr, String pVar, CType pType, int pIndex) {
     SSAMap ssaMap = SSAMap.emptySSAMap().builder().setIndex(pVar, pType, pIndex).build();
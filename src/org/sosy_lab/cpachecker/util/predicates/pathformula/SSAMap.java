@@ -304,6 +304,14 @@ public final class SSAMap implements Serializable {
     return getIndex(variable, vars, defaultValue);
   }
 
+  /**
+   * Returns whether this map uses the default scheme for indices, i.e., missing variables have the
+   * default index and a fresh index is always the current index plus one.
+   */
+  boolean hasDefaultIndexScheme() {
+    return defaultValue == DEFAULT_DEFAULT_IDX && freshValueProvider.isEmpty();
+  }
+
   public boolean containsVariable(String variable) {
     return vars.containsKey(variable);
   }
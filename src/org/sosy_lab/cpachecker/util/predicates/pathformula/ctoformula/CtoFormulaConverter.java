@@ -953,6 +953,26 @@ public class CtoFormulaConverter {
     return false;
   }
 
+  /**
+   * Returns whether the formula for the given edge depends on the SSA context only through the
+   * indices of the variables that occur in the formula or are updated by the edge. In this case the
+   * formula can be reused for another SSA context by shifting the indices of these variables, and
+   * a nondet variable <code>name!i</code> is always created together with the SSA index i of name.
+   */
+  public boolean isEdgeEncodingShiftable(CFAEdge edge) {
+    if (edge instanceof CStatementEdge) {
+      CStatement statement = ((CStatementEdge) edge).getStatement();
+      if (statement instanceof CFunctionCall) {
+        CExpression functionName =
+            ((CFunctionCall) statement).getFunctionCallExpression().getFunctionNameExpression();
+        // the extern model loader depends on which variables are present in the SSAMap
+        return !(functionName instanceof CIdExpression
+            && options.isExternModelFunction(((CIdExpression) functionName).getName()));
+      }
+    }
+    return true;
+  }
+
   //  @Override
   public PathFormula makeAnd(PathFormula oldFormula, CFAEdge edge, ErrorConditions errorConditions)
       throws UnrecognizedCodeException, UnrecognizedCFAEdgeException, InterruptedException {
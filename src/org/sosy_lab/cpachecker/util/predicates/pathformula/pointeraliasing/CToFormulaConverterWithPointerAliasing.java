@@ -224,6 +224,16 @@ public class CToFormulaConverterWithPointerAliasing extends CtoFormulaConverter
     }
   }
 
+  /**
+   * The encoding with pointer aliasing depends on the pointer-target set and embeds SSA indices
+   * into auxiliary names (e.g., for counters of array initializations), so its edge formulas
+   * cannot be reused for other SSA contexts.
+   */
+  @Override
+  public boolean isEdgeEncodingShiftable(CFAEdge pEdge) {
+    return false;
+  }
+
   @Override
   public BooleanFormula makeSsaUpdateTerm(
       final String symbolName,
@@ -332,4 +332,14 @@ public class NamedRegionManager implements RegionManager {
   public Region replace(Region pRegion, List<Region> pOldPredicates, List<Region> pNewPredicates) {
     return delegate.replace(pRegion, pOldPredicates, pNewPredicates);
   }
+
+  @Override
+  public boolean isThreadSafe() {
+    return delegate.isThreadSafe();
+  }
+
+  @Override
+  public void close() {
+    delegate.close();
+  }
 }
\ No newline at end of file
@@ -104,4 +104,19 @@ public interface RegionManager extends RegionCreator {
    * @throws IllegalArgumentException if the lists do not have the same length
    */
   Region replace(Region region, List<Region> oldPredicates, List<Region> newPredicates);
+
+  /**
+   * Returns whether all operations of this RegionManager may be called concurrently from several
+   * threads without external synchronization. If this is the case, wrapping it in a {@link
+   * SynchronizedRegionManager} is unnecessary and only serializes the accesses.
+   */
+  default boolean isThreadSafe() {
+    return false;
+  }
+
+  /**
+   * Releases the resources of the underlying BDD package, e.g., its worker threads. This is called
+   * once by the owner of the RegionManager when the analysis is finished.
+   */
+  default void close() {}
 }
@@ -163,4 +163,16 @@ public class SynchronizedRegionManager implements RegionManager {
       return delegate.replace(pRegion, pOldPredicates, pNewPredicates);
     }
   }
+
+  @Override
+  public boolean isThreadSafe() {
+    return true;
+  }
+
+  @Override
+  public void close() {
+    synchronized (delegate) {
+      delegate.close();
+    }
+  }
 }
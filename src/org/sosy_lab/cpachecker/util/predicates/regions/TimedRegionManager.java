@@ -219,4 +219,9 @@ public class TimedRegionManager implements RegionManager {
       timer.stop();
     }
   }
+
+  @Override
+  public void close() {
+    delegate.close();
+  }
 }
@@ -12,16 +12,26 @@ import static com.google.common.base.Preconditions.checkState;
 import static org.sosy_lab.common.collect.Collections3.transformedImmutableListCopy;
 import static org.sosy_lab.cpachecker.util.AbstractStates.extractLocation;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
@@ -43,9 +53,23 @@ import org.sosy_lab.cpachecker.util.Pair;
  * PrefixProvider that extracts all infeasible prefixes for a path, starting with an initial empty
  * or given state.
  * Uses a {@link StrongestPostOperator} for interpreting the semantics of operations.
+ *
+ * <p>The infeasible prefixes are found in a single forward pass over the path, but the interpolant
+ * sequences of the prefixes are independent of each other and can optionally be computed in
+ * parallel. The prefixes are always returned in the order of their occurrence in the path.
  */
+@Options(prefix = "cpa.value.refinement")
 public class GenericPrefixProvider<S extends ForgetfulState<?>> implements PrefixProvider {
 
+  @Option(
+      secure = true,
+      description =
+          "number of threads for computing the use-def based interpolant sequences of the"
+              + " infeasible prefixes of an error path, a value of 1 disables the parallel"
+              + " computation")
+  @IntegerOption(min = 1)
+  private int prefixInterpolationThreads = 1;
+
   private final LogManager logger;
   private final StrongestPostOperator<S> strongestPost;
   private final VariableTrackingPrecision precision;
@@ -68,6 +92,7 @@ public class GenericPrefixProvider<S extends ForgetfulState<?>> implements Prefi
       final Class<? extends ConfigurableProgramAnalysis> pCpaToRefine,
       final ShutdownNotifier pShutdownNotifier)
       throws InvalidConfigurationException {
+    config.inject(this, GenericPrefixProvider.class);
     logger = pLogger;
     cfa    = pCfa;
 
@@ -105,7 +130,7 @@ public class GenericPrefixProvider<S extends ForgetfulState<?>> implements Prefi
       final S pInitial
   ) throws CPAException, InterruptedException {
 
-    List<InfeasiblePrefix> prefixes = new ArrayList<>();
+    List<ARGPath> infeasiblePrefixes = new ArrayList<>();
     Deque<S> callstack = new ArrayDeque<>();
 
     try {
@@ -148,7 +173,7 @@ public class GenericPrefixProvider<S extends ForgetfulState<?>> implements Prefi
           ARGPath infeasiblePrefix = feasiblePrefixBuilder.build(iterator.getNextAbstractState());
 
           // add infeasible prefix
-          prefixes.add(buildInfeasiblePrefix(infeasiblePrefix));
+          infeasiblePrefixes.add(infeasiblePrefix);
 
           feasiblePrefixBuilder.removeLast();
 
@@ -179,11 +204,53 @@ public class GenericPrefixProvider<S extends ForgetfulState<?>> implements Prefi
                 next, extractLocation(iterator.getNextAbstractState()), path, precision);
         iterator.advance();
       }
-
-      return prefixes;
     } catch (CPATransferException e) {
       throw new CPAException("Computation of infeasible prefixes failed: " + e.getMessage(), e);
     }
+
+    return buildInfeasiblePrefixes(infeasiblePrefixes);
+  }
+
+  /**
+   * This method computes the interpolant sequences for the given infeasible prefixes, in parallel
+   * if configured, and returns the resulting {@link InfeasiblePrefix}es in the given order.
+   */
+  private List<InfeasiblePrefix> buildInfeasiblePrefixes(final List<ARGPath> pInfeasiblePrefixes)
+      throws InterruptedException {
+
+    List<InfeasiblePrefix> prefixes = new ArrayList<>(pInfeasiblePrefixes.size());
+
+    if (prefixInterpolationThreads < 2 || pInfeasiblePrefixes.size() < 2) {
+      for (ARGPath infeasiblePrefix : pInfeasiblePrefixes) {
+        prefixes.add(buildInfeasiblePrefix(infeasiblePrefix));
+      }
+      return prefixes;
+    }
+
+    // the executor only lives as long as this computation, such that no threads are left over
+    // after the refinement
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            Math.min(prefixInterpolationThreads, pInfeasiblePrefixes.size()),
+            new ThreadFactoryBuilder().setNameFormat("prefix-interpolation-%d").build());
+    try {
+      List<Future<InfeasiblePrefix>> futures = new ArrayList<>(pInfeasiblePrefixes.size());
+      for (ARGPath infeasiblePrefix : pInfeasiblePrefixes) {
+        futures.add(executor.submit(() -> buildInfeasiblePrefix(infeasiblePrefix)));
+      }
+      for (Future<InfeasiblePrefix> future : futures) {
+        prefixes.add(future.get());
+      }
+      return prefixes;
+
+    } catch (ExecutionException e) {
+      Throwable t = e.getCause();
+      Throwables.throwIfUnchecked(t);
+      throw new UnexpectedCheckedException("interpolation of infeasible prefixes", t);
+
+    } finally {
+      executor.shutdownNow();
+    }
   }
 
   private Optional<S> getSuccessor(final S pNext,
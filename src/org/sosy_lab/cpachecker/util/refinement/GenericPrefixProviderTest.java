@@ -0,0 +1,211 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.refinement;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.TreeMultimap;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.Language;
+import org.sosy_lab.cpachecker.cfa.MutableCFA;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CFunctionType;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.core.AnalysisDirection;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.arg.path.ARGPath;
+import org.sosy_lab.cpachecker.cpa.arg.path.ARGPathBuilder;
+import org.sosy_lab.cpachecker.cpa.location.LocationStateFactory;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisCPA;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState;
+
+public class GenericPrefixProviderTest {
+
+  private static final int PATH_LENGTH = 12;
+
+  /** A strongest-post operator for which exactly the given edges are infeasible. */
+  private static final class InfeasibleEdgesOperator
+      implements StrongestPostOperator<ValueAnalysisState> {
+
+    private final Set<CFAEdge> infeasibleEdges;
+
+    private InfeasibleEdgesOperator(Set<CFAEdge> pInfeasibleEdges) {
+      infeasibleEdges = pInfeasibleEdges;
+    }
+
+    @Override
+    public Optional<ValueAnalysisState> getStrongestPost(
+        ValueAnalysisState pOrigin, Precision pPrecision, CFAEdge pOperation) {
+      return infeasibleEdges.contains(pOperation) ? Optional.empty() : Optional.of(pOrigin);
+    }
+
+    @Override
+    public ValueAnalysisState handleFunctionCall(
+        ValueAnalysisState pState, CFAEdge pEdge, Deque<ValueAnalysisState> pCallstack) {
+      return pState;
+    }
+
+    @Override
+    public ValueAnalysisState handleFunctionReturn(
+        ValueAnalysisState pNext, CFAEdge pEdge, Deque<ValueAnalysisState> pCallstack) {
+      return pNext;
+    }
+
+    @Override
+    public ValueAnalysisState performAbstraction(
+        ValueAnalysisState pNext, CFANode pCurrNode, ARGPath pErrorPath, Precision pPrecision) {
+      return pNext;
+    }
+  }
+
+  private List<CFAEdge> edges;
+  private List<ARGState> states;
+  private ARGPath path;
+  private CFA cfa;
+
+  @Before
+  public void setUp() throws Exception {
+    // a chain of blank edges in the main function
+    CFunctionDeclaration mainDeclaration =
+        new CFunctionDeclaration(
+            FileLocation.DUMMY,
+            CFunctionType.functionTypeWithReturnType(CNumericTypes.INT),
+            "main",
+            ImmutableList.of());
+    FunctionEntryNode entryNode =
+        new CFunctionEntryNode(
+            FileLocation.DUMMY,
+            mainDeclaration,
+            new FunctionExitNode(mainDeclaration),
+            Optional.empty());
+    TreeMultimap<String, CFANode> nodes = TreeMultimap.create();
+    nodes.put("main", entryNode);
+
+    edges = new ArrayList<>();
+    CFANode node = entryNode;
+    for (int i = 0; i < PATH_LENGTH; i++) {
+      CFANode successor = new CFANode(mainDeclaration);
+      CFAEdge edge = new BlankEdge("", FileLocation.DUMMY, node, successor, "edge" + i);
+      node.addLeavingEdge(edge);
+      successor.addEnteringEdge(edge);
+      nodes.put("main", successor);
+      edges.add(edge);
+      node = successor;
+    }
+
+    NavigableMap<String, FunctionEntryNode> functions = new TreeMap<>();
+    functions.put("main", entryNode);
+    cfa =
+        new MutableCFA(
+            MachineModel.LINUX32, functions, nodes, entryNode, ImmutableList.of(), Language.C);
+
+    // an ARG state at each node
+    LocationStateFactory locationStates =
+        new LocationStateFactory(
+            cfa, AnalysisDirection.FORWARD, Configuration.defaultConfiguration());
+    states = new ArrayList<>();
+    ARGPathBuilder builder = ARGPath.builder();
+    for (CFAEdge edge : edges) {
+      ARGState state = new ARGState(locationStates.getState(edge.getPredecessor()), null);
+      states.add(state);
+      builder.add(state, edge);
+    }
+    ARGState lastState = new ARGState(locationStates.getState(node), null);
+    states.add(lastState);
+    path = builder.build(lastState);
+  }
+
+  private List<InfeasiblePrefix> extractInfeasiblePrefixes(
+      Set<CFAEdge> pInfeasibleEdges, int pThreads) throws Exception {
+    Configuration config =
+        Configuration.builder()
+            .setOption(
+                "cpa.value.refinement.prefixInterpolationThreads", Integer.toString(pThreads))
+            .build();
+    GenericPrefixProvider<ValueAnalysisState> prefixProvider =
+        new GenericPrefixProvider<>(
+            new InfeasibleEdgesOperator(pInfeasibleEdges),
+            new ValueAnalysisState(MachineModel.LINUX32),
+            LogManager.createTestLogManager(),
+            cfa,
+            config,
+            ValueAnalysisCPA.class,
+            ShutdownNotifier.createDummy());
+    return prefixProvider.extractInfeasiblePrefixes(path);
+  }
+
+  private static List<ARGState> getLastStates(List<InfeasiblePrefix> pPrefixes) {
+    List<ARGState> lastStates = new ArrayList<>();
+    for (InfeasiblePrefix prefix : pPrefixes) {
+      lastStates.add(prefix.getPath().getLastState());
+    }
+    return lastStates;
+  }
+
+  @Test
+  public void testPrefixesInPathOrder() throws Exception {
+    List<Integer> infeasiblePositions = ImmutableList.of(1, 3, 4, 7, 8, 10, 11);
+    Set<CFAEdge> infeasibleEdges = new HashSet<>();
+    List<ARGState> expectedLastStates = new ArrayList<>();
+    for (int position : infeasiblePositions) {
+      infeasibleEdges.add(edges.get(position));
+      // each prefix ends with the state after the infeasible edge
+      expectedLastStates.add(states.get(position + 1));
+    }
+
+    List<InfeasiblePrefix> sequential = extractInfeasiblePrefixes(infeasibleEdges, 1);
+    assertThat(getLastStates(sequential)).containsExactlyElementsIn(expectedLastStates).inOrder();
+
+    for (int threads : ImmutableList.of(2, 4, 16)) {
+      List<InfeasiblePrefix> parallel = extractInfeasiblePrefixes(infeasibleEdges, threads);
+      assertThat(getLastStates(parallel)).containsExactlyElementsIn(expectedLastStates).inOrder();
+      for (int i = 0; i < parallel.size(); i++) {
+        assertThat(parallel.get(i).getPath().size()).isEqualTo(sequential.get(i).getPath().size());
+      }
+    }
+  }
+
+  @Test
+  public void testNoThreadsLeftOver() throws Exception {
+    Set<CFAEdge> infeasibleEdges = ImmutableSet.of(edges.get(2), edges.get(5), edges.get(9));
+    assertThat(extractInfeasiblePrefixes(infeasibleEdges, 4)).hasSize(3);
+
+    for (Thread thread : Thread.getAllStackTraces().keySet()) {
+      if (thread.getName().startsWith("prefix-interpolation-")) {
+        // the executor is shut down when the prefixes are returned
+        thread.join(5_000);
+        assertThat(thread.isAlive()).isFalse();
+      }
+    }
+  }
+}
@@ -12,6 +12,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -72,6 +73,16 @@ public class SlicerFactory implements StatisticsProvider {
                 + " to true can decrease the size of the resulting slice.")
     private boolean partiallyRelevantEdges = true;
 
+    @Option(
+        secure = true,
+        name = "cacheSize",
+        description =
+            "Maximum number of slices and of per-node dependences that are memoized by the static"
+                + " slicer. Successive slicing queries reuse memoized dependences, so slices for"
+                + " overlapping sets of slicing criteria are computed incrementally.")
+    @IntegerOption(min = 0)
+    private int cacheSize = 1000;
+
     public SlicerOptions(Configuration pConfig) throws InvalidConfigurationException {
       pConfig.inject(this);
     }
@@ -141,7 +152,8 @@ public class SlicerFactory implements StatisticsProvider {
             pShutdownNotifier,
             pConfig,
             dependenceGraph,
-            options.partiallyRelevantEdges);
+            options.partiallyRelevantEdges,
+            options.cacheSize);
       case IDENTITY:
         return new IdentitySlicer(extractor, pLogger, pShutdownNotifier, pConfig);
       default:
@@ -8,16 +8,26 @@
 
 package org.sosy_lab.cpachecker.util.slicing;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableCollection;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.IntFunction;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -53,14 +63,35 @@ import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
  * <p>Implementation detail: this slicing method is based on "Interprocedural Slicing Using
  * Dependence Graphs" (Horwitz et al.).
  *
+ * <p>Slices are computed on demand per SDG node of the slicing criteria and only the part of the
+ * SDG that is backwards reachable from these nodes is traversed. The dependences of every such
+ * node are memoized, so successive slicing queries (e.g., one per target path during refinement)
+ * only traverse the parts of the SDG that haven't been traversed for previous criteria.
+ *
  * @see SlicerFactory
  */
 public class StaticSlicer extends AbstractSlicer implements StatisticsProvider {
 
   private CSystemDependenceGraph sdg;
+  // SDG nodes per CFA edge, created on demand and reused for all slices
+  private Multimap<CFAEdge, CSystemDependenceGraph.Node> nodesPerCfaEdge = null;
+  // abort call edges of the last sliced CFA, created on demand and reused for all slices
+  private CFA abortCallEdgesCfa = null;
+  private Set<CFAEdge> abortCallEdges = null;
+
+  // backward dependences of single SDG nodes (by id), reused by successive slicing queries
+  private final Cache<Integer, NodeDependences> nodeDependencesCache;
+  // complete slices per set of slicing criteria
+  private final Cache<ImmutableSet<CFAEdge>, Slice> sliceCache;
 
   private StatCounter sliceCount = new StatCounter("Number of slicing procedures");
   private StatTimer slicingTime = new StatTimer(StatKind.SUM, "Time needed for slicing");
+  private final StatCounter cachedSliceCount =
+      new StatCounter("Number of slices answered from cache");
+  private final StatCounter computedDependencesCount =
+      new StatCounter("Number of computed node dependences");
+  private final StatCounter reusedDependencesCount =
+      new StatCounter("Number of reused node dependences");
 
   private final StatInt sliceEdgesNumber =
       new StatInt(StatKind.MAX, "Number of relevant slice edges");
@@ -74,7 +105,8 @@ public class StaticSlicer extends AbstractSlicer implements StatisticsProvider {
       ShutdownNotifier pShutdownNotifier,
       Configuration pConfig,
       CSystemDependenceGraph pSdg,
-      boolean pPartiallyRelevantEdges)
+      boolean pPartiallyRelevantEdges,
+      int pCacheSize)
       throws InvalidConfigurationException {
     super(pExtractor, pLogger, pShutdownNotifier, pConfig);
 
@@ -84,11 +116,18 @@ public class StaticSlicer extends AbstractSlicer implements StatisticsProvider {
 
     sdg = pSdg;
     partiallyRelevantEdges = pPartiallyRelevantEdges;
+
+    nodeDependencesCache = CacheBuilder.newBuilder().maximumSize(pCacheSize).build();
+    sliceCache = CacheBuilder.newBuilder().maximumSize(pCacheSize).build();
   }
 
-  private static Set<CFAEdge> getAbortCallEdges(CFA pCfa) {
+  private Set<CFAEdge> getAbortCallEdges(CFA pCfa) {
+
+    if (abortCallEdges != null && abortCallEdgesCfa == pCfa) {
+      return abortCallEdges;
+    }
 
-    Set<CFAEdge> abortCallEdges = new HashSet<>();
+    Set<CFAEdge> abortCallEdgesOfCfa = new HashSet<>();
 
     for (CFANode node : pCfa.getAllNodes()) {
       for (CFAEdge edge : CFAUtils.allLeavingEdges(node)) {
@@ -98,18 +137,25 @@ public class StaticSlicer extends AbstractSlicer implements StatisticsProvider {
             CFunctionDeclaration declaration =
                 ((CFunctionCallStatement) statement).getFunctionCallExpression().getDeclaration();
             if (declaration != null && declaration.getQualifiedName().equals("abort")) {
-              abortCallEdges.add(edge);
+              abortCallEdgesOfCfa.add(edge);
             }
           }
         }
       }
     }
 
-    return abortCallEdges;
+    abortCallEdgesCfa = pCfa;
+    abortCallEdges = abortCallEdgesOfCfa;
+
+    return abortCallEdgesOfCfa;
   }
 
   private Multimap<CFAEdge, CSystemDependenceGraph.Node> getNodesPerCfaEdge() {
 
+    if (nodesPerCfaEdge != null) {
+      return nodesPerCfaEdge;
+    }
+
     Multimap<CFAEdge, CSystemDependenceGraph.Node> nodesPerCfaNode = ArrayListMultimap.create();
 
     for (CSystemDependenceGraph.Node node : sdg.getNodes()) {
@@ -119,6 +165,8 @@ public class StaticSlicer extends AbstractSlicer implements StatisticsProvider {
       }
     }
 
+    nodesPerCfaEdge = nodesPerCfaNode;
+
     return nodesPerCfaNode;
   }
 
@@ -127,52 +175,128 @@ public class StaticSlicer extends AbstractSlicer implements StatisticsProvider {
       throws InterruptedException {
 
     slicingTime.start();
+    try {
 
-    Set<CFAEdge> criteriaEdges = new HashSet<>(pSlicingCriteria);
+      Set<CFAEdge> criteriaEdges = new HashSet<>(pSlicingCriteria);
 
-    // TODO: make this configurable
-    if (!criteriaEdges.isEmpty()) {
-      criteriaEdges.addAll(getAbortCallEdges(pCfa));
-    }
+      // TODO: make this configurable
+      if (!criteriaEdges.isEmpty()) {
+        criteriaEdges.addAll(getAbortCallEdges(pCfa));
+      }
 
-    Set<CSystemDependenceGraph.Node> startNodes = new HashSet<>();
-    Multimap<CFAEdge, CSystemDependenceGraph.Node> nodesPerCfaEdge = getNodesPerCfaEdge();
+      ImmutableSet<CFAEdge> criteria = ImmutableSet.copyOf(criteriaEdges);
+      Slice cachedSlice = sliceCache.getIfPresent(criteria);
+      if (cachedSlice != null && cachedSlice.getOriginalCfa() == pCfa) {
+        cachedSliceCount.inc();
+        return cachedSlice;
+      }
+
+      // the slice for a set of criteria is the union of the slices for the single SDG nodes of
+      // the criteria, so the dependences of every node are computed (or reused) separately
+      Map<Integer, NodeDependences> queryDependences = new HashMap<>();
+      BitSet sliceSdgNodes = new BitSet(sdg.getNodeCount());
+      Multimap<CFAEdge, CSystemDependenceGraph.Node> nodesPerCfaEdge = getNodesPerCfaEdge();
+
+      for (CFAEdge criteriaEdge : criteria) {
+        for (CSystemDependenceGraph.Node node : nodesPerCfaEdge.get(criteriaEdge)) {
+          sliceSdgNodes.or(getNodeDependences(node, queryDependences).getSliceSdgNodes());
+        }
+      }
 
-    for (CFAEdge criteriaEdge : criteriaEdges) {
-      startNodes.addAll(nodesPerCfaEdge.get(criteriaEdge));
+      ImmutableSet.Builder<CFAEdge> relevantEdges = ImmutableSet.builder();
+      for (int nodeId = sliceSdgNodes.nextSetBit(0);
+          nodeId >= 0;
+          nodeId = sliceSdgNodes.nextSetBit(nodeId + 1)) {
+        sdg.getNodeById(nodeId).getStatement().ifPresent(relevantEdges::add);
+      }
+
+      final Slice slice = new StaticSlicerSlice(pCfa, criteria, relevantEdges.build());
+      sliceCache.put(criteria, slice);
+
+      sliceCount.inc();
+
+      sliceEdgesNumber.setNextValue(slice.getRelevantEdges().size());
+      if (programEdgesNumber.getValueCount() == 0) {
+        programEdgesNumber.setNextValue(countProgramEdges(pCfa));
+      }
+
+      return slice;
+
+    } finally {
+      slicingTime.stop();
     }
+  }
 
-    Phase1Visitor phase1Visitor = new Phase1Visitor();
-    sdg.traverse(startNodes, sdg.createVisitOnceVisitor(phase1Visitor));
-    Set<CFAEdge> relevantEdges = new HashSet<>(phase1Visitor.getRelevantEdges());
+  /**
+   * Returns the dependences of the specified SDG node. Dependences computed for other nodes during
+   * the current slicing query (contained in {@code pQueryDependences}) or during previous slicing
+   * queries (contained in the cache) are reused: the traversals stop at such nodes and the
+   * already known dependences are added instead.
+   */
+  private NodeDependences getNodeDependences(
+      CSystemDependenceGraph.Node pNode, Map<Integer, NodeDependences> pQueryDependences) {
+
+    NodeDependences dependences = getKnownNodeDependences(pNode.getId(), pQueryDependences);
+    if (dependences == null) {
+      dependences = computeNodeDependences(pNode, pQueryDependences);
+      computedDependencesCount.inc();
+      nodeDependencesCache.put(pNode.getId(), dependences);
+      pQueryDependences.put(pNode.getId(), dependences);
+    }
 
-    startNodes.clear();
-    // phase 2 start with the result from phase 1
-    if (partiallyRelevantEdges) {
-      startNodes.addAll(phase1Visitor.getVisitedSdgNodes());
-    } else {
-      for (CFAEdge criteriaEdge : relevantEdges) {
-        startNodes.addAll(nodesPerCfaEdge.get(criteriaEdge));
+    return dependences;
+  }
+
+  private @Nullable NodeDependences getKnownNodeDependences(
+      int pNodeId, Map<Integer, NodeDependences> pQueryDependences) {
+
+    NodeDependences dependences = pQueryDependences.get(pNodeId);
+    if (dependences == null) {
+      dependences = nodeDependencesCache.getIfPresent(pNodeId);
+      if (dependences != null) {
+        reusedDependencesCount.inc();
+        pQueryDependences.put(pNodeId, dependences);
       }
     }
 
-    Phase2Visitor phase2Visitor = new Phase2Visitor(relevantEdges);
-    sdg.traverse(startNodes, sdg.createVisitOnceVisitor(phase2Visitor));
-    relevantEdges.addAll(phase2Visitor.getRelevantEdges());
+    return dependences;
+  }
 
-    final Slice slice =
-        new StaticSlicerSlice(
-            pCfa, ImmutableSet.copyOf(criteriaEdges), ImmutableSet.copyOf(relevantEdges));
+  private NodeDependences computeNodeDependences(
+      CSystemDependenceGraph.Node pNode, Map<Integer, NodeDependences> pQueryDependences) {
 
-    slicingTime.stop();
-    sliceCount.inc();
+    Phase1Visitor phase1Visitor =
+        new Phase1Visitor(
+            sdg.getNodeCount(),
+            pNode.getId(),
+            nodeId -> getKnownNodeDependences(nodeId, pQueryDependences));
+    sdg.traverse(ImmutableList.of(pNode), phase1Visitor);
 
-    sliceEdgesNumber.setNextValue(relevantEdges.size());
-    if (programEdgesNumber.getValueCount() == 0) {
-      programEdgesNumber.setNextValue(countProgramEdges(pCfa));
+    // dependences of known nodes are closed under phase 2 traversals, so phase 2 doesn't have to
+    // visit them again
+    BitSet phase1SdgNodes = phase1Visitor.getVisitedSdgNodes();
+    BitSet knownSliceSdgNodes = phase1Visitor.getKnownSliceSdgNodes();
+    Phase2Visitor phase2Visitor = new Phase2Visitor(knownSliceSdgNodes);
+
+    // phase 2 start with the result from phase 1
+    List<CSystemDependenceGraph.Node> startNodes = new ArrayList<>();
+    Multimap<CFAEdge, CSystemDependenceGraph.Node> nodesPerCfaEdge = getNodesPerCfaEdge();
+    for (int nodeId = phase1SdgNodes.nextSetBit(0);
+        nodeId >= 0;
+        nodeId = phase1SdgNodes.nextSetBit(nodeId + 1)) {
+      if (!knownSliceSdgNodes.get(nodeId)) {
+        CSystemDependenceGraph.Node node = sdg.getNodeById(nodeId);
+        if (partiallyRelevantEdges) {
+          startNodes.add(node);
+        } else {
+          node.getStatement().ifPresent(edge -> startNodes.addAll(nodesPerCfaEdge.get(edge)));
+        }
+      }
     }
 
-      return slice;
+    sdg.traverse(startNodes, phase2Visitor);
+
+    return new NodeDependences(phase1SdgNodes, phase2Visitor.getVisitedSdgNodes());
   }
 
   private int countProgramEdges(CFA pCfa) {
@@ -204,6 +328,8 @@ public class StaticSlicer extends AbstractSlicer implements StatisticsProvider {
 
             StatisticsWriter writer = StatisticsWriter.writingStatisticsTo(pOut);
             writer.put(sliceCount).put(slicingTime);
+            writer.put(cachedSliceCount);
+            writer.put(computedDependencesCount).put(reusedDependencesCount);
 
             writer.put(sliceEdgesNumber).put(programEdgesNumber);
             writer.put(
@@ -268,27 +394,48 @@ public class StaticSlicer extends AbstractSlicer implements StatisticsProvider {
    */
   private static final class Phase1Visitor implements CSystemDependenceGraph.BackwardsVisitor {
 
-    private final Set<CFAEdge> relevantEdges;
-    private final Set<CSystemDependenceGraph.Node> visitedSdgNodes;
+    private final int startNodeId;
+    private final IntFunction<NodeDependences> knownDependences;
 
-    private Phase1Visitor() {
-      relevantEdges = new HashSet<>();
-      visitedSdgNodes = new HashSet<>();
-    }
+    // visited SDG nodes by id
+    private final BitSet visitedSdgNodes;
+    // slice SDG nodes of all visited nodes with known dependences
+    private final BitSet knownSliceSdgNodes;
 
-    private Set<CFAEdge> getRelevantEdges() {
-      return relevantEdges;
+    private Phase1Visitor(
+        int pNodeCount, int pStartNodeId, IntFunction<NodeDependences> pKnownDependences) {
+      startNodeId = pStartNodeId;
+      knownDependences = pKnownDependences;
+      visitedSdgNodes = new BitSet(pNodeCount);
+      knownSliceSdgNodes = new BitSet(pNodeCount);
     }
 
-    private Set<CSystemDependenceGraph.Node> getVisitedSdgNodes() {
+    private BitSet getVisitedSdgNodes() {
       return visitedSdgNodes;
     }
 
+    private BitSet getKnownSliceSdgNodes() {
+      return knownSliceSdgNodes;
+    }
+
     @Override
     public SystemDependenceGraph.VisitResult visitNode(CSystemDependenceGraph.Node pNode) {
 
-      visitedSdgNodes.add(pNode);
-      pNode.getStatement().ifPresent(relevantEdges::add);
+      int nodeId = pNode.getId();
+      if (visitedSdgNodes.get(nodeId)) {
+        return SystemDependenceGraph.VisitResult.SKIP;
+      }
+
+      visitedSdgNodes.set(nodeId);
+
+      if (nodeId != startNodeId) {
+        NodeDependences dependences = knownDependences.apply(nodeId);
+        if (dependences != null) {
+          visitedSdgNodes.or(dependences.getPhase1SdgNodes());
+          knownSliceSdgNodes.or(dependences.getSliceSdgNodes());
+          return SystemDependenceGraph.VisitResult.SKIP;
+        }
+      }
 
       return SystemDependenceGraph.VisitResult.CONTINUE;
     }
@@ -300,7 +447,8 @@ public class StaticSlicer extends AbstractSlicer implements StatisticsProvider {
         CSystemDependenceGraph.Node pSuccessor) {
 
       // don't "descend" into called procedures
-      if (pPredecessor.getType() == SystemDependenceGraph.NodeType.FORMAL_OUT) {
+      if (pPredecessor.getType() == SystemDependenceGraph.NodeType.FORMAL_OUT
+          || visitedSdgNodes.get(pPredecessor.getId())) {
         return SystemDependenceGraph.VisitResult.SKIP;
       }
 
@@ -323,20 +471,26 @@ public class StaticSlicer extends AbstractSlicer implements StatisticsProvider {
    */
   private static final class Phase2Visitor implements CSystemDependenceGraph.BackwardsVisitor {
 
-    private final Set<CFAEdge> relevantEdges;
+    // visited SDG nodes by id
+    private final BitSet visitedSdgNodes;
 
-    private Phase2Visitor(Set<CFAEdge> pRelevantEdges) {
-      relevantEdges = new HashSet<>(pRelevantEdges);
+    private Phase2Visitor(BitSet pVisitedSdgNodes) {
+      visitedSdgNodes = (BitSet) pVisitedSdgNodes.clone();
     }
 
-    private Set<CFAEdge> getRelevantEdges() {
-      return relevantEdges;
+    private BitSet getVisitedSdgNodes() {
+      return visitedSdgNodes;
     }
 
     @Override
     public SystemDependenceGraph.VisitResult visitNode(CSystemDependenceGraph.Node pNode) {
 
-      pNode.getStatement().ifPresent(relevantEdges::add);
+      int nodeId = pNode.getId();
+      if (visitedSdgNodes.get(nodeId)) {
+        return SystemDependenceGraph.VisitResult.SKIP;
+      }
+
+      visitedSdgNodes.set(nodeId);
 
       return SystemDependenceGraph.VisitResult.CONTINUE;
     }
@@ -349,11 +503,36 @@ public class StaticSlicer extends AbstractSlicer implements StatisticsProvider {
 
       // don't "ascend" into calling procedures
       if (pSuccessor.getType() == SystemDependenceGraph.NodeType.FORMAL_IN
-          || pType == EdgeType.CALL_EDGE) {
+          || pType == EdgeType.CALL_EDGE
+          || visitedSdgNodes.get(pPredecessor.getId())) {
         return SystemDependenceGraph.VisitResult.SKIP;
       }
 
       return SystemDependenceGraph.VisitResult.CONTINUE;
     }
   }
+
+  /**
+   * Backward dependences of a single SDG node, i.e., the SDG nodes visited during phase 1 and the
+   * SDG nodes of the resulting slice (by id). Both sets are closed under the traversals of their
+   * phase, so they can be reused by later traversals that visit the node.
+   */
+  private static final class NodeDependences {
+
+    private final BitSet phase1SdgNodes;
+    private final BitSet sliceSdgNodes;
+
+    private NodeDependences(BitSet pPhase1SdgNodes, BitSet pSliceSdgNodes) {
+      phase1SdgNodes = pPhase1SdgNodes;
+      sliceSdgNodes = pSliceSdgNodes;
+    }
+
+    private BitSet getPhase1SdgNodes() {
+      return phase1SdgNodes;
+    }
+
+    private BitSet getSliceSdgNodes() {
+      return sliceSdgNodes;
+    }
+  }
 }
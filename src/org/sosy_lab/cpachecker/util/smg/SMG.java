@@ -11,7 +11,9 @@ package org.sosy_lab.cpachecker.util.smg;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Sets;
 import java.math.BigInteger;
 import java.util.ArrayDeque;
 import java.util.Collection;
@@ -53,6 +55,13 @@ public class SMG {
   private final PersistentMap<SMGValue, SMGPointsToEdge> pointsToEdges;
   private final BigInteger sizeOfPointer;
 
+  // Reverse indices that are derived from the edges above and therefore ignored by equals() and
+  // hashCode(). They are persistent as well, such that successors share them with their parents.
+  // pointers: target object -> addresses pointing to it
+  private final PersistentMap<SMGObject, PersistentSet<SMGValue>> pointersToObject;
+  // value -> objects with at least one has-value edge to it
+  private final PersistentMap<SMGValue, PersistentSet<SMGObject>> objectsWithValue;
+
   /** Creates a new, empty SMG */
   public SMG(BigInteger pSizeOfPointer) {
     hasValueEdges = PathCopyingPersistentTreeMap.of();
@@ -64,6 +73,9 @@ public class SMG {
     PersistentMap<SMGValue, SMGPointsToEdge> pointsToEdgesTmpMap = PathCopyingPersistentTreeMap.of();
     pointsToEdges = pointsToEdgesTmpMap.putAndCopy(SMGValue.zeroValue(), nullPointer);
     sizeOfPointer = pSizeOfPointer;
+    pointersToObject =
+        addToIndex(PathCopyingPersistentTreeMap.of(), getNullObject(), SMGValue.zeroValue());
+    objectsWithValue = PathCopyingPersistentTreeMap.of();
   }
 
   private SMG(
@@ -71,12 +83,106 @@ public class SMG {
       PersistentSet<SMGValue> pSmgValues,
       PersistentMap<SMGObject, PersistentSet<SMGHasValueEdge>> pHasValueEdges,
       PersistentMap<SMGValue, SMGPointsToEdge> pPointsToEdges,
-      BigInteger pSizeOfPointer) {
+      BigInteger pSizeOfPointer,
+      PersistentMap<SMGObject, PersistentSet<SMGValue>> pPointersToObject,
+      PersistentMap<SMGValue, PersistentSet<SMGObject>> pObjectsWithValue) {
     smgObjects = pSmgObjects;
     smgValues = pSmgValues;
     hasValueEdges = pHasValueEdges;
     pointsToEdges = pPointsToEdges;
     sizeOfPointer = pSizeOfPointer;
+    pointersToObject = pPointersToObject;
+    objectsWithValue = pObjectsWithValue;
+  }
+
+  /** Copy with other objects or values, but with the same edges. */
+  private SMG copyWith(
+      PersistentMap<SMGObject, Boolean> pSmgObjects, PersistentSet<SMGValue> pSmgValues) {
+    return new SMG(
+        pSmgObjects,
+        pSmgValues,
+        hasValueEdges,
+        pointsToEdges,
+        sizeOfPointer,
+        pointersToObject,
+        objectsWithValue);
+  }
+
+  /** Copy with the has-value edges of the given object replaced by the given edges. */
+  private SMG copyWithHVEdges(SMGObject pObject, PersistentSet<SMGHasValueEdge> pNewEdges) {
+    return new SMG(
+        smgObjects,
+        smgValues,
+        hasValueEdges.putAndCopy(pObject, pNewEdges),
+        pointsToEdges,
+        sizeOfPointer,
+        pointersToObject,
+        updateValueIndex(objectsWithValue, pObject, getEdges(pObject), pNewEdges));
+  }
+
+  /** Copy with the points-to edge of the given address added or replaced. */
+  private SMG copyWithPTEdge(SMGValue pSource, SMGPointsToEdge pEdge) {
+    PersistentMap<SMGObject, PersistentSet<SMGValue>> newPointersToObject = pointersToObject;
+    SMGPointsToEdge oldEdge = pointsToEdges.get(pSource);
+    if (oldEdge != null) {
+      newPointersToObject = removeFromIndex(newPointersToObject, oldEdge.pointsTo(), pSource);
+    }
+    newPointersToObject = addToIndex(newPointersToObject, pEdge.pointsTo(), pSource);
+    return new SMG(
+        smgObjects,
+        smgValues,
+        hasValueEdges,
+        pointsToEdges.putAndCopy(pSource, pEdge),
+        sizeOfPointer,
+        newPointersToObject,
+        objectsWithValue);
+  }
+
+  private static <K, V extends Comparable<? super V>> PersistentMap<K, PersistentSet<V>> addToIndex(
+      PersistentMap<K, PersistentSet<V>> pIndex, K pKey, V pEntry) {
+    PersistentSet<V> entries = pIndex.getOrDefault(pKey, PersistentSet.of());
+    if (entries.contains(pEntry)) {
+      return pIndex;
+    }
+    return pIndex.putAndCopy(pKey, entries.addAndCopy(pEntry));
+  }
+
+  private static <K, V extends Comparable<? super V>>
+      PersistentMap<K, PersistentSet<V>> removeFromIndex(
+          PersistentMap<K, PersistentSet<V>> pIndex, K pKey, V pEntry) {
+    PersistentSet<V> entries = pIndex.get(pKey);
+    if (entries == null || !entries.contains(pEntry)) {
+      return pIndex;
+    }
+    entries = entries.removeAndCopy(pEntry);
+    return entries.isEmpty() ? pIndex.removeAndCopy(pKey) : pIndex.putAndCopy(pKey, entries);
+  }
+
+  /**
+   * Updates the index from values to the objects that have edges to them for a change of the
+   * has-value edges of one object. Only values that are in exactly one of the edge sets matter.
+   */
+  private static PersistentMap<SMGValue, PersistentSet<SMGObject>> updateValueIndex(
+      PersistentMap<SMGValue, PersistentSet<SMGObject>> pIndex,
+      SMGObject pObject,
+      Set<SMGHasValueEdge> pOldEdges,
+      Set<SMGHasValueEdge> pNewEdges) {
+    Set<SMGValue> oldValues = new HashSet<>();
+    for (SMGHasValueEdge edge : pOldEdges) {
+      oldValues.add(edge.hasValue());
+    }
+    Set<SMGValue> newValues = new HashSet<>();
+    for (SMGHasValueEdge edge : pNewEdges) {
+      newValues.add(edge.hasValue());
+    }
+    PersistentMap<SMGValue, PersistentSet<SMGObject>> newIndex = pIndex;
+    for (SMGValue value : Sets.difference(oldValues, newValues)) {
+      newIndex = removeFromIndex(newIndex, value, pObject);
+    }
+    for (SMGValue value : Sets.difference(newValues, oldValues)) {
+      newIndex = addToIndex(newIndex, value, pObject);
+    }
+    return newIndex;
   }
 
   /**
@@ -86,12 +192,7 @@ public class SMG {
    * @return A modified copy of the SMG.
    */
   public SMG copyAndAddObject(SMGObject pObject) {
-    return new SMG(
-        smgObjects.putAndCopy(pObject, true),
-        smgValues,
-        hasValueEdges,
-        pointsToEdges,
-        sizeOfPointer);
+    return copyWith(smgObjects.putAndCopy(pObject, true), smgValues);
   }
 
   /**
@@ -101,12 +202,7 @@ public class SMG {
    * @return A modified copy of the SMG.
    */
   public SMG copyAndAddValue(SMGValue pValue) {
-    return new SMG(
-        smgObjects,
-        smgValues.addAndCopy(pValue),
-        hasValueEdges,
-        pointsToEdges,
-        sizeOfPointer);
+    return copyWith(smgObjects, smgValues.addAndCopy(pValue));
   }
 
   /**
@@ -116,12 +212,7 @@ public class SMG {
    * @return A modified copy of the SMG.
    */
   public SMG copyAndRemoveValue(SMGValue pValue) {
-    return new SMG(
-        smgObjects,
-        smgValues.removeAndCopy(pValue),
-        hasValueEdges,
-        pointsToEdges,
-        sizeOfPointer);
+    return copyWith(smgObjects, smgValues.removeAndCopy(pValue));
   }
 
   public SMG copyAndRemoveValues(Collection<SMGValue> pUnreachableValues) {
@@ -152,7 +243,9 @@ public class SMG {
         smgValues,
         hasValueEdges.putAndCopy(source, edges),
         pointsToEdges,
-        sizeOfPointer);
+        sizeOfPointer,
+        pointersToObject,
+        addToIndex(objectsWithValue, edge.hasValue(), source));
   }
 
   /**
@@ -168,12 +261,7 @@ public class SMG {
       return this;
     }
 
-    return new SMG(
-        smgObjects,
-        smgValues,
-        hasValueEdges,
-        pointsToEdges.putAndCopy(source, edge),
-        sizeOfPointer);
+    return copyWithPTEdge(source, edge);
   }
 
   /**
@@ -184,13 +272,7 @@ public class SMG {
    * @return a modified copy of the SMG.
    */
   public SMG copyAndSetHVEdges(PersistentSet<SMGHasValueEdge> edges, SMGObject source) {
-
-    return new SMG(
-        smgObjects,
-        smgValues,
-        hasValueEdges.putAndCopy(source, edges),
-        pointsToEdges,
-        sizeOfPointer);
+    return copyWithHVEdges(source, edges);
   }
 
   public SMG copyAndAddHVEdges(Iterable<SMGHasValueEdge> edges, SMGObject source) {
@@ -199,12 +281,7 @@ public class SMG {
       smgEdges = smgEdges.addAndCopy(edgeToAdd);
     }
 
-    return new SMG(
-        smgObjects,
-        smgValues,
-        hasValueEdges.putAndCopy(source, smgEdges),
-        pointsToEdges,
-        sizeOfPointer);
+    return copyWithHVEdges(source, smgEdges);
   }
 
   /**
@@ -221,12 +298,7 @@ public class SMG {
       smgEdges = smgEdges.removeAndCopy(edgeToRemove);
     }
 
-    return new SMG(
-        smgObjects,
-        smgValues,
-        hasValueEdges.putAndCopy(source, smgEdges),
-        pointsToEdges,
-        sizeOfPointer);
+    return copyWithHVEdges(source, smgEdges);
   }
 
   /**
@@ -237,12 +309,7 @@ public class SMG {
    * @return A modified copy of the SMG.
    */
   public SMG copyAndSetPTEdges(SMGPointsToEdge edge, SMGValue source) {
-    return new SMG(
-        smgObjects,
-        smgValues,
-        hasValueEdges,
-        pointsToEdges.putAndCopy(source, edge),
-        sizeOfPointer);
+    return copyWithPTEdge(source, edge);
   }
 
   /**
@@ -268,26 +335,47 @@ public class SMG {
    * @return A modified copy.
    */
   public SMG copyAndReplaceObject(SMGObject pOldObject, SMGObject pNewObject) {
-    PersistentSet<SMGHasValueEdge> edges = hasValueEdges.get(pOldObject);
+    PersistentSet<SMGHasValueEdge> edges =
+        hasValueEdges.getOrDefault(pOldObject, PersistentSet.of());
     // replace has value edges
     PersistentMap<SMGObject, PersistentSet<SMGHasValueEdge>> newHVEdges =
-        hasValueEdges.removeAndCopy(pOldObject).putAndCopy(pNewObject, edges);
-    // replace points to edges
-    PersistentMap<SMGValue, SMGPointsToEdge> newPointsToEdges = pointsToEdges;
+        hasValueEdges.removeAndCopy(pOldObject);
+    PersistentMap<SMGValue, PersistentSet<SMGObject>> newObjectsWithValue =
+        updateValueIndex(objectsWithValue, pOldObject, edges, ImmutableSet.of());
+    if (!edges.isEmpty()) {
+      newHVEdges = newHVEdges.putAndCopy(pNewObject, edges);
+      newObjectsWithValue =
+          updateValueIndex(newObjectsWithValue, pNewObject, ImmutableSet.of(), edges);
+    }
 
-    for (Map.Entry<SMGValue, SMGPointsToEdge> oldEntry : pointsToEdges.entrySet()) {
-      if (pOldObject.equals(oldEntry.getValue().pointsTo())) {
-        SMGPointsToEdge newEdge =
-            new SMGPointsToEdge(pNewObject, oldEntry.getValue().getOffset(), oldEntry.getValue().targetSpecifier());
-        newPointsToEdges = pointsToEdges.putAndCopy(oldEntry.getKey(), newEdge);
-      }
+    // replace points to edges, the reverse index tells us which ones point to the old object
+    PersistentMap<SMGValue, SMGPointsToEdge> newPointsToEdges = pointsToEdges;
+    PersistentSet<SMGValue> pointers =
+        pointersToObject.getOrDefault(pOldObject, PersistentSet.of());
+    for (SMGValue pointer : pointers) {
+      SMGPointsToEdge oldEdge = pointsToEdges.get(pointer);
+      SMGPointsToEdge newEdge =
+          new SMGPointsToEdge(pNewObject, oldEdge.getOffset(), oldEdge.targetSpecifier());
+      newPointsToEdges = newPointsToEdges.putAndCopy(pointer, newEdge);
+    }
+    PersistentMap<SMGObject, PersistentSet<SMGValue>> newPointersToObject =
+        pointersToObject.removeAndCopy(pOldObject);
+    if (!pointers.isEmpty()) {
+      newPointersToObject = newPointersToObject.putAndCopy(pNewObject, pointers);
     }
 
     //replace object
     PersistentMap<SMGObject, Boolean> newObjects =
         smgObjects.removeAndCopy(pOldObject).putAndCopy(pNewObject, true);
 
-    return new SMG(newObjects, smgValues, newHVEdges, newPointsToEdges, sizeOfPointer);
+    return new SMG(
+        newObjects,
+        smgValues,
+        newHVEdges,
+        newPointsToEdges,
+        sizeOfPointer,
+        newPointersToObject,
+        newObjectsWithValue);
   }
 
 
@@ -295,7 +383,14 @@ public class SMG {
     PersistentMap<SMGObject, Boolean> newObjects = smgObjects.putAndCopy(pObject, false);
     PersistentMap<SMGObject, PersistentSet<SMGHasValueEdge>> newHVEdges =
         hasValueEdges.removeAndCopy(pObject);
-    return new SMG(newObjects, smgValues, newHVEdges, pointsToEdges, sizeOfPointer);
+    return new SMG(
+        newObjects,
+        smgValues,
+        newHVEdges,
+        pointsToEdges,
+        sizeOfPointer,
+        pointersToObject,
+        updateValueIndex(objectsWithValue, pObject, getEdges(pObject), ImmutableSet.of()));
   }
 
   public SMG copyAndRemoveObjects(Collection<SMGObject> pUnreachableObjects) {
@@ -691,7 +786,8 @@ public class SMG {
    * @return Collection of all SMGPointsToEdges with the specified target.
    */
   public FluentIterable<SMGPointsToEdge> getPTEdgesByTarget(SMGObject pointingTo) {
-    return getPTEdges().filter(ptEdge -> ptEdge.pointsTo().equals(pointingTo));
+    return FluentIterable.from(pointersToObject.getOrDefault(pointingTo, PersistentSet.of()))
+        .transform(pointsToEdges::get);
   }
 
 
@@ -760,12 +856,13 @@ public class SMG {
       SMGObject targetObject,
       BigInteger pOffset,
       SMGTargetSpecifier pTargetSpecifier) {
-    return pointsToEdges.entrySet().stream().filter(entry -> {
-      SMGPointsToEdge edge = entry.getValue();
-      return edge.getOffset().equals(pOffset)
-          && edge.targetSpecifier().equals(pTargetSpecifier)
-          && edge.pointsTo().equals(targetObject);
-    }).findAny().map(entry -> entry.getKey());
+    return pointersToObject.getOrDefault(targetObject, PersistentSet.of()).stream()
+        .filter(pointer -> {
+          SMGPointsToEdge edge = pointsToEdges.get(pointer);
+          return edge.getOffset().equals(pOffset)
+              && edge.targetSpecifier().equals(pTargetSpecifier);
+        })
+        .findAny();
   }
 
   /**
@@ -824,6 +921,79 @@ public class SMG {
     return new SMGObjectsAndValues(visitedObjects, visitedValues);
   }
 
+  /**
+   * Returns the objects that become unreachable if the given root objects (e.g. variables that
+   * went out of scope) are no longer considered as roots. In contrast to {@link
+   * #collectReachableObjectsAndValues}, this does not traverse the whole SMG, but only the part
+   * that is reachable from the removed roots: an object in this part stays reachable if some
+   * object outside of this part (or an object that stays reachable) points to it.
+   *
+   * <p>This assumes that all valid objects of the SMG are reachable from the old roots. Otherwise
+   * some unreachable objects might not be returned, but never a reachable one.
+   *
+   * @param pRemovedRoots the objects that are no longer roots.
+   * @param pMayBeUnreachable whether an object may become unreachable at all, e.g. to exclude the
+   *     remaining variables that are roots themselves.
+   * @return the valid objects that are no longer reachable.
+   */
+  public Set<SMGObject> collectUnreachableObjectsAfterRemoving(
+      Set<SMGObject> pRemovedRoots, Predicate<SMGObject> pMayBeUnreachable) {
+    // all objects that might have been reachable only via the removed roots
+    Set<SMGObject> candidates = new HashSet<>();
+    Deque<SMGObject> workDeque = new ArrayDeque<>();
+    for (SMGObject root : pRemovedRoots) {
+      addPointerTargets(root, workDeque);
+    }
+    while (!workDeque.isEmpty()) {
+      SMGObject object = workDeque.pop();
+      if (isValid(object)
+          && !pRemovedRoots.contains(object)
+          && pMayBeUnreachable.apply(object)
+          && candidates.add(object)) {
+        addPointerTargets(object, workDeque);
+      }
+    }
+
+    // candidates with a pointer from outside (and everything reachable from them) stay reachable
+    Set<SMGObject> reachable = new HashSet<>();
+    for (SMGObject candidate : candidates) {
+      if (!reachable.contains(candidate)
+          && hasPointerFromOutside(candidate, candidates, pRemovedRoots)) {
+        workDeque.add(candidate);
+        while (!workDeque.isEmpty()) {
+          SMGObject object = workDeque.pop();
+          if (candidates.contains(object) && reachable.add(object)) {
+            addPointerTargets(object, workDeque);
+          }
+        }
+      }
+    }
+    return Sets.difference(candidates, reachable).immutableCopy();
+  }
+
+  private void addPointerTargets(SMGObject pObject, Deque<SMGObject> pWorkDeque) {
+    for (SMGHasValueEdge edge : getEdges(pObject)) {
+      SMGPointsToEdge ptEdge = pointsToEdges.get(edge.hasValue());
+      if (ptEdge != null) {
+        pWorkDeque.add(ptEdge.pointsTo());
+      }
+    }
+  }
+
+  private boolean hasPointerFromOutside(
+      SMGObject pObject, Set<SMGObject> pCandidates, Set<SMGObject> pRemovedRoots) {
+    for (SMGValue pointer : pointersToObject.getOrDefault(pObject, PersistentSet.of())) {
+      for (SMGObject source : objectsWithValue.getOrDefault(pointer, PersistentSet.of())) {
+        if (isValid(source)
+            && !pCandidates.contains(source)
+            && !pRemovedRoots.contains(source)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
 
 
 }
@@ -0,0 +1,130 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2021 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.smg;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import java.math.BigInteger;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.util.smg.graph.SMGObject;
+import org.sosy_lab.cpachecker.util.smg.graph.SMGPointsToEdge;
+import org.sosy_lab.cpachecker.util.smg.graph.SMGValue;
+import org.sosy_lab.cpachecker.util.smg.test.SMGTest0;
+
+public class SMGReachabilityTest extends SMGTest0 {
+
+  private SMG smg;
+  private SMGObject variable1;
+  private SMGObject variable2;
+
+  @Before
+  public void setUp() {
+    smg = new SMG(mockType8bSize);
+    variable1 = createRegion(mockType8bSize);
+    variable2 = createRegion(mockType8bSize);
+    smg = smg.copyAndAddObject(variable1).copyAndAddObject(variable2);
+  }
+
+  /** Adds a heap object and lets the given field of the source object point to it. */
+  private SMGObject addPointerTo(SMGObject pSource, int pOffset) {
+    SMGObject target = createRegion(mockType16bSize);
+    SMGValue pointer = createValue();
+    smg =
+        smg.copyAndAddObject(target)
+            .copyAndAddValue(pointer)
+            .copyAndAddPTEdge(createPTRegionEdge(0, target), pointer)
+            .copyAndAddHVEdge(createHasValueEdge(mockType8bSize, pOffset, pointer), pSource);
+    return target;
+  }
+
+  private boolean isVariable(SMGObject pObject) {
+    return pObject.equals(variable1) || pObject.equals(variable2);
+  }
+
+  @Test
+  public void ptEdgesByTargetTest() {
+    SMGObject heap = addPointerTo(variable1, 0);
+    SMGValue pointer = createValue();
+    SMGPointsToEdge ptEdge = createPTRegionEdge(32, heap);
+    smg = smg.copyAndAddValue(pointer).copyAndAddPTEdge(ptEdge, pointer);
+    assertThat(smg.getPTEdgesByTarget(heap)).hasSize(2);
+    assertThat(
+            smg.findAddressForEdge(heap, BigInteger.valueOf(32), ptEdge.targetSpecifier())
+                .orElseThrow())
+        .isEqualTo(pointer);
+
+    // all pointers are redirected to the replacement
+    SMGObject replacement = createRegion(mockType16bSize);
+    smg = smg.copyAndReplaceObject(heap, replacement);
+    assertThat(smg.getPTEdgesByTarget(heap)).isEmpty();
+    assertThat(smg.getPTEdgesByTarget(replacement)).hasSize(2);
+    assertThat(smg.getPTEdges().filter(edge -> edge.pointsTo().equals(heap))).isEmpty();
+
+    // redirecting a pointer updates the index
+    smg = smg.copyAndSetPTEdges(createPTRegionEdge(0, variable2), pointer);
+    assertThat(smg.getPTEdgesByTarget(replacement)).hasSize(1);
+    assertThat(
+            smg.findAddressForEdge(variable2, BigInteger.ZERO, ptEdge.targetSpecifier())
+                .orElseThrow())
+        .isEqualTo(pointer);
+  }
+
+  @Test
+  public void unreachableAfterRemovingRootTest() {
+    SMGObject list1 = addPointerTo(variable1, 0);
+    SMGObject list2 = addPointerTo(list1, 0);
+    SMGObject other = addPointerTo(variable2, 0);
+
+    assertThat(
+            smg.collectUnreachableObjectsAfterRemoving(
+                ImmutableSet.of(variable1), o -> !isVariable(o)))
+        .containsExactly(list1, list2);
+    assertThat(
+            smg.collectUnreachableObjectsAfterRemoving(
+                ImmutableSet.of(variable2), o -> !isVariable(o)))
+        .containsExactly(other);
+  }
+
+  @Test
+  public void sharedObjectStaysReachableTest() {
+    SMGObject list1 = addPointerTo(variable1, 0);
+    SMGObject shared = addPointerTo(list1, 0);
+    // variable2 points to the same object as list1
+    SMGValue pointer = smg.getEdges(list1).iterator().next().hasValue();
+    smg = smg.copyAndAddHVEdge(createHasValueEdge(mockType8bSize, 0, pointer), variable2);
+
+    assertThat(
+            smg.collectUnreachableObjectsAfterRemoving(
+                ImmutableSet.of(variable1), o -> !isVariable(o)))
+        .containsExactly(list1);
+
+    // after removing the pointer from variable2, the object is garbage as well
+    smg = smg.copyAndRemoveHVEdges(smg.getEdges(variable2), variable2);
+    assertThat(
+            smg.collectUnreachableObjectsAfterRemoving(
+                ImmutableSet.of(variable1), o -> !isVariable(o)))
+        .containsExactly(list1, shared);
+  }
+
+  @Test
+  public void cycleIsUnreachableTest() {
+    SMGObject list1 = addPointerTo(variable1, 0);
+    SMGObject list2 = addPointerTo(list1, 0);
+    // list2 points back to list1
+    SMGValue pointer = smg.getEdges(variable1).iterator().next().hasValue();
+    smg = smg.copyAndAddHVEdge(createHasValueEdge(mockType8bSize, 64, pointer), list2);
+
+    assertThat(
+            smg.collectUnreachableObjectsAfterRemoving(
+                ImmutableSet.of(variable1), o -> !isVariable(o)))
+        .containsExactly(list1, list2);
+  }
+}
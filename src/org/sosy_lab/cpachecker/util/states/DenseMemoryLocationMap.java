@@ -0,0 +1,624 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.states;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Maps;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
+import org.sosy_lab.common.collect.PersistentMap;
+
+/**
+ * A {@link PersistentMap} from {@link MemoryLocation}s to values that stores the values in arrays
+ * instead of a search tree.
+ *
+ * <p>Each memory location is mapped to a dense index by a {@link MemoryLocationIndex} that is
+ * shared by all maps of an analysis. The values are stored in a trie of fixed-size chunks, which is
+ * indexed by the bits of these indices, and a bitset of each leaf chunk stores which values are
+ * present. Modifications copy only the chunks on the path to the modified value, all other chunks
+ * are shared with the original map. Lookups need no comparison of memory locations, and
+ * comparisons of two maps can skip chunks that both maps share.
+ *
+ * <p>The iteration order is the order of the indices of the memory locations. Null values are not
+ * supported. Instances are serialized as {@link PathCopyingPersistentTreeMap}.
+ */
+public final class DenseMemoryLocationMap<V> extends AbstractMap<MemoryLocation, V>
+    implements PersistentMap<MemoryLocation, V>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final int BITS = 5;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+
+  /** A chunk of values at the bottom of the trie. */
+  private static final class Leaf {
+
+    /** Bitset of present values. */
+    private final int presence;
+
+    // never modified after construction
+    private final Object[] values;
+
+    private Leaf(int pPresence, Object[] pValues) {
+      assert pPresence != 0 : "empty leafs are represented by null";
+      presence = pPresence;
+      values = pValues;
+    }
+  }
+
+  private final MemoryLocationIndex index;
+
+  /** Either null (empty), a {@link Leaf} (if shift is 0), or an array of child nodes. */
+  // nodes are never modified after construction
+  private final @Nullable Object root;
+
+  /** The number of index bits below the root level. */
+  private final int shift;
+
+  private final int size;
+  private final int hashCode;
+
+  private DenseMemoryLocationMap(
+      MemoryLocationIndex pIndex, @Nullable Object pRoot, int pShift, int pSize, int pHashCode) {
+    index = pIndex;
+    root = pRoot;
+    shift = pShift;
+    size = pSize;
+    hashCode = pHashCode;
+  }
+
+  /** Create an empty map that uses the given index for its keys. */
+  public static <V> DenseMemoryLocationMap<V> of(MemoryLocationIndex pIndex) {
+    return new DenseMemoryLocationMap<>(checkNotNull(pIndex), null, 0, 0, 0);
+  }
+
+  /**
+   * Returns whether both maps are instances of this class with the same {@link
+   * MemoryLocationIndex}, such that the efficient comparison methods of this class can be used.
+   */
+  public static boolean areCompatible(Map<?, ?> pMap1, Map<?, ?> pMap2) {
+    return pMap1 instanceof DenseMemoryLocationMap
+        && pMap2 instanceof DenseMemoryLocationMap
+        && ((DenseMemoryLocationMap<?>) pMap1).index == ((DenseMemoryLocationMap<?>) pMap2).index;
+  }
+
+  private static boolean fits(int pIndex, int pShift) {
+    return (pIndex >>> (pShift + BITS)) == 0;
+  }
+
+  private static Object[] children(Object pNode) {
+    return (Object[]) pNode;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <V> V value(Leaf pLeaf, int pOffset) {
+    return (V) pLeaf.values[pOffset];
+  }
+
+  private @Nullable V getByIndex(int pIndex) {
+    if (pIndex < 0 || !fits(pIndex, shift)) {
+      return null;
+    }
+    Object node = root;
+    for (int s = shift; s > 0 && node != null; s -= BITS) {
+      node = children(node)[(pIndex >>> s) & MASK];
+    }
+    return node == null ? null : value((Leaf) node, pIndex & MASK);
+  }
+
+  @Override
+  public @Nullable V get(Object pKey) {
+    return getByIndex(index.getIndexIfPresent(pKey));
+  }
+
+  @Override
+  public boolean containsKey(Object pKey) {
+    return get(pKey) != null;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public DenseMemoryLocationMap<V> empty() {
+    return of(index);
+  }
+
+  @Override
+  public DenseMemoryLocationMap<V> putAndCopy(MemoryLocation pKey, V pValue) {
+    checkNotNull(pValue);
+    int idx = index.getIndex(pKey);
+    V oldValue = getByIndex(idx);
+    if (oldValue == pValue) {
+      return this;
+    }
+
+    Object newRoot = root;
+    int newShift = shift;
+    while (!fits(idx, newShift)) {
+      if (newRoot != null) {
+        Object[] children = new Object[WIDTH];
+        children[0] = newRoot;
+        newRoot = children;
+      }
+      newShift += BITS;
+    }
+    newRoot = put(newRoot, newShift, idx, pValue);
+
+    int newHashCode = hashCode + (pKey.hashCode() ^ pValue.hashCode());
+    int newSize = size + 1;
+    if (oldValue != null) {
+      newHashCode -= (pKey.hashCode() ^ oldValue.hashCode());
+      newSize--;
+    }
+    return new DenseMemoryLocationMap<>(index, newRoot, newShift, newSize, newHashCode);
+  }
+
+  private static Object put(@Nullable Object pNode, int pShift, int pIndex, Object pValue) {
+    if (pShift == 0) {
+      Leaf leaf = (Leaf) pNode;
+      Object[] values = leaf == null ? new Object[WIDTH] : leaf.values.clone();
+      int offset = pIndex & MASK;
+      values[offset] = pValue;
+      int presence = (leaf == null ? 0 : leaf.presence) | (1 << offset);
+      return new Leaf(presence, values);
+    }
+    Object[] children = pNode == null ? new Object[WIDTH] : children(pNode).clone();
+    int i = (pIndex >>> pShift) & MASK;
+    children[i] = put(children[i], pShift - BITS, pIndex, pValue);
+    return children;
+  }
+
+  @Override
+  public DenseMemoryLocationMap<V> removeAndCopy(Object pKey) {
+    int idx = index.getIndexIfPresent(pKey);
+    V oldValue = getByIndex(idx);
+    if (oldValue == null) {
+      return this;
+    }
+    Object newRoot = remove(root, shift, idx);
+    return new DenseMemoryLocationMap<>(
+        index,
+        newRoot,
+        newRoot == null ? 0 : shift,
+        size - 1,
+        hashCode - (pKey.hashCode() ^ oldValue.hashCode()));
+  }
+
+  private static @Nullable Object remove(Object pNode, int pShift, int pIndex) {
+    if (pShift == 0) {
+      Leaf leaf = (Leaf) pNode;
+      int offset = pIndex & MASK;
+      int presence = leaf.presence & ~(1 << offset);
+      if (presence == 0) {
+        return null;
+      }
+      Object[] values = leaf.values.clone();
+      values[offset] = null;
+      return new Leaf(presence, values);
+    }
+    Object[] children = children(pNode).clone();
+    int i = (pIndex >>> pShift) & MASK;
+    children[i] = remove(children[i], pShift - BITS, pIndex);
+    return isEmpty(children) ? null : children;
+  }
+
+  private static boolean isEmpty(Object[] pChildren) {
+    for (Object child : pChildren) {
+      if (child != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns the given node lifted to a higher level by prepending inner nodes. */
+  private static @Nullable Object lift(@Nullable Object pNode, int pShift, int pTargetShift) {
+    Object node = pNode;
+    for (int s = pShift; s < pTargetShift && node != null; s += BITS) {
+      Object[] children = new Object[WIDTH];
+      children[0] = node;
+      node = children;
+    }
+    return node;
+  }
+
+  /**
+   * Returns whether this map contains all keys of the given map, with values that are equivalent
+   * according to the given predicate (which gets the value of this map as first argument). Chunks
+   * that are shared by both maps are not compared.
+   */
+  public boolean containsAllEntries(
+      DenseMemoryLocationMap<V> pOther, BiPredicate<? super V, ? super V> pEquivalence) {
+    checkArgument(index == pOther.index, "Maps with different indices are not comparable");
+    if (root == pOther.root) {
+      return true;
+    }
+    if (size < pOther.size) {
+      return false;
+    }
+    int maxShift = Math.max(shift, pOther.shift);
+    return containsAllEntries(
+        lift(root, shift, maxShift), lift(pOther.root, pOther.shift, maxShift), maxShift, pEquivalence);
+  }
+
+  private static <V> boolean containsAllEntries(
+      @Nullable Object pNode,
+      @Nullable Object pOtherNode,
+      int pShift,
+      BiPredicate<? super V, ? super V> pEquivalence) {
+    if (pNode == pOtherNode || pOtherNode == null) {
+      return true;
+    }
+    if (pNode == null) {
+      return false;
+    }
+    if (pShift == 0) {
+      Leaf leaf = (Leaf) pNode;
+      Leaf otherLeaf = (Leaf) pOtherNode;
+      if ((otherLeaf.presence & ~leaf.presence) != 0) {
+        return false;
+      }
+      for (int bits = otherLeaf.presence; bits != 0; bits &= bits - 1) {
+        int offset = Integer.numberOfTrailingZeros(bits);
+        V value = value(leaf, offset);
+        V otherValue = value(otherLeaf, offset);
+        if (value != otherValue && !pEquivalence.test(value, otherValue)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    Object[] children = children(pNode);
+    Object[] otherChildren = children(pOtherNode);
+    for (int i = 0; i < WIDTH; i++) {
+      if (!containsAllEntries(children[i], otherChildren[i], pShift - BITS, pEquivalence)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns a map with those entries of this map for which the given map has an equivalent value
+   * according to the given predicate (which gets the value of this map as first argument). Chunks
+   * that are shared by both maps are not compared and are shared with the result.
+   *
+   * @param pOther the map to compare with
+   * @param pEquivalence the equivalence of values
+   * @param pRemovedEntries called for each entry of this map that is not part of the result
+   */
+  public DenseMemoryLocationMap<V> retainEquivalentEntries(
+      DenseMemoryLocationMap<V> pOther,
+      BiPredicate<? super V, ? super V> pEquivalence,
+      BiConsumer<? super MemoryLocation, ? super V> pRemovedEntries) {
+    checkArgument(index == pOther.index, "Maps with different indices are not comparable");
+    if (root == pOther.root) {
+      return this;
+    }
+    int maxShift = Math.max(shift, pOther.shift);
+    Object liftedRoot = lift(root, shift, maxShift);
+    RemovalCollector<V> removed = new RemovalCollector<>(index, pRemovedEntries);
+    Object newRoot =
+        retainEquivalentEntries(
+            liftedRoot,
+            lift(pOther.root, pOther.shift, maxShift),
+            maxShift,
+            0,
+            pEquivalence,
+            removed);
+    if (newRoot == liftedRoot) {
+      return this;
+    }
+    return new DenseMemoryLocationMap<>(
+        index,
+        newRoot,
+        newRoot == null ? 0 : maxShift,
+        size - removed.count,
+        hashCode - removed.hashCode);
+  }
+
+  /** Collects the entries that are removed by {@link #retainEquivalentEntries}. */
+  private static final class RemovalCollector<V> {
+    private final MemoryLocationIndex index;
+    private final BiConsumer<? super MemoryLocation, ? super V> delegate;
+    private int count = 0;
+    private int hashCode = 0;
+
+    private RemovalCollector(
+        MemoryLocationIndex pIndex, BiConsumer<? super MemoryLocation, ? super V> pDelegate) {
+      index = pIndex;
+      delegate = pDelegate;
+    }
+
+    private void removed(int pIndex, V pValue) {
+      MemoryLocation key = index.getLocation(pIndex);
+      count++;
+      hashCode += (key.hashCode() ^ pValue.hashCode());
+      delegate.accept(key, pValue);
+    }
+  }
+
+  private static <V> @Nullable Object retainEquivalentEntries(
+      @Nullable Object pNode,
+      @Nullable Object pOtherNode,
+      int pShift,
+      int pBase,
+      BiPredicate<? super V, ? super V> pEquivalence,
+      RemovalCollector<V> pRemoved) {
+    if (pNode == pOtherNode || pNode == null) {
+      return pNode;
+    }
+    if (pOtherNode == null) {
+      removeAll(pNode, pShift, pBase, pRemoved);
+      return null;
+    }
+    if (pShift == 0) {
+      Leaf leaf = (Leaf) pNode;
+      Leaf otherLeaf = (Leaf) pOtherNode;
+      int retained = 0;
+      for (int bits = leaf.presence & otherLeaf.presence; bits != 0; bits &= bits - 1) {
+        int offset = Integer.numberOfTrailingZeros(bits);
+        V value = value(leaf, offset);
+        V otherValue = value(otherLeaf, offset);
+        if (value == otherValue || pEquivalence.test(value, otherValue)) {
+          retained |= 1 << offset;
+        }
+      }
+      if (retained == leaf.presence) {
+        return leaf;
+      }
+      Object[] values = retained == 0 ? null : leaf.values.clone();
+      for (int bits = leaf.presence & ~retained; bits != 0; bits &= bits - 1) {
+        int offset = Integer.numberOfTrailingZeros(bits);
+        pRemoved.removed(pBase + offset, value(leaf, offset));
+        if (values != null) {
+          values[offset] = null;
+        }
+      }
+      return values == null ? null : new Leaf(retained, values);
+    }
+    Object[] children = children(pNode);
+    Object[] otherChildren = children(pOtherNode);
+    Object[] newChildren = null;
+    for (int i = 0; i < WIDTH; i++) {
+      Object newChild =
+          retainEquivalentEntries(
+              children[i],
+              otherChildren[i],
+              pShift - BITS,
+              pBase + (i << pShift),
+              pEquivalence,
+              pRemoved);
+      if (newChild != children[i]) {
+        if (newChildren == null) {
+          newChildren = children.clone();
+        }
+        newChildren[i] = newChild;
+      }
+    }
+    if (newChildren == null) {
+      return children;
+    }
+    return isEmpty(newChildren) ? null : newChildren;
+  }
+
+  private static <V> void removeAll(
+      Object pNode, int pShift, int pBase, RemovalCollector<V> pRemoved) {
+    if (pShift == 0) {
+      Leaf leaf = (Leaf) pNode;
+      for (int bits = leaf.presence; bits != 0; bits &= bits - 1) {
+        int offset = Integer.numberOfTrailingZeros(bits);
+        pRemoved.removed(pBase + offset, value(leaf, offset));
+      }
+      return;
+    }
+    Object[] children = children(pNode);
+    for (int i = 0; i < WIDTH; i++) {
+      if (children[i] != null) {
+        removeAll(children[i], pShift - BITS, pBase + (i << pShift), pRemoved);
+      }
+    }
+  }
+
+  /** Returns the smallest index of a present value that is at least the given index, or -1. */
+  private int nextIndex(int pFrom) {
+    if (root == null || !fits(pFrom, shift)) {
+      return -1;
+    }
+    return nextIndex(root, shift, 0, pFrom);
+  }
+
+  private static int nextIndex(@Nullable Object pNode, int pShift, int pBase, int pFrom) {
+    if (pNode == null) {
+      return -1;
+    }
+    if (pShift == 0) {
+      int bits = ((Leaf) pNode).presence & (-1 << (pFrom - pBase));
+      return bits == 0 ? -1 : pBase + Integer.numberOfTrailingZeros(bits);
+    }
+    Object[] children = children(pNode);
+    for (int i = (pFrom - pBase) >>> pShift; i < WIDTH; i++) {
+      int childBase = pBase + (i << pShift);
+      int result =
+          nextIndex(children[i], pShift - BITS, childBase, Math.max(pFrom, childBase));
+      if (result >= 0) {
+        return result;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public Set<Entry<MemoryLocation, V>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Entry<MemoryLocation, V>> iterator() {
+        return new Iterator<>() {
+          private int next = nextIndex(0);
+
+          @Override
+          public boolean hasNext() {
+            return next >= 0;
+          }
+
+          @Override
+          public Entry<MemoryLocation, V> next() {
+            if (next < 0) {
+              throw new NoSuchElementException();
+            }
+            int current = next;
+            next = nextIndex(current + 1);
+            return Maps.immutableEntry(index.getLocation(current), getByIndex(current));
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object pOther) {
+    if (this == pOther) {
+      return true;
+    }
+    if (pOther instanceof DenseMemoryLocationMap
+        && ((DenseMemoryLocationMap<?>) pOther).index == index) {
+      @SuppressWarnings("unchecked")
+      DenseMemoryLocationMap<V> other = (DenseMemoryLocationMap<V>) pOther;
+      return size == other.size
+          && hashCode == other.hashCode
+          && containsAllEntries(other, Object::equals);
+    }
+    return super.equals(pOther);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  private Object writeReplace() {
+    return PathCopyingPersistentTreeMap.copyOf(this);
+  }
+
+  // Mutating operations are not supported.
+
+  @Deprecated
+  @Override
+  public V put(MemoryLocation pKey, V pValue) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public V putIfAbsent(MemoryLocation pKey, V pValue) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public void putAll(Map<? extends MemoryLocation, ? extends V> pMap) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public V remove(Object pKey) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public boolean remove(Object pKey, Object pValue) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public void clear() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public V compute(
+      MemoryLocation pKey,
+      BiFunction<? super MemoryLocation, ? super V, ? extends V> pRemappingFunction) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public V computeIfAbsent(
+      MemoryLocation pKey, Function<? super MemoryLocation, ? extends V> pMappingFunction) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public V computeIfPresent(
+      MemoryLocation pKey,
+      BiFunction<? super MemoryLocation, ? super V, ? extends V> pRemappingFunction) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public V replace(MemoryLocation pKey, V pValue) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public boolean replace(MemoryLocation pKey, V pOldValue, V pNewValue) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public void replaceAll(
+      BiFunction<? super MemoryLocation, ? super V, ? extends V> pFunction) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Deprecated
+  @Override
+  public V merge(
+      MemoryLocation pKey,
+      V pValue,
+      BiFunction<? super V, ? super V, ? extends V> pRemappingFunction) {
+    throw new UnsupportedOperationException();
+  }
+}
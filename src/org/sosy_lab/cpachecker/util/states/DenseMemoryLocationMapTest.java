@@ -0,0 +1,120 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.states;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
+import org.sosy_lab.common.collect.PersistentMap;
+
+public class DenseMemoryLocationMapTest {
+
+  private MemoryLocationIndex index;
+
+  @Before
+  public void setUp() {
+    index = new MemoryLocationIndex();
+  }
+
+  private static MemoryLocation location(int i) {
+    return MemoryLocation.forIdentifier("v" + i);
+  }
+
+  @Test
+  public void testEmpty() {
+    DenseMemoryLocationMap<Integer> map = DenseMemoryLocationMap.of(index);
+    assertThat(map).isEmpty();
+    assertThat(map.get(location(0))).isNull();
+    assertThat(map.removeAndCopy(location(0))).isSameInstanceAs(map);
+    assertThat(map.hashCode()).isEqualTo(new HashMap<>().hashCode());
+  }
+
+  @Test
+  public void testPersistence() {
+    DenseMemoryLocationMap<Integer> map1 = DenseMemoryLocationMap.of(index);
+    DenseMemoryLocationMap<Integer> map2 = map1.putAndCopy(location(1), 1);
+    DenseMemoryLocationMap<Integer> map3 = map2.putAndCopy(location(1), 2);
+
+    assertThat(map1).isEmpty();
+    assertThat(map2).containsExactly(location(1), 1);
+    assertThat(map3).containsExactly(location(1), 2);
+    assertThat(map3.removeAndCopy(location(1))).isEqualTo(map1);
+  }
+
+  @Test
+  public void testRandomOperations() {
+    Random random = new Random(0);
+    PersistentMap<MemoryLocation, Integer> expected = PathCopyingPersistentTreeMap.of();
+    DenseMemoryLocationMap<Integer> map = DenseMemoryLocationMap.of(index);
+
+    for (int i = 0; i < 5000; i++) {
+      MemoryLocation key = location(random.nextInt(2000));
+      if (random.nextInt(3) == 0) {
+        expected = expected.removeAndCopy(key);
+        map = map.removeAndCopy(key);
+      } else {
+        int value = random.nextInt(10);
+        expected = expected.putAndCopy(key, value);
+        map = map.putAndCopy(key, value);
+      }
+      assertThat(map.size()).isEqualTo(expected.size());
+      assertThat(map.get(key)).isEqualTo(expected.get(key));
+    }
+
+    assertThat(map).isEqualTo(expected);
+    assertThat(expected).isEqualTo(map);
+    assertThat(map.hashCode()).isEqualTo(expected.hashCode());
+    assertThat(map.entrySet()).containsExactlyElementsIn(expected.entrySet());
+  }
+
+  @Test
+  public void testContainsAllEntries() {
+    DenseMemoryLocationMap<Integer> small = DenseMemoryLocationMap.of(index);
+    for (int i = 0; i < 100; i++) {
+      small = small.putAndCopy(location(i), i);
+    }
+    // force a deeper trie for the bigger map
+    DenseMemoryLocationMap<Integer> big = small.putAndCopy(location(5000), 0);
+
+    assertThat(big.containsAllEntries(small, Integer::equals)).isTrue();
+    assertThat(small.containsAllEntries(big, Integer::equals)).isFalse();
+
+    DenseMemoryLocationMap<Integer> changed = big.putAndCopy(location(50), -1);
+    assertThat(changed.containsAllEntries(small, Integer::equals)).isFalse();
+    assertThat(changed.containsAllEntries(small, (a, b) -> true)).isTrue();
+  }
+
+  @Test
+  public void testRetainEquivalentEntries() {
+    DenseMemoryLocationMap<Integer> map1 = DenseMemoryLocationMap.of(index);
+    for (int i = 0; i < 100; i++) {
+      map1 = map1.putAndCopy(location(i), i);
+    }
+    DenseMemoryLocationMap<Integer> map2 =
+        map1.putAndCopy(location(10), -1).removeAndCopy(location(20)).putAndCopy(location(3000), 0);
+
+    assertThat(map1.retainEquivalentEntries(map1, Integer::equals, (k, v) -> {}))
+        .isSameInstanceAs(map1);
+
+    Map<MemoryLocation, Integer> removed = new HashMap<>();
+    DenseMemoryLocationMap<Integer> result =
+        map2.retainEquivalentEntries(map1, Integer::equals, removed::put);
+
+    PersistentMap<MemoryLocation, Integer> expected =
+        map1.removeAndCopy(location(10)).removeAndCopy(location(20));
+    assertThat(result).isEqualTo(expected);
+    assertThat(result.hashCode()).isEqualTo(expected.hashCode());
+    assertThat(removed).containsExactly(location(10), -1, location(3000), 0);
+  }
+}
@@ -0,0 +1,97 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.states;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns dense indices (starting at 0) to {@link MemoryLocation}s, such that memory locations can
+ * be used as array indices, for example by {@link DenseMemoryLocationMap}.
+ *
+ * <p>Memory locations that are known in advance can be registered on creation, all other memory
+ * locations get the next free index when they are seen for the first time. Indices are never
+ * reused. This class is thread-safe.
+ */
+public final class MemoryLocationIndex {
+
+  private final Map<MemoryLocation, Integer> indices = new ConcurrentHashMap<>();
+
+  // Written only while holding the lock, but read without it:
+  // each new location is stored before size is increased and before its index is published,
+  // and a grown array always contains all previous locations.
+  private volatile MemoryLocation[] locations = new MemoryLocation[64];
+  private volatile int size = 0;
+
+  /** Create an index without any registered memory locations. */
+  public MemoryLocationIndex() {}
+
+  /**
+   * Create an index with the given memory locations registered in the order of iteration.
+   *
+   * @param pLocations the memory locations that are known in advance, e.g., all program variables
+   */
+  public MemoryLocationIndex(Iterable<MemoryLocation> pLocations) {
+    for (MemoryLocation location : pLocations) {
+      getIndex(location);
+    }
+  }
+
+  /** Returns the index of the given memory location, assigning a new index if necessary. */
+  public int getIndex(MemoryLocation pLocation) {
+    Integer index = indices.get(pLocation);
+    if (index != null) {
+      return index;
+    }
+    return addLocation(checkNotNull(pLocation));
+  }
+
+  /** Returns the index of the given object if it is a known memory location, otherwise -1. */
+  public int getIndexIfPresent(Object pLocation) {
+    if (!(pLocation instanceof MemoryLocation)) {
+      return -1;
+    }
+    Integer index = indices.get(pLocation);
+    return index == null ? -1 : index;
+  }
+
+  private synchronized int addLocation(MemoryLocation pLocation) {
+    Integer index = indices.get(pLocation);
+    if (index != null) {
+      // concurrently added by another thread
+      return index;
+    }
+    int newIndex = size;
+    MemoryLocation[] newLocations = locations;
+    if (newIndex == newLocations.length) {
+      newLocations = Arrays.copyOf(newLocations, 2 * newIndex);
+    }
+    newLocations[newIndex] = pLocation;
+    locations = newLocations;
+    size = newIndex + 1;
+    indices.put(pLocation, newIndex);
+    return newIndex;
+  }
+
+  /** Returns the memory location with the given index. */
+  public MemoryLocation getLocation(int pIndex) {
+    if (pIndex < 0 || pIndex >= size) {
+      throw new IndexOutOfBoundsException(pIndex);
+    }
+    return locations[pIndex];
+  }
+
+  /** Returns the number of memory locations that have an index. */
+  public int size() {
+    return size;
+  }
+}